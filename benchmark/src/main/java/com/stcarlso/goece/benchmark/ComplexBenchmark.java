@@ -0,0 +1,107 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.benchmark;
+
+import com.stcarlso.goece.utility.Complex;
+import com.stcarlso.goece.utility.ComplexValue;
+import com.stcarlso.goece.utility.EngineeringValue;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for complex values and arithmetic, using a wye to delta conversion as the
+ * arithmetic workload.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ComplexBenchmark {
+	/**
+	 * The number of random impedances, cycled through by each benchmark.
+	 */
+	private static final int COUNT = 1024;
+
+	/**
+	 * The index of the next impedance.
+	 */
+	private int index;
+	/**
+	 * Random impedances from 1 ohm to 1 Mohm at any angle.
+	 */
+	private ComplexValue[] values;
+
+	/**
+	 * Gets the next impedance.
+	 *
+	 * @return a random impedance
+	 */
+	private ComplexValue next() {
+		index = (index + 1) & (COUNT - 1);
+		return values[index];
+	}
+	@Benchmark
+	public ComplexValue newPolarValue() {
+		final ComplexValue value = next();
+		return value.newValue(value.getValue(), value.getAngle() + 1.0);
+	}
+	@Benchmark
+	public ComplexValue newRectangularValue() {
+		final ComplexValue value = next();
+		return value.newRectangularValue(value.getReal(), value.getImaginary() + 1.0);
+	}
+	@Setup
+	public void setup() {
+		final Random random = new Random(1L);
+		values = new ComplexValue[COUNT];
+		for (int i = 0; i < COUNT; i++)
+			values[i] = new ComplexValue(Math.pow(10.0, 6.0 * random.nextDouble()), 180.0 *
+				random.nextDouble() - 90.0, "Ω");
+		index = 0;
+	}
+	@Benchmark
+	public double wyeToDeltaKernel() {
+		final Complex r1 = new Complex(next()), r2 = new Complex(next()),
+			r3 = new Complex(next());
+		final Complex rp = new Complex(r1).multiply(r2).add(new Complex(r2).multiply(r3)).
+			add(new Complex(r3).multiply(r1));
+		final Complex ra = new Complex(rp).divide(r1), rb = new Complex(rp).divide(r2);
+		rp.divide(r3);
+		return ra.getMagnitude() + ra.getAngle() + rb.getMagnitude() + rb.getAngle() +
+			rp.getMagnitude() + rp.getAngle();
+	}
+	@Benchmark
+	public double wyeToDeltaValue() {
+		final EngineeringValue r1 = next(), r2 = next(), r3 = next();
+		final EngineeringValue rp = r1.multiply(r2).add(r2.multiply(r3)).add(r3.multiply(r1));
+		final EngineeringValue ra = rp.divide(r1), rb = rp.divide(r2), rc = rp.divide(r3);
+		return ra.getValue() + ra.getAngle() + rb.getValue() + rb.getAngle() +
+			rc.getValue() + rc.getAngle();
+	}
+}
@@ -0,0 +1,81 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.benchmark;
+
+import com.stcarlso.goece.utility.EIATable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for looking up standard EIA component values.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EIABenchmark {
+	/**
+	 * The number of random values to look up, cycled through by each benchmark.
+	 */
+	private static final int COUNT = 1024;
+
+	/**
+	 * The EIA series to search.
+	 */
+	@Param({ "E6", "E24", "E96" })
+	public EIATable.EIASeries series;
+
+	/**
+	 * The index of the next value to look up.
+	 */
+	private int index;
+	/**
+	 * Random values spanning 1 ohm to 10 Mohm.
+	 */
+	private double[] values;
+
+	@Setup
+	public void setup() {
+		final Random random = new Random(1L);
+		values = new double[COUNT];
+		for (int i = 0; i < COUNT; i++)
+			values[i] = Math.pow(10.0, 7.0 * random.nextDouble());
+		index = 0;
+	}
+	@Benchmark
+	public double nearestEIAValue() {
+		index = (index + 1) & (COUNT - 1);
+		return EIATable.nearestEIAValue(values[index], series);
+	}
+	@Benchmark
+	public boolean isEIAValue() {
+		index = (index + 1) & (COUNT - 1);
+		return EIATable.isEIAValue(values[index], series);
+	}
+}
@@ -0,0 +1,100 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.benchmark;
+
+import com.stcarlso.goece.utility.ComplexValue;
+import com.stcarlso.goece.utility.EngineeringValue;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for formatting values in engineering notation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FormatBenchmark {
+	/**
+	 * The number of random values to format, cycled through by each benchmark.
+	 */
+	private static final int COUNT = 1024;
+
+	/**
+	 * The buffer reused by appendTo().
+	 */
+	private StringBuilder buffer;
+	/**
+	 * Random complex values.
+	 */
+	private ComplexValue[] complex;
+	/**
+	 * The index of the next value to format.
+	 */
+	private int index;
+	/**
+	 * Random values spanning the SI prefixes from pico to giga.
+	 */
+	private EngineeringValue[] values;
+
+	@Setup
+	public void setup() {
+		final Random random = new Random(1L);
+		buffer = new StringBuilder(32);
+		complex = new ComplexValue[COUNT];
+		values = new EngineeringValue[COUNT];
+		for (int i = 0; i < COUNT; i++) {
+			final double value = Math.pow(10.0, 21.0 * random.nextDouble() - 12.0);
+			complex[i] = new ComplexValue(value, 360.0 * random.nextDouble() - 180.0, "Ω");
+			values[i] = new EngineeringValue(value, "Ω");
+		}
+		index = 0;
+	}
+	@Benchmark
+	public StringBuilder appendTo() {
+		index = (index + 1) & (COUNT - 1);
+		buffer.setLength(0);
+		return values[index].appendTo(buffer);
+	}
+	@Benchmark
+	public String complexToString() {
+		index = (index + 1) & (COUNT - 1);
+		return complex[index].toString();
+	}
+	@Benchmark
+	public String significandToString() {
+		index = (index + 1) & (COUNT - 1);
+		return values[index].significandToString();
+	}
+	@Benchmark
+	public String valueToString() {
+		index = (index + 1) & (COUNT - 1);
+		return values[index].toString();
+	}
+}
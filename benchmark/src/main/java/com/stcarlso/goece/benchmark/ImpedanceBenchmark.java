@@ -0,0 +1,100 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.benchmark;
+
+import com.stcarlso.goece.utility.ComplexValue;
+import com.stcarlso.goece.utility.ImpedanceSweep;
+import com.stcarlso.goece.utility.LossSweep;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for a frequency sweep of a series RLC network.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ImpedanceBenchmark {
+	/**
+	 * The number of frequencies in the sweep.
+	 */
+	private static final int COUNT = 2000;
+	/**
+	 * Series RLC values.
+	 */
+	private static final double C = 1E-9;
+	private static final double L = 1E-6;
+	private static final double R = 10.0;
+
+	/**
+	 * The frequencies to calculate.
+	 */
+	private double[] frequencies;
+	/**
+	 * Output columns.
+	 */
+	private double[] esr;
+	private double[] mag;
+	private double[] phase;
+	private double[] q;
+	/**
+	 * The sweep with its frequency invariant terms calculated.
+	 */
+	private ImpedanceSweep sweep;
+
+	@Setup
+	public void setup() {
+		frequencies = LossSweep.logFrequencies(1E3, 1E9, COUNT);
+		esr = new double[COUNT];
+		mag = new double[COUNT];
+		phase = new double[COUNT];
+		q = new double[COUNT];
+		sweep = new ImpedanceSweep(false, R, L, C);
+	}
+	@Benchmark
+	public double[] sweep() {
+		sweep.evaluate(frequencies, 0, COUNT, mag, phase, q, esr, 0);
+		return mag;
+	}
+	@Benchmark
+	public double[] sweepValue() {
+		// The same calculation through the general purpose complex values
+		final ComplexValue r = new ComplexValue(R, 0.0);
+		for (int i = 0; i < COUNT; i++) {
+			final double w = 2.0 * Math.PI * frequencies[i];
+			final ComplexValue z = (ComplexValue)r.add(r.newRectangularValue(0.0, w * L)).add(
+				r.newRectangularValue(0.0, -1.0 / (w * C)));
+			mag[i] = z.getValue();
+			phase[i] = z.getAngle();
+			q[i] = Math.abs(z.getImaginary()) / z.getReal();
+			esr[i] = z.getReal();
+		}
+		return mag;
+	}
+}
@@ -0,0 +1,101 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.benchmark;
+
+import com.stcarlso.goece.utility.Circuit;
+import com.stcarlso.goece.utility.LossSweep;
+import com.stcarlso.goece.utility.NodalSolver;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for AC nodal analysis of an RLC ladder network.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NodalBenchmark {
+	/**
+	 * The number of frequencies, cycled through by each benchmark.
+	 */
+	private static final int COUNT = 64;
+
+	/**
+	 * The number of ladder sections.
+	 */
+	@Param({ "10", "100" })
+	public int sections;
+
+	/**
+	 * The ladder network.
+	 */
+	private Circuit circuit;
+	/**
+	 * The frequencies to solve.
+	 */
+	private double[] frequencies;
+	/**
+	 * The index of the next frequency.
+	 */
+	private int index;
+	/**
+	 * The solver reused between frequencies.
+	 */
+	private NodalSolver solver;
+
+	@Setup
+	public void setup() {
+		circuit = new Circuit();
+		circuit.addVoltageSource(1, Circuit.GROUND, 1.0, 0.0);
+		// Series R and L, shunt C and R to ground at each section
+		for (int i = 0; i < sections; i++) {
+			final int in = 2 * i + 1, mid = in + 1, out = in + 2;
+			circuit.addResistor(in, mid, 10.0);
+			circuit.addInductor(mid, out, 1E-6);
+			circuit.addCapacitor(out, Circuit.GROUND, 1E-9);
+			circuit.addResistor(out, Circuit.GROUND, 1E4);
+		}
+		frequencies = LossSweep.logFrequencies(1E3, 1E8, COUNT);
+		index = 0;
+		solver = new NodalSolver(circuit);
+	}
+	@Benchmark
+	public double solve() {
+		index = (index + 1) & (COUNT - 1);
+		solver.solve(frequencies[index]);
+		return solver.getNodeVoltage(2 * sections + 1).getValue();
+	}
+	@Benchmark
+	public double solveNewOrder() {
+		index = (index + 1) & (COUNT - 1);
+		final NodalSolver fresh = new NodalSolver(circuit);
+		fresh.solve(frequencies[index]);
+		return fresh.getNodeVoltage(2 * sections + 1).getValue();
+	}
+}
@@ -0,0 +1,110 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.benchmark;
+
+import com.stcarlso.goece.utility.ComplexValue;
+import com.stcarlso.goece.utility.EngineeringParser;
+import com.stcarlso.goece.utility.EngineeringValue;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for parsing values in engineering notation, compared to Double.parseDouble().
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ParseBenchmark {
+	/**
+	 * The number of random values to parse, cycled through by each benchmark.
+	 */
+	private static final int COUNT = 1024;
+
+	/**
+	 * Random complex values formatted by toString().
+	 */
+	private String[] complex;
+	/**
+	 * The index of the next value to parse.
+	 */
+	private int index;
+	/**
+	 * The parser reused by each benchmark.
+	 */
+	private EngineeringParser parser;
+	/**
+	 * Random values formatted by "%.4g".
+	 */
+	private String[] raw;
+	/**
+	 * Random values formatted by toString() with a tolerance.
+	 */
+	private String[] values;
+
+	@Setup
+	public void setup() {
+		final Random random = new Random(1L);
+		complex = new String[COUNT];
+		parser = new EngineeringParser();
+		raw = new String[COUNT];
+		values = new String[COUNT];
+		for (int i = 0; i < COUNT; i++) {
+			final double value = Math.pow(10.0, 21.0 * random.nextDouble() - 12.0);
+			complex[i] = new ComplexValue(value, 360.0 * random.nextDouble() - 180.0, 0.01, 3,
+				"Ω").toString();
+			raw[i] = String.format("%.4g", value);
+			values[i] = new EngineeringValue(value, 0.05, 3, "Ω").toString();
+		}
+		index = 0;
+	}
+	@Benchmark
+	public double parseComplex() {
+		index = (index + 1) & (COUNT - 1);
+		parser.parse(complex[index], "Ω");
+		return parser.getImaginary();
+	}
+	@Benchmark
+	public double parseDouble() {
+		index = (index + 1) & (COUNT - 1);
+		return Double.parseDouble(raw[index]);
+	}
+	@Benchmark
+	public double parseRaw() {
+		index = (index + 1) & (COUNT - 1);
+		parser.parse(raw[index], "Ω");
+		return parser.getReal();
+	}
+	@Benchmark
+	public double parseValue() {
+		index = (index + 1) & (COUNT - 1);
+		parser.parse(values[index], "Ω");
+		return parser.getReal();
+	}
+}
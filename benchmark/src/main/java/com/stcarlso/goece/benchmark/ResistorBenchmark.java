@@ -0,0 +1,107 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.benchmark;
+
+import com.stcarlso.goece.utility.DividerCandidate;
+import com.stcarlso.goece.utility.EIATable;
+import com.stcarlso.goece.utility.ParallelResCandidate;
+import com.stcarlso.goece.utility.ResCandidate;
+import com.stcarlso.goece.utility.ResistorSearch;
+import com.stcarlso.goece.utility.SeriesResCandidate;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the resistor pair and divider searches.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ResistorBenchmark {
+	/**
+	 * The number of random targets, cycled through by each benchmark.
+	 */
+	private static final int COUNT = 256;
+	/**
+	 * The divider input voltage.
+	 */
+	private static final double VOLTAGE = 5.0;
+
+	/**
+	 * The EIA series to search.
+	 */
+	@Param({ "E6", "E24", "E96" })
+	public EIATable.EIASeries series;
+
+	/**
+	 * The index of the next target.
+	 */
+	private int index;
+	/**
+	 * Random divider ratios between 0 and 1.
+	 */
+	private double[] ratios;
+	/**
+	 * Random resistances spanning 10 ohm to 1 Mohm.
+	 */
+	private double[] targets;
+
+	@Setup
+	public void setup() {
+		final Random random = new Random(1L);
+		ratios = new double[COUNT];
+		targets = new double[COUNT];
+		for (int i = 0; i < COUNT; i++) {
+			ratios[i] = 0.01 + 0.98 * random.nextDouble();
+			targets[i] = Math.pow(10.0, 1.0 + 5.0 * random.nextDouble());
+		}
+		index = 0;
+	}
+	@Benchmark
+	public DividerCandidate findDivider() {
+		index = (index + 1) & (COUNT - 1);
+		final DividerCandidate template = new DividerCandidate(0.0, 0.0, ratios[index],
+			Double.POSITIVE_INFINITY);
+		template.setVoltage(VOLTAGE);
+		return ResistorSearch.findDivider(template, series);
+	}
+	@Benchmark
+	public ResCandidate findParallel() {
+		index = (index + 1) & (COUNT - 1);
+		return ResistorSearch.findPair(new ParallelResCandidate(0.0, 0.0, targets[index]),
+			series);
+	}
+	@Benchmark
+	public ResCandidate findSeries() {
+		index = (index + 1) & (COUNT - 1);
+		return ResistorSearch.findPair(new SeriesResCandidate(0.0, 0.0, targets[index]),
+			series);
+	}
+}
@@ -0,0 +1,87 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.benchmark;
+
+import com.stcarlso.goece.utility.Complex;
+import com.stcarlso.goece.utility.StarMesh;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for reducing a square resistor grid to its four corners.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StarMeshBenchmark {
+	/**
+	 * The number of nodes along each side of the grid.
+	 */
+	@Param({ "5", "15" })
+	public int side;
+
+	/**
+	 * The corner nodes of the grid.
+	 */
+	private int[] corners;
+	/**
+	 * The grid network.
+	 */
+	private StarMesh grid;
+
+	@Setup
+	public void setup() {
+		grid = new StarMesh(side * side);
+		// 1 ohm between each pair of adjacent nodes
+		for (int i = 0; i < side; i++)
+			for (int j = 0; j < side; j++) {
+				final int node = i * side + j;
+				if (i + 1 < side)
+					grid.addImpedance(node, node + side, 1.0, 0.0);
+				if (j + 1 < side)
+					grid.addImpedance(node, node + 1, 1.0, 0.0);
+			}
+		corners = new int[] { 0, side - 1, side * (side - 1), side * side - 1 };
+	}
+	@Benchmark
+	public Complex[] equivalents() {
+		return grid.getEquivalents(corners);
+	}
+	@Benchmark
+	public Complex[] equivalentsEachPair() {
+		// Reduces the whole grid again for each pair
+		final int n = corners.length;
+		final Complex[] ret = new Complex[n * (n - 1) / 2];
+		int index = 0;
+		for (int i = 0; i < n - 1; i++)
+			for (int j = i + 1; j < n; j++)
+				ret[index++] = grid.getEquivalent(corners[i], corners[j]);
+		return ret;
+	}
+}
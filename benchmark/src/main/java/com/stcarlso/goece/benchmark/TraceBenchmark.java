@@ -0,0 +1,119 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.benchmark;
+
+import com.stcarlso.goece.utility.EquationSolver;
+import com.stcarlso.goece.utility.ImpedanceTable;
+import com.stcarlso.goece.utility.TraceEquation;
+import com.stcarlso.goece.utility.TraceScenario;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the PCB trace impedance equations, forward and reverse. The stackup is a
+ * typical 4 layer board: 0.2 mm dielectric, 1 oz copper, FR-4.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TraceBenchmark {
+	/**
+	 * The dielectric constant.
+	 */
+	private static final double ER = 4.3;
+	/**
+	 * The dielectric height in mm.
+	 */
+	private static final double H = 0.2;
+	/**
+	 * The number of points per evalMany() call.
+	 */
+	private static final int POINTS = 256;
+	/**
+	 * The copper thickness in mm.
+	 */
+	private static final double T = 0.035;
+	/**
+	 * The trace width in mm.
+	 */
+	private static final double W = 0.15;
+
+	/**
+	 * The trace configuration.
+	 */
+	@Param({ "MICROSTRIP", "STRIPLINE", "DIFF_MICROSTRIP", "DIFF_STRIPLINE" })
+	public TraceScenario scenario;
+
+	/**
+	 * The equation evaluated forward.
+	 */
+	private TraceEquation forward;
+	/**
+	 * Output of evalMany().
+	 */
+	private double[] out;
+	/**
+	 * The equation solved for 50 ohm single ended or 85 ohm differential, which all of the
+	 * scenarios can reach at this width.
+	 */
+	private TraceEquation target;
+	/**
+	 * Width or spacing values for evalMany(), from 0.05 to 1 mm.
+	 */
+	private double[] xs;
+
+	@Setup
+	public void setup() {
+		forward = scenario.create(H, W, T, ER, 0.0);
+		target = scenario.create(H, W, T, ER, scenario.isDifferential() ? 85.0 : 50.0);
+		out = new double[POINTS];
+		xs = new double[POINTS];
+		for (int i = 0; i < POINTS; i++)
+			xs[i] = 0.05 * Math.pow(20.0, i / (POINTS - 1.0));
+	}
+	@Benchmark
+	public double eval() {
+		return forward.eval(0.2);
+	}
+	@Benchmark
+	@OperationsPerInvocation(POINTS)
+	public double[] evalMany() {
+		forward.evalMany(xs, out, 0, POINTS);
+		return out;
+	}
+	@Benchmark
+	public double solve() {
+		return new EquationSolver(target).solveExpanding(0.2);
+	}
+	@Benchmark
+	public double solveTable() {
+		// The table is cached after the first call
+		return ImpedanceTable.get(scenario, H, W, T, ER).solve(target.getDesired(), 0.2);
+	}
+}
@@ -0,0 +1,82 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.benchmark;
+
+import com.stcarlso.goece.utility.EngineeringValue;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for creating engineering values, which selects the SI prefix.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ValueBenchmark {
+	/**
+	 * The number of random values, cycled through by each benchmark.
+	 */
+	private static final int COUNT = 1024;
+
+	/**
+	 * The index of the next value.
+	 */
+	private int index;
+	/**
+	 * Random raw values spanning the SI prefixes from femto to peta.
+	 */
+	private double[] raw;
+	/**
+	 * The same values as engineering values.
+	 */
+	private EngineeringValue[] values;
+
+	@Setup
+	public void setup() {
+		final Random random = new Random(1L);
+		raw = new double[COUNT];
+		values = new EngineeringValue[COUNT];
+		for (int i = 0; i < COUNT; i++) {
+			raw[i] = Math.pow(10.0, 30.0 * random.nextDouble() - 15.0);
+			values[i] = new EngineeringValue(raw[i], "Ω");
+		}
+		index = 0;
+	}
+	@Benchmark
+	public EngineeringValue construct() {
+		index = (index + 1) & (COUNT - 1);
+		return new EngineeringValue(raw[index], "Ω");
+	}
+	@Benchmark
+	public EngineeringValue multiply() {
+		index = (index + 1) & (COUNT - 1);
+		return values[index].multiply(values[(index + 1) & (COUNT - 1)]);
+	}
+}
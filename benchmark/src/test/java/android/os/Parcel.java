@@ -0,0 +1,100 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package android.os;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.LinkedList;
+
+/**
+ * Test double for the Android Parcel, which keeps the written values in a queue. Reads must
+ * match the writes in type and order, or a ClassCastException is thrown.
+ */
+public class Parcel {
+	/**
+	 * The values written and not yet read.
+	 */
+	private final LinkedList<Object> data;
+
+	public Parcel() {
+		data = new LinkedList<Object>();
+	}
+	/**
+	 * Retrieves the number of values that have not been read.
+	 *
+	 * @return the number of values left
+	 */
+	public int dataAvail() {
+		return data.size();
+	}
+	public double readDouble() {
+		return (Double)data.remove();
+	}
+	public int readInt() {
+		return (Integer)data.remove();
+	}
+	public Serializable readSerializable() {
+		try {
+			final ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(
+				(byte[])data.remove()));
+			try {
+				return (Serializable)in.readObject();
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		} catch (ClassNotFoundException e) {
+			throw new RuntimeException(e);
+		}
+	}
+	public String readString() {
+		return (String)data.remove();
+	}
+	public void writeDouble(final double value) {
+		data.add(value);
+	}
+	public void writeInt(final int value) {
+		data.add(value);
+	}
+	public void writeSerializable(final Serializable value) {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try {
+			final ObjectOutputStream out = new ObjectOutputStream(bytes);
+			out.writeObject(value);
+			out.close();
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		data.add(bytes.toByteArray());
+	}
+	public void writeString(final String value) {
+		data.add(value);
+	}
+}
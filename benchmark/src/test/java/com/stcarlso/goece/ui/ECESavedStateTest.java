@@ -0,0 +1,189 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.ui;
+
+import android.os.BadParcelableException;
+import android.os.Parcel;
+import com.stcarlso.goece.utility.ComplexValue;
+import com.stcarlso.goece.utility.EIATable;
+import com.stcarlso.goece.utility.EIAValue;
+import com.stcarlso.goece.utility.EngineeringValue;
+import org.junit.Test;
+
+import java.io.Serializable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Writes every kind of saved state to a parcel and reads it back. The Android classes are
+ * replaced by the test doubles in the android package of the test sources.
+ */
+public class ECESavedStateTest {
+	/**
+	 * The tag of an EIAValue in the saved state layout.
+	 */
+	private static final int TAG_EIA = 4;
+	/**
+	 * The layout version written by ECESavedState.
+	 */
+	private static final int VERSION = 1;
+
+	/**
+	 * Checks that a hand-written parcel is rejected.
+	 *
+	 * @param source the parcel to read
+	 */
+	private static void checkRejected(final Parcel source) {
+		try {
+			ECESavedState.CREATOR.createFromParcel(source);
+			fail("Bad saved state was read");
+		} catch (BadParcelableException expected) {
+			// Must not be an index or cast exception
+		}
+	}
+	/**
+	 * Checks that the EngineeringValue fields survive a round trip, including the ones that
+	 * equals() does not compare.
+	 *
+	 * @param value the value to write
+	 * @return the value read back
+	 */
+	private static EngineeringValue checkValue(final EngineeringValue value) {
+		final EngineeringValue ret = (EngineeringValue)roundTrip(value);
+		assertSame(value.getClass(), ret.getClass());
+		assertEquals(value, ret);
+		assertEquals(value.getSigfigs(), ret.getSigfigs());
+		return ret;
+	}
+	/**
+	 * Writes a value to a parcel and reads it back.
+	 *
+	 * @param value the value to write
+	 * @return the value read back
+	 */
+	private static Object roundTrip(final Serializable value) {
+		final Parcel parcel = new Parcel();
+		new ECESavedState<Serializable>(null, value).writeToParcel(parcel, 0);
+		final Object ret = ECESavedState.CREATOR.createFromParcel(parcel).getValue();
+		assertEquals("Unread data", 0, parcel.dataAvail());
+		return ret;
+	}
+	/**
+	 * Writes the EngineeringValue fields of an EIAValue with the given series ordinal.
+	 *
+	 * @param ordinal the series ordinal to write
+	 * @return the parcel to read
+	 */
+	private static Parcel writeEIA(final int ordinal) {
+		final Parcel parcel = new Parcel();
+		parcel.writeInt((VERSION << 8) | TAG_EIA);
+		parcel.writeDouble(4700.0);
+		parcel.writeDouble(0.05);
+		parcel.writeInt(3);
+		parcel.writeString("R");
+		parcel.writeInt(ordinal);
+		return parcel;
+	}
+	@Test
+	public void testComplex() {
+		final EngineeringValue value = checkValue(new ComplexValue(12.5, 225.0, 0.1, 4, "V"));
+		assertEquals(225.0, value.getAngle(), 0.0);
+		checkValue(new ComplexValue(0.0, 0.0));
+	}
+	@Test
+	public void testEIA() {
+		for (EIATable.EIASeries series : EIATable.EIASeries.values()) {
+			final EIAValue value = (EIAValue)checkValue(new EIAValue(4700.0, series, 0.0,
+				"R"));
+			assertSame(series, value.getSeries());
+		}
+	}
+	@Test
+	public void testEngineering() {
+		checkValue(new EngineeringValue(-4.7E-3, 0.05, 4, "F"));
+		checkValue(new EngineeringValue(0.0));
+		checkValue(new EngineeringValue(1.5E12, "A"));
+	}
+	@Test
+	public void testInteger() {
+		assertEquals(-123456, roundTrip(-123456));
+		assertEquals(Integer.MAX_VALUE, roundTrip(Integer.MAX_VALUE));
+	}
+	@Test
+	public void testNull() {
+		final Parcel parcel = new Parcel();
+		assertNull(roundTrip(null));
+		parcel.writeInt(VERSION << 8);
+		assertNull(ECESavedState.CREATOR.createFromParcel(parcel).getValue());
+	}
+	@Test
+	public void testSerializable() {
+		assertEquals("text", roundTrip("text"));
+		// Subclasses must keep their type and extra fields
+		final LabeledValue value = (LabeledValue)checkValue(new LabeledValue(2.2E3, "test"));
+		assertEquals("test", value.label);
+	}
+	@Test
+	public void testUnknownEIASeries() {
+		checkRejected(writeEIA(-1));
+		checkRejected(writeEIA(EIATable.EIASeries.values().length));
+	}
+	@Test
+	public void testUnknownTag() {
+		final Parcel parcel = new Parcel();
+		parcel.writeInt((VERSION << 8) | 0xFF);
+		checkRejected(parcel);
+	}
+	@Test
+	public void testUnknownVersion() {
+		final Parcel parcel = new Parcel();
+		// A version 0 or 2 null value
+		parcel.writeInt(0);
+		checkRejected(parcel);
+		parcel.writeInt((VERSION + 1) << 8);
+		checkRejected(parcel);
+	}
+
+	/**
+	 * An EngineeringValue subclass, which must be written with serialization to keep its
+	 * label.
+	 */
+	private static class LabeledValue extends EngineeringValue {
+		private static final long serialVersionUID = 0L;
+
+		/**
+		 * The extra field that the tagged layout cannot hold.
+		 */
+		private final String label;
+
+		public LabeledValue(final double value, final String label) {
+			super(value, "R");
+			this.label = label;
+		}
+	}
+}
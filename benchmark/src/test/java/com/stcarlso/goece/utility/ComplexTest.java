@@ -0,0 +1,90 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks that Complex division stays finite for very large and very small divisors, and keeps
+ * the angle when dividing by zero.
+ */
+public class ComplexTest {
+	/**
+	 * Checks a quotient against the textbook formula (a + bi) (c - di) / (c^2 + d^2).
+	 *
+	 * @param a the real part of the dividend
+	 * @param b the imaginary part of the dividend
+	 * @param c the real part of the divisor
+	 * @param d the imaginary part of the divisor
+	 */
+	private static void checkDivide(final double a, final double b, final double c,
+									final double d) {
+		final double den = c * c + d * d;
+		final Complex q = new Complex(a, b).divide(new Complex(c, d));
+		assertEquals("real", (a * c + b * d) / den, q.getReal(), 1E-12);
+		assertEquals("imag", (b * c - a * d) / den, q.getImaginary(), 1E-12);
+	}
+	@Test
+	public void testDivide() {
+		// Both branches of Smith's algorithm, |c| >= |d| and |c| < |d|
+		checkDivide(3.0, 4.0, 1.0, 2.0);
+		checkDivide(3.0, 4.0, 2.0, 1.0);
+		checkDivide(-1.0, 0.5, -0.25, 3.0);
+		checkDivide(2.0, 0.0, 0.0, -1.0);
+	}
+	@Test
+	public void testDivideByZero() {
+		final Complex q = new Complex(3.0, 4.0).divide(new Complex());
+		// Largest finite magnitude in the direction of 3 + 4i
+		assertEquals(Double.MAX_VALUE, q.getMagnitude(), Double.MAX_VALUE * 1E-12);
+		assertEquals(Math.toDegrees(Math.atan2(4.0, 3.0)), q.getAngle(), 1E-9);
+		assertEquals(0.6, q.getReal() / Double.MAX_VALUE, 1E-12);
+		final Complex neg = new Complex(-1.0, -1.0).divide(new Complex());
+		assertEquals(225.0, neg.getAngle(), 1E-9);
+		try {
+			new Complex().divide(new Complex());
+			fail("0 / 0");
+		} catch (ArithmeticException expected) {
+			// Zero divided by zero has no direction
+		}
+	}
+	@Test
+	public void testDivideExtreme() {
+		// c^2 + d^2 overflows to infinity in the textbook formula
+		final Complex big = new Complex(1E300, 1E300).divide(new Complex(1E300, 1E300));
+		assertEquals(1.0, big.getReal(), 1E-15);
+		assertEquals(0.0, big.getImaginary(), 1E-15);
+		final Complex mixed = new Complex(1E300, 0.0).divide(new Complex(1E300, -2E300));
+		assertEquals(0.2, mixed.getReal(), 1E-15);
+		assertEquals(0.4, mixed.getImaginary(), 1E-15);
+		// c^2 + d^2 underflows to zero in the textbook formula
+		final Complex small = new Complex(1E-300, 2E-300).divide(new Complex(0.0, 1E-300));
+		assertEquals(2.0, small.getReal(), 1E-15);
+		assertEquals(-1.0, small.getImaginary(), 1E-15);
+	}
+}
@@ -0,0 +1,135 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks the crosstalk calculator against the coupling coefficients of the even and odd mode
+ * values, the far end limit, and the minimum spacing search.
+ */
+public class CrosstalkTest {
+	/**
+	 * Rise time of the aggressor, 100 ps.
+	 */
+	private static final double RISE = 1E-10;
+
+	/**
+	 * Creates a microstrip pair, which has different even and odd mode speeds.
+	 *
+	 * @return the coupled microstrip equation
+	 */
+	private static DiffTraceEquation microstrip() {
+		return new DiffMicrostripEquation(0.2, 0.35, 0.035, 4.3, 0.0);
+	}
+	/**
+	 * Creates a stripline pair, which has equal even and odd mode speeds.
+	 *
+	 * @return the coupled stripline equation
+	 */
+	private static DiffTraceEquation stripline() {
+		return new DiffStriplineEquation(0.2, 0.15, 0.035, 4.3, 0.0);
+	}
+	@Test
+	public void testBackward() {
+		final double[] modes = new double[DiffTraceEquation.MODE_COUNT];
+		final DiffTraceEquation equ = stripline();
+		final Crosstalk xt = new Crosstalk(equ);
+		for (double s = 0.05; s < 1.0; s += 0.05) {
+			equ.evalModes(s, modes);
+			final double zEven = modes[DiffTraceEquation.MODE_Z_EVEN],
+				zOdd = modes[DiffTraceEquation.MODE_Z_ODD];
+			// Kb = (Lm/L + Cm/C) / 4 = (Ze - Zo) / (2 (Ze + Zo)) when both modes match speed
+			assertEquals("s=" + s, 0.5 * (zEven - zOdd) / (zEven + zOdd), xt.getBackward(s),
+				1E-12);
+			assertEquals("s=" + s, 0.0, xt.getFar(s, 100.0, RISE), 0.0);
+		}
+	}
+	@Test
+	public void testFar() {
+		final double[] modes = new double[DiffTraceEquation.MODE_COUNT];
+		final DiffTraceEquation equ = microstrip();
+		final Crosstalk xt = new Crosstalk(equ);
+		equ.evalModes(0.2, modes);
+		final double skew = (Math.sqrt(modes[DiffTraceEquation.MODE_ER_ODD]) -
+			Math.sqrt(modes[DiffTraceEquation.MODE_ER_EVEN])) * 1E-3 / Units.C_0;
+		// The odd mode is faster in microstrip
+		assertTrue(skew < 0.0);
+		assertEquals(0.5 * 10.0 * skew / RISE, xt.getFar(0.2, 10.0, RISE), 1E-15);
+		// Far end crosstalk is limited to half of the step once the modes separate
+		final double clamp = -0.5 * RISE / skew;
+		assertEquals(-0.5, xt.getFar(0.2, 2.0 * clamp, RISE), 0.0);
+		assertEquals(-0.5, xt.getFar(0.2, 1E6, RISE), 0.0);
+		assertTrue(xt.getFar(0.2, 0.99 * clamp, RISE) > -0.5);
+	}
+	@Test
+	public void testMinSpacing() {
+		final Crosstalk xt = new Crosstalk(microstrip());
+		for (double budget = 0.01; budget < 0.1; budget += 0.02) {
+			final double s = xt.minSpacing(budget, 25.0, RISE);
+			assertTrue("budget=" + budget, s > 0.0);
+			assertEquals("budget=" + budget, budget, xt.getWorst(s, 25.0, RISE), 1E-6);
+			assertTrue(xt.getWorst(0.9 * s, 25.0, RISE) > budget);
+			assertTrue(xt.getWorst(1.1 * s, 25.0, RISE) < budget);
+		}
+		try {
+			xt.minSpacing(0.0, 25.0, RISE);
+			fail("Zero budget");
+		} catch (IllegalArgumentException expected) {
+			// Budget must be positive
+		}
+	}
+	@Test
+	public void testNear() {
+		final Crosstalk xt = new Crosstalk(stripline());
+		final double kb = xt.getBackward(0.2);
+		// Stripline delay per mm, sqrt(er) / c
+		final double delay = Math.sqrt(4.3) * 1E-3 / Units.C_0, saturate = 0.5 * RISE / delay;
+		assertEquals(kb * 0.25, xt.getNear(0.2, 0.25 * saturate, RISE), 1E-15);
+		assertEquals(kb, xt.getNear(0.2, saturate * 1.0001, RISE), 0.0);
+		assertEquals(kb, xt.getNear(0.2, 1000.0, RISE), 0.0);
+		assertEquals(0.0, xt.getNear(0.2, 0.0, RISE), 0.0);
+	}
+	@Test
+	public void testSweep() {
+		final Crosstalk xt = new Crosstalk(microstrip()), check = new Crosstalk(microstrip());
+		final double[] values = { 0.05, 0.1, 0.2, 0.4, 0.8 };
+		final double[] near = new double[values.length], far = new double[values.length];
+		xt.sweepSpacing(values, 30.0, RISE, near, far);
+		for (int i = 0; i < values.length; i++) {
+			assertEquals(check.getNear(values[i], 30.0, RISE), near[i], 0.0);
+			assertEquals(check.getFar(values[i], 30.0, RISE), far[i], 0.0);
+		}
+		xt.sweepLength(0.2, values, RISE, near, far);
+		for (int i = 0; i < values.length; i++) {
+			assertEquals(check.getNear(0.2, values[i], RISE), near[i], 0.0);
+			assertEquals(check.getFar(0.2, values[i], RISE), far[i], 0.0);
+		}
+	}
+}
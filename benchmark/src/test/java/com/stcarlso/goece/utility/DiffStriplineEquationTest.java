@@ -0,0 +1,140 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the coupled stripline model against Cohn's exact solution for zero thickness strips,
+ * and checks that the impedance is continuous where the two thick strip formulas meet.
+ */
+public class DiffStriplineEquationTest {
+	/**
+	 * Trace width and spacing of the reference values as fractions of the plane spacing b.
+	 */
+	private static final double[][] GEOMETRY = {
+		{ 0.1, 0.05 }, { 0.1, 0.2 }, { 0.1, 0.5 }, { 0.1, 2.0 },
+		{ 0.2, 0.05 }, { 0.2, 0.2 }, { 0.2, 0.5 }, { 0.2, 2.0 }
+	};
+	/**
+	 * Even and odd mode impedances in air from Cohn's zero thickness solution,
+	 * eta / 4 * K(k') / K(k), for each geometry.
+	 */
+	private static final double[][] MODES = {
+		{ 282.342, 98.2804 }, { 243.857, 143.269 }, { 212.745, 175.561 },
+		{ 194.392, 194.061 }, { 213.297, 80.803 }, { 189.135, 114.237 },
+		{ 166.915, 138.813 }, { 153.155, 152.904 }
+	};
+	/**
+	 * Trace thickness used for the zero thickness comparison. The model uses a Wheeler single
+	 * stripline, which keeps both modes within 1% of the exact values for strips up to 0.2b
+	 * wide.
+	 */
+	private static final double THIN = 1E-6;
+
+	/**
+	 * Checks that a value is within a relative tolerance of the reference value.
+	 *
+	 * @param message the description of the value
+	 * @param expected the reference value
+	 * @param actual the calculated value
+	 * @param tolerance the largest allowed relative error
+	 */
+	private static void assertClose(final String message, final double expected,
+									final double actual, final double tolerance) {
+		assertEquals(message, expected, actual, Math.abs(expected) * tolerance);
+	}
+	/**
+	 * Checks that the differential impedance is continuous at S = 5T, and that the
+	 * impedance rises with spacing on both sides.
+	 *
+	 * @param h the distance to each plane
+	 * @param w the trace width
+	 * @param t the trace thickness
+	 */
+	private static void checkContinuous(final double h, final double w, final double t) {
+		final DiffStriplineEquation equ = new DiffStriplineEquation(h, w, t, 4.3, 0.0);
+		final double edge = 5.0 * t, below = equ.eval(edge * (1.0 - 1E-9)), at = equ.eval(edge);
+		final String name = "h=" + h + " w=" + w + " t=" + t;
+		assertClose(name, at, below, 1E-7);
+		assertTrue(name, below < at);
+		double last = 0.0;
+		for (int i = 1; i <= 200; i++) {
+			final double z = equ.eval(i * 0.05 * t);
+			assertTrue(name + " s=" + (i * 0.05 * t), z > last);
+			last = z;
+		}
+	}
+	@Test
+	public void testCohnZeroThickness() {
+		final double[] modes = new double[DiffTraceEquation.MODE_COUNT];
+		for (int i = 0; i < GEOMETRY.length; i++) {
+			final double w = GEOMETRY[i][0], s = GEOMETRY[i][1];
+			final String name = "w/b=" + w + " s/b=" + s;
+			final DiffStriplineEquation equ = new DiffStriplineEquation(0.5 * (1.0 - THIN), w,
+				THIN, 4.0, 0.0);
+			equ.evalModes(s, modes);
+			// Half of the impedance in air at er = 4
+			assertClose(name + " even", 0.5 * MODES[i][0],
+				modes[DiffTraceEquation.MODE_Z_EVEN], 0.01);
+			assertClose(name + " odd", 0.5 * MODES[i][1], modes[DiffTraceEquation.MODE_Z_ODD],
+				0.01);
+			assertClose(name + " diff", 2.0 * modes[DiffTraceEquation.MODE_Z_ODD],
+				equ.eval(s), 1E-15);
+		}
+	}
+	@Test
+	public void testContinuous() {
+		// The closely spaced formula once jumped from 38.7 to 110.9 ohms here
+		checkContinuous(0.2, 0.15, 0.035);
+		// Cohn's formulas differ the most for thin traces far from the planes
+		checkContinuous(0.8, 0.05, 0.018);
+		checkContinuous(0.1, 0.3, 0.07);
+		checkContinuous(0.1, 0.05, 0.07);
+	}
+	@Test
+	public void testDielectric() {
+		final double low = new DiffStriplineEquation(0.2, 0.15, 0.035, 2.0, 0.0).eval(0.1);
+		final double high = new DiffStriplineEquation(0.2, 0.15, 0.035, 8.0, 0.0).eval(0.1);
+		assertClose("Z ~ 1 / sqrt(er)", 0.5 * low, high, 1E-12);
+	}
+	@Test
+	public void testWideSpacing() {
+		final double[] modes = new double[DiffTraceEquation.MODE_COUNT];
+		final double single = new StriplineEquation(0.2, 0.035, 4.3, 0.0).eval(0.15);
+		final DiffStriplineEquation equ = new DiffStriplineEquation(0.2, 0.15, 0.035, 4.3,
+			0.0);
+		// Uncoupled traces have both modes equal to the single ended impedance
+		equ.evalModes(20.0, modes);
+		assertClose("even", single, modes[DiffTraceEquation.MODE_Z_EVEN], 1E-9);
+		assertClose("odd", single, modes[DiffTraceEquation.MODE_Z_ODD], 1E-9);
+		equ.evalModes(0.2, modes);
+		assertTrue(modes[DiffTraceEquation.MODE_Z_EVEN] > single);
+		assertTrue(modes[DiffTraceEquation.MODE_Z_ODD] < single);
+	}
+}
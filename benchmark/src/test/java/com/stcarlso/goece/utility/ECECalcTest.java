@@ -0,0 +1,120 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the arithmetic-geometric mean elliptic integrals against reference values of K(k),
+ * K'(k), and K(k) / K'(k), including moduli very close to 0 and 1.
+ */
+public class ECECalcTest {
+	/**
+	 * The moduli of the reference values.
+	 */
+	private static final double[] MODULUS = {
+		1E-8, 0.001, 0.1, 0.5, 0.7071067811865476, 0.9, 0.99, 0.999999, 0.9999999999
+	};
+	/**
+	 * K(k) for each modulus, to 18 significant figures.
+	 */
+	private static final double[] K = {
+		1.57079632679489656, 1.57079671949419919, 1.57474556151735601, 1.68575035481259605,
+		1.85407467730137188, 2.28054913842277029, 3.35660052336119197, 7.94747977354796742,
+		12.5526461950425947
+	};
+	/**
+	 * K'(k) = K(sqrt(1 - k^2)) for each modulus, to 18 significant figures.
+	 */
+	private static final double[] K_COMPLEMENT = {
+		19.8069751050722580, 8.29405146361544077, 3.69563736298987466, 2.15651564749964342,
+		1.85407467730137188, 1.65461666752252690, 1.57869974203901164, 1.57079711219355089,
+		1.57079632687343640
+	};
+	/**
+	 * K(k) / K'(k) for each modulus, to 18 significant figures.
+	 */
+	private static final double[] K_RATIO = {
+		0.0793052103343453163, 0.189388349757053098, 0.426109330230210248,
+		0.781700961348055778, 1.00000000000000000, 1.37829455195653150, 2.12618044709748633,
+		5.05952023457036493, 7.99126276289923965
+	};
+	/**
+	 * The largest allowed relative error.
+	 */
+	private static final double TOLERANCE = 1E-14;
+
+	/**
+	 * Checks that a value is within the relative tolerance of the reference value.
+	 *
+	 * @param message the description of the value
+	 * @param expected the reference value
+	 * @param actual the calculated value
+	 */
+	private static void assertClose(final String message, final double expected,
+									final double actual) {
+		assertEquals(message, expected, actual, Math.abs(expected) * TOLERANCE);
+	}
+	@Test
+	public void testElliptic() {
+		for (int i = 0; i < MODULUS.length; i++)
+			assertClose("K(" + MODULUS[i] + ")", K[i], ECECalc.elliptic(MODULUS[i]));
+	}
+	@Test
+	public void testEllipticComplement() {
+		for (int i = 0; i < MODULUS.length; i++)
+			assertClose("K'(" + MODULUS[i] + ")", K_COMPLEMENT[i], ECECalc.ellipticComplement(
+				MODULUS[i]));
+	}
+	@Test
+	public void testEllipticLimits() {
+		assertEquals(Math.PI * 0.5, ECECalc.elliptic(0.0), 0.0);
+		assertEquals(Double.POSITIVE_INFINITY, ECECalc.elliptic(1.0), 0.0);
+		assertEquals(Double.POSITIVE_INFINITY, ECECalc.elliptic(-1.0), 0.0);
+		assertEquals(Double.POSITIVE_INFINITY, ECECalc.ellipticComplement(0.0), 0.0);
+		assertTrue(Double.isNaN(ECECalc.elliptic(1.5)));
+	}
+	@Test
+	public void testEllipticNegative() {
+		// K depends only on k^2
+		for (int i = 0; i < MODULUS.length; i++)
+			assertEquals(ECECalc.elliptic(MODULUS[i]), ECECalc.elliptic(-MODULUS[i]), 0.0);
+	}
+	@Test
+	public void testEllipticRatio() {
+		for (int i = 0; i < MODULUS.length; i++)
+			assertClose("K/K'(" + MODULUS[i] + ")", K_RATIO[i], ECECalc.ellipticRatio(
+				MODULUS[i]));
+	}
+	@Test
+	public void testEllipticSeries() {
+		// The power series should agree with the AGM where it converges quickly
+		for (int i = 0; i < 4; i++)
+			assertClose("series K(" + MODULUS[i] + ")", K[i], ECECalc.elliptic(MODULUS[i], 40));
+	}
+}
@@ -0,0 +1,207 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the engineering notation parser on real, complex, and toleranced values, with and
+ * without expected units.
+ */
+public class EngineeringParserTest {
+	/**
+	 * The default locale before each test, restored afterwards.
+	 */
+	private Locale oldLocale;
+	/**
+	 * The parser under test.
+	 */
+	private EngineeringParser parser;
+
+	/**
+	 * Parses a real value and checks the result.
+	 *
+	 * @param text the text to parse
+	 * @param units the expected units, or null to accept any units
+	 * @param expected the expected value
+	 */
+	private void checkReal(final String text, final String units, final double expected) {
+		assertTrue(text, parser.parse(text, units));
+		assertFalse(text, parser.isComplex());
+		assertEquals(text, expected, parser.getReal(), Math.abs(expected) * 1E-15);
+	}
+	/**
+	 * Parses a complex value and checks the result.
+	 *
+	 * @param text the text to parse
+	 * @param mag the expected magnitude
+	 * @param angle the expected angle in degrees
+	 */
+	private void checkComplex(final String text, final double mag, final double angle) {
+		assertTrue(text, parser.parse(text, Units.RESISTANCE));
+		assertTrue(text, parser.isComplex());
+		assertEquals(text, mag, parser.getMagnitude(), mag * 1E-14);
+		assertEquals(text, angle, parser.getAngle(), 1E-12);
+		final double rad = Math.toRadians(angle);
+		assertEquals(text, mag * Math.cos(rad), parser.getReal(), mag * 1E-14);
+		assertEquals(text, mag * Math.sin(rad), parser.getImaginary(), mag * 1E-14);
+	}
+	/**
+	 * Checks that the units of the last value parsed are the given text.
+	 *
+	 * @param text the text which was parsed
+	 * @param units the expected units
+	 */
+	private void checkUnits(final String text, final String units) {
+		assertEquals(text, units, text.substring(parser.getUnitStart(), parser.getUnitEnd()));
+	}
+	@Before
+	public void setUp() {
+		oldLocale = Locale.getDefault();
+		Locale.setDefault(Locale.US);
+		parser = new EngineeringParser();
+	}
+	@After
+	public void tearDown() {
+		Locale.setDefault(oldLocale);
+	}
+	@Test
+	public void testAnyUnits() {
+		checkReal("25 \u00B0C", null, 25.0);
+		checkUnits("25 \u00B0C", "\u00B0C");
+		checkReal("3 mm2", null, 3E-3);
+		checkUnits("3 mm2", "m2");
+		checkReal("4.7k", null, 4700.0);
+		checkUnits("4.7k", "");
+		checkReal("10 ohm", null, 10.0);
+		checkUnits("10 ohm", "ohm");
+		// Thousands separators and other punctuation are not units
+		assertFalse(parser.parse("1,000", null));
+		assertFalse(parser.parse("1k,5", null));
+		assertFalse(parser.parse("3 /s", null));
+		assertFalse(parser.parse("7 2", null));
+	}
+	@Test
+	public void testColumn() {
+		final double[] out = new double[8];
+		assertEquals(4, parser.parseColumn("1\n2k;3m\t\r\n4 V", null, out));
+		assertEquals(1.0, out[0], 0.0);
+		assertEquals(2000.0, out[1], 0.0);
+		assertEquals(3E-3, out[2], 0.0);
+		assertEquals(4.0, out[3], 0.0);
+		// Stops at the first bad field, instead of reading 1 with units ",000"
+		assertEquals(1, parser.parseColumn("5\n1,000\n2,000", null, out));
+		assertEquals(5.0, out[0], 0.0);
+		assertEquals(2, parser.parseColumn("1 V;2 mV;3 A", Units.VOLTAGE, out));
+		assertEquals(2E-3, out[1], 0.0);
+	}
+	@Test
+	public void testCommaLocale() {
+		Locale.setDefault(Locale.GERMANY);
+		checkReal("1,5", null, 1.5);
+		checkReal("1.5", null, 1.5);
+		checkReal("2,2 uF", Units.CAPACITANCE, 2.2E-6);
+		Locale.setDefault(Locale.US);
+		assertFalse(parser.parse("1,5", null));
+	}
+	@Test
+	public void testPolar() {
+		checkComplex("50 @ 30", 50.0, 30.0);
+		checkComplex("50\u222030\u00B0", 50.0, 30.0);
+		checkComplex("1k @ -45deg", 1000.0, -45.0);
+		checkComplex("-2 @ 0", 2.0, 180.0);
+		assertTrue(parser.parse("50 \u03A9 @ 30 \u00B15%", Units.RESISTANCE));
+		assertEquals(0.05, parser.getTolerance(), 1E-15);
+		assertEquals(30.0, parser.getAngle(), 0.0);
+	}
+	@Test
+	public void testRectangular() {
+		checkComplex("3 + 4j", 5.0, Math.toDegrees(Math.atan2(4.0, 3.0)));
+		checkComplex("3-j4", 5.0, Math.toDegrees(Math.atan2(-4.0, 3.0)));
+		checkComplex("(3+4i) k\u03A9", 5000.0, Math.toDegrees(Math.atan2(4.0, 3.0)));
+		assertFalse(parser.parse("3 + 4", Units.RESISTANCE));
+		assertFalse(parser.parse("3 + 4j @ 10", Units.RESISTANCE));
+	}
+	@Test
+	public void testReal() {
+		checkReal("4.7k", "", 4700.0);
+		checkReal("4k7", "", 4700.0);
+		checkReal("2R2", Units.RESISTANCE, 2.2);
+		checkReal("2.2uF", Units.CAPACITANCE, 2.2E-6);
+		checkReal("2.2 \u00B5F", Units.CAPACITANCE, 2.2E-6);
+		checkReal("-3.3", "", -3.3);
+		checkReal("\u22123.3 m", "", -3.3E-3);
+		checkReal("1.5e3", "", 1500.0);
+		checkReal("0.1", "", 0.1);
+		checkReal("12345678901234567890", "", 12345678901234567890.0);
+		assertEquals(EngineeringParser.NO_PREFIX, parser.getPrefixCode());
+	}
+	@Test
+	public void testRejected() {
+		assertFalse(parser.parse("", null));
+		assertFalse(parser.parse("abc", null));
+		assertFalse(parser.parse("k", null));
+		assertFalse(parser.parse("10 A", Units.VOLTAGE));
+		assertFalse(parser.parse("10 \u00B1", null));
+		assertFalse(parser.parse("10 \u00B1 100%", null));
+		assertFalse(parser.parse("(3+4j", null));
+	}
+	@Test
+	public void testTolerance() {
+		checkReal("10 MOhm +/- 1%", Units.RESISTANCE, 1E7);
+		assertEquals(0.01, parser.getTolerance(), 1E-15);
+		checkReal("4.7k \u00B15 %", Units.RESISTANCE, 4700.0);
+		assertEquals(0.05, parser.getTolerance(), 1E-15);
+		checkReal("100 nF +-10%", Units.CAPACITANCE, 1E-7);
+		assertEquals(0.1, parser.getTolerance(), 1E-15);
+		checkReal("100 nF", Units.CAPACITANCE, 1E-7);
+		assertEquals(0.0, parser.getTolerance(), 0.0);
+	}
+	@Test
+	public void testToValue() {
+		final EngineeringValue real = new EngineeringValue(1.0, 0.02, 3, Units.RESISTANCE);
+		final ComplexValue complex = new ComplexValue(1.0, 0.0, 0.02, 3, Units.RESISTANCE);
+		assertTrue(parser.parse("4.7k", Units.RESISTANCE));
+		EngineeringValue value = parser.toValue(real);
+		assertEquals(EngineeringValue.class, value.getClass());
+		assertEquals(4700.0, value.getValue(), 0.0);
+		// Tolerance comes from the template when the text has none
+		assertEquals(0.02, value.getTolerance(), 0.0);
+		assertEquals(ComplexValue.class, parser.toValue(complex).getClass());
+		assertTrue(parser.parse("50 @ 30 \u00B110%", Units.RESISTANCE));
+		value = parser.toValue(complex);
+		assertEquals(50.0, value.getValue(), 1E-13);
+		assertEquals(30.0, value.getAngle(), 1E-13);
+		assertEquals(0.1, value.getTolerance(), 1E-15);
+	}
+}
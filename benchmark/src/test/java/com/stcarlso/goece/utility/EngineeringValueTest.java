@@ -0,0 +1,133 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks the SI prefix selected by the EngineeringValue constructor against a linear search
+ * of the prefix thresholds, at and around every boundary where the prefix changes.
+ */
+public class EngineeringValueTest {
+	/**
+	 * The number of doubles checked on each side of every boundary.
+	 */
+	private static final int ULPS = 200;
+
+	/**
+	 * Checks the prefix and significand of one value, and of its negation.
+	 *
+	 * @param value the value to check
+	 */
+	private static void check(final double value) {
+		checkOne(value);
+		checkOne(-value);
+	}
+	/**
+	 * Checks every double within ULPS units in the last place of a value.
+	 *
+	 * @param center the value at the middle of the range to check
+	 */
+	private static void checkAround(final double center) {
+		double below = center, above = center;
+		check(center);
+		for (int i = 0; i < ULPS; i++) {
+			below = Math.nextAfter(below, 0.0);
+			above = Math.nextUp(above);
+			check(below);
+			check(above);
+		}
+	}
+	/**
+	 * Checks the prefix and significand of one value.
+	 *
+	 * @param value the value to check
+	 */
+	private static void checkOne(final double value) {
+		final EngineeringValue ev = new EngineeringValue(value);
+		final double abs = Math.abs(value);
+		final int code;
+		final double significand;
+		if (abs >= EngineeringValue.ENGR_THRESHOLD[EngineeringValue.ENGR_THRESHOLD.length -
+				1]) {
+			code = 5;
+			significand = (value > 0.0) ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+		} else if (abs < EngineeringValue.ENGR_THRESHOLD[0]) {
+			code = 5;
+			significand = 0.0;
+		} else {
+			code = referencePrefix(abs);
+			significand = value / EngineeringValue.ENGR_THRESHOLD[code];
+		}
+		assertEquals("prefix of " + value, code, ev.prefix);
+		assertEquals("significand of " + value, significand, ev.getSignificand(), 0.0);
+	}
+	/**
+	 * Finds the prefix of a value with a linear search, the way the constructor used to.
+	 *
+	 * @param abs the absolute value, inside the range which is given a prefix
+	 * @return the prefix code
+	 */
+	private static int referencePrefix(final double abs) {
+		final double[] threshold = EngineeringValue.ENGR_THRESHOLD;
+		int code = 0;
+		// The largest prefix is used all the way up to the last threshold
+		while (code < threshold.length - 1 && abs >= threshold[code + 1] * 0.9995)
+			code++;
+		return code;
+	}
+	@Test
+	public void testPowersOfTwo() {
+		// The table lookup changes at every binary exponent
+		for (int e = Math.getExponent(1E-15) - 1; e <= Math.getExponent(1E15) + 1; e++)
+			checkAround(Math.scalb(1.0, e));
+	}
+	@Test
+	public void testRandom() {
+		final Random rng = new Random(43L);
+		for (int i = 0; i < 1000000; i++)
+			// Log uniform from 1e-17 to 1e17
+			check(Math.pow(10.0, 34.0 * rng.nextDouble() - 17.0));
+	}
+	@Test
+	public void testSpecial() {
+		check(0.0);
+		check(Double.MIN_VALUE);
+		check(Double.MAX_VALUE);
+		check(Double.POSITIVE_INFINITY);
+	}
+	@Test
+	public void testThresholds() {
+		// Both the thresholds themselves and the rounding limits just below them
+		for (final double threshold : EngineeringValue.ENGR_THRESHOLD) {
+			checkAround(threshold);
+			checkAround(threshold * 0.9995);
+		}
+	}
+}
@@ -0,0 +1,133 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Checks that EquationSolver.solveAll() finds every root, and never evaluates one equation
+ * instance on more than one thread at a time.
+ */
+public class EquationSolverTest {
+	/**
+	 * The number of roots of sin(x) in the test interval, enough to solve in parallel.
+	 */
+	private static final int ROOTS = 12;
+
+	/**
+	 * Checks that the roots of sin(x) in (0.5, (ROOTS + 0.5) pi) were all found.
+	 *
+	 * @param roots the roots found
+	 */
+	private static void checkRoots(final double[] roots) {
+		assertEquals(ROOTS, roots.length);
+		for (int i = 0; i < ROOTS; i++)
+			assertEquals(Math.PI * (i + 1), roots[i], 1E-9);
+	}
+	@Test
+	public void testCopiedInParallel() {
+		final SineEquation equ = new CopyableSine(new AtomicInteger(), new AtomicBoolean());
+		checkRoots(new EquationSolver(equ).solveAll(0.5, (ROOTS + 0.5) * Math.PI));
+		// The solver makes one copy for each bracket
+		assertEquals(ROOTS, equ.copies.get());
+		assertFalse(equ.shared.get());
+	}
+	@Test
+	public void testParameterEquation() {
+		final TraceEquation base = new MicrostripEquation(0.2, 0.035, 4.3, 50.0);
+		final ParameterEquation equ = new ParameterEquation(base, TraceParameter.HEIGHT, 0.3);
+		final ParameterEquation copy = equ.copy();
+		assertEquals(equ.eval(0.25), copy.eval(0.25), 0.0);
+		// Changing the copy must not change the original
+		copy.eval(0.4);
+		assertEquals(new ParameterEquation(base, TraceParameter.HEIGHT, 0.3).eval(0.25),
+			equ.eval(0.25), 0.0);
+	}
+	@Test
+	public void testSequential() {
+		final SineEquation equ = new SineEquation();
+		checkRoots(new EquationSolver(equ).solveAll(0.5, (ROOTS + 0.5) * Math.PI));
+		assertFalse(equ.shared.get());
+	}
+
+	/**
+	 * sin(x), which records whether any instance was ever evaluated by two threads at once.
+	 */
+	private static class SineEquation implements Equation {
+		/**
+		 * The number of copies made of the first instance, shared by all copies.
+		 */
+		protected final AtomicInteger copies;
+		/**
+		 * The number of threads evaluating this instance.
+		 */
+		private final AtomicInteger inside;
+		/**
+		 * Set if two threads evaluated one instance at the same time, shared by all copies.
+		 */
+		protected final AtomicBoolean shared;
+
+		public SineEquation() {
+			this(new AtomicInteger(), new AtomicBoolean());
+		}
+		protected SineEquation(final AtomicInteger copies, final AtomicBoolean shared) {
+			this.copies = copies;
+			inside = new AtomicInteger();
+			this.shared = shared;
+		}
+		@Override
+		public double eval(double x) {
+			if (inside.incrementAndGet() > 1)
+				shared.set(true);
+			try {
+				// Give other threads a chance to overlap
+				Thread.yield();
+				return Math.sin(x);
+			} finally {
+				inside.decrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * A copyable version of SineEquation.
+	 */
+	private static class CopyableSine extends SineEquation implements CopyableEquation {
+		public CopyableSine(final AtomicInteger copies, final AtomicBoolean shared) {
+			super(copies, shared);
+		}
+		@Override
+		public CopyableEquation copy() {
+			copies.incrementAndGet();
+			return new CopyableSine(copies, shared);
+		}
+	}
+}
@@ -0,0 +1,101 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that reverse lookups in ImpedanceTable agree with searching for the root directly.
+ */
+public class ImpedanceTableTest {
+	/**
+	 * The dielectric constant of the test stackup.
+	 */
+	private static final double ER = 4.3;
+	/**
+	 * The PCB thickness of the test stackup in mm.
+	 */
+	private static final double H = 0.2;
+	/**
+	 * The trace thickness of the test stackup in mm.
+	 */
+	private static final double T = 0.035;
+	/**
+	 * The trace width of the differential pairs in mm.
+	 */
+	private static final double W = 0.15;
+
+	@Test
+	public void testCached() {
+		final ImpedanceTable table = ImpedanceTable.get(TraceScenario.MICROSTRIP, H, W, T, ER);
+		// Width is ignored for single ended scenarios
+		assertSame(table, ImpedanceTable.get(TraceScenario.MICROSTRIP, H, 2.0 * W, T, ER));
+	}
+	@Test
+	public void testSolve() {
+		for (TraceScenario scenario : TraceScenario.values()) {
+			final ImpedanceTable table = ImpedanceTable.get(scenario, H, W, T, ER);
+			final double[] targets;
+			switch (scenario) {
+			case STRIPLINE:
+				targets = new double[] { 30.0, 40.0, 50.0, 60.0 };
+				break;
+			case DIFF_MICROSTRIP:
+				// 40 ohms needs a spacing below MIN_X, which falls back to the slow search
+				targets = new double[] { 40.0, 80.0, 90.0, 100.0, 110.0 };
+				break;
+			case DIFF_STRIPLINE:
+				targets = new double[] { 50.0, 65.0, 75.0, 90.0 };
+				break;
+			case MICROSTRIP:
+			default:
+				targets = new double[] { 35.0, 50.0, 65.0, 75.0 };
+				break;
+			}
+			for (double target : targets) {
+				final String name = scenario + " " + target;
+				final TraceEquation equ = scenario.create(H, W, T, ER, target);
+				// Both searches prefer the answer nearest H, as stripline is not monotonic
+				final double expected = new EquationSolver(equ).solveExpanding(H);
+				final double actual = table.solve(target, H);
+				assertTrue(name, expected > 0.0);
+				assertEquals(name, expected, actual, expected * 1E-6);
+				assertEquals(name + " residual", 0.0, equ.eval(actual), target * 1E-6);
+			}
+		}
+	}
+	@Test
+	public void testUnsolvable() {
+		final ImpedanceTable table = ImpedanceTable.get(TraceScenario.STRIPLINE, H, W, T, ER);
+		assertTrue(Double.isNaN(table.solve(0.0, 1.0)));
+		assertTrue(Double.isNaN(table.solve(Double.POSITIVE_INFINITY, 1.0)));
+		// Above the largest impedance of this stripline
+		assertTrue(Double.isNaN(table.solve(75.0, H)));
+	}
+}
@@ -0,0 +1,176 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks Interval bounds against enumerating every corner of the inputs, and the RSS deviation
+ * against numerical derivatives.
+ */
+public class IntervalTest {
+	/**
+	 * Nominal values of the inputs.
+	 */
+	private static final double[] NOMINAL = { 1000.0, 2200.0, 4.7, 0.5 };
+	/**
+	 * Relative tolerances of the inputs.
+	 */
+	private static final double[] TOLERANCE = { 0.05, 0.01, 0.1, 0.2 };
+
+	/**
+	 * A formula of the inputs, with each input used only once so the bounds are tight.
+	 */
+	private interface Formula {
+		/**
+		 * Evaluates the formula on plain numbers.
+		 *
+		 * @param x the inputs
+		 * @return the result
+		 */
+		double eval(double[] x);
+		/**
+		 * Evaluates the formula on intervals.
+		 *
+		 * @param x the inputs, which may be changed
+		 * @return the result
+		 */
+		Interval eval(Interval[] x);
+	}
+
+	/**
+	 * Checks the bounds of a formula against all 2^n corners of the inputs, and the RSS
+	 * deviation against central differences.
+	 *
+	 * @param name the name of the formula to report on failure
+	 * @param formula the formula to check
+	 */
+	private static void check(final String name, final Formula formula) {
+		final int n = NOMINAL.length;
+		final Interval[] inputs = new Interval[n];
+		final double[] x = new double[n];
+		for (int i = 0; i < n; i++)
+			inputs[i] = new Interval(NOMINAL[i], TOLERANCE[i]);
+		final Interval result = formula.eval(inputs);
+		double lower = Double.POSITIVE_INFINITY, upper = Double.NEGATIVE_INFINITY;
+		for (int corner = 0; corner < (1 << n); corner++) {
+			for (int i = 0; i < n; i++) {
+				final double sign = ((corner >> i) & 1) == 0 ? -1.0 : 1.0;
+				x[i] = NOMINAL[i] * (1.0 + sign * TOLERANCE[i]);
+			}
+			final double value = formula.eval(x);
+			lower = Math.min(lower, value);
+			upper = Math.max(upper, value);
+		}
+		final double nominal = formula.eval(NOMINAL.clone()), scale = Math.abs(nominal) * 1E-12;
+		assertEquals(name + " nominal", nominal, result.getNominal(), scale);
+		assertEquals(name + " lower", lower, result.getLower(), scale);
+		assertEquals(name + " upper", upper, result.getUpper(), scale);
+		double sumSq = 0.0;
+		for (int i = 0; i < n; i++) {
+			final double h = NOMINAL[i] * 1E-6;
+			final double[] xp = NOMINAL.clone(), xm = NOMINAL.clone();
+			xp[i] += h;
+			xm[i] -= h;
+			final double d = (formula.eval(xp) - formula.eval(xm)) / (2.0 * h) * NOMINAL[i] *
+				TOLERANCE[i];
+			sumSq += d * d;
+		}
+		assertEquals(name + " deviation", Math.sqrt(sumSq), result.getDeviation(),
+			Math.sqrt(sumSq) * 1E-6);
+	}
+	@Test
+	public void testBounds() {
+		check("(a + b) c / d", new Formula() {
+			@Override
+			public double eval(double[] x) {
+				return (x[0] + x[1]) * x[2] / x[3];
+			}
+			@Override
+			public Interval eval(Interval[] x) {
+				return x[0].add(x[1]).multiply(x[2]).divide(x[3]);
+			}
+		});
+		check("a - b d + c", new Formula() {
+			@Override
+			public double eval(double[] x) {
+				return x[0] - x[1] * x[3] + x[2];
+			}
+			@Override
+			public Interval eval(Interval[] x) {
+				return x[0].subtract(x[1].multiply(x[3])).add(x[2]);
+			}
+		});
+		check("1 / (1 + a / b)", new Formula() {
+			@Override
+			public double eval(double[] x) {
+				return 1.0 / (1.0 + x[0] / x[1]);
+			}
+			@Override
+			public Interval eval(Interval[] x) {
+				return x[0].divide(x[1]).add(1.0).invert();
+			}
+		});
+		check("sqrt(a c) d^-2", new Formula() {
+			@Override
+			public double eval(double[] x) {
+				return Math.sqrt(x[0] * x[2]) * Math.pow(x[3], -2.0) - 3.0 * x[1];
+			}
+			@Override
+			public Interval eval(Interval[] x) {
+				return x[0].multiply(x[2]).pow(0.5).multiply(x[3].pow(-2.0)).subtract(
+					x[1].multiply(3.0));
+			}
+		});
+	}
+	@Test
+	public void testNearZeroDifference() {
+		// 10 +/- 10% minus 9.9 +/- 10% is 0.1 with bounds -1.89 and 2.09
+		final Interval diff = new Interval(10.0, 0.1).subtract(new Interval(9.9, 0.1));
+		assertEquals(0.1, diff.getNominal(), 1E-12);
+		assertEquals(-1.89, diff.getLower(), 1E-12);
+		assertEquals(2.09, diff.getUpper(), 1E-12);
+		// Engineering values cannot carry that spread, so their tolerance is limited
+		final EngineeringValue value = new EngineeringValue(10.0, 0.1, 3, "V").subtract(
+			new EngineeringValue(9.9, 0.1, 3, "V"));
+		assertEquals(0.1, value.getValue(), 1E-12);
+		assertEquals(Interval.MAX_TOLERANCE, value.getTolerance(), 0.0);
+		assertEquals(Interval.MAX_TOLERANCE, diff.toValue(value, false).getTolerance(), 0.0);
+	}
+	@Test
+	public void testStaticTolerances() {
+		final double t1 = 0.05, t2 = 0.1;
+		// Worst case corners of the product, quotient, and power
+		assertEquals(1.05 * 1.1 - 1.0, Interval.productTolerance(t1, t2), 1E-15);
+		assertEquals(1.05 / 0.9 - 1.0, Interval.quotientTolerance(t1, t2), 1E-15);
+		assertEquals(Math.pow(0.95, -3.0) - 1.0, Interval.powerTolerance(t1, -3.0), 1E-15);
+		assertEquals(1.0 - Math.sqrt(0.95), Interval.powerTolerance(t1, 0.5), 1E-15);
+		// 100 +/- 5 and 50 +/- 5 sum to 150 +/- 10
+		assertEquals(10.0 / 150.0, Interval.sumTolerance(100.0, t1, 50.0, t2, 150.0), 1E-15);
+		assertEquals(0.0, Interval.sumTolerance(100.0, 0.0, -100.0, 0.0, 0.0), 0.0);
+	}
+}
@@ -0,0 +1,81 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks that NodalSolver keeps a usable pivot order after a frequency where the circuit is
+ * singular.
+ */
+public class NodalSolverTest {
+	/**
+	 * Builds a 1 V source driving R from node 1 to 2, C from node 2 to 3, and C from node 3 to
+	 * ground. Node 3 floats at DC, so the circuit is singular there.
+	 *
+	 * @return the test circuit
+	 */
+	private static Circuit buildCircuit() {
+		final Circuit circuit = new Circuit();
+		circuit.addVoltageSource(1, Circuit.GROUND, 1.0, 0.0);
+		circuit.addResistor(1, 2, 1000.0);
+		circuit.addCapacitor(2, 3, 1E-6);
+		circuit.addCapacitor(3, Circuit.GROUND, 1E-6);
+		return circuit;
+	}
+	@Test
+	public void testRcDivider() {
+		final NodalSolver solver = new NodalSolver(buildCircuit());
+		final double f = 1000.0, xc = 1.0 / (2.0 * Math.PI * f * 5E-7);
+		solver.solve(f);
+		// Series capacitors are 0.5 uF total, V2 = Xc / sqrt(R^2 + Xc^2)
+		assertEquals(xc / Math.hypot(1000.0, xc), solver.getNodeVoltage(2).getValue(), 1E-12);
+		assertEquals(1, solver.getOrderCount());
+	}
+	@Test
+	public void testSingularKeepsOrder() {
+		final NodalSolver solver = new NodalSolver(buildCircuit()),
+			fresh = new NodalSolver(buildCircuit());
+		fresh.solve(1000.0);
+		solver.solve(1000.0);
+		try {
+			solver.solve(0.0);
+			fail("DC solution of a floating node");
+		} catch (ArithmeticException expected) {
+			// The failed order must not replace the working one
+		}
+		solver.solve(1000.0);
+		for (int node = 1; node <= 3; node++) {
+			final ComplexValue expected = fresh.getNodeVoltage(node), actual =
+				solver.getNodeVoltage(node);
+			assertEquals("V" + node, expected.getValue(), actual.getValue(), 1E-12);
+			assertEquals("V" + node + " angle", expected.getAngle(), actual.getAngle(), 1E-9);
+		}
+		assertEquals(1, solver.getOrderCount());
+	}
+}
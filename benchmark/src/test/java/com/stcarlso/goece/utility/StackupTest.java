@@ -0,0 +1,90 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks which impedance model Stackup chooses for each signal layer.
+ */
+public class StackupTest {
+	/**
+	 * The copper thickness in mm.
+	 */
+	private static final double T = 0.035;
+
+	/**
+	 * Builds a six layer board: top signal, plane, inner signal, inner signal, plane, and
+	 * bottom signal, with 0.2 mm of FR-4 between each copper layer.
+	 *
+	 * @return the stackup
+	 */
+	private static Stackup buildSixLayer() {
+		final Stackup stackup = new Stackup();
+		final Layer.Kind[] kinds = {
+			Layer.Kind.SIGNAL, Layer.Kind.PLANE, Layer.Kind.SIGNAL, Layer.Kind.SIGNAL,
+			Layer.Kind.PLANE, Layer.Kind.SIGNAL
+		};
+		for (int i = 0; i < kinds.length; i++) {
+			if (i > 0)
+				stackup.add(new Layer("D" + i, Layer.Kind.DIELECTRIC, 0.2, 4.3));
+			stackup.add(new Layer("L" + (i + 1), kinds[i], T));
+		}
+		return stackup;
+	}
+	@Test
+	public void testEmbedded() {
+		final Stackup stackup = new Stackup();
+		stackup.add(new Layer("Cover", Layer.Kind.DIELECTRIC, 0.1, 4.3));
+		stackup.add(new Layer("L1", Layer.Kind.SIGNAL, T));
+		stackup.add(new Layer("D1", Layer.Kind.DIELECTRIC, 0.2, 4.3));
+		stackup.add(new Layer("L2", Layer.Kind.PLANE, T));
+		// Dielectric above the trace but no plane, so it is not surface microstrip
+		assertNull(stackup.createEquation(1, false, 0.0));
+		assertNull(stackup.createEquation(1, true, 0.15));
+		final double[][] widths = stackup.solveWidths(new double[] { 50.0 }, false, 0.0);
+		assertNull(widths[1]);
+	}
+	@Test
+	public void testModels() {
+		final Stackup stackup = buildSixLayer();
+		// Outer layers are microstrip over the nearest plane
+		final TraceEquation top = stackup.createEquation(0, false, 0.0);
+		assertTrue(top instanceof MicrostripEquation);
+		assertEquals(0.2, top.get(TraceParameter.HEIGHT), 1E-12);
+		assertTrue(stackup.createEquation(10, true, 0.15) instanceof DiffMicrostripEquation);
+		// Inner layers are offset stripline, 0.2 mm from one plane and 0.435 mm from the other
+		final TraceEquation inner = stackup.createEquation(4, false, 0.0);
+		assertTrue(inner instanceof AsymStriplineEquation);
+		assertEquals(0.2, inner.get(TraceParameter.HEIGHT), 1E-12);
+		assertEquals(0.435, ((AsymStriplineEquation)inner).getFarHeight(), 1E-12);
+		assertNull(stackup.createEquation(1, false, 0.0));
+		assertNull(stackup.createEquation(2, false, 0.0));
+	}
+}
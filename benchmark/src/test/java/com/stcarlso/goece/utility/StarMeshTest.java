@@ -0,0 +1,127 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks StarMesh reductions against the wye-delta transform and against a nodal analysis of
+ * the same network.
+ */
+public class StarMeshTest {
+	/**
+	 * The number of nodes on each side of the resistor grid.
+	 */
+	private static final int GRID = 41;
+	/**
+	 * The resistance of the horizontal grid resistors in ohms.
+	 */
+	private static final double R_ACROSS = 1.0;
+	/**
+	 * The resistance of the vertical grid resistors in ohms.
+	 */
+	private static final double R_DOWN = 2.0;
+
+	/**
+	 * Finds the equivalent resistance between two grid nodes with NodalSolver, by driving
+	 * 1 A between them and measuring the voltage. Grid node 0 is the circuit ground.
+	 *
+	 * @param a the first grid node
+	 * @param b the second grid node
+	 * @return the equivalent resistance
+	 */
+	private static double nodalResistance(final int a, final int b) {
+		final Circuit circuit = new Circuit();
+		for (int i = 0; i < GRID; i++)
+			for (int j = 0; j < GRID; j++) {
+				final int node = i * GRID + j;
+				if (j + 1 < GRID)
+					circuit.addResistor(node, node + 1, R_ACROSS);
+				if (i + 1 < GRID)
+					circuit.addResistor(node, node + GRID, R_DOWN);
+			}
+		circuit.addCurrentSource(a, b, 1.0, 0.0);
+		final NodalSolver solver = new NodalSolver(circuit);
+		solver.solve(0.0);
+		return new Complex(solver.getNodeVoltage(b)).subtract(new Complex(
+			solver.getNodeVoltage(a))).getMagnitude();
+	}
+	@Test
+	public void testGrid() {
+		final StarMesh grid = new StarMesh(GRID * GRID);
+		final int center = (GRID / 2) * GRID + GRID / 2, corner = GRID * GRID - 1;
+		for (int i = 0; i < GRID; i++)
+			for (int j = 0; j < GRID; j++) {
+				final int node = i * GRID + j;
+				if (j + 1 < GRID)
+					grid.addImpedance(node, node + 1, R_ACROSS, 0.0);
+				if (i + 1 < GRID)
+					grid.addImpedance(node, node + GRID, R_DOWN, 0.0);
+			}
+		// Pairs (center, center + 1), (center, corner), (center + 1, corner)
+		final Complex[] eq = grid.getEquivalents(center, center + 1, corner);
+		// One nodal solution takes a while on this many nodes
+		assertEquals(nodalResistance(center, center + 1), eq[0].getReal(), 1E-9);
+		for (Complex z : eq)
+			assertEquals(0.0, z.getImaginary(), 1E-12);
+		// The grid is symmetric under a half turn about the center
+		assertEquals(eq[1].getReal(), grid.getEquivalent(center, 0).getReal(), 1E-9);
+		assertEquals(eq[2].getReal(), grid.getEquivalent(center - 1, 0).getReal(), 1E-9);
+		// Single pair reduction must agree with the multiple terminal one
+		assertEquals(eq[0].getReal(), grid.getEquivalent(center, center + 1).getReal(), 1E-9);
+		// The grid itself is not changed
+		assertEquals(GRID * GRID, grid.getLiveCount());
+	}
+	@Test
+	public void testWyeDelta() {
+		final Complex za = new Complex(10.0, 5.0), zb = new Complex(20.0, -3.0),
+			zc = new Complex(5.0, 0.0);
+		final Complex[] mesh = StarMesh.starToMesh(za, zb, zc);
+		// Z_ab = (Za Zb + Zb Zc + Zc Za) / Zc
+		final Complex sum = new Complex(za).multiply(zb).add(new Complex(zb).multiply(zc)).add(
+			new Complex(zc).multiply(za));
+		final Complex[] expected = {
+			new Complex(sum).divide(zc), new Complex(sum).divide(zb),
+			new Complex(sum).divide(za)
+		};
+		for (int i = 0; i < 3; i++) {
+			assertEquals("real " + i, expected[i].getReal(), mesh[i].getReal(), 1E-9);
+			assertEquals("imag " + i, expected[i].getImaginary(), mesh[i].getImaginary(),
+				1E-9);
+		}
+		// Eliminating the center of the same star must give the same mesh
+		final StarMesh star = new StarMesh(4);
+		star.addImpedance(0, 3, za);
+		star.addImpedance(1, 3, zb);
+		star.addImpedance(2, 3, zc);
+		star.eliminate(3);
+		assertEquals(expected[0].getReal(), star.getMeshImpedance(0, 1).getReal(), 1E-9);
+		assertEquals(expected[1].getImaginary(), star.getMeshImpedance(0, 2).getImaginary(),
+			1E-9);
+		assertEquals(expected[2].getReal(), star.getMeshImpedance(1, 2).getReal(), 1E-9);
+	}
+}
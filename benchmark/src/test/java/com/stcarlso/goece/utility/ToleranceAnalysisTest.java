@@ -0,0 +1,120 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that ToleranceAnalysis results are repeatable for a fixed seed and follow the
+ * truncated normal distribution of the inputs.
+ */
+public class ToleranceAnalysisTest {
+	/**
+	 * The number of samples, enough for several chunks.
+	 */
+	private static final int COUNT = 200000;
+	/**
+	 * The fraction of a normal distribution within 1 sigma, renormalized to the part within
+	 * 3 sigma.
+	 */
+	private static final double ONE_SIGMA = 0.682689492 / 0.997300204;
+	/**
+	 * The relative width tolerance.
+	 */
+	private static final double WIDTH_TOL = 0.1;
+	/**
+	 * The nominal trace width in mm.
+	 */
+	private static final double X = 0.365;
+
+	/**
+	 * Creates the microstrip equation used in these tests, about 50 ohms at width X.
+	 *
+	 * @return the equation for forward calculation
+	 */
+	private static TraceEquation create() {
+		return new MicrostripEquation(0.2, 0.035, 4.3, 0.0);
+	}
+	/**
+	 * Runs an analysis with only the width tolerance set.
+	 *
+	 * @param seed the random seed
+	 * @return the result
+	 */
+	private static ToleranceResult runWidth(final long seed) {
+		final ToleranceAnalysis analysis = new ToleranceAnalysis(create(), X);
+		analysis.setWidthTolerance(WIDTH_TOL);
+		analysis.setSeed(seed);
+		return analysis.run(COUNT);
+	}
+	@Test
+	public void testNoTolerance() {
+		final TraceEquation equ = create();
+		final ToleranceResult result = new ToleranceAnalysis(equ, X).run(1000);
+		final double z = equ.eval(X), delta = z * 1E-12;
+		assertEquals(z, result.getNominal(), 0.0);
+		assertEquals(z, result.getMin(), delta);
+		assertEquals(z, result.getMax(), delta);
+		// The mean of identical samples may be off by rounding
+		assertEquals(0.0, result.getStdDev(), delta);
+		assertEquals(1.0, result.getYield(z - delta, z + delta), 0.0);
+	}
+	@Test
+	public void testRepeatable() {
+		final ToleranceResult first = runWidth(1234L), second = runWidth(1234L),
+			other = runWidth(5678L);
+		assertEquals(COUNT, first.getCount());
+		for (double percent = 0.0; percent <= 100.0; percent += 12.5)
+			assertEquals("P" + percent, first.getPercentile(percent),
+				second.getPercentile(percent), 0.0);
+		assertEquals(first.getMean(), second.getMean(), 0.0);
+		assertEquals(first.getStdDev(), second.getStdDev(), 0.0);
+		// Another seed gives other samples from the same distribution
+		assertTrue(first.getMean() != other.getMean());
+		assertEquals(first.getMean(), other.getMean(), first.getStdDev() * 0.02);
+	}
+	@Test
+	public void testWidthDistribution() {
+		final TraceEquation equ = create();
+		final ToleranceResult result = runWidth(1234L);
+		// Impedance falls as the width rises, so width quantiles map to impedance quantiles
+		final double wide = equ.eval(X * (1.0 + WIDTH_TOL)), narrow = equ.eval(X * (1.0 -
+			WIDTH_TOL));
+		assertEquals(1.0, result.getYield(wide, narrow), 0.0);
+		assertTrue(result.getMin() >= wide && result.getMax() <= narrow);
+		// Each tolerance is 3 sigma, so X +/- WIDTH_TOL / 3 holds about 68.5% of the samples
+		final double yield = result.getYield(equ.eval(X * (1.0 + WIDTH_TOL / 3.0)),
+			equ.eval(X * (1.0 - WIDTH_TOL / 3.0)));
+		assertEquals(ONE_SIGMA, yield, 0.005);
+		// The median width gives the median impedance
+		final double median = result.getPercentile(50.0);
+		assertTrue(median > equ.eval(X * (1.0 + WIDTH_TOL * 0.01)));
+		assertTrue(median < equ.eval(X * (1.0 - WIDTH_TOL * 0.01)));
+		assertEquals(equ.eval(X), result.getNominal(), 0.0);
+	}
+}
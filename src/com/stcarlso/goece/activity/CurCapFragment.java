@@ -35,7 +35,9 @@ import android.widget.RadioButton;
 import android.widget.Spinner;
 import com.stcarlso.goece.R;
 import com.stcarlso.goece.ui.*;
+import com.stcarlso.goece.utility.CurrentCapacity;
 import com.stcarlso.goece.utility.EngineeringValue;
+import com.stcarlso.goece.utility.Interval;
 import com.stcarlso.goece.utility.Units;
 
 /**
@@ -43,63 +45,6 @@ import com.stcarlso.goece.utility.Units;
  */
 public class CurCapFragment extends ChildFragment implements AdapterView.OnItemSelectedListener,
 		View.OnClickListener {
-	/**
-	 * Constant used for AWG calculation.
-	 */
-	private static final double AWG_MULT = 39.0 / Math.log(92.0);
-	/**
-	 * Constant B used for trace width calculation.
-	 */
-	private static final double IPC_B = 0.44;
-	/**
-	 * Constant (1/c) used for trace width calculation.
-	 */
-	private static final double IPC_C = 1.0 / 0.725;
-	/**
-	 * Constant B used for trace width calculation. Halved for internal layers.
-	 */
-	private static final double IPC_K = 0.048;
-	/**
-	 * The maximum valid value for the current flow for the IPC equation.
-	 */
-	private static final double IPC_MAX_CUR = 35.0;
-	/**
-	 * The maximum temperature rise for the IPC equation.
-	 */
-	private static final double IPC_MAX_TEMP = 100.0;
-	/**
-	 * The maximum trace width (mm) for the IPC equation.
-	 */
-	private static final double IPC_MAX_WIDTH = 10.16;
-	/**
-	 * The minimum temperature rise for the IPC equation.
-	 */
-	private static final double IPC_MIN_TEMP = 10.0;
-	/**
-	 * Resistivity of copper.
-	 */
-	private static final double RESIST_CU = 1.68E-8;
-	/**
-	 * Resistivity of each of the items in the materials list.
-	 */
-	private static final double[] RESIST = new double[] {
-		2.82E-8, RESIST_CU, 1.43E-7, 2.44E-8, 1.59E-8
-	};
-	/**
-	 * Converts mils^2 to mm^2 = 0.0254 ^ 2
-	 */
-	private static final double SQ_MILS_TO_MM = 0.00064516;
-
-	/**
-	 * Calculates the AWG wire whose radius is at least the specified value.
-	 *
-	 * @param radius the radius in millimeters
-	 * @return the smallest radius AWG code which is greater than or equal to the input radius
-	 */
-	private static double calculateAWG(final double radius) {
-		return Math.ceil(36.0 - AWG_MULT * Math.log(radius / 0.0635));
-	}
-
 	/**
 	 * Cached reference to the materials selection list.
 	 */
@@ -202,7 +147,8 @@ public class CurCapFragment extends ChildFragment implements AdapterView.OnItemS
 	 */
 	private void recalculateInputs() {
 		final ValueGroup group = groups.get("inputs");
-		final double resist = RESIST[materialsCtrl.getSelectedItemPosition()] / RESIST_CU;
+		final double resist = CurrentCapacity.getRelativeResistivity(materialsCtrl.
+			getSelectedItemPosition());
 		// Inputs need to be recalculated
 		final AbstractEntryBox<?> tempRiseCtl = controls.get(R.id.guiCurTemp),
 			currentCtrl = controls.get(R.id.guiCurCurrent);
@@ -212,12 +158,7 @@ public class CurCapFragment extends ChildFragment implements AdapterView.OnItemS
 			// Only available input in trace mode
 			final double dt = tempRiseCtl.getRawValue();
 			final double thick = controls.getRawValue(R.id.guiCurThickness);
-			// From http://www.4pcb.com/trace-width-calculator.html
-			// area = (i / (IPC_K * dt ^ IPC_B)) ^ IPC_C
-			// Their formula puts it out in mils^2, we need mm^2
-			final double areaMil = Math.pow((i / (IPC_K * Math.pow(dt, IPC_B))), IPC_C);
-			// Scale by conductivity
-			final double width = areaMil * SQ_MILS_TO_MM * resist / thick;
+			final double width = CurrentCapacity.traceWidth(i, dt, thick, resist);
 			currentCtrl.setError(null);
 			tempRiseCtl.setError(null);
 			if (!Double.isNaN(width))
@@ -225,29 +166,20 @@ public class CurCapFragment extends ChildFragment implements AdapterView.OnItemS
 				controls.setRawValue(R.id.guiCurWidth, width);
 			// If the current is over 35 A, width over 10 mm, dt < 10 or dt > 100, or
 			// thickness < 0.017 or thickness > 0.105, then warn the user
-			if (i > IPC_MAX_CUR || width > IPC_MAX_WIDTH || dt < IPC_MIN_TEMP ||
-					dt > IPC_MAX_TEMP || thick < 0.017 || thick > 0.105)
+			if (i > CurrentCapacity.IPC_MAX_CUR || thick < CurrentCapacity.IPC_MIN_THICK ||
+					thick > CurrentCapacity.IPC_MAX_THICK ||
+					!CurrentCapacity.isTraceInRange(width, dt))
 				controls.get(R.id.guiCurWidth).setError(getString(R.string.guiCurTraceWarn));
 			break;
 		case R.id.guiCurGauge:
 		case R.id.guiCurXArea:
 		case R.id.guiCurDiameter:
 			// All of these are recalculated together
-			double diameter;
-			if (i < 17.5)
-				// diameter = (4.181 + sqrt(4.181 * 4.181 - 4 * 21.555 * (0.41 - amps))) /
-				//     (2 * 21.555)
-				//  ~= sqrt(amps / 21.555 - 0.009615) + 0.09698
-				diameter = Math.sqrt(i / 21.555 - 0.009615) + 0.09698;
-			else
-				// diameter = (-21.7 + sqrt(21.7 * 21.7 + 4 * (5.387 + amps))) / 2 else
-				//  ~= sqrt(123.1125 + amps) - 10.85
-				diameter = Math.sqrt(123.1125 + i) - 10.85;
-			// Rescale for material
-			diameter *= Math.sqrt(resist);
+			final double diameter = CurrentCapacity.wireDiameter(i, resist);
 			controls.setRawValue(R.id.guiCurXArea, Math.PI * diameter * diameter * 0.25);
 			controls.setRawValue(R.id.guiCurDiameter, diameter);
-			controls.setRawValue(R.id.guiCurGauge, calculateAWG(diameter * 0.5));
+			controls.setRawValue(R.id.guiCurGauge, CurrentCapacity.awgFromRadius(diameter *
+				0.5));
 			break;
 		default:
 			// Should not happen
@@ -259,49 +191,39 @@ public class CurCapFragment extends ChildFragment implements AdapterView.OnItemS
 	 */
 	private void recalculateOutputs() {
 		final ValueGroup group = groups.get("outputs");
-		final double resist = RESIST[materialsCtrl.getSelectedItemPosition()] / RESIST_CU;
+		final double resist = CurrentCapacity.getRelativeResistivity(materialsCtrl.
+			getSelectedItemPosition());
 		final AbstractEntryBox<?> widthCtrl = controls.get(R.id.guiCurWidth);
 		// Update all outputs
-		final double width = widthCtrl.getRawValue(), pcbXArea = width * controls.
-			getRawValue(R.id.guiCurThickness) / SQ_MILS_TO_MM, i, dt;
+		final double width = widthCtrl.getRawValue(), thick = controls.getRawValue(
+			R.id.guiCurThickness), i, dt;
 		widthCtrl.setError(null);
 		switch (group.leastRecentlyUsed()) {
 		case R.id.guiCurTemp:
 			final AbstractEntryBox<?> curCtrl = controls.get(R.id.guiCurCurrent);
 			// This can only be true in PCB trace mode
-			// dt = (i / (area ^ (1 / IPC_C) * IPC_K)) ^ (1 / IPC_B)
-			dt = Math.pow(curCtrl.getRawValue() / (Math.pow(pcbXArea / resist, 1.0 /
-				IPC_C) * IPC_K), 1.0 / IPC_B);
-			controls.setRawValue(R.id.guiCurTemp, dt);
+			final Interval range = CurrentCapacity.traceTempRise(new Interval(curCtrl.
+				getValue()), new Interval(widthCtrl.getValue()), new Interval(controls.getValue(
+				R.id.guiCurThickness)), resist);
+			dt = range.getNominal();
+			controls.setInterval(R.id.guiCurTemp, range);
 			curCtrl.setError(null);
-			if (dt < IPC_MIN_TEMP || dt > IPC_MAX_TEMP || width > IPC_MAX_WIDTH)
+			if (!CurrentCapacity.isTraceInRange(width, dt))
 				// Warn the user if the temperature rise is extreme
 				controls.get(R.id.guiCurTemp).setError(getString(R.string.guiCurCapWarn));
 			break;
 		case R.id.guiCurCurrent:
 			boolean fault = false;
-			if (wireSelCtrl.isChecked()) {
-				// Curve fit from http://www.powerstream.com/Wire_Size.htm
-				// amps = 21.554968 * dia ^ 2 - 4.180921 * dia + 0.410266 for dia < 1 mm
-				// amps = 0.999231 * dia ^ 2 + 21.700890 * dia - 5.387531 for dia > 1 mm
-				//  ~= dia ^ 2 + 21.7 * dia - 5.387
-				final double diameter = controls.getRawValue(R.id.guiCurDiameter) /
-					Math.sqrt(resist);
-				if (diameter < 1.0)
-					// Need to get small gauges right to better precision
-					i = Math.max(21.555 * diameter * diameter - 4.181 * diameter + 0.41,
-						0.0);
-				else
-					// Does really well at mid to high ampacities
-					i = diameter * diameter + 21.7 * diameter - 5.387;
-			} else {
-				// i = area ^ (1 / IPC_C) * IPC_K * dt ^ IPC_B
+			if (wireSelCtrl.isChecked())
+				i = CurrentCapacity.wireCurrent(controls.getRawValue(R.id.guiCurDiameter),
+					resist);
+			else {
 				final AbstractEntryBox<?> tempCtrl = controls.get(R.id.guiCurTemp);
 				dt = tempCtrl.getRawValue();
-				i = Math.pow(pcbXArea / resist, 1.0 / IPC_C) * IPC_K * Math.pow(dt, IPC_B);
+				i = CurrentCapacity.traceCurrent(width, thick, dt, resist);
 				// Clear temperature errors if present
 				tempCtrl.setError(null);
-				fault = width > IPC_MAX_WIDTH || dt < IPC_MIN_TEMP || dt > IPC_MAX_TEMP;
+				fault = !CurrentCapacity.isTraceInRange(width, dt);
 			}
 			controls.setRawValue(R.id.guiCurCurrent, i);
 			if (fault || i <= 0.0)
@@ -329,8 +251,7 @@ public class CurCapFragment extends ChildFragment implements AdapterView.OnItemS
 			final int id = group.mostRecentlyUsed();
 			switch (id) {
 			case R.id.guiCurGauge:
-				// Radius in mm = 0.0635 * exp((36 - gauge) * ln(92) / 39)
-				radius = 0.0635 * Math.exp((36.0 - controls.getRawValue(id)) / AWG_MULT);
+				radius = CurrentCapacity.radiusFromAwg(controls.getRawValue(id));
 				controls.setRawValue(R.id.guiCurDiameter, radius * 2.0);
 				// Area = pi * radius ^ 2
 				controls.setRawValue(R.id.guiCurXArea, Math.PI * radius * radius);
@@ -338,15 +259,14 @@ public class CurCapFragment extends ChildFragment implements AdapterView.OnItemS
 			case R.id.guiCurDiameter:
 				// Direct (mm)
 				radius = controls.getRawValue(id) / 2.0;
-				// AWG = round up (36 - 39 * ln(radius / 0.0635) / ln(92))
-				controls.setRawValue(R.id.guiCurGauge, calculateAWG(radius));
+				controls.setRawValue(R.id.guiCurGauge, CurrentCapacity.awgFromRadius(radius));
 				controls.setRawValue(R.id.guiCurXArea, Math.PI * radius * radius);
 				break;
 			case R.id.guiCurXArea:
 				// Radius in mm = sqrt(area / pi)
 				radius = Math.sqrt(controls.getRawValue(id) / Math.PI);
 				controls.setRawValue(R.id.guiCurDiameter, radius * 2.0);
-				controls.setRawValue(R.id.guiCurGauge, calculateAWG(radius));
+				controls.setRawValue(R.id.guiCurGauge, CurrentCapacity.awgFromRadius(radius));
 				break;
 			default:
 				// Should not happen
@@ -359,17 +279,18 @@ public class CurCapFragment extends ChildFragment implements AdapterView.OnItemS
 	 * voltage drop, resistance, and power lost.
 	 */
 	private void updateLength() {
-		final double resistivity = RESIST[materialsCtrl.getSelectedItemPosition()];
+		final double resistivity = CurrentCapacity.getResistivity(materialsCtrl.
+			getSelectedItemPosition());
 		final double current = controls.getRawValue(R.id.guiCurTest);
-		// Remember that X-area is in mm^2
 		final double ohmperm;
 		if (wireSelCtrl.isChecked())
 			// Wire X-area
-			ohmperm = resistivity * 1E6 / controls.getRawValue(R.id.guiCurXArea);
+			ohmperm = CurrentCapacity.ohmsPerMeter(resistivity, controls.getRawValue(
+				R.id.guiCurXArea));
 		else
 			// Trace X-area
-			ohmperm = resistivity * 1E6 / (controls.getRawValue(R.id.guiCurThickness) *
-				controls.getRawValue(R.id.guiCurWidth));
+			ohmperm = CurrentCapacity.ohmsPerMeter(resistivity, controls.getRawValue(
+				R.id.guiCurThickness) * controls.getRawValue(R.id.guiCurWidth));
 		final double ohm = controls.getRawValue(R.id.guiCurLength) * ohmperm;
 		final double voltDrop = ohm * current;
 		// Generate engineering values
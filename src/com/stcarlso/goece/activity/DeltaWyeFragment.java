@@ -35,13 +35,23 @@ import com.stcarlso.goece.R;
 import com.stcarlso.goece.ui.AbstractEntryBox;
 import com.stcarlso.goece.ui.ChildFragment;
 import com.stcarlso.goece.ui.ValueGroup;
-import com.stcarlso.goece.utility.EngineeringValue;
+import com.stcarlso.goece.utility.Complex;
+import com.stcarlso.goece.utility.StarMesh;
 
 /**
  * An activity for converting between delta and wye impedance networks. Complex impedances can
  * also be used.
  */
 public class DeltaWyeFragment extends ChildFragment {
+	/**
+	 * Shows a calculated impedance in an entry box.
+	 *
+	 * @param box the entry box to update
+	 * @param value the new impedance
+	 */
+	private static void updateValue(final AbstractEntryBox<?> box, final Complex value) {
+		box.updateValue(value.getMagnitude(), value.getAngle());
+	}
 	@Override
 	protected String getTitle(Context parent) {
 		return parent.getString(R.string.guiDeltaWye);
@@ -65,7 +75,7 @@ public class DeltaWyeFragment extends ChildFragment {
 	}
 	@Override
 	protected void recalculate(ValueGroup group) {
-		final EngineeringValue ra, rb, rc, r1, r2, r3;
+		final Complex ra, rb, rc, r1, r2, r3;
 		// Shared variables
 		final AbstractEntryBox<?> d1 = controls.get(R.id.guiDelDelta1);
 		final AbstractEntryBox<?> d2 = controls.get(R.id.guiDelDelta2);
@@ -78,34 +88,27 @@ public class DeltaWyeFragment extends ChildFragment {
 		case R.id.guiDelDelta2:
 		case R.id.guiDelDelta3:
 			// Delta from wye
-			r1 = w1.getValue();
-			r2 = w2.getValue();
-			r3 = w3.getValue();
-			final EngineeringValue rp = r1.multiply(r2).add(r2.multiply(r3)).add(
-				r3.multiply(r1));
-			// Divide by "opposite"
-			ra = rp.divide(r1);
-			d1.updateValue(ra.getValue(), ra.getAngle());
-			rb = rp.divide(r2);
-			d2.updateValue(rb.getValue(), rb.getAngle());
-			rc = rp.divide(r3);
-			d3.updateValue(rc.getValue(), rc.getAngle());
+			r1 = new Complex(w1.getValue());
+			r2 = new Complex(w2.getValue());
+			r3 = new Complex(w3.getValue());
+			// Pairs (1, 2), (1, 3), (2, 3) are opposite 3, 2, 1
+			final Complex[] mesh = StarMesh.starToMesh(r1, r2, r3);
+			updateValue(d1, mesh[2]);
+			updateValue(d2, mesh[1]);
+			updateValue(d3, mesh[0]);
 			break;
 		case R.id.guiDelWye1:
 		case R.id.guiDelWye2:
 		case R.id.guiDelWye3:
 			// Wye from delta
-			ra = d1.getValue();
-			rb = d2.getValue();
-			rc = d3.getValue();
-			final EngineeringValue rd = ra.add(rb).add(rc);
+			ra = new Complex(d1.getValue());
+			rb = new Complex(d2.getValue());
+			rc = new Complex(d3.getValue());
+			final Complex rd = new Complex(ra).add(rb).add(rc);
 			// Divide by "opposite"
-			r1 = rb.multiply(rc).divide(rd);
-			w1.updateValue(r1.getValue(), r1.getAngle());
-			r2 = ra.multiply(rc).divide(rd);
-			w2.updateValue(r2.getValue(), r2.getAngle());
-			r3 = ra.multiply(rb).divide(rd);
-			w3.updateValue(r3.getValue(), r3.getAngle());
+			updateValue(w1, new Complex(rb).multiply(rc).divide(rd));
+			updateValue(w2, new Complex(ra).multiply(rc).divide(rd));
+			updateValue(w3, ra.multiply(rb).divide(rd));
 			break;
 		default:
 			// Invalid
@@ -36,7 +36,7 @@ import android.util.Log;
 import android.view.MenuItem;
 import com.stcarlso.goece.R;
 import com.stcarlso.goece.ui.FragmentTabListener;
-import com.stcarlso.goece.utility.UIFunctions;
+import com.stcarlso.goece.ui.UIFunctions;
 
 /**
  * Make it your pastime, make it your mission!
@@ -34,18 +34,39 @@ import android.widget.RadioButton;
 import com.stcarlso.goece.R;
 import com.stcarlso.goece.ui.ChildFragment;
 import com.stcarlso.goece.ui.ComplexEntryBox;
+import com.stcarlso.goece.ui.PlotView;
 import com.stcarlso.goece.ui.ValueGroup;
 import com.stcarlso.goece.utility.ComplexValue;
+import com.stcarlso.goece.utility.ImpedanceSweep;
+import com.stcarlso.goece.utility.LossSweep;
+import com.stcarlso.goece.utility.ParallelCalc;
 
 /**
  * Calculate the reactance of capacitors and inductors at a given frequency, and perform angle
  * and magnitude calculations of the complex impedance.
  */
 public class ImpedanceFragment extends ChildFragment implements View.OnClickListener {
+	/**
+	 * The number of frequencies on the impedance plot.
+	 */
+	private static final int SWEEP_POINTS = 2000;
+	/**
+	 * The plot extends this many times above and below the selected frequency.
+	 */
+	private static final double SWEEP_RANGE = 100.0;
+
 	/**
 	 * Cached radio button to select capacitance (inductance is always the opposite!)
 	 */
 	private RadioButton capSelCtrl;
+	/**
+	 * Plot of impedance magnitude against frequency.
+	 */
+	private PlotView plot;
+	/**
+	 * The sweep currently filling the plot, or null if none is running.
+	 */
+	private ImpedanceSweep sweep;
 
 	@Override
 	protected String getTitle(Context parent) {
@@ -68,6 +89,8 @@ public class ImpedanceFragment extends ChildFragment implements View.OnClickList
 	                         Bundle savedInstanceState) {
 		final View view = inflater.inflate(R.layout.impedance, container, false);
 		capSelCtrl = asRadioButton(view, R.id.guiImpedSelCap);
+		plot = (PlotView)view.findViewById(R.id.guiImpedPlot);
+		sweep = null;
 		// Resistance is always futile!
 		controls.add(view, R.id.guiImpedRes, R.id.guiImpedCap, R.id.guiImpedInd,
 			R.id.guiImpedFreq, R.id.guiImpedImp);
@@ -86,6 +109,13 @@ public class ImpedanceFragment extends ChildFragment implements View.OnClickList
 		recalculate(findValueById(isCap ? R.id.guiImpedCap : R.id.guiImpedInd));
 	}
 	@Override
+	public void onDestroyView() {
+		super.onDestroyView();
+		if (sweep != null)
+			sweep.cancel();
+		sweep = null;
+	}
+	@Override
 	protected void recalculate(ValueGroup source) {
 		final ComplexEntryBox imped = (ComplexEntryBox)findValueById(R.id.guiImpedImp);
 		// Capacitance or inductance?
@@ -94,6 +124,8 @@ public class ImpedanceFragment extends ChildFragment implements View.OnClickList
 		final double c = controls.getRawValue(R.id.guiImpedCap);
 		final double l = controls.getRawValue(R.id.guiImpedInd);
 		final double f = controls.getRawValue(R.id.guiImpedFreq);
+		// Angular frequency, X = omega L or 1 / (omega C) as in ImpedanceSweep
+		final double omega = 2.0 * Math.PI * f;
 		final ComplexValue z = imped.getValue();
 		double y = z.getImaginary();
 		// Was the control on the bottom half or the top half?
@@ -102,35 +134,36 @@ public class ImpedanceFragment extends ChildFragment implements View.OnClickList
 		case R.id.guiImpedCap:
 			// Capacitance
 			controls.setRawValue(R.id.guiImpedRes, z.getReal());
-			controls.setRawValue(R.id.guiImpedCap, 1.0 / (y * f));
+			controls.setRawValue(R.id.guiImpedCap, 1.0 / (y * omega));
 			break;
 		case R.id.guiImpedInd:
 			// Inductance
 			controls.setRawValue(R.id.guiImpedRes, z.getReal());
-			controls.setRawValue(R.id.guiImpedInd, y / f);
+			controls.setRawValue(R.id.guiImpedInd, y / omega);
 			break;
 		case R.id.guiImpedFreq:
 			// Frequency
 			controls.setRawValue(R.id.guiImpedRes, z.getReal());
 			if (isCap)
 				// Set from capacitance
-				controls.setRawValue(R.id.guiImpedFreq, 1.0 / (y * c));
+				controls.setRawValue(R.id.guiImpedFreq, 1.0 / (2.0 * Math.PI * y * c));
 			else
 				// Set from inductance
-				controls.setRawValue(R.id.guiImpedFreq, y / l);
+				controls.setRawValue(R.id.guiImpedFreq, y / (2.0 * Math.PI * l));
 			break;
 		case R.id.guiImpedImp:
 			// Impedance
 			if (isCap)
-				y = 1.0 / (c * f);
+				y = 1.0 / (c * omega);
 			else
-				y = l * f;
+				y = l * omega;
 			imped.setValue(z.newRectangularValue(r, y));
 			break;
 		default:
 			// Invalid
 			break;
 		}
+		updatePlot();
 	}
 	@Override
 	protected void saveCustomPrefs(SharedPreferences.Editor prefs) {
@@ -142,4 +175,52 @@ public class ImpedanceFragment extends ChildFragment implements View.OnClickList
 	protected void update(ValueGroup group) {
 		// Now that output group has only one element, everything is OK
 	}
+	/**
+	 * Restarts the impedance plot for the current values. The curve is the impedance magnitude
+	 * of the resistor in series with the capacitor or inductor, from well below to well above
+	 * the selected frequency. It is calculated in the background and drawn as the chunks
+	 * arrive.
+	 */
+	private void updatePlot() {
+		final boolean isCap = capSelCtrl.isChecked();
+		final double r = controls.getRawValue(R.id.guiImpedRes);
+		final double c = controls.getRawValue(R.id.guiImpedCap);
+		final double l = controls.getRawValue(R.id.guiImpedInd);
+		final double f = controls.getRawValue(R.id.guiImpedFreq);
+		ImpedanceSweep newSweep = null;
+		if (sweep != null)
+			// Old values are no longer needed
+			sweep.cancel();
+		sweep = null;
+		plot.clear();
+		try {
+			newSweep = new ImpedanceSweep(false, r, isCap ? 0.0 : l, isCap ? c : 0.0);
+		} catch (IllegalArgumentException ignore) { }
+		if (newSweep != null && f > 0.0 && !Double.isInfinite(f * SWEEP_RANGE)) {
+			final ImpedanceSweep runSweep = newSweep;
+			final double[] freq = LossSweep.logFrequencies(f / SWEEP_RANGE, f * SWEEP_RANGE,
+				SWEEP_POINTS);
+			plot.setMarker(f);
+			sweep = runSweep;
+			ParallelCalc.getExecutor().execute(new Runnable() {
+				@Override
+				public void run() {
+					runSweep.run(freq, new ImpedanceSweep.Listener() {
+						@Override
+						public void pointsAdded(final double[] x, final double[] z,
+												final double[] phase, final double[] q,
+												final double[] esr, final int count) {
+							plot.post(new Runnable() {
+								@Override
+								public void run() {
+									if (!runSweep.isCancelled())
+										plot.addPoints(x, z, count);
+								}
+							});
+						}
+					});
+				}
+			});
+		}
+	}
 }
\ No newline at end of file
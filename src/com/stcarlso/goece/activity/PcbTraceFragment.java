@@ -27,20 +27,33 @@ package com.stcarlso.goece.activity;
 import android.content.Context;
 import android.content.SharedPreferences;
 import android.os.Bundle;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.AdapterView;
 import android.widget.ImageView;
 import android.widget.Spinner;
+import com.stcarlso.goece.BuildConfig;
 import com.stcarlso.goece.R;
 import com.stcarlso.goece.ui.AbstractEntryBox;
 import com.stcarlso.goece.ui.ChildFragment;
+import com.stcarlso.goece.ui.PlotView;
 import com.stcarlso.goece.ui.ValueGroup;
-import com.stcarlso.goece.utility.ECECalc;
+import com.stcarlso.goece.utility.CoupledEquation;
 import com.stcarlso.goece.utility.Equation;
 import com.stcarlso.goece.utility.EquationSolver;
-import com.stcarlso.goece.utility.Units;
+import com.stcarlso.goece.utility.EquationSolver2D;
+import com.stcarlso.goece.utility.ImpedanceTable;
+import com.stcarlso.goece.utility.ParallelCalc;
+import com.stcarlso.goece.utility.ParameterEquation;
+import com.stcarlso.goece.utility.SolveRecord;
+import com.stcarlso.goece.utility.SolverStats;
+import com.stcarlso.goece.utility.SweepListener;
+import com.stcarlso.goece.utility.TraceEquation;
+import com.stcarlso.goece.utility.TraceParameter;
+import com.stcarlso.goece.utility.TraceScenario;
+import com.stcarlso.goece.utility.TraceSweep;
 
 /**
  * An activity for PCB trace impedance calculation.
@@ -57,18 +70,39 @@ public class PcbTraceFragment extends ChildFragment implements
 		R.drawable.stripline2
 	};
 	/**
-	 * Minimum width that the solver will attempt in mm.
+	 * The plot spans this factor on either side of the current width or spacing.
 	 */
-	private static final double MIN_SOLVE_WIDTH = 0.01;
+	private static final double SWEEP_RANGE = 10.0;
 	/**
-	 * Maximum width that the solver will attempt in mm.
+	 * Starting guess for the solver in mm if the output box does not have a usable value.
 	 */
-	private static final double MAX_SOLVE_WIDTH = 100.0;
+	private static final double SOLVE_GUESS = 1.0;
+	/**
+	 * Parameters which can be solved for, indexed by the combo box option.
+	 */
+	private static final TraceParameter[] UNKNOWNS = new TraceParameter[] {
+		TraceParameter.WIDTH,
+		TraceParameter.HEIGHT,
+		TraceParameter.THICKNESS,
+		TraceParameter.DIELECTRIC
+	};
 
 	/**
 	 * Cached reference to the user assist image of the current impedance scenario.
 	 */
 	private ImageView pcbImage;
+	/**
+	 * Cached reference to the impedance plot.
+	 */
+	private PlotView plot;
+	/**
+	 * Cached reference to the unknown parameter selector control.
+	 */
+	private Spinner solveForCtrl;
+	/**
+	 * The sweep currently filling the plot, or null if none is running.
+	 */
+	private TraceSweep sweep;
 	/**
 	 * Cached reference to the trace type selector control.
 	 */
@@ -77,7 +111,7 @@ public class PcbTraceFragment extends ChildFragment implements
 	/**
 	 * Solves the equation and puts the result into the specified output box.
 	 *
-	 * @param equ the equation to solve, the bounds will be MIN_SOLVE_WIDTH to MAX_SOLVE_WIDTH
+	 * @param equ the equation to solve, the search will start from the current value of out
 	 * @param out the location where the answer will be stored, or where the red error will be
 	 * displayed if no solution can be found
 	 */
@@ -86,7 +120,11 @@ public class PcbTraceFragment extends ChildFragment implements
 			// Invalid inputs
 			out.setError(getString(R.string.guiPcbBadInput));
 		else {
-			final double value = new EquationSolver(equ).solve(MIN_SOLVE_WIDTH, MAX_SOLVE_WIDTH);
+			double guess = out.getRawValue();
+			if (!(guess > 0.0) || Double.isInfinite(guess))
+				guess = SOLVE_GUESS;
+			// Start from the last answer to find the closest solution
+			final double value = new EquationSolver(equ).solveExpanding(guess);
 			// Update output on screen
 			if (Double.isNaN(value) || value <= 0.0)
 				out.setError(getString(R.string.guiPcbNoSolution));
@@ -96,6 +134,40 @@ public class PcbTraceFragment extends ChildFragment implements
 			}
 		}
 	}
+	/**
+	 * Solves for the trace width and spacing together, and puts the results into the
+	 * specified output boxes.
+	 *
+	 * @param equ the coupled equations to solve, the search will start from the current values
+	 * of w and s
+	 * @param w the location where the width will be stored
+	 * @param s the location where the spacing will be stored, or where the red error will be
+	 * displayed if no solution can be found
+	 */
+	private void coupledSolve(final CoupledEquation equ, final AbstractEntryBox<?> w,
+							  final AbstractEntryBox<?> s) {
+		if (equ == null)
+			// Invalid inputs
+			s.setError(getString(R.string.guiPcbBadInput));
+		else {
+			final double[] value = new double[2];
+			double wGuess = w.getRawValue(), sGuess = s.getRawValue();
+			if (!(wGuess > 0.0) || Double.isInfinite(wGuess))
+				wGuess = SOLVE_GUESS;
+			if (!(sGuess > 0.0) || Double.isInfinite(sGuess))
+				sGuess = SOLVE_GUESS;
+			// Hit both targets at once, starting from the last answer
+			if (!new EquationSolver2D(equ).solve(wGuess, sGuess, value) || value[0] <= 0.0 ||
+					value[1] <= 0.0)
+				s.setError(getString(R.string.guiPcbNoSolution));
+			else {
+				w.updateValue(value[0]);
+				w.setError(null);
+				s.updateValue(value[1]);
+				s.setError(null);
+			}
+		}
+	}
 	/**
 	 * Evaluates the equation at the given value and puts the result into the specified output
 	 * box.
@@ -121,17 +193,86 @@ public class PcbTraceFragment extends ChildFragment implements
 			}
 		}
 	}
+	/**
+	 * Gets the entry box which holds the value of a stackup parameter.
+	 *
+	 * @param param the parameter to look up
+	 * @return the entry box for that parameter
+	 */
+	private AbstractEntryBox<?> getParameterBox(final TraceParameter param) {
+		final int id;
+		switch (param) {
+		case HEIGHT:
+			id = R.id.guiPcbThickness;
+			break;
+		case THICKNESS:
+			id = R.id.guiPcbTraceHeight;
+			break;
+		case DIELECTRIC:
+			id = R.id.guiPcbDielectric;
+			break;
+		case SPACING:
+			id = R.id.guiPcbTraceSpace;
+			break;
+		default:
+			id = R.id.guiPcbTraceWidth;
+			break;
+		}
+		return controls.get(id);
+	}
+	/**
+	 * Gets the currently selected impedance scenario.
+	 *
+	 * @return the trace scenario
+	 */
+	private TraceScenario getScenario() {
+		final int index = traceTypeCtrl.getSelectedItemPosition();
+		final TraceScenario[] scenarios = TraceScenario.values();
+		return (index >= 0 && index < scenarios.length) ? scenarios[index] :
+			TraceScenario.MICROSTRIP;
+	}
 	@Override
 	protected String getTitle(Context parent) {
 		return parent.getString(R.string.guiPcbWidth);
 	}
+	/**
+	 * Gets the parameter which is currently selected to be solved for when an impedance is
+	 * changed.
+	 *
+	 * @return the unknown parameter
+	 */
+	private TraceParameter getUnknown() {
+		final int index = solveForCtrl.getSelectedItemPosition();
+		return (index >= 0 && index < UNKNOWNS.length) ? UNKNOWNS[index] :
+			TraceParameter.WIDTH;
+	}
 	@Override
 	protected void loadCustomPrefs(SharedPreferences prefs) {
 		loadPrefsSpinner(prefs, R.id.guiPcbScenario);
+		loadPrefsSpinner(prefs, R.id.guiPcbSolveFor);
+	}
+	/**
+	 * Logs the solves since a sequence number, in debug builds only.
+	 *
+	 * @param start the sequence number from before the solves started
+	 */
+	private void logSolves(final long start) {
+		final SolverStats stats = EquationSolver.getStats();
+		if (stats != null) {
+			int evals = 0;
+			for (SolveRecord record : stats.getSince(start)) {
+				evals += record.getEvaluations();
+				Log.d("PcbTraceFragment", record.toString());
+			}
+			Log.d("PcbTraceFragment", "Solved in " + evals + " evaluations; " + stats);
+		}
 	}
 	@Override
 	public void onActivityCreated(Bundle savedInstanceState) {
 		super.onActivityCreated(savedInstanceState);
+		// Trace solver convergence in debug builds
+		if (BuildConfig.DEBUG && EquationSolver.getStats() == null)
+			EquationSolver.setStats(new SolverStats());
 		recalculate(controls.get(R.id.guiPcbThickness));
 	}
 	@Override
@@ -139,8 +280,12 @@ public class PcbTraceFragment extends ChildFragment implements
 	                         Bundle savedInstanceState) {
 		final View view = inflater.inflate(R.layout.pcbtrace, container, false);
 		pcbImage = asImageView(view, R.id.guiPcbImage);
+		plot = (PlotView)view.findViewById(R.id.guiPcbPlot);
+		sweep = null;
 		traceTypeCtrl = asSpinner(view, R.id.guiPcbScenario);
 		traceTypeCtrl.setOnItemSelectedListener(this);
+		solveForCtrl = asSpinner(view, R.id.guiPcbSolveFor);
+		solveForCtrl.setOnItemSelectedListener(this);
 		// Register value entry boxes
 		controls.add(view, R.id.guiPcbDielectric, R.id.guiPcbImpedance1, R.id.guiPcbImpedance2,
 			R.id.guiPcbThickness, R.id.guiPcbTraceHeight, R.id.guiPcbTraceSpace,
@@ -149,23 +294,32 @@ public class PcbTraceFragment extends ChildFragment implements
 		return view;
 	}
 	@Override
+	public void onDestroyView() {
+		super.onDestroyView();
+		if (sweep != null)
+			sweep.cancel();
+		sweep = null;
+	}
+	@Override
 	public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
 		// Show/hide diff impedance based on selection
-		final int scenario = traceTypeCtrl.getSelectedItemPosition();
-		final boolean show = scenario > 1;
+		final TraceScenario scenario = getScenario();
+		final boolean show = scenario.isDifferential();
 		controls.get(R.id.guiPcbImpedance2).setVisibility(show ? View.VISIBLE : View.GONE);
 		controls.get(R.id.guiPcbTraceSpace).setEnabled(show);
-		if (scenario >= 0 && scenario < IMAGES.length)
-			// Update the image
-			pcbImage.setImageResource(IMAGES[scenario]);
+		// Update the image
+		pcbImage.setImageResource(IMAGES[scenario.ordinal()]);
 		recalculate(controls.get(R.id.guiPcbThickness));
 	}
 	@Override
 	public void onNothingSelected(AdapterView<?> parent) { }
 	@Override
 	protected void recalculate(ValueGroup group) {
-		final int scenario = traceTypeCtrl.getSelectedItemPosition();
-		Equation equ = null;
+		final TraceScenario scenario = getScenario();
+		final TraceParameter unknown = getUnknown();
+		final SolverStats stats = EquationSolver.getStats();
+		final long start = (stats == null) ? 0L : stats.getSequence();
+		TraceEquation equ = null;
 		// Shared variables
 		final double er = controls.getRawValue(R.id.guiPcbDielectric);
 		final double h = controls.getRawValue(R.id.guiPcbThickness);
@@ -179,430 +333,141 @@ public class PcbTraceFragment extends ChildFragment implements
 		case R.id.guiPcbImpedance1:
 			// Impedance single-ended
 			try {
-				if (scenario == 0 || scenario == 2)
-					equ = new MicrostripEquation(h, t, er, 0.0);
-				else
-					equ = new StriplineEquation(h, t, er, 0.0);
+				equ = scenario.getSingleEnded().create(h, wv, t, er, 0.0);
 			} catch (IllegalArgumentException ignore) { }
-			forwardEval(equ, z1, w.getRawValue());
+			forwardEval(equ, z1, wv);
 			break;
 		case R.id.guiPcbImpedance2:
 			// Impedance differential
 			try {
-				if (scenario == 2)
-					equ = new DiffMicrostripEquation(h, wv, t, er, 0.0);
-				else
-					equ = new DiffStriplineEquation(h, wv, t, er, 0.0);
+				equ = scenario.create(h, wv, t, er, 0.0);
 			} catch (IllegalArgumentException ignore) { }
 			forwardEval(equ, z2, s.getRawValue());
 			break;
 		case R.id.guiPcbTraceWidth:
-			// Trace width
-			try {
-				if (scenario == 0 || scenario == 2)
-					equ = new MicrostripEquation(h, t, er, z1.getRawValue());
-				else
-					equ = new StriplineEquation(h, t, er, z1.getRawValue());
-			} catch (IllegalArgumentException ignore) { }
-			backwardSolve(equ, w);
+			if (unknown == TraceParameter.WIDTH) {
+				// Trace width
+				ImpedanceTable table = null;
+				try {
+					table = ImpedanceTable.get(scenario.getSingleEnded(), h, wv, t, er);
+				} catch (IllegalArgumentException ignore) { }
+				tableSolve(table, z1.getRawValue(), w);
+			} else {
+				// Selected stackup parameter at the current width
+				try {
+					equ = scenario.getSingleEnded().create(h, wv, t, er, z1.getRawValue());
+				} catch (IllegalArgumentException ignore) { }
+				backwardSolve((equ == null) ? null : new ParameterEquation(equ, unknown, wv),
+					getParameterBox(unknown));
+			}
 			break;
 		case R.id.guiPcbTraceSpace:
-			// Trace spacing
-			try {
-				if (scenario == 2)
-					equ = new DiffMicrostripEquation(h, wv, t, er, z2.getRawValue());
-				else
-					equ = new DiffStriplineEquation(h, wv, t, er, z2.getRawValue());
-			} catch (IllegalArgumentException ignore) { }
-			backwardSolve(equ, s);
+			if (unknown == TraceParameter.WIDTH) {
+				// Trace spacing, width is solved again to meet both impedances
+				CoupledEquation coupled = null;
+				try {
+					coupled = new CoupledEquation(scenario.isMicrostrip(), h, t, er,
+						z1.getRawValue(), z2.getRawValue());
+				} catch (IllegalArgumentException ignore) { }
+				coupledSolve(coupled, w, s);
+			} else {
+				// Stackup was already solved from the single ended impedance
+				ImpedanceTable table = null;
+				try {
+					table = ImpedanceTable.get(scenario, h, wv, t, er);
+				} catch (IllegalArgumentException ignore) { }
+				tableSolve(table, z2.getRawValue(), s);
+			}
 			break;
 		default:
 			// Invalid
 			break;
 		}
+		logSolves(start);
+		updatePlot();
 	}
 	@Override
 	protected void saveCustomPrefs(SharedPreferences.Editor prefs) {
 		savePrefsSpinner(prefs, R.id.guiPcbScenario);
+		savePrefsSpinner(prefs, R.id.guiPcbSolveFor);
 	}
-	@Override
-	protected void update(ValueGroup group) { }
-
 	/**
-	 * A class for EquationSolver to handle reverse solving of microstrip impedance.
+	 * Looks up the width or spacing for an impedance in the table and puts the result into
+	 * the specified output box.
 	 *
-	 * Trace width is the IV (x). All units in mm.
-	 */
-	private static class MicrostripEquation implements Equation {
-		/**
-		 * The desired impedance value for solving.
-		 */
-		private final double desired;
-		/**
-		 * The dielectric constant of the material.
-		 */
-		private final double er;
-		/**
-		 * The height of the trace above ground (PCB thickness).
-		 */
-		private final double h;
-		/**
-		 * The trace thickness.
-		 */
-		private final double t;
-		/**
-		 * Coefficients for effective width calculation.
-		 */
-		private transient final double weAdd;
-		private transient final double weMul;
-		/**
-		 * Coefficients for impedance calculation.
-		 */
-		private transient final double zDenom;
-		private transient final double zX2Add;
-
-		/**
-		 * Creates a new microstrip equation context for calculating single ended impedance.
-		 *
-		 * @param h the PCB thickness
-		 * @param t the trace thickness
-		 * @param er the relative dielectric permittivity
-		 * @param desired the desired impedance (set to 0.0 for forward calculation)
-		 */
-		public MicrostripEquation(final double h, final double t, final double er,
-								  final double desired) {
-			if (er <= 1.0)
-				throw new IllegalArgumentException("dielectric <= 1");
-			if (t <= 0.0)
-				throw new IllegalArgumentException("thickness <= 0");
-			if (h <= 0.0)
-				throw new IllegalArgumentException("height <= 0");
-			if (desired < 0.0)
-				throw new IllegalArgumentException("desired < 0");
-			this.desired = desired;
-			this.er = er;
-			this.h = h;
-			this.t = t;
-			// Precompute
-			weMul = t * (1.0 + 1.0 / er) * 0.5 * Units.PI_INV;
-			weAdd = weMul * 1.6020599913279624;
-			zDenom = Math.sqrt(1.0 + er) * 2.8284271247461902;
-			zX2Add = (1.0 + 1.0 / er) * 0.5 * Math.PI * Math.PI;
-		}
-		@Override
-		public double eval(double x) {
-			final double ret;
-			if (x <= 0.0)
-				ret = Double.NaN;
-			else {
-				// Calculate w_eff
-				final double w_coeff = Units.PI_INV / (1.1 + x / t);
-				final double w_eff_4h = 4.0 * h / (x + weAdd - weMul * 0.5 * Math.log(
-					(t * t) / (h * h) + w_coeff * w_coeff));
-				final double x1 = (14.0 + 8.0 / er) * w_eff_4h / 11.0;
-				ret = Units.Z_0 * Math.log(1.0 + w_eff_4h * (x1 + Math.sqrt(x1 * x1 +
-					zX2Add))) / zDenom - desired;
-			}
-			return ret;
-		}
-	}
-
-	/**
-	 * A class for EquationSolver to handle reverse solving of symmetric stripline impedance.
-	 *
-	 * Trace width is the IV (x). All units in mm.
-	 */
-	private static class StriplineEquation implements Equation {
-		/**
-		 * The desired impedance value for solving.
-		 */
-		private final double desired;
-		/**
-		 * The dielectric constant of the material.
-		 */
-		private final double er;
-		/**
-		 * The PCB thickness from the embedded trace to the nearest plane.
-		 */
-		private final double h;
-		/**
-		 * The trace thickness.
-		 */
-		private final double t;
-		/**
-		 * Coefficients for impedance calculation.
-		 */
-		private transient final double zNum;
-
-		/**
-		 * Creates a new stripline equation context for calculating single ended impedance.
-		 *
-		 * @param h the PCB thickness
-		 * @param t the trace thickness
-		 * @param er the relative dielectric permittivity
-		 * @param desired the desired impedance (set to 0.0 for forward calculation)
-		 */
-		public StriplineEquation(final double h, final double t, final double er,
-								 final double desired) {
-			if (er <= 1.0)
-				throw new IllegalArgumentException("dielectric <= 1");
-			if (t <= 0.0)
-				throw new IllegalArgumentException("thickness <= 0");
-			if (h <= 0.0)
-				throw new IllegalArgumentException("height <= 0");
-			if (desired < 0.0)
-				throw new IllegalArgumentException("desired < 0");
-			this.desired = desired;
-			this.er = er;
-			this.h = h;
-			this.t = t;
-			// Precompute
-			zNum = 60.0 / Math.sqrt(er);
-		}
-		@Override
-		public double eval(double x) {
-			final double ret;
-			if (x <= 0.0)
-				ret = Double.NaN;
-			else {
-				// Calculate w_eff
-				final double d = Math.PI * 0.5 * x * (1.0 + t * Units.PI_INV * (1.0 +
-					Math.log(4.0 * Math.PI * x / t)) / x + 0.551 * t * t / (x * x));
-				ret = Math.max(0.0, zNum * Math.log((8.0 * h + 4.0 * t) / d)) - desired;
-			}
-			return ret;
-		}
-	}
-
-	/**
-	 * A class for EquationSolver to handle reverse solving of microstrip differential
-	 * impedance.
-	 *
-	 * Trace spacing is the IV (x). All units in mm.
+	 * @param table the impedance table of the current stackup
+	 * @param target the desired impedance
+	 * @param out the location where the answer will be stored, or where the red error will be
+	 * displayed if no solution can be found
 	 */
-	private static class DiffMicrostripEquation implements Equation {
-		/**
-		 * The desired impedance value for solving.
-		 */
-		private final double desired;
-		/**
-		 * The dielectric constant of the material.
-		 */
-		private final double er;
-		/**
-		 * The height of the trace above ground (PCB thickness).
-		 */
-		private final double h;
-		/**
-		 * The trace thickness.
-		 */
-		private final double t;
-		/**
-		 * The trace width.
-		 */
-		private final double w;
-		/**
-		 * Coefficients for impedance calculation.
-		 */
-		private transient final double a0;
-		private transient final double b0;
-		private transient final double c0;
-		private transient final double d0;
-		private transient final double er_eff;
-		private transient final double q1;
-		private transient final double zo_surf;
-		private transient final double zom;
-
-		/**
-		 * Creates a new microstrip equation context for calculating differential impedance.
-		 *
-		 * @param h the PCB thickness
-		 * @param w the trace width
-		 * @param t the trace thickness
-		 * @param er the relative dielectric permittivity
-		 * @param desired the desired impedance (set to 0.0 for forward calculation)
-		 */
-		public DiffMicrostripEquation(final double h, final double w, final double t,
-									  final double er, final double desired) {
-			if (er <= 1.0)
-				throw new IllegalArgumentException("dielectric <= 1");
-			if (t <= 0.0)
-				throw new IllegalArgumentException("thickness <= 0");
-			if (h <= 0.0)
-				throw new IllegalArgumentException("height <= 0");
-			if (w <= 0.0)
-				throw new IllegalArgumentException("width <= 0");
-			if (desired < 0.0)
-				throw new IllegalArgumentException("desired < 0");
-			this.desired = desired;
-			this.er = er;
-			this.h = h;
-			this.t = t;
-			this.w = w;
-			// Precompute
-			// effective er
-			double er_base = Math.sqrt(w / (w + 12.0 * h));
-			if (w < h) {
-				final double p = 1.0 - w / h;
-				er_base += 0.04 * p * p;
-			}
-			er_eff = (er + 1.0) * 0.5 + (er - 1.0) * 0.5 * er_base;
-			// a0 - d0
-			final double u = w / h;
-			// Formula page adds sqrt around the last term
-			a0 = 0.7287 * (er_eff - 0.5 * (er + 1.0)) * (1.0 - Math.exp(-0.179 * u));
-			b0 = (0.747 * er) / (0.15 + er);
-			c0 = b0 - (b0 - .207) * Math.exp(-0.414 * u);
-			d0 = 0.593 + 0.694 * Math.exp(-0.562 * u);
-			// effective w
-			final double p = t / (Math.PI * (w + 1.1 * t));
-			final double er2 = (er_eff + 1.0) / (2.0 * er_eff);
-			final double w_eff = w + (t / Math.PI) * (4.0 - 0.5 * Math.log(t * t / (h * h) +
-				p * p)) * er2;
-			// z0
-			final double hw = 4.0 * h / w_eff, erMul = (14.0 * er_eff + 8.0) / (11.0 * er_eff);
-			final double he = h * erMul / w_eff;
-			zo_surf = Units.Z_0 * Math.log1p(hw * hw * erMul + Math.sqrt(16.0 * he * he + er2 *
-				Math.PI * Math.PI) * hw) / (2.8284271247461902 * Math.sqrt(er_eff + 1.0));
-			// q2-q10 are based on spacing
-			q1 = 0.8695 * Math.pow(u, .194);
-			zom = zo_surf * Math.sqrt(er_eff) / (Units.Z_0 * Math.PI);
-		}
-		@Override
-		public double eval(double x) {
-			final double ret;
-			if (x <= 0.0)
-				ret = Double.NaN;
+	private void tableSolve(final ImpedanceTable table, final double target,
+							final AbstractEntryBox<?> out) {
+		if (table == null || target < 0.0)
+			// Invalid inputs
+			out.setError(getString(R.string.guiPcbBadInput));
+		else {
+			// Prefer the answer closest to the last one
+			final double value = table.solve(target, out.getRawValue());
+			// Update output on screen
+			if (Double.isNaN(value) || value <= 0.0)
+				out.setError(getString(R.string.guiPcbNoSolution));
 			else {
-				final double g = x / h, u = w / h, emg = Math.exp(-g), lg = Math.log(g);
-				final double er_eff_o = (0.5 * er + 0.5 + a0 - er_eff) * Math.exp(-c0 *
-					Math.pow(g, d0)) + er_eff;
-				// Calculate q2 through q10 (why so hard?)
-				// Formula page has 1.89 instead of 0.189
-				final double q2 = 1.0 + 0.7519 * g + 0.189 * Math.pow(g, 2.31);
-				final double uq3 = Math.pow(u, Math.pow(16.6 + Math.pow(8.4 / g, 6.0), -0.387) +
-					0.004149377593360996 * (10.0 * lg - Math.log1p(Math.pow(g *
-					0.294117647058823529, 10))) + 0.1975);
-				final double q4 = 2.0 * q1 / (q2 * (emg * uq3 + (2.0 - emg) / uq3));
-				// Hooray for log1p and log rules
-				final double q5 = 1.794 + 1.14 * Math.log1p(0.638 / (g + 0.517 *
-					Math.pow(g, 2.43)));
-				final double q6 = 0.2305 + (10.0 * lg - Math.log1p(Math.pow(g *
-					0.172413793103448276, 10.0))) * 0.003554923569143263 + Math.log1p(0.598 *
-					Math.pow(g, 1.154)) * 0.19607843137254902;
-				final double q7 = (10.0 + 190.0 * g * g) / (1.0 + 82.3 * g * g * g);
-				// Consolidated q8 into q9
-				final double q9 = Math.log(q7) * (Math.exp(-6.5 - 0.95 * lg - Math.pow(g *
-					6.666666666666666667, 5.0)) + 0.060606060606060606);
-				final double q10 = q4 - q5 * Math.pow(u, q6 * Math.pow(u, -q9)) / q2;
-				// Calculate the final impedance... hope this works...
-				ret = (zo_surf * 2.0 * Math.sqrt(er_eff / er_eff_o)) / (1.0 - zom * q10) -
-					desired;
+				out.updateValue(value);
+				out.setError(null);
 			}
-			// XXX Rectify difference between altium and the web site (-10 ohms)
-			return ret;
 		}
 	}
-
+	@Override
+	protected void update(ValueGroup group) { }
 	/**
-	 * A class for EquationSolver to handle reverse solving of stripline differential impedance.
-	 *
-	 * Trace spacing is the IV (x). All units in mm.
+	 * Restarts the impedance plot for the current values. The curve is Z0 against width for
+	 * single ended scenarios, or Zdiff against spacing for differential pairs. It is calculated
+	 * in the background and drawn as the points arrive.
 	 */
-	private static class DiffStriplineEquation implements Equation {
-		/**
-		 * Used in impedance calculations.
-		 */
-		private static final double CF0 = 2.0 * Math.log(2.0);
-
-		/**
-		 * The desired impedance value for solving.
-		 */
-		private final double desired;
-		/**
-		 * The dielectric constant of the material.
-		 */
-		private final double er;
-		/**
-		 * The PCB thickness from the embedded trace to the nearest plane.
-		 */
-		private final double h;
-		/**
-		 * The trace thickness.
-		 */
-		private final double t;
-		/**
-		 * The trace width.
-		 */
-		private final double w;
-		/**
-		 * Coefficients for impedance calculation.
-		 */
-		private transient final double cfTB;
-		private transient final double kmul;
-		private transient final double z0i;
-		private transient final double z0mul;
-		private transient final double z0ss;
-
-		/**
-		 * Creates a new stripline equation context for calculating differential impedance.
-		 *
-		 * @param h the PCB thickness
-		 * @param w the trace width
-		 * @param t the trace thickness
-		 * @param er the relative dielectric permittivity
-		 * @param desired the desired impedance (set to 0.0 for forward calculation)
-		 */
-		public DiffStriplineEquation(final double h, final double w, final double t,
-									 final double er, final double desired) {
-			if (er <= 1.0)
-				throw new IllegalArgumentException("dielectric <= 1");
-			if (t <= 0.0)
-				throw new IllegalArgumentException("thickness <= 0");
-			if (h <= 0.0)
-				throw new IllegalArgumentException("height <= 0");
-			if (w <= 0.0)
-				throw new IllegalArgumentException("width <= 0");
-			if (desired < 0.0)
-				throw new IllegalArgumentException("desired < 0");
-			this.desired = desired;
-			this.er = er;
-			this.h = h;
-			this.t = t;
-			this.w = w;
-			// Precompute
-			final double b = 2.0 * h + t, ht = b - t;
-			kmul = Math.tanh(0.5 * Math.PI * w / b);
-			z0mul = 30.0 * Math.PI / Math.sqrt(er);
-			z0ss = new StriplineEquation(h, t, er, 0.0).eval(w);
-			// k' and ideal k
-			final double kir = ECECalc.elliptic(1.0 / Math.cosh(Math.PI * w / (2 * b))) /
-				ECECalc.elliptic(Math.tanh(Math.PI * w / (2 * b)));
-			z0i = Units.Z_0 * Math.PI * 0.25 * kir / Math.sqrt(er);
-			// Capacitance
-			final double bht = b / ht;
-			cfTB = 2.0 * bht * Math.log1p(bht) - t * Math.log(bht * bht - 1.0) / ht;
-		}
-		@Override
-		public double eval(double x) {
-			final double ret;
-			if (x <= 0.0)
-				ret = Double.NaN;
-			else {
-				final double b = 2.0 * h + t;
-				// k
-				final double ko = kmul / Math.tanh(0.5 * Math.PI * (w + x) / b);
-				final double koP = Math.sqrt(1.0 - ko * ko);
-				// z0
-				final double z0o = z0mul * ECECalc.elliptic(koP) / ECECalc.elliptic(ko);
-				// Differential impedance
-				if (x / t >= 5.0)
-					ret = 2.0 / (1.0 / z0ss - cfTB * (1.0 / z0o - 1.0 / z0i) / CF0);
-				else
-					ret = 1.0 / (1.0 / z0o - 0.5 / z0i - (0.0885 * (cfTB - CF0) / Math.PI -
-						1.0 / x) / (Units.Z_0 * Math.PI));
-			}
-			return ret;
+	private void updatePlot() {
+		final TraceScenario scenario = getScenario();
+		final double center = controls.getRawValue(scenario.isDifferential() ?
+			R.id.guiPcbTraceSpace : R.id.guiPcbTraceWidth);
+		TraceEquation equ = null;
+		if (sweep != null)
+			// Old values are no longer needed
+			sweep.cancel();
+		sweep = null;
+		plot.clear();
+		try {
+			equ = scenario.create(controls.getRawValue(R.id.guiPcbThickness),
+				controls.getRawValue(R.id.guiPcbTraceWidth),
+				controls.getRawValue(R.id.guiPcbTraceHeight),
+				controls.getRawValue(R.id.guiPcbDielectric), 0.0);
+		} catch (IllegalArgumentException ignore) { }
+		if (equ != null && center > 0.0 && !Double.isInfinite(center)) {
+			final TraceSweep newSweep = new TraceSweep(equ, center / SWEEP_RANGE, center *
+				SWEEP_RANGE);
+			// Plot is in meters so that SI prefixes work
+			plot.setMarker(center * 1E-3);
+			sweep = newSweep;
+			ParallelCalc.getExecutor().execute(new Runnable() {
+				@Override
+				public void run() {
+					newSweep.run(new SweepListener() {
+						@Override
+						public void pointsAdded(final double[] x, final double[] z,
+												final int count) {
+							for (int i = 0; i < count; i++)
+								x[i] *= 1E-3;
+							plot.post(new Runnable() {
+								@Override
+								public void run() {
+									if (!newSweep.isCancelled())
+										plot.addPoints(x, z, count);
+								}
+							});
+						}
+						@Override
+						public void sweepDone(TraceSweep sweep) { }
+					});
+				}
+			});
 		}
 	}
-}
\ No newline at end of file
+}
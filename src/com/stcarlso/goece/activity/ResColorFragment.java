@@ -34,7 +34,6 @@ import com.stcarlso.goece.R;
 import com.stcarlso.goece.ui.*;
 import com.stcarlso.goece.utility.EIATable;
 import com.stcarlso.goece.utility.EIAValue;
-import com.stcarlso.goece.utility.UIFunctions;
 import com.stcarlso.goece.utility.Units;
 
 /**
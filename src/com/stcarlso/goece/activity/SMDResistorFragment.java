@@ -36,7 +36,6 @@ import com.stcarlso.goece.R;
 import com.stcarlso.goece.ui.*;
 import com.stcarlso.goece.utility.EIATable;
 import com.stcarlso.goece.utility.EIAValue;
-import com.stcarlso.goece.utility.UIFunctions;
 
 /**
  * An activity for calculating SMD resistor (and capacitor, but those are never marked!) codes.
@@ -34,13 +34,15 @@ import com.stcarlso.goece.R;
 import com.stcarlso.goece.ui.ChildFragment;
 import com.stcarlso.goece.ui.CopyPasteListener;
 import com.stcarlso.goece.ui.ResSeriesSpinner;
+import com.stcarlso.goece.ui.UIFunctions;
 import com.stcarlso.goece.ui.ValueGroup;
 import com.stcarlso.goece.utility.ECECalc;
 import com.stcarlso.goece.utility.EIAValue;
+import com.stcarlso.goece.utility.ParallelResCandidate;
 import com.stcarlso.goece.utility.ResCandidate;
-import com.stcarlso.goece.utility.UIFunctions;
+import com.stcarlso.goece.utility.ResistorSearch;
+import com.stcarlso.goece.utility.SeriesResCandidate;
 
-import java.util.List;
 import java.util.Locale;
 
 /**
@@ -78,8 +80,8 @@ public class SerParFragment extends ChildFragment {
 	 * using the target value.
 	 */
 	private void calculateParallel() {
-		final ResCandidate best = doCalculate(new ParallelResCandidate(0.0, 0.0,
-			controls.getRawValue(R.id.guiSerTarget)));
+		final ResCandidate best = ResistorSearch.findPair(new ParallelResCandidate(0.0,
+			0.0, controls.getRawValue(R.id.guiSerTarget)), seriesCtrl.getSeries());
 		// Display it
 		controls.setRawValue(R.id.guiSerParallel1, best.getR1());
 		controls.setRawValue(R.id.guiSerParallel2, best.getR2());
@@ -90,45 +92,13 @@ public class SerParFragment extends ChildFragment {
 	 * using the target value.
 	 */
 	private void calculateSeries() {
-		final ResCandidate best = doCalculate(new SeriesResCandidate(0.0, 0.0,
-			controls.getRawValue(R.id.guiSerTarget)));
+		final ResCandidate best = ResistorSearch.findPair(new SeriesResCandidate(0.0,
+			0.0, controls.getRawValue(R.id.guiSerTarget)), seriesCtrl.getSeries());
 		// Display it
 		controls.setRawValue(R.id.guiSerSeries1, best.getR1());
 		controls.setRawValue(R.id.guiSerSeries2, best.getR2());
 		updateErrors();
 	}
-	/**
-	 * Searches for the best resistor pair matching the template. The resistor series specified
-	 * in the UI is used.
-	 *
-	 * @param template the template specifying series or parallel and the target value
-	 * @return the best matching candidate pair
-	 */
-	private ResCandidate doCalculate(final ResCandidate template) {
-		double value;
-		final double[] candidate = template.generateValues(seriesCtrl.getSeries());
-		// "One-direction" search only uses N time!
-		int end = candidate.length - 1;
-		final double first = candidate[0];
-		ResCandidate best = template.create(first, first), low;
-		for (int i = 0; i <= end; i++) {
-			low = null;
-			value = candidate[i];
-			// Iterate down to just below it
-			while (end >= i && !(low = template.create(value, candidate[end])).possible())
-				end--;
-			// Try that value
-			if (low != null) {
-				if (low.compareTo(best) < 0) best = low;
-				if (end < candidate.length - 1) {
-					// And the one just above it
-					final ResCandidate hi = template.create(value, candidate[end + 1]);
-					if (hi.compareTo(best) < 0) best = hi;
-				}
-			}
-		}
-		return best;
-	}
 	@Override
 	protected String getTitle(Context parent) {
 		return parent.getString(R.string.guiSerPar);
@@ -242,74 +212,4 @@ public class SerParFragment extends ChildFragment {
 		final EIAValue finalValue = new EIAValue(target, seriesCtrl.getSeries());
 		UIFunctions.checkEIATable(finalValue, stdCtrl);
 	}
-
-	/**
-	 * Represents a pair of resistors that are a candidate for the best series match.
-	 */
-	protected static class SeriesResCandidate extends ResCandidate {
-		/**
-		 * Creates a new candidate resistor pair.
-		 *
-		 * @param r1 the first resistor value
-		 * @param r2 the second resistor value
-		 * @param target the target value to be achieved
-		 */
-		protected SeriesResCandidate(final double r1, final double r2, final double target) {
-			super(r1, r2, r1 + r2, target);
-		}
-		@Override
-		public ResCandidate create(double r1, double r2) {
-			return new SeriesResCandidate(r1, r2, getTarget());
-		}
-		@Override
-		protected void populateValues(int[] values, List<Double> candidates) {
-			final int maxIndex = 8 * values.length + 1;
-			for (int i = 0; i < maxIndex; i++) {
-				final double cv = ECECalc.ordinalResistor(i, values);
-				// Include the value that fails
-				candidates.add(cv);
-				if (!possible(cv)) break;
-			}
-		}
-		@Override
-		public boolean possible(double candidate) {
-			// If value > candidate, impossible to make a series since series increases R...
-			return candidate <= getTarget();
-		}
-	}
-
-	/**
-	 * Represents a pair of resistors that are a candidate for the best parallel match.
-	 */
-	protected static class ParallelResCandidate extends ResCandidate {
-		/**
-		 * Creates a new candidate resistor pair.
-		 *
-		 * @param r1 the first resistor value
-		 * @param r2 the second resistor value
-		 * @param target the target value to be achieved
-		 */
-		protected ParallelResCandidate(final double r1, final double r2, final double target) {
-			super(r1, r2, ECECalc.parallelResistance(r1, r2), target);
-		}
-		@Override
-		public ResCandidate create(double r1, double r2) {
-			return new ParallelResCandidate(r1, r2, getTarget());
-		}
-		@Override
-		protected void populateValues(int[] values, List<Double> candidates) {
-			final int maxIndex = 8 * values.length + 1;
-			for (int i = maxIndex - 1; i >= 0; i--) {
-				final double cv = ECECalc.ordinalResistor(i, values);
-				// Include the value that fails
-				candidates.add(cv);
-				if (!possible(cv)) break;
-			}
-		}
-		@Override
-		public boolean possible(double candidate) {
-			// If value < candidate, impossible to make a parallel since parallel decreases R...
-			return candidate >= getTarget();
-		}
-	}
-}
\ No newline at end of file
+}
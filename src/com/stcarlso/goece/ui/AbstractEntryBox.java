@@ -66,6 +66,10 @@ public abstract class AbstractEntryBox<T extends EngineeringValue> extends Butto
 	 * The value stored in this box.
 	 */
 	protected T value;
+	/**
+	 * Reused to format the value each time the text is updated.
+	 */
+	private StringBuilder valueText;
 
 	public AbstractEntryBox(Context context) {
 		super(context);
@@ -246,7 +250,12 @@ public abstract class AbstractEntryBox<T extends EngineeringValue> extends Butto
 		text.setSpan(new StyleSpan(Typeface.ITALIC), 0, desc.length(),
 			Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
 		text.append('\n');
-		text.append(getValue().toString());
+		// Created on first use, since subclasses may update the text during init()
+		if (valueText == null)
+			valueText = new StringBuilder(32);
+		else
+			valueText.setLength(0);
+		text.append(getValue().appendTo(valueText));
 		setText(text);
 	}
 	/**
@@ -257,15 +266,26 @@ public abstract class AbstractEntryBox<T extends EngineeringValue> extends Butto
 	 */
 	public abstract void updateValue(final double rawValue);
 	/**
-	 * Changes the raw value of this value entry box, keeping all other engineering parameters
-	 * the same. Calls the calculation listener, exactly as if this value had been user-entered
-	 * rather than programmatically set.
+	 * Changes the raw value and tolerance of this value entry box, keeping all other
+	 * engineering parameters the same.
 	 *
 	 * @param rawValue the new raw value to show in this entry box
+	 * @param tolerance the new tolerance (0.1 = 10%, 0.01 = 1%) or 0 to suppress
+	 */
+	public abstract void updateValueTolerance(final double rawValue, final double tolerance);
+	/**
+	 * Changes the raw value, tolerance, and phase angle (if complex) of this value entry box,
+	 * keeping the units and significant figures the same. Calls the calculation listener,
+	 * exactly as if this value had been user-entered rather than programmatically set.
+	 *
+	 * @param newValue the new value to show in this entry box
 	 */
 	@Override
-	public void updateValueUser(final double rawValue) {
-		updateValue(rawValue);
+	public void updateValueUser(final EngineeringValue newValue) {
+		final double rawValue = newValue.getValue();
+		updateValueTolerance(rawValue, newValue.getTolerance());
+		// Only complex boxes use the angle, and keep the tolerance just set
+		updateValue(rawValue, newValue.getAngle());
 		callOnCalculateListener();
 	}
 	/**
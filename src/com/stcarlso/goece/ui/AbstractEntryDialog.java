@@ -30,7 +30,6 @@ import android.os.Bundle;
 import android.widget.EditText;
 import android.widget.Spinner;
 import com.stcarlso.goece.utility.EngineeringValue;
-import com.stcarlso.goece.utility.UIFunctions;
 
 /**
  * Abstract parent of ValueEntryDialog and CustomEntryDialog containing shared logic.
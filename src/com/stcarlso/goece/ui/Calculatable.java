@@ -22,7 +22,7 @@
  * SOFTWARE.
  **********************************************************************************************/
 
-package com.stcarlso.goece.utility;
+package com.stcarlso.goece.ui;
 
 /**
  * An event handler for recalculation events. This class is triggered by view classes when
@@ -31,9 +31,6 @@ import android.support.v4.app.Fragment;
 import android.util.Log;
 import android.view.View;
 import android.widget.*;
-import com.stcarlso.goece.utility.Calculatable;
-import com.stcarlso.goece.utility.UIFunctions;
-import com.stcarlso.goece.utility.ValueControl;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -34,10 +34,6 @@ import android.view.View;
 import android.widget.Button;
 import android.widget.LinearLayout;
 import com.stcarlso.goece.R;
-import com.stcarlso.goece.utility.Calculatable;
-import com.stcarlso.goece.utility.ECESavedState;
-import com.stcarlso.goece.utility.UIFunctions;
-import com.stcarlso.goece.utility.ValueControl;
 
 /**
  * A component which displays colors on the screen and can be checked for the selected color.
@@ -32,7 +32,6 @@ import android.util.Log;
 import android.view.View;
 import com.stcarlso.goece.R;
 import com.stcarlso.goece.utility.ComplexValue;
-import com.stcarlso.goece.utility.UIFunctions;
 
 /**
  * A button with units that when clicked brings up a ComplexEntryDialog.
@@ -152,4 +151,10 @@ public class ComplexEntryBox extends AbstractEntryBox<ComplexValue> implements
 	public void updateValue(final double rawValue) {
 		updateValue(rawValue, getValue().getAngle());
 	}
+	@Override
+	public void updateValueTolerance(final double rawValue, final double tolerance) {
+		final ComplexValue old = getValue();
+		setValue(new ComplexValue(rawValue, old.getAngle(), tolerance, old.getSigfigs(),
+			old.getUnits()));
+	}
 }
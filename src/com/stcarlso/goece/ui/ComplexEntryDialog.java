@@ -35,9 +35,8 @@ import android.view.WindowManager.LayoutParams;
 import android.widget.*;
 import com.stcarlso.goece.R;
 import com.stcarlso.goece.utility.ComplexValue;
+import com.stcarlso.goece.utility.EngineeringParser;
 import com.stcarlso.goece.utility.EngineeringValue;
-import com.stcarlso.goece.utility.IgnoreOnClickListener;
-import com.stcarlso.goece.utility.UIFunctions;
 
 import java.util.Locale;
 
@@ -83,8 +82,8 @@ public class ComplexEntryDialog extends DialogFragment implements
 	 * @return the raw value
 	 */
 	private static double entryToString(final EditText value, final Spinner unit) {
-		return EngineeringValue.valueFromSigExp(Double.parseDouble(value.getText().
-			toString()), unit.getSelectedItemPosition());
+		return EngineeringParser.parseSignificand(value.getText(), unit.
+			getSelectedItemPosition());
 	}
 
 	/**
@@ -33,8 +33,9 @@ import android.content.Context;
 import android.content.DialogInterface;
 import android.view.View;
 import com.stcarlso.goece.R;
+import com.stcarlso.goece.utility.ComplexValue;
+import com.stcarlso.goece.utility.EngineeringParser;
 import com.stcarlso.goece.utility.EngineeringValue;
-import com.stcarlso.goece.utility.UIFunctions;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -53,6 +54,10 @@ public class CopyPasteListener implements View.OnLongClickListener {
 	 * The description of the copied value.
 	 */
 	private final String description;
+	/**
+	 * Parses values from the clipboard.
+	 */
+	private final EngineeringParser parser;
 	/**
 	 * If nonzero, changes the copy listener to "copy 3900.0 mm" instead of "copy 3.90 kmm" on
 	 * fixed unit values, with the number of sig figs fixed at this value.
@@ -77,6 +82,7 @@ public class CopyPasteListener implements View.OnLongClickListener {
 			throw new NullPointerException("target");
 		activity = UIFunctions.getActivity(target.getContext());
 		description = target.getDescription();
+		parser = new EngineeringParser();
 		sigFigOverride = 0;
 		this.target = target;
 		value = new EngineeringValue(0.0);
@@ -92,6 +98,7 @@ public class CopyPasteListener implements View.OnLongClickListener {
 			throw new NullPointerException("fragment");
 		activity = fragment.getActivity();
 		this.description = description;
+		parser = new EngineeringParser();
 		sigFigOverride = 0;
 		target = null;
 		value = new EngineeringValue(0.0);
@@ -126,7 +133,8 @@ public class CopyPasteListener implements View.OnLongClickListener {
 		}
 	}
 	/**
-	 * Checks to see if the clipboard contains a pastable value.
+	 * Checks to see if the clipboard contains a pastable value. Complex values can only be
+	 * pasted into complex fields. A tolerance in the text replaces the tolerance of the field.
 	 *
 	 * @return the clipboard value parsed if it can be pasted, or null otherwise
 	 */
@@ -137,14 +145,15 @@ public class CopyPasteListener implements View.OnLongClickListener {
 		if (manager.hasPrimaryClip() && target != null && target.isEditable()) {
 			// Clipboard has contents, might as well search all
 			final ClipData data = manager.getPrimaryClip();
+			final boolean complex = value instanceof ComplexValue;
 			for (int i = 0; i < data.getItemCount(); i++) {
 				final CharSequence toPaste = data.getItemAt(i).getText();
-				if (toPaste != null && toPaste.length() > 0)
-					// Look for pastable text
-					try {
-						tp = value.newValue(Double.parseDouble(toPaste.toString()));
-						break;
-					} catch (NumberFormatException ignore) { }
+				// Look for pastable text, units must match if present
+				if (toPaste != null && parser.parse(toPaste, value.getUnits()) && (complex ||
+						!parser.isComplex())) {
+					tp = parser.toValue(value);
+					break;
+				}
 			}
 		}
 		return tp;
@@ -262,9 +271,8 @@ public class CopyPasteListener implements View.OnLongClickListener {
 					Context.CLIPBOARD_SERVICE);
 				manager.setPrimaryClip(ClipData.newPlainText(description, copyText.get(which)));
 			} else if (which == len && toPaste != null && target != null && target.isEditable())
-				// Paste the text from the system clipboard
-				// If we allow imaginary pasting in the future this will need to be updated
-				target.updateValueUser(toPaste.getValue());
+				// Paste the text from the system clipboard, exactly as offered
+				target.updateValueUser(toPaste);
 			dialog.dismiss();
 		}
 	}
@@ -25,6 +25,7 @@
 package com.stcarlso.goece.ui;
 
 import android.content.Context;
+import com.stcarlso.goece.utility.EngineeringValue;
 
 /**
  * A marker interface shared by classes which can act as value sources for CopyPasteListener.
@@ -50,11 +51,11 @@ public interface CopyValueSource {
 	 */
 	boolean isEditable();
 	/**
-	 * Changes the value of this object to the specified (pasted) value. This method is named
-	 * to avoid clashing with AbstractEntryBox.updateValue which does not call on-calculate
-	 * listeners.
+	 * Changes the value of this object to the specified (pasted) value, including its
+	 * tolerance and, for complex values, its phase angle. This method is named to avoid
+	 * clashing with AbstractEntryBox.updateValue which does not call on-calculate listeners.
 	 *
 	 * @param newValue the pasted value to set
 	 */
-	void updateValueUser(double newValue);
+	void updateValueUser(EngineeringValue newValue);
 }
@@ -37,7 +37,6 @@ import android.view.View;
 import com.stcarlso.goece.R;
 import com.stcarlso.goece.utility.CustomUnit;
 import com.stcarlso.goece.utility.EngineeringValue;
-import com.stcarlso.goece.utility.UIFunctions;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -238,4 +237,9 @@ public class CustomEntryBox extends AbstractEntryBox<EngineeringValue> implement
 	public void updateValue(final double rawValue) {
 		setValue(getValue().newValue(rawValue));
 	}
+	@Override
+	public void updateValueTolerance(final double rawValue, final double tolerance) {
+		final EngineeringValue old = getValue();
+		setValue(new EngineeringValue(rawValue, tolerance, old.getSigfigs(), old.getUnits()));
+	}
 }
@@ -39,8 +39,6 @@ import android.widget.Spinner;
 import com.stcarlso.goece.R;
 import com.stcarlso.goece.utility.CustomUnit;
 import com.stcarlso.goece.utility.EngineeringValue;
-import com.stcarlso.goece.utility.IgnoreOnClickListener;
-import com.stcarlso.goece.utility.UIFunctions;
 
 import java.util.ArrayList;
 import java.util.List;
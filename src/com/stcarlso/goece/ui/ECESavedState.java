@@ -0,0 +1,213 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.ui;
+
+import android.os.BadParcelableException;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.view.View;
+import com.stcarlso.goece.utility.ComplexValue;
+import com.stcarlso.goece.utility.EIATable;
+import com.stcarlso.goece.utility.EIAValue;
+import com.stcarlso.goece.utility.EngineeringValue;
+
+import java.io.Serializable;
+
+/**
+ * Boilerplate code that allows our custom components to save state across screen rotations.
+ *
+ * Engineering values and integers are written with a compact tagged layout instead of Java
+ * serialization, which would write class descriptors and use reflection for every entry box
+ * on every rotation. Other types fall back to serialization.
+ */
+public class ECESavedState<T extends Serializable> extends View.BaseSavedState {
+	/**
+	 * The version of the saved state layout, stored above the type tag.
+	 */
+	private static final int LAYOUT_VERSION = 1;
+	/**
+	 * Tag for a ComplexValue: the EngineeringValue fields, then the angle.
+	 */
+	private static final int TAG_COMPLEX = 3;
+	/**
+	 * Tag for an EIAValue: the EngineeringValue fields, then the series ordinal.
+	 */
+	private static final int TAG_EIA = 4;
+	/**
+	 * Tag for an EngineeringValue: value, tolerance, significant figures, and units.
+	 */
+	private static final int TAG_ENGINEERING = 2;
+	/**
+	 * Tag for an Integer.
+	 */
+	private static final int TAG_INTEGER = 1;
+	/**
+	 * Tag for no value.
+	 */
+	private static final int TAG_NULL = 0;
+	/**
+	 * Tag for any other type, written with Java serialization.
+	 */
+	private static final int TAG_SERIALIZABLE = 5;
+
+	/**
+	 * The saved state
+	 */
+	private T state;
+
+	private ECESavedState(final Parcel source) {
+		// Create from an object
+		super(source);
+		state = (T)readState(source);
+	}
+	/**
+	 * Create a new saved state with no value.
+	 *
+	 * @param superState the parent state
+	 */
+	public ECESavedState(final Parcelable superState) {
+		this(superState, null);
+	}
+	/**
+	 * Create a new saved state with an initial value.
+	 *
+	 * @param superState the parent state
+	 * @param value the state to store
+	 */
+	public ECESavedState(final Parcelable superState, T value) {
+		super(superState);
+		setValue(value);
+	}
+	/**
+	 * Reads a saved state value written by writeState().
+	 *
+	 * @param source the parcel to read
+	 * @return the saved state value
+	 */
+	private static Object readState(final Parcel source) {
+		final int header = source.readInt(), version = header >>> 8, tag = header & 0xFF;
+		if (version != LAYOUT_VERSION)
+			throw new BadParcelableException("Unknown saved state version: " + version);
+		final Object ret;
+		if (tag == TAG_NULL)
+			ret = null;
+		else if (tag == TAG_INTEGER)
+			ret = source.readInt();
+		else if (tag == TAG_SERIALIZABLE)
+			ret = source.readSerializable();
+		else if (tag >= TAG_ENGINEERING && tag <= TAG_EIA) {
+			final double value = source.readDouble(), tolerance = source.readDouble();
+			final int sigfigs = source.readInt();
+			final String units = source.readString();
+			if (tag == TAG_COMPLEX)
+				ret = new ComplexValue(value, source.readDouble(), tolerance, sigfigs, units);
+			else if (tag == TAG_EIA) {
+				final EIATable.EIASeries[] series = EIATable.EIASeries.values();
+				final int ordinal = source.readInt();
+				if (ordinal < 0 || ordinal >= series.length)
+					throw new BadParcelableException("Unknown EIA series: " + ordinal);
+				ret = new EIAValue(value, series[ordinal], tolerance, units);
+			} else
+				ret = new EngineeringValue(value, tolerance, sigfigs, units);
+		} else
+			throw new BadParcelableException("Unknown saved state tag: " + tag);
+		return ret;
+	}
+	/**
+	 * Writes a saved state value with the tagged layout.
+	 *
+	 * @param dest the parcel to write
+	 * @param value the saved state value
+	 */
+	private static void writeState(final Parcel dest, final Serializable value) {
+		final Class<?> type = (value == null) ? null : value.getClass();
+		// Subclasses must be serialized to keep their extra fields
+		if (type == null)
+			dest.writeInt((LAYOUT_VERSION << 8) | TAG_NULL);
+		else if (type == Integer.class) {
+			dest.writeInt((LAYOUT_VERSION << 8) | TAG_INTEGER);
+			dest.writeInt((Integer)value);
+		} else if (type == EngineeringValue.class || type == ComplexValue.class ||
+				type == EIAValue.class) {
+			final EngineeringValue ev = (EngineeringValue)value;
+			final int tag;
+			if (type == ComplexValue.class)
+				tag = TAG_COMPLEX;
+			else if (type == EIAValue.class)
+				tag = TAG_EIA;
+			else
+				tag = TAG_ENGINEERING;
+			dest.writeInt((LAYOUT_VERSION << 8) | tag);
+			dest.writeDouble(ev.getValue());
+			dest.writeDouble(ev.getTolerance());
+			dest.writeInt(ev.getSigfigs());
+			dest.writeString(ev.getUnits());
+			if (tag == TAG_COMPLEX)
+				dest.writeDouble(ev.getAngle());
+			else if (tag == TAG_EIA)
+				dest.writeInt(((EIAValue)ev).getSeries().ordinal());
+		} else {
+			dest.writeInt((LAYOUT_VERSION << 8) | TAG_SERIALIZABLE);
+			dest.writeSerializable(value);
+		}
+	}
+	/**
+	 * Retrieves the state from this object.
+	 *
+	 * @return the stored state, or null if none has been set
+	 */
+	public T getValue() {
+		return state;
+	}
+	/**
+	 * Stores the state in this object.
+	 *
+	 * @param value the state to store
+	 */
+	public void setValue(T value) {
+		state = value;
+	}
+	// Write the parcel, then save our state
+	@Override
+	public void writeToParcel(Parcel dest, int flags) {
+		super.writeToParcel(dest, flags);
+		writeState(dest, state);
+	}
+
+	/**
+	 * Boilerplate required field to generate saved states.
+	 */
+	public static final Parcelable.Creator<ECESavedState> CREATOR =
+		new Parcelable.Creator<ECESavedState>() {
+			@Override
+			public ECESavedState createFromParcel(Parcel source) {
+				return new ECESavedState(source);
+			}
+			@Override
+			public ECESavedState[] newArray(int size) {
+				return new ECESavedState[size];
+			}
+		};
+}
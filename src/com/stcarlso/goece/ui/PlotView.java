@@ -0,0 +1,273 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.ui;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.*;
+import android.util.AttributeSet;
+import android.util.TypedValue;
+import android.view.View;
+import com.stcarlso.goece.R;
+import com.stcarlso.goece.utility.EngineeringValue;
+
+/**
+ * A custom view which draws a single curve with a logarithmic X axis and a linear Y axis.
+ * Points can be appended as they are calculated, and the axes are rescaled to fit. NaN
+ * values of Y leave a gap in the curve.
+ *
+ * All methods must be called on the UI thread.
+ */
+public class PlotView extends View {
+	/**
+	 * Attributes which are requested to determine the themed font size and color.
+	 */
+	private static final int[] ATTRS = new int[] { android.R.attr.textSize,
+		android.R.attr.textColor };
+
+	/**
+	 * Paint used for the axes and labels.
+	 */
+	private final Paint axisPaint;
+	/**
+	 * The number of points on the curve.
+	 */
+	private int count;
+	/**
+	 * Paint used for the curve.
+	 */
+	private final Paint curvePaint;
+	/**
+	 * The labels for the minimum and maximum of each axis, in the order X min, X max, Y min,
+	 * Y max.
+	 */
+	private final String[] labels;
+	/**
+	 * The X value to highlight with a vertical line, or NaN if none.
+	 */
+	private double marker;
+	/**
+	 * The path of the curve, reused for each draw (Android Studio dislikes allocations in
+	 * onDraw).
+	 */
+	private final Path path;
+	/**
+	 * The X values of the points.
+	 */
+	private double[] xs;
+	/**
+	 * The units shown on the X axis labels.
+	 */
+	private String xUnits;
+	/**
+	 * The Y values of the points.
+	 */
+	private double[] ys;
+	/**
+	 * The range of the finite Y values of the points.
+	 */
+	private double yMax, yMin;
+	/**
+	 * The units shown on the Y axis labels.
+	 */
+	private String yUnits;
+
+	public PlotView(Context context) {
+		super(context);
+		axisPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+		curvePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+		labels = new String[4];
+		path = new Path();
+		init(context, null);
+	}
+	public PlotView(Context context, AttributeSet attrs) {
+		super(context, attrs);
+		axisPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+		curvePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+		labels = new String[4];
+		path = new Path();
+		init(context, attrs);
+	}
+	public PlotView(Context context, AttributeSet attrs, int defStyleAttr) {
+		super(context, attrs, defStyleAttr);
+		axisPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+		curvePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+		labels = new String[4];
+		path = new Path();
+		init(context, attrs);
+	}
+	/**
+	 * Appends points to the end of the curve. Points must be in order of increasing X, and
+	 * all X values must be positive.
+	 *
+	 * @param x the X values of the new points
+	 * @param y the Y values of the new points
+	 * @param n the number of points to add from the arrays
+	 */
+	public void addPoints(final double[] x, final double[] y, final int n) {
+		if (count + n > xs.length) {
+			final int size = Math.max(xs.length << 1, count + n);
+			final double[] newX = new double[size], newY = new double[size];
+			System.arraycopy(xs, 0, newX, 0, count);
+			System.arraycopy(ys, 0, newY, 0, count);
+			xs = newX;
+			ys = newY;
+		}
+		System.arraycopy(x, 0, xs, count, n);
+		System.arraycopy(y, 0, ys, count, n);
+		for (int i = 0; i < n; i++) {
+			final double value = y[i];
+			if (!Double.isNaN(value) && !Double.isInfinite(value)) {
+				if (value < yMin)
+					yMin = value;
+				if (value > yMax)
+					yMax = value;
+			}
+		}
+		count += n;
+		updateLabels();
+		invalidate();
+	}
+	/**
+	 * Removes all points from the curve.
+	 */
+	public void clear() {
+		count = 0;
+		yMax = Double.NEGATIVE_INFINITY;
+		yMin = Double.POSITIVE_INFINITY;
+		updateLabels();
+		invalidate();
+	}
+	/**
+	 * Initializes the required state members for plot rendering.
+	 */
+	private void init(final Context context, final AttributeSet attrs) {
+		xUnits = "";
+		yUnits = "";
+		if (attrs != null) {
+			// Read attributes for units
+			final TypedArray values = context.getTheme().obtainStyledAttributes(attrs,
+				R.styleable.PlotView, 0, 0);
+			final String x = values.getString(R.styleable.PlotView_xUnits);
+			final String y = values.getString(R.styleable.PlotView_yUnits);
+			if (x != null)
+				xUnits = x;
+			if (y != null)
+				yUnits = y;
+			values.recycle();
+		}
+		final TypedArray values = context.getTheme().obtainStyledAttributes(ATTRS);
+		// Text size - element 0
+		axisPaint.setTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP,
+			values.getDimensionPixelSize(0, 12), getResources().getDisplayMetrics()));
+		// Text color - element 1
+		final int color = values.getColor(1, Color.WHITE);
+		values.recycle();
+		axisPaint.setColor(color);
+		axisPaint.setStyle(Paint.Style.FILL);
+		curvePaint.setColor(color);
+		curvePaint.setStyle(Paint.Style.STROKE);
+		curvePaint.setStrokeWidth(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 1.5f,
+			getResources().getDisplayMetrics()));
+		marker = Double.NaN;
+		xs = new double[64];
+		ys = new double[64];
+		clear();
+	}
+	@Override
+	protected void onDraw(Canvas canvas) {
+		final float textHeight = axisPaint.getTextSize();
+		final float left = getPaddingLeft(), top = getPaddingTop() + textHeight;
+		final float right = getWidth() - getPaddingRight(), bottom = getHeight() -
+			getPaddingBottom() - 1.5f * textHeight;
+		// Axes
+		canvas.drawLine(left, top, left, bottom, axisPaint);
+		canvas.drawLine(left, bottom, right, bottom, axisPaint);
+		if (count > 1 && yMax >= yMin && right > left && bottom > top) {
+			final double logMin = Math.log(xs[0]), logMax = Math.log(xs[count - 1]);
+			final double sx = (right - left) / (logMax - logMin), yRange = yMax - yMin;
+			final double sy = (bottom - top) / ((yRange > 0.0) ? yRange : 1.0);
+			boolean pen = false;
+			path.rewind();
+			for (int i = 0; i < count; i++) {
+				final double y = ys[i];
+				if (Double.isNaN(y) || Double.isInfinite(y))
+					// Leave a gap
+					pen = false;
+				else {
+					final float px = (float)(left + (Math.log(xs[i]) - logMin) * sx);
+					final float py = (float)(bottom - (y - yMin) * sy);
+					if (pen)
+						path.lineTo(px, py);
+					else
+						path.moveTo(px, py);
+					pen = true;
+				}
+			}
+			canvas.drawPath(path, curvePaint);
+			if (marker >= xs[0] && marker <= xs[count - 1]) {
+				// Current value
+				final float mx = (float)(left + (Math.log(marker) - logMin) * sx);
+				canvas.drawLine(mx, top, mx, bottom, axisPaint);
+			}
+			// Labels
+			axisPaint.setTextAlign(Paint.Align.LEFT);
+			canvas.drawText(labels[0], left, bottom + 1.2f * textHeight, axisPaint);
+			canvas.drawText(labels[3], left + 0.5f * textHeight, top, axisPaint);
+			canvas.drawText(labels[2], left + 0.5f * textHeight, bottom - 0.3f * textHeight,
+				axisPaint);
+			axisPaint.setTextAlign(Paint.Align.RIGHT);
+			canvas.drawText(labels[1], right, bottom + 1.2f * textHeight, axisPaint);
+		}
+	}
+	/**
+	 * Highlights an X value with a vertical line.
+	 *
+	 * @param x the X value to highlight, or NaN to remove the highlight
+	 */
+	public void setMarker(final double x) {
+		marker = x;
+		invalidate();
+	}
+	/**
+	 * Regenerates the axis labels after the range of the data has changed.
+	 */
+	private void updateLabels() {
+		if (count > 0) {
+			labels[0] = new EngineeringValue(xs[0], xUnits).toString();
+			labels[1] = new EngineeringValue(xs[count - 1], xUnits).toString();
+		} else {
+			labels[0] = "";
+			labels[1] = "";
+		}
+		if (yMax >= yMin) {
+			labels[2] = new EngineeringValue(yMin, yUnits).toString();
+			labels[3] = new EngineeringValue(yMax, yUnits).toString();
+		} else {
+			labels[2] = "";
+			labels[3] = "";
+		}
+	}
+}
@@ -22,7 +22,7 @@
  * SOFTWARE.
  **********************************************************************************************/
 
-package com.stcarlso.goece.utility;
+package com.stcarlso.goece.ui;
 
 import android.app.Activity;
 import android.app.AlertDialog;
@@ -37,6 +37,9 @@ import android.view.View;
 import android.view.inputmethod.InputMethodManager;
 import android.widget.TextView;
 import com.stcarlso.goece.R;
+import com.stcarlso.goece.utility.EIATable;
+import com.stcarlso.goece.utility.EIAValue;
+import com.stcarlso.goece.utility.EngineeringValue;
 
 import java.util.Locale;
 
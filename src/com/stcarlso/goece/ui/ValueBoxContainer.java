@@ -28,6 +28,7 @@ import android.app.Activity;
 import android.util.SparseArray;
 import android.view.View;
 import com.stcarlso.goece.utility.EngineeringValue;
+import com.stcarlso.goece.utility.Interval;
 
 /**
  * A really simple class intended to reduce the massive number of repeated casts and
@@ -92,6 +93,28 @@ public class ValueBoxContainer extends SparseArray<AbstractEntryBox<? extends En
 			value = null;
 		return value;
 	}
+	/**
+	 * Changes the value of a value entry box to the nominal value of an interval, with the
+	 * worst case tolerance of the interval so that the real minimum and maximum are shown.
+	 * Tolerances above Interval.MAX_TOLERANCE cannot be shown and are limited to it.
+	 *
+	 * @param id the ID of the control to change
+	 * @param newValue the new value to put into that control; if the nominal value is NaN, the
+	 * red error icon is shown instead
+	 */
+	public void setInterval(final int id, final Interval newValue) {
+		final AbstractEntryBox<?> box = get(id);
+		if (box != null) {
+			final double nominal = newValue.getNominal();
+			if (Double.isNaN(nominal))
+				box.setError("");
+			else {
+				box.setError(null);
+				box.updateValueTolerance(nominal, Interval.limitTolerance(newValue.
+					getTolerance()));
+			}
+		}
+	}
 	/**
 	 * Changes the value of a value entry box.
 	 *
@@ -22,7 +22,7 @@
  * SOFTWARE.
  **********************************************************************************************/
 
-package com.stcarlso.goece.utility;
+package com.stcarlso.goece.ui;
 
 import android.content.SharedPreferences;
 
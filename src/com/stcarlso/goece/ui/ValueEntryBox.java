@@ -32,7 +32,6 @@ import android.util.Log;
 import android.view.View;
 import com.stcarlso.goece.R;
 import com.stcarlso.goece.utility.EngineeringValue;
-import com.stcarlso.goece.utility.UIFunctions;
 
 /**
  * A button with units that when clicked brings up a ValueEntryDialog.
@@ -113,4 +112,9 @@ public class ValueEntryBox extends AbstractEntryBox<EngineeringValue> implements
 	public void updateValue(final double rawValue) {
 		setValue(getValue().newValue(rawValue));
 	}
+	@Override
+	public void updateValueTolerance(final double rawValue, final double tolerance) {
+		final EngineeringValue old = getValue();
+		setValue(new EngineeringValue(rawValue, tolerance, old.getSigfigs(), old.getUnits()));
+	}
 }
@@ -85,9 +85,9 @@ public class ValueEntryDialog extends AbstractEntryDialog implements View.OnKeyL
 
 	@Override
 	protected double getEnteredValue() {
-		// Reconstruct from units and value, fairly simple
-		return EngineeringValue.valueFromSigExp(Double.parseDouble(valueEntry.getText().
-			toString()), unitSelect.getSelectedItemPosition());
+		// Reconstruct from units and value, a prefix in the text overrides the unit selected
+		return EngineeringParser.parseSignificand(valueEntry.getText(), unitSelect.
+			getSelectedItemPosition());
 	}
 	@Override
 	public boolean onKey(View v, int keyCode, KeyEvent event) {
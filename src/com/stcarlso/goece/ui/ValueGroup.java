@@ -25,7 +25,6 @@
 package com.stcarlso.goece.ui;
 
 import android.util.SparseArray;
-import com.stcarlso.goece.utility.ValueControl;
 
 import java.util.*;
 
@@ -33,7 +33,6 @@ import android.util.Log;
 import android.widget.TextView;
 import com.stcarlso.goece.R;
 import com.stcarlso.goece.utility.EngineeringValue;
-import com.stcarlso.goece.utility.UIFunctions;
 
 /**
  * An extension of TextView which accepts values to be displayed, allows them to be copied by
@@ -61,6 +60,10 @@ public class ValueOutputField extends TextView implements CopyValueSource {
 	 * The value to be displayed or copied.
 	 */
 	private EngineeringValue value;
+	/**
+	 * Reused to format the value each time the text is updated.
+	 */
+	private StringBuilder valueText;
 
 	public ValueOutputField(Context context) {
 		super(context);
@@ -159,14 +162,19 @@ public class ValueOutputField extends TextView implements CopyValueSource {
 		}
 		// Use appropriate display method
 		final EngineeringValue v = getValue();
+		if (valueText == null)
+			valueText = new StringBuilder(32);
+		else
+			valueText.setLength(0);
 		if (sigfigs > 0)
-			text.append(v.valueToString(sigfigs));
+			v.appendValue(valueText, sigfigs);
 		else
-			text.append(v.toString());
+			v.appendTo(valueText);
+		text.append(valueText);
 		setText(text);
 	}
 	@Override
-	public void updateValueUser(double newValue) {
+	public void updateValueUser(EngineeringValue newValue) {
 		throw new UnsupportedOperationException("Read-only object");
 	}
 }
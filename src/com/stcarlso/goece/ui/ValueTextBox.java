@@ -31,8 +31,6 @@ import android.util.AttributeSet;
 import android.util.Log;
 import android.widget.EditText;
 import com.stcarlso.goece.R;
-import com.stcarlso.goece.utility.UIFunctions;
-import com.stcarlso.goece.utility.ValueControl;
 
 /**
  * A version of EditText which implements value control semantics, allowing easy save/restore
@@ -0,0 +1,88 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+/**
+ * A class for EquationSolver to handle reverse solving of asymmetric (offset) stripline
+ * impedance, using the IPC-2141 approximation. The trace is closer to one plane than the
+ * other. When both distances are equal, this reduces to the IPC-2141 symmetric stripline.
+ *
+ * Trace width is the IV (x). All units in mm.
+ */
+public class AsymStriplineEquation extends TraceEquation {
+	/**
+	 * The distance from the trace to the farther plane.
+	 */
+	protected final double h2;
+	/**
+	 * Coefficients for impedance calculation.
+	 */
+	private transient double zMul;
+
+	/**
+	 * Creates a new asymmetric stripline equation context for calculating single ended
+	 * impedance.
+	 *
+	 * @param h the distance from the trace to the nearer plane
+	 * @param h2 the distance from the trace to the farther plane
+	 * @param t the trace thickness
+	 * @param er the relative dielectric permittivity
+	 * @param desired the desired impedance (set to 0.0 for forward calculation)
+	 */
+	public AsymStriplineEquation(final double h, final double h2, final double t,
+								 final double er, final double desired) {
+		super(h, t, er, desired);
+		if (h2 < h)
+			throw new IllegalArgumentException("h2 < height");
+		this.h2 = h2;
+		precompute();
+	}
+	@Override
+	public double eval(double x) {
+		final double ret;
+		if (x <= 0.0)
+			ret = Double.NaN;
+		else
+			ret = Math.max(0.0, zMul * Math.log(1.9 * (2.0 * h + t) / (0.8 * x + t))) -
+				desired;
+		return ret;
+	}
+	/**
+	 * Gets the distance from the trace to the farther plane.
+	 *
+	 * @return the farther plane distance
+	 */
+	public double getFarHeight() {
+		return h2;
+	}
+	@Override
+	public TraceParameter getVariable() {
+		return TraceParameter.WIDTH;
+	}
+	@Override
+	protected void precompute() {
+		zMul = 80.0 * (1.0 - 0.25 * h / h2) / Math.sqrt(er);
+	}
+}
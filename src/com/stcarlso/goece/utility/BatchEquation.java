@@ -0,0 +1,43 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+/**
+ * An equation which can evaluate many values of x in one call. Implementations can hoist
+ * terms which do not depend on x out of the loop, and avoid a virtual call for each point.
+ * Use EquationSolver.evalMany() to evaluate any Equation, batched or not.
+ */
+public interface BatchEquation extends Equation {
+	/**
+	 * Computes the value of the function at each of the specified X coordinates, such that
+	 * out[off + i] = eval(xs[off + i]) for i from 0 to len - 1.
+	 *
+	 * @param xs the values of the independent variable
+	 * @param out the array where the results are stored, which may be the same as xs
+	 * @param off the index of the first value to evaluate
+	 * @param len the number of values to evaluate
+	 */
+	void evalMany(double[] xs, double[] out, int off, int len);
+}
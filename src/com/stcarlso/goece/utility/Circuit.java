@@ -0,0 +1,255 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A netlist of two-terminal elements (resistors, capacitors, inductors, and independent
+ * sources) for AC analysis with NodalSolver. Nodes are numbered from 0, which is ground; the
+ * other node numbers should be used without large gaps, since every number up to the largest
+ * one becomes a node.
+ *
+ * Each element is connected from node a to node b, and its current is positive when it flows
+ * through the element from a to b. Voltage sources raise node a above node b.
+ */
+public class Circuit {
+	/**
+	 * Element type for capacitors (value in F).
+	 */
+	public static final int CAPACITOR = 0;
+	/**
+	 * Element type for independent current sources (value in A).
+	 */
+	public static final int CURRENT_SOURCE = 1;
+	/**
+	 * The ground node, which is always at 0 V.
+	 */
+	public static final int GROUND = 0;
+	/**
+	 * Element type for inductors (value in H).
+	 */
+	public static final int INDUCTOR = 2;
+	/**
+	 * Element type for resistors (value in ohms).
+	 */
+	public static final int RESISTOR = 3;
+	/**
+	 * Element type for independent voltage sources (value in V).
+	 */
+	public static final int VOLTAGE_SOURCE = 4;
+
+	/**
+	 * The elements in the order they were added.
+	 */
+	private final List<Element> elements;
+	/**
+	 * The number of nodes, including ground.
+	 */
+	private int nodeCount;
+
+	/**
+	 * Creates a new empty circuit with only the ground node.
+	 */
+	public Circuit() {
+		elements = new ArrayList<Element>(32);
+		nodeCount = 1;
+	}
+	/**
+	 * Adds a capacitor.
+	 *
+	 * @param a the first node
+	 * @param b the second node
+	 * @param farads the capacitance in F
+	 * @return the element number, used to look up its current
+	 */
+	public int addCapacitor(final int a, final int b, final double farads) {
+		return addPassive(CAPACITOR, a, b, farads);
+	}
+	/**
+	 * Adds an independent sinusoidal current source. The current flows from node a, through
+	 * the source, into node b.
+	 *
+	 * @param a the node where the current leaves the circuit
+	 * @param b the node where the current enters the circuit
+	 * @param amps the current amplitude in A
+	 * @param phase the phase angle in degrees
+	 * @return the element number, used to look up its current
+	 */
+	public int addCurrentSource(final int a, final int b, final double amps,
+								final double phase) {
+		return addElement(new Element(CURRENT_SOURCE, a, b, amps, phase));
+	}
+	/**
+	 * Adds an element after checking its nodes.
+	 *
+	 * @param element the element to add
+	 * @return the element number
+	 */
+	private int addElement(final Element element) {
+		final int a = element.nodeA, b = element.nodeB;
+		if (a < 0)
+			throw new IllegalArgumentException("a");
+		if (b < 0 || b == a)
+			throw new IllegalArgumentException("b");
+		if (Double.isNaN(element.value) || Double.isInfinite(element.value))
+			throw new IllegalArgumentException("value");
+		if (Double.isNaN(element.phase) || Double.isInfinite(element.phase))
+			throw new IllegalArgumentException("phase");
+		nodeCount = Math.max(nodeCount, Math.max(a, b) + 1);
+		elements.add(element);
+		return elements.size() - 1;
+	}
+	/**
+	 * Adds an inductor.
+	 *
+	 * @param a the first node
+	 * @param b the second node
+	 * @param henries the inductance in H
+	 * @return the element number, used to look up its current
+	 */
+	public int addInductor(final int a, final int b, final double henries) {
+		return addPassive(INDUCTOR, a, b, henries);
+	}
+	/**
+	 * Adds a resistor, capacitor, or inductor.
+	 *
+	 * @param type the element type
+	 * @param a the first node
+	 * @param b the second node
+	 * @param value the element value, which must be positive
+	 * @return the element number
+	 */
+	private int addPassive(final int type, final int a, final int b, final double value) {
+		if (!(value > 0.0))
+			throw new IllegalArgumentException("value");
+		return addElement(new Element(type, a, b, value, 0.0));
+	}
+	/**
+	 * Adds a resistor.
+	 *
+	 * @param a the first node
+	 * @param b the second node
+	 * @param ohms the resistance in ohms
+	 * @return the element number, used to look up its current
+	 */
+	public int addResistor(final int a, final int b, final double ohms) {
+		return addPassive(RESISTOR, a, b, ohms);
+	}
+	/**
+	 * Adds an independent sinusoidal voltage source.
+	 *
+	 * @param a the positive node
+	 * @param b the negative node
+	 * @param volts the voltage amplitude in V
+	 * @param phase the phase angle in degrees
+	 * @return the element number, used to look up its current
+	 */
+	public int addVoltageSource(final int a, final int b, final double volts,
+								final double phase) {
+		return addElement(new Element(VOLTAGE_SOURCE, a, b, volts, phase));
+	}
+	/**
+	 * Gets an element of this circuit.
+	 *
+	 * @param index the element number
+	 * @return the element
+	 */
+	Element getElement(final int index) {
+		return elements.get(index);
+	}
+	/**
+	 * Gets the number of elements in this circuit.
+	 *
+	 * @return the number of elements added
+	 */
+	public int getElementCount() {
+		return elements.size();
+	}
+	/**
+	 * Gets the number of nodes in this circuit.
+	 *
+	 * @return the number of nodes, including ground
+	 */
+	public int getNodeCount() {
+		return nodeCount;
+	}
+	public String toString() {
+		return "Circuit[nodes=" + nodeCount + ",elements=" + elements.size() + "]";
+	}
+
+	/**
+	 * Stores one element of a circuit.
+	 */
+	static final class Element {
+		/**
+		 * The first node.
+		 */
+		public final int nodeA;
+		/**
+		 * The second node.
+		 */
+		public final int nodeB;
+		/**
+		 * The source phase angle in degrees, or 0 for passive elements.
+		 */
+		public final double phase;
+		/**
+		 * The element type.
+		 */
+		public final int type;
+		/**
+		 * The element value, or the source amplitude.
+		 */
+		public final double value;
+
+		/**
+		 * Creates a new element.
+		 *
+		 * @param type the element type
+		 * @param nodeA the first node
+		 * @param nodeB the second node
+		 * @param value the element value, or the source amplitude
+		 * @param phase the source phase angle in degrees
+		 */
+		public Element(final int type, final int nodeA, final int nodeB, final double value,
+					   final double phase) {
+			this.nodeA = nodeA;
+			this.nodeB = nodeB;
+			this.phase = phase;
+			this.type = type;
+			this.value = value;
+		}
+		/**
+		 * Checks to see if this element adds a branch current to the equations.
+		 *
+		 * @return true for inductors and voltage sources, or false otherwise
+		 */
+		public boolean hasBranch() {
+			return type == INDUCTOR || type == VOLTAGE_SOURCE;
+		}
+	}
+}
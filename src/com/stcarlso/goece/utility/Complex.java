@@ -0,0 +1,236 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+/**
+ * A mutable complex number in rectangular form, for intermediate results of complex
+ * arithmetic. Addition, subtraction, multiplication, and division need no trigonometry, and
+ * no objects are created when operations are chained. Convert to a ComplexValue only when the
+ * result is displayed.
+ *
+ * Operations modify this object and return it, so they can be chained:
+ * new Complex(a).multiply(b).add(c).
+ */
+public final class Complex {
+	/**
+	 * The imaginary part.
+	 */
+	private double imag;
+	/**
+	 * The real part.
+	 */
+	private double real;
+
+	/**
+	 * Creates a complex number equal to zero.
+	 */
+	public Complex() {
+		this(0.0, 0.0);
+	}
+	/**
+	 * Creates a copy of a complex number.
+	 *
+	 * @param other the value to copy
+	 */
+	public Complex(final Complex other) {
+		this(other.real, other.imag);
+	}
+	/**
+	 * Creates a complex number with the value of an engineering value.
+	 *
+	 * @param value the value to copy, which may be real or complex
+	 */
+	public Complex(final EngineeringValue value) {
+		this(value.getReal(), value.getImaginary());
+	}
+	/**
+	 * Creates a complex number from its rectangular components.
+	 *
+	 * @param real the real part
+	 * @param imag the imaginary part
+	 */
+	public Complex(final double real, final double imag) {
+		this.imag = imag;
+		this.real = real;
+	}
+	/**
+	 * Adds another complex number to this one.
+	 *
+	 * @param other the addend
+	 * @return this object, for chaining
+	 */
+	public Complex add(final Complex other) {
+		imag += other.imag;
+		real += other.real;
+		return this;
+	}
+	/**
+	 * Divides this complex number by another. Dividing a nonzero number by zero gives the
+	 * largest finite magnitude in the direction of this number, which EngineeringValue shows as
+	 * infinite. Infinite parts would only keep angles which are multiples of 45 degrees.
+	 *
+	 * @param other the divisor
+	 * @return this object, for chaining
+	 * @throws ArithmeticException if both this number and the divisor are zero
+	 */
+	public Complex divide(final Complex other) {
+		final double c = other.real, d = other.imag;
+		if (c == 0.0 && d == 0.0) {
+			if (real == 0.0 && imag == 0.0)
+				throw new ArithmeticException("Complex-valued division by zero");
+			// Keep the angle of this number, like ComplexValue.divide()
+			final double mag = getMagnitude();
+			if (!Double.isInfinite(mag)) {
+				imag = imag / mag * Double.MAX_VALUE;
+				real = real / mag * Double.MAX_VALUE;
+			}
+		} else if (Math.abs(c) >= Math.abs(d)) {
+			// Smith's algorithm avoids overflow in c * c + d * d
+			final double r = d / c, den = c + d * r;
+			final double newReal = (real + imag * r) / den;
+			imag = (imag - real * r) / den;
+			real = newReal;
+		} else {
+			final double r = c / d, den = c * r + d;
+			final double newReal = (real * r + imag) / den;
+			imag = (imag * r - real) / den;
+			real = newReal;
+		}
+		return this;
+	}
+	/**
+	 * Calculates the phase angle of this complex number.
+	 *
+	 * @return the phase angle in degrees from 0 (inclusive) to 360 (exclusive)
+	 */
+	public double getAngle() {
+		double angle = Math.toDegrees(Math.atan2(imag, real));
+		// [-180, 180) to [0, 360), and never negative zero
+		if (angle < 0.0)
+			angle += 360.0;
+		return angle + 0.0;
+	}
+	/**
+	 * Gets the imaginary part of this complex number.
+	 *
+	 * @return the imaginary part
+	 */
+	public double getImaginary() {
+		return imag;
+	}
+	/**
+	 * Calculates the magnitude of this complex number.
+	 *
+	 * @return the magnitude
+	 */
+	public double getMagnitude() {
+		return Math.hypot(real, imag);
+	}
+	/**
+	 * Gets the real part of this complex number.
+	 *
+	 * @return the real part
+	 */
+	public double getReal() {
+		return real;
+	}
+	/**
+	 * Multiplies this complex number by another.
+	 *
+	 * @param other the multiplicand
+	 * @return this object, for chaining
+	 */
+	public Complex multiply(final Complex other) {
+		final double newReal = real * other.real - imag * other.imag;
+		imag = real * other.imag + imag * other.real;
+		real = newReal;
+		return this;
+	}
+	/**
+	 * Changes the value of this complex number.
+	 *
+	 * @param real the new real part
+	 * @param imag the new imaginary part
+	 * @return this object, for chaining
+	 */
+	public Complex set(final double real, final double imag) {
+		this.imag = imag;
+		this.real = real;
+		return this;
+	}
+	/**
+	 * Changes the value of this complex number to match another.
+	 *
+	 * @param other the value to copy
+	 * @return this object, for chaining
+	 */
+	public Complex set(final Complex other) {
+		return set(other.real, other.imag);
+	}
+	/**
+	 * Changes the value of this complex number to match an engineering value.
+	 *
+	 * @param value the value to copy, which may be real or complex
+	 * @return this object, for chaining
+	 */
+	public Complex set(final EngineeringValue value) {
+		return set(value.getReal(), value.getImaginary());
+	}
+	/**
+	 * Changes the value of this complex number from polar form.
+	 *
+	 * @param mag the magnitude
+	 * @param phase the phase angle in degrees
+	 * @return this object, for chaining
+	 */
+	public Complex setPolar(final double mag, final double phase) {
+		final double angleRad = Math.toRadians(phase);
+		return set(mag * Math.cos(angleRad), mag * Math.sin(angleRad));
+	}
+	/**
+	 * Subtracts another complex number from this one.
+	 *
+	 * @param other the subtrahend
+	 * @return this object, for chaining
+	 */
+	public Complex subtract(final Complex other) {
+		imag -= other.imag;
+		real -= other.real;
+		return this;
+	}
+	public String toString() {
+		return real + ((imag < 0.0) ? " - " : " + ") + Math.abs(imag) + "i";
+	}
+	/**
+	 * Creates a ComplexValue with the value of this complex number.
+	 *
+	 * @param template the value where units, tolerance, and significant figures are copied
+	 * @return a ComplexValue equal to this complex number
+	 */
+	public ComplexValue toValue(final EngineeringValue template) {
+		return new ComplexValue(getMagnitude(), getAngle(), template.getTolerance(),
+			template.getSigfigs(), template.getUnits());
+	}
+}
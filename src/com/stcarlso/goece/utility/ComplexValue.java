@@ -38,13 +38,9 @@ public class ComplexValue extends EngineeringValue implements Serializable {
 	 */
 	protected final double angle;
 	/**
-	 * Cached imaginary part.
+	 * Cached rectangular form, computed when first needed.
 	 */
-	private final transient double imag;
-	/**
-	 * Cached real part.
-	 */
-	private final transient double real;
+	private transient Rectangular rect;
 
 	/**
 	 * Create an engineering value with no units, no tolerance, and 3 significant figures.
@@ -102,7 +98,6 @@ public class ComplexValue extends EngineeringValue implements Serializable {
 	public ComplexValue(final double mag, final double phase, final double tolerance,
 						final int sigfigs, final String units) {
 		super(Math.abs(mag), tolerance, sigfigs, units);
-		final double angleRad = Math.toRadians(phase);
 		// Compensate for negative magnitude
 		double phaseNormal = phase;
 		if (mag < 0.0)
@@ -111,27 +106,40 @@ public class ComplexValue extends EngineeringValue implements Serializable {
 		phaseNormal %= 360.0;
 		if (phaseNormal < 0.0) phaseNormal += 360.0;
 		angle = phaseNormal;
-		real = ECECalc.ieeeRound(mag * Math.cos(angleRad));
-		imag = ECECalc.ieeeRound(mag * Math.sin(angleRad));
+		rect = null;
 	}
 	@Override
 	public EngineeringValue add(final EngineeringValue other) {
 		return newRectangularValue(getReal() + other.getReal(),
-			getImaginary() + other.getImaginary());
+			getImaginary() + other.getImaginary(), other);
+	}
+	@Override
+	public StringBuilder appendTo(StringBuilder out) {
+		EngineeringFormat.appendSignificand(out, getSignificand(), getSigfigs());
+		out.append(' ');
+		out.append(getSIPrefix());
+		out.append(getUnits());
+		appendTolerance(out);
+		out.append(" @ ");
+		EngineeringFormat.appendFixed(out, getAngle(), 1);
+		out.append('\u00B0');
+		return out;
 	}
 	@Override
 	public EngineeringValue divide(final EngineeringValue other) {
 		final double divisor = other.getValue(), num = getValue();
 		if (divisor == 0.0 && num == 0.0)
 			throw new ArithmeticException("Complex-valued division by zero");
-		return newValue(num / divisor, getAngle() - other.getAngle());
+		final double tol = Interval.quotientTolerance(getTolerance(), other.getTolerance());
+		return newValue(num / divisor, getAngle() - other.getAngle(), tol);
 	}
 	public boolean equals(Object o) {
 		if (this == o) return true;
 		if (o == null || getClass() != o.getClass()) return false;
 		final ComplexValue value = (ComplexValue)o;
 		return Double.compare(value.getAngle(), getAngle()) == 0 && getUnits().equals(
-			value.getUnits()) && Double.compare(value.getValue(), getValue()) == 0;
+			value.getUnits()) && Double.compare(value.getValue(), getValue()) == 0 &&
+			Double.compare(value.getTolerance(), getTolerance()) == 0;
 	}
 	@Override
 	public double getAngle() {
@@ -139,11 +147,27 @@ public class ComplexValue extends EngineeringValue implements Serializable {
 	}
 	@Override
 	public double getImaginary() {
-		return imag;
+		return getRectangular().imag;
 	}
 	@Override
 	public double getReal() {
-		return real;
+		return getRectangular().real;
+	}
+	/**
+	 * Gets the rectangular form of this value, calculating it if necessary. Values which are
+	 * only displayed in polar form never need the trigonometry.
+	 *
+	 * @return the real and imaginary parts
+	 */
+	private Rectangular getRectangular() {
+		Rectangular ret = rect;
+		if (ret == null) {
+			final double angleRad = Math.toRadians(angle), mag = getValue();
+			ret = new Rectangular(mag * Math.cos(angleRad), mag * Math.sin(angleRad));
+			// Racing threads compute the same value, so no synchronization is needed
+			rect = ret;
+		}
+		return ret;
 	}
 	public int hashCode() {
 		final long temp = Double.doubleToLongBits(getAngle());
@@ -151,7 +175,8 @@ public class ComplexValue extends EngineeringValue implements Serializable {
 	}
 	@Override
 	public EngineeringValue multiply(final EngineeringValue other) {
-		return newValue(getValue() * other.getValue(), getAngle() + other.getAngle());
+		final double tol = Interval.productTolerance(getTolerance(), other.getTolerance());
+		return newValue(getValue() * other.getValue(), getAngle() + other.getAngle(), tol);
 	}
 	/**
 	 * Convenience method to copy the metadata of this value into a new object.
@@ -161,12 +186,44 @@ public class ComplexValue extends EngineeringValue implements Serializable {
 	 * @return a new instance with the specified value, but units and tolerance from this object
 	 */
 	public ComplexValue newRectangularValue(final double newReal, final double newImag) {
+		return newRectangularValue(newReal, newImag, getTolerance());
+	}
+	/**
+	 * Creates the sum or difference of this value and another in rectangular form, with the
+	 * worst case tolerance of the result.
+	 *
+	 * @param newReal the real component of the result
+	 * @param newImag the imaginary component of the result
+	 * @param other the other operand
+	 * @return a new instance with the specified value, but units from this object
+	 */
+	private ComplexValue newRectangularValue(final double newReal, final double newImag,
+											 final EngineeringValue other) {
+		final double tol = Interval.sumTolerance(getValue(), getTolerance(), other.getValue(),
+			other.getTolerance(), Math.hypot(newReal, newImag));
+		return newRectangularValue(newReal, newImag, tol);
+	}
+	/**
+	 * Creates a new value from rectangular components, with the units and significant
+	 * figures of this value.
+	 *
+	 * @param newReal the new real component
+	 * @param newImag the new imaginary component
+	 * @param newTolerance the new tolerance, limited to Interval.MAX_TOLERANCE
+	 * @return a new instance with the specified value and tolerance
+	 */
+	private ComplexValue newRectangularValue(final double newReal, final double newImag,
+											 final double newTolerance) {
 		final double newMag = Math.hypot(newReal, newImag);
 		double newPhase = Math.toDegrees(Math.atan2(newImag, newReal));
 		// [-180, 180) to [0, 360)
 		if (newPhase < 0.0)
 			newPhase += 360.0;
-		return new ComplexValue(newMag, newPhase, this);
+		final ComplexValue ret = new ComplexValue(newMag, newPhase, Interval.limitTolerance(
+			newTolerance), getSigfigs(), getUnits());
+		// Keep the rectangular form that was given
+		ret.rect = new Rectangular(newReal, newImag);
+		return ret;
 	}
 	/**
 	 * Convenience method to copy the metadata of this value into a new object.
@@ -178,39 +235,56 @@ public class ComplexValue extends EngineeringValue implements Serializable {
 	public ComplexValue newValue(final double newMag, final double newPhase) {
 		return new ComplexValue(newMag, newPhase, this);
 	}
+	/**
+	 * Creates a new value with the units and significant figures of this value, but a new
+	 * magnitude, phase angle, and tolerance.
+	 *
+	 * @param newMag the new raw magnitude value
+	 * @param newPhase the new phase angle in degrees
+	 * @param newTolerance the new tolerance, limited to Interval.MAX_TOLERANCE
+	 * @return a new instance with the specified value and tolerance
+	 */
+	private ComplexValue newValue(final double newMag, final double newPhase,
+								  final double newTolerance) {
+		return new ComplexValue(newMag, newPhase, Interval.limitTolerance(newTolerance),
+			getSigfigs(), getUnits());
+	}
 	@Override
 	public EngineeringValue pow(final double exponent) {
 		// Complex values have more than one of these -- return the first
-		EngineeringValue ret;
-		if (exponent == 0.0)
-			ret = newValue(1.0);
-		else {
-			// Non-trivial case
-			final double absExponent = Math.abs(exponent);
-			ret = newValue(Math.pow(getValue(), absExponent), getAngle() * absExponent);
-			if (exponent < 0.0)
-				// Handle negative exponents correctly
-				ret = newValue(1.0, 0.0).divide(ret);
-		}
-		return ret;
+		final double tol = Interval.powerTolerance(getTolerance(), exponent);
+		return newValue(Math.pow(getValue(), exponent), getAngle() * exponent, tol);
 	}
 	@Override
 	public EngineeringValue subtract(final EngineeringValue other) {
 		return newRectangularValue(getReal() - other.getReal(),
-			getImaginary() - other.getImaginary());
-	}
-	public String toString() {
-		final StringBuilder format = new StringBuilder(significandToString());
-		final double tol = getTolerance();
-		format.append(" %s%s");
-		if (tol > 0.0) {
-			// value +/- #%
-			format.append(' ');
-			format.append(P_M_SYMBOL);
-			format.append(toleranceToString(tol));
-			format.append("%%");
+			getImaginary() - other.getImaginary(), other);
+	}
+
+	/**
+	 * Stores the rectangular form of a complex value. Immutable so that it can be shared
+	 * between threads without synchronization.
+	 */
+	private static final class Rectangular {
+		/**
+		 * The imaginary part.
+		 */
+		public final double imag;
+		/**
+		 * The real part.
+		 */
+		public final double real;
+
+		/**
+		 * Creates a new rectangular form, rounding off floating point noise such as the
+		 * real part of a value at 90 degrees.
+		 *
+		 * @param real the real part
+		 * @param imag the imaginary part
+		 */
+		public Rectangular(final double real, final double imag) {
+			this.imag = ECECalc.ieeeRound(imag);
+			this.real = ECECalc.ieeeRound(real);
 		}
-		format.append(" @ %.1f\u00B0");
-		return String.format(format.toString(), getSIPrefix(), getUnits(), getAngle());
 	}
 }
@@ -0,0 +1,85 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+/**
+ * A class for EquationSolver2D to handle reverse solving of both the single ended and
+ * differential impedance of a pair of traces. The differential equation is updated in place
+ * with each new width, so an instance must not be shared between threads.
+ *
+ * Trace width is the first IV (x), trace spacing is the second IV (y). All units in mm.
+ */
+public class CoupledEquation implements Equation2D {
+	/**
+	 * The differential equation, whose width is changed to the first IV before each
+	 * evaluation.
+	 */
+	private final DiffTraceEquation diff;
+	/**
+	 * The single ended equation, which only depends on width.
+	 */
+	private final Equation single;
+
+	/**
+	 * Creates a new coupled equation context for calculating both impedances.
+	 *
+	 * @param microstrip true to use microstrip equations, or false to use stripline
+	 * @param h the PCB thickness
+	 * @param t the trace thickness
+	 * @param er the relative dielectric permittivity
+	 * @param desired1 the desired single ended impedance
+	 * @param desired2 the desired differential impedance
+	 */
+	public CoupledEquation(final boolean microstrip, final double h, final double t,
+						   final double er, final double desired1,
+						   final double desired2) {
+		if (desired2 < 0.0)
+			throw new IllegalArgumentException("desired < 0");
+		// The width passed here is replaced on the first evaluation
+		if (microstrip) {
+			diff = new DiffMicrostripEquation(h, h, t, er, desired2);
+			single = new MicrostripEquation(h, t, er, desired1);
+		} else {
+			diff = new DiffStriplineEquation(h, h, t, er, desired2);
+			single = new StriplineEquation(h, t, er, desired1);
+		}
+	}
+	@Override
+	public void eval(double x, double y, double[] out) {
+		// Differential coefficients depend on width
+		if (x <= 0.0 || !diff.set(TraceParameter.WIDTH, x)) {
+			// Width is invalid
+			out[0] = Double.NaN;
+			out[1] = Double.NaN;
+		} else {
+			out[0] = single.eval(x);
+			out[1] = diff.eval(y);
+		}
+	}
+	@Override
+	public String toString() {
+		return "CoupledEquation[" + single + ", " + diff + "]";
+	}
+}
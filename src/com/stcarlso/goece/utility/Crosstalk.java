@@ -0,0 +1,275 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+/**
+ * Calculates the crosstalk between two coupled traces from the even and odd mode values of a
+ * differential trace equation. The victim is assumed to be terminated at both ends.
+ *
+ * Near end (backward) crosstalk rises with the coupled length until the round trip delay
+ * reaches the rise time, then saturates at Kb = (Lm/L + Cm/C) / 4. Far end (forward)
+ * crosstalk grows with the length, in proportion to the difference between the even and odd
+ * mode delays, and is zero in a homogeneous dielectric such as stripline.
+ *
+ * The mode values for the last spacing are cached, so the near and far end crosstalk and a
+ * sweep over length all share one model evaluation. Instances of this class must not be
+ * shared between threads. Spacing and length in mm, rise time in s.
+ */
+public class Crosstalk {
+	/**
+	 * Fraction of the aggressor step above which far end crosstalk cannot grow.
+	 */
+	private static final double MAX_FAR = 0.5;
+
+	/**
+	 * The backward coupling coefficient at lastSpacing.
+	 */
+	private double backward;
+	/**
+	 * The private copy of the coupled trace equation.
+	 */
+	private final DiffTraceEquation equ;
+	/**
+	 * The difference between the odd and even mode delays per mm at lastSpacing, in s.
+	 */
+	private double forwardSkew;
+	/**
+	 * The spacing at which the mode values were last calculated.
+	 */
+	private double lastSpacing;
+	/**
+	 * The average mode delay per mm at lastSpacing, in s.
+	 */
+	private double meanDelay;
+	/**
+	 * The even and odd mode values at lastSpacing.
+	 */
+	private final double[] modes;
+
+	/**
+	 * Creates a new crosstalk calculator.
+	 *
+	 * @param equ the coupled trace equation, which is copied and not modified
+	 */
+	public Crosstalk(final DiffTraceEquation equ) {
+		if (equ == null)
+			throw new NullPointerException("equ");
+		this.equ = (DiffTraceEquation)equ.copy();
+		backward = Double.NaN;
+		forwardSkew = Double.NaN;
+		lastSpacing = Double.NaN;
+		meanDelay = Double.NaN;
+		modes = new double[DiffTraceEquation.MODE_COUNT];
+	}
+	/**
+	 * Calculates the far end crosstalk from the cached mode values.
+	 *
+	 * @param length the coupled length
+	 * @param rise the rise time of the aggressor
+	 * @return the far end crosstalk as a fraction of the aggressor step
+	 */
+	private double far(final double length, final double rise) {
+		final double ret = 0.5 * length * forwardSkew / rise;
+		// Once the skew exceeds the rise time, the modes separate completely
+		return Math.max(-MAX_FAR, Math.min(MAX_FAR, ret));
+	}
+	/**
+	 * Gets the saturated near end crosstalk, the backward coupling coefficient Kb.
+	 *
+	 * @param spacing the trace spacing
+	 * @return the near end crosstalk as a fraction of the aggressor step, when the coupled
+	 * length is long enough to saturate
+	 */
+	public double getBackward(final double spacing) {
+		update(spacing);
+		return backward;
+	}
+	/**
+	 * Gets the far end crosstalk. The result is negative if the odd mode is faster than the
+	 * even mode, as in microstrip.
+	 *
+	 * @param spacing the trace spacing
+	 * @param length the coupled length
+	 * @param rise the rise time of the aggressor
+	 * @return the far end crosstalk as a fraction of the aggressor step
+	 */
+	public double getFar(final double spacing, final double length, final double rise) {
+		validate(length, rise);
+		update(spacing);
+		return far(length, rise);
+	}
+	/**
+	 * Gets the near end crosstalk.
+	 *
+	 * @param spacing the trace spacing
+	 * @param length the coupled length
+	 * @param rise the rise time of the aggressor
+	 * @return the near end crosstalk as a fraction of the aggressor step
+	 */
+	public double getNear(final double spacing, final double length, final double rise) {
+		validate(length, rise);
+		update(spacing);
+		return near(length, rise);
+	}
+	/**
+	 * Gets the largest magnitude of the near and far end crosstalk.
+	 *
+	 * @param spacing the trace spacing
+	 * @param length the coupled length
+	 * @param rise the rise time of the aggressor
+	 * @return the worst case crosstalk as a fraction of the aggressor step
+	 */
+	public double getWorst(final double spacing, final double length, final double rise) {
+		validate(length, rise);
+		update(spacing);
+		return worst(length, rise);
+	}
+	/**
+	 * Finds the smallest trace spacing which meets a crosstalk budget for both near and far
+	 * end crosstalk.
+	 *
+	 * @param budget the largest acceptable crosstalk as a fraction of the aggressor step
+	 * @param length the coupled length
+	 * @param rise the rise time of the aggressor
+	 * @return the minimum trace spacing, or Double.NaN if the budget cannot be met
+	 */
+	public double minSpacing(final double budget, final double length, final double rise) {
+		if (!(budget > 0.0))
+			throw new IllegalArgumentException("budget");
+		validate(length, rise);
+		final EquationSolver solver = new EquationSolver(new Equation() {
+			@Override
+			public double eval(double x) {
+				update(x);
+				return worst(length, rise) - budget;
+			}
+		});
+		// Coupling falls off over a few dielectric heights
+		return solver.solveExpanding(equ.get(TraceParameter.HEIGHT));
+	}
+	/**
+	 * Calculates the near end crosstalk from the cached mode values.
+	 *
+	 * @param length the coupled length
+	 * @param rise the rise time of the aggressor
+	 * @return the near end crosstalk as a fraction of the aggressor step
+	 */
+	private double near(final double length, final double rise) {
+		// Saturates when the round trip delay reaches the rise time
+		return backward * Math.min(1.0, 2.0 * length * meanDelay / rise);
+	}
+	/**
+	 * Calculates the crosstalk over a range of coupled lengths at one spacing. The mode
+	 * values are only calculated once.
+	 *
+	 * @param spacing the trace spacing
+	 * @param lengths the coupled lengths to evaluate
+	 * @param rise the rise time of the aggressor
+	 * @param near the array where the near end crosstalk is stored, or null if not needed
+	 * @param far the array where the far end crosstalk is stored, or null if not needed
+	 */
+	public void sweepLength(final double spacing, final double[] lengths, final double rise,
+							final double[] near, final double[] far) {
+		update(spacing);
+		for (int i = 0; i < lengths.length; i++) {
+			final double length = lengths[i];
+			validate(length, rise);
+			if (near != null)
+				near[i] = near(length, rise);
+			if (far != null)
+				far[i] = far(length, rise);
+		}
+	}
+	/**
+	 * Calculates the crosstalk over a range of trace spacings at one coupled length.
+	 *
+	 * @param spacings the trace spacings to evaluate
+	 * @param length the coupled length
+	 * @param rise the rise time of the aggressor
+	 * @param near the array where the near end crosstalk is stored, or null if not needed
+	 * @param far the array where the far end crosstalk is stored, or null if not needed
+	 */
+	public void sweepSpacing(final double[] spacings, final double length, final double rise,
+							 final double[] near, final double[] far) {
+		validate(length, rise);
+		for (int i = 0; i < spacings.length; i++) {
+			update(spacings[i]);
+			if (near != null)
+				near[i] = near(length, rise);
+			if (far != null)
+				far[i] = far(length, rise);
+		}
+	}
+	@Override
+	public String toString() {
+		return "Crosstalk[" + equ + "]";
+	}
+	/**
+	 * Recalculates the coupling coefficients if the spacing has changed.
+	 *
+	 * @param spacing the trace spacing
+	 */
+	private void update(final double spacing) {
+		if (spacing != lastSpacing) {
+			equ.evalModes(spacing, modes);
+			final double zEven = modes[DiffTraceEquation.MODE_Z_EVEN];
+			final double zOdd = modes[DiffTraceEquation.MODE_Z_ODD];
+			final double vEven = Math.sqrt(modes[DiffTraceEquation.MODE_ER_EVEN]);
+			final double vOdd = Math.sqrt(modes[DiffTraceEquation.MODE_ER_ODD]);
+			// Mode inductance ~ Z sqrt(er), mode capacitance ~ sqrt(er) / Z
+			final double lEven = zEven * vEven, lOdd = zOdd * vOdd;
+			final double cEven = vEven / zEven, cOdd = vOdd / zOdd;
+			backward = 0.25 * ((lEven - lOdd) / (lEven + lOdd) + (cOdd - cEven) /
+				(cOdd + cEven));
+			// Delays per mm
+			forwardSkew = (vOdd - vEven) * 1E-3 / Units.C_0;
+			meanDelay = 0.5 * (vOdd + vEven) * 1E-3 / Units.C_0;
+			lastSpacing = spacing;
+		}
+	}
+	/**
+	 * Checks the coupled length and rise time.
+	 *
+	 * @param length the coupled length
+	 * @param rise the rise time of the aggressor
+	 */
+	private static void validate(final double length, final double rise) {
+		if (!(length >= 0.0) || Double.isInfinite(length))
+			throw new IllegalArgumentException("length");
+		if (!(rise > 0.0) || Double.isInfinite(rise))
+			throw new IllegalArgumentException("rise");
+	}
+	/**
+	 * Calculates the larger magnitude of the near and far end crosstalk from the cached mode
+	 * values.
+	 *
+	 * @param length the coupled length
+	 * @param rise the rise time of the aggressor
+	 * @return the worst case crosstalk as a fraction of the aggressor step
+	 */
+	private double worst(final double length, final double rise) {
+		return Math.max(Math.abs(near(length, rise)), Math.abs(far(length, rise)));
+	}
+}
@@ -0,0 +1,274 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+/**
+ * Calculates the current capacity of round wires and PCB traces. Trace capacity uses the
+ * IPC-2221 curve fit, and wire capacity uses a curve fit to the chassis wiring ampacity
+ * tables. Conductors of materials other than copper are scaled by their resistivity
+ * relative to copper.
+ *
+ * All lengths in mm, areas in mm^2, currents in A, and temperatures in degrees C.
+ */
+public final class CurrentCapacity {
+	/**
+	 * Constant used for AWG calculation.
+	 */
+	private static final double AWG_MULT = 39.0 / Math.log(92.0);
+	/**
+	 * Constant B used for trace width calculation.
+	 */
+	private static final double IPC_B = 0.44;
+	/**
+	 * Constant (1/c) used for trace width calculation.
+	 */
+	private static final double IPC_C = 1.0 / 0.725;
+	/**
+	 * Constant B used for trace width calculation. Halved for internal layers.
+	 */
+	private static final double IPC_K = 0.048;
+	/**
+	 * The maximum valid value for the current flow for the IPC equation.
+	 */
+	public static final double IPC_MAX_CUR = 35.0;
+	/**
+	 * The maximum temperature rise for the IPC equation.
+	 */
+	public static final double IPC_MAX_TEMP = 100.0;
+	/**
+	 * The maximum trace thickness (mm) for the IPC equation.
+	 */
+	public static final double IPC_MAX_THICK = 0.105;
+	/**
+	 * The maximum trace width (mm) for the IPC equation.
+	 */
+	public static final double IPC_MAX_WIDTH = 10.16;
+	/**
+	 * The minimum temperature rise for the IPC equation.
+	 */
+	public static final double IPC_MIN_TEMP = 10.0;
+	/**
+	 * The minimum trace thickness (mm) for the IPC equation.
+	 */
+	public static final double IPC_MIN_THICK = 0.017;
+	/**
+	 * Resistivity of copper.
+	 */
+	public static final double RESIST_CU = 1.68E-8;
+	/**
+	 * Resistivity of each of the items in the materials list.
+	 */
+	private static final double[] RESIST = new double[] {
+		2.82E-8, RESIST_CU, 1.43E-7, 2.44E-8, 1.59E-8
+	};
+	/**
+	 * Converts mils^2 to mm^2 = 0.0254 ^ 2
+	 */
+	private static final double SQ_MILS_TO_MM = 0.00064516;
+
+	/**
+	 * Calculates the AWG wire whose radius is at least the specified value.
+	 *
+	 * @param radius the radius
+	 * @return the smallest radius AWG code which is greater than or equal to the input radius
+	 */
+	public static double awgFromRadius(final double radius) {
+		// AWG = round up (36 - 39 * ln(radius / 0.0635) / ln(92))
+		return Math.ceil(36.0 - AWG_MULT * Math.log(radius / 0.0635));
+	}
+	/**
+	 * Gets the number of materials with known resistivity.
+	 *
+	 * @return the number of entries in the materials list
+	 */
+	public static int getMaterialCount() {
+		return RESIST.length;
+	}
+	/**
+	 * Gets the resistivity of a material relative to copper.
+	 *
+	 * @param material the index in the materials list
+	 * @return the resistivity of that material divided by the resistivity of copper
+	 */
+	public static double getRelativeResistivity(final int material) {
+		return getResistivity(material) / RESIST_CU;
+	}
+	/**
+	 * Gets the resistivity of a material.
+	 *
+	 * @param material the index in the materials list
+	 * @return the resistivity of that material in ohm-m
+	 */
+	public static double getResistivity(final int material) {
+		if (material < 0 || material >= RESIST.length)
+			throw new IllegalArgumentException("material");
+		return RESIST[material];
+	}
+	/**
+	 * Checks to see if a trace is within the range where the IPC curve fit is valid.
+	 *
+	 * @param width the trace width
+	 * @param dt the temperature rise
+	 * @return whether both the width and temperature rise are in range
+	 */
+	public static boolean isTraceInRange(final double width, final double dt) {
+		return width <= IPC_MAX_WIDTH && dt >= IPC_MIN_TEMP && dt <= IPC_MAX_TEMP;
+	}
+	/**
+	 * Calculates the resistance per meter of a conductor.
+	 *
+	 * @param resistivity the resistivity of the conductor material in ohm-m
+	 * @param area the cross sectional area of the conductor
+	 * @return the resistance of one meter of conductor in ohms
+	 */
+	public static double ohmsPerMeter(final double resistivity, final double area) {
+		// Remember that X-area is in mm^2
+		return resistivity * 1E6 / area;
+	}
+	/**
+	 * Calculates the radius of an AWG wire.
+	 *
+	 * @param gauge the AWG code
+	 * @return the wire radius
+	 */
+	public static double radiusFromAwg(final double gauge) {
+		// Radius in mm = 0.0635 * exp((36 - gauge) * ln(92) / 39)
+		return 0.0635 * Math.exp((36.0 - gauge) / AWG_MULT);
+	}
+	/**
+	 * Calculates the maximum current of a PCB trace on an external layer.
+	 *
+	 * @param width the trace width
+	 * @param thickness the trace thickness
+	 * @param dt the allowed temperature rise
+	 * @param resist the resistivity of the trace material relative to copper
+	 * @return the maximum current
+	 */
+	public static double traceCurrent(final double width, final double thickness,
+									  final double dt, final double resist) {
+		final double areaMil = width * thickness / SQ_MILS_TO_MM;
+		// i = area ^ (1 / IPC_C) * IPC_K * dt ^ IPC_B
+		return Math.pow(areaMil / resist, 1.0 / IPC_C) * IPC_K * Math.pow(dt, IPC_B);
+	}
+	/**
+	 * Calculates the temperature rise of a PCB trace on an external layer.
+	 *
+	 * @param current the current through the trace
+	 * @param width the trace width
+	 * @param thickness the trace thickness
+	 * @param resist the resistivity of the trace material relative to copper
+	 * @return the temperature rise
+	 */
+	public static double traceTempRise(final double current, final double width,
+									   final double thickness, final double resist) {
+		final double areaMil = width * thickness / SQ_MILS_TO_MM;
+		// dt = (i / (area ^ (1 / IPC_C) * IPC_K)) ^ (1 / IPC_B)
+		return Math.pow(current / (Math.pow(areaMil / resist, 1.0 / IPC_C) * IPC_K), 1.0 /
+			IPC_B);
+	}
+	/**
+	 * Calculates the range of temperature rise of a PCB trace on an external layer, when the
+	 * current and trace dimensions have tolerances.
+	 *
+	 * @param current the current through the trace
+	 * @param width the trace width
+	 * @param thickness the trace thickness
+	 * @param resist the resistivity of the trace material relative to copper
+	 * @return the range of the temperature rise
+	 */
+	public static Interval traceTempRise(final Interval current, final Interval width,
+										 final Interval thickness, final double resist) {
+		final double i = current.getNominal(), w = width.getNominal();
+		final double t = thickness.getNominal(), dt = traceTempRise(i, w, t, resist);
+		// dt ~ i ^ (1 / B) * (w t) ^ (-1 / (B C)), so relative errors scale by the exponents
+		final double di = Interval.relative(current.getDeviation(), i) / IPC_B;
+		final double dw = Interval.relative(width.getDeviation(), w) / (IPC_B * IPC_C);
+		final double dth = Interval.relative(thickness.getDeviation(), t) / (IPC_B * IPC_C);
+		// Increases with current and decreases with area, so the bounds are exact
+		return new Interval().set(dt, traceTempRise(current.getLower(), width.getUpper(),
+			thickness.getUpper(), resist), traceTempRise(current.getUpper(), width.getLower(),
+			thickness.getLower(), resist), dt * Math.sqrt(di * di + dw * dw + dth * dth));
+	}
+	/**
+	 * Calculates the minimum width of a PCB trace on an external layer.
+	 *
+	 * @param current the current through the trace
+	 * @param dt the allowed temperature rise
+	 * @param thickness the trace thickness
+	 * @param resist the resistivity of the trace material relative to copper
+	 * @return the minimum trace width, or NaN if the temperature rise or thickness is zero
+	 */
+	public static double traceWidth(final double current, final double dt,
+									final double thickness, final double resist) {
+		// From http://www.4pcb.com/trace-width-calculator.html
+		// area = (i / (IPC_K * dt ^ IPC_B)) ^ IPC_C
+		// Their formula puts it out in mils^2, we need mm^2
+		final double areaMil = Math.pow((current / (IPC_K * Math.pow(dt, IPC_B))), IPC_C);
+		// Scale by conductivity
+		return areaMil * SQ_MILS_TO_MM * resist / thickness;
+	}
+	/**
+	 * Calculates the maximum current of a chassis wire.
+	 *
+	 * @param diameter the wire diameter
+	 * @param resist the resistivity of the wire material relative to copper
+	 * @return the maximum current
+	 */
+	public static double wireCurrent(final double diameter, final double resist) {
+		// Curve fit from http://www.powerstream.com/Wire_Size.htm
+		// amps = 21.554968 * dia ^ 2 - 4.180921 * dia + 0.410266 for dia < 1 mm
+		// amps = 0.999231 * dia ^ 2 + 21.700890 * dia - 5.387531 for dia > 1 mm
+		//  ~= dia ^ 2 + 21.7 * dia - 5.387
+		final double d = diameter / Math.sqrt(resist), i;
+		if (d < 1.0)
+			// Need to get small gauges right to better precision
+			i = Math.max(21.555 * d * d - 4.181 * d + 0.41, 0.0);
+		else
+			// Does really well at mid to high ampacities
+			i = d * d + 21.7 * d - 5.387;
+		return i;
+	}
+	/**
+	 * Calculates the minimum diameter of a chassis wire.
+	 *
+	 * @param current the current through the wire
+	 * @param resist the resistivity of the wire material relative to copper
+	 * @return the minimum wire diameter
+	 */
+	public static double wireDiameter(final double current, final double resist) {
+		final double diameter;
+		if (current < 17.5)
+			// diameter = (4.181 + sqrt(4.181 * 4.181 - 4 * 21.555 * (0.41 - amps))) /
+			//     (2 * 21.555)
+			//  ~= sqrt(amps / 21.555 - 0.009615) + 0.09698
+			diameter = Math.sqrt(current / 21.555 - 0.009615) + 0.09698;
+		else
+			// diameter = (-21.7 + sqrt(21.7 * 21.7 + 4 * (5.387 + amps))) / 2 else
+			//  ~= sqrt(123.1125 + amps) - 10.85
+			diameter = Math.sqrt(123.1125 + current) - 10.85;
+		// Rescale for material
+		return diameter * Math.sqrt(resist);
+	}
+}
@@ -0,0 +1,99 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+/**
+ * A class for EquationSolver to handle reverse solving of asymmetric (offset) stripline
+ * differential impedance, using the IPC-2141 edge coupled approximation
+ * Zdiff = 2 Z0 (1 - 0.347 exp(-2.9 S / B)), where B is the distance between the planes.
+ *
+ * Trace spacing is the IV (x). All units in mm.
+ */
+public class DiffAsymStriplineEquation extends DiffTraceEquation {
+	/**
+	 * The distance from the traces to the farther plane.
+	 */
+	protected final double h2;
+	/**
+	 * Coefficients for impedance calculation.
+	 */
+	private transient double bInv;
+	private transient double z0;
+
+	/**
+	 * Creates a new asymmetric stripline equation context for calculating differential
+	 * impedance.
+	 *
+	 * @param h the distance from the traces to the nearer plane
+	 * @param h2 the distance from the traces to the farther plane
+	 * @param w the trace width
+	 * @param t the trace thickness
+	 * @param er the relative dielectric permittivity
+	 * @param desired the desired impedance (set to 0.0 for forward calculation)
+	 */
+	public DiffAsymStriplineEquation(final double h, final double h2, final double w,
+									 final double t, final double er, final double desired) {
+		super(h, w, t, er, desired);
+		if (h2 < h)
+			throw new IllegalArgumentException("h2 < height");
+		this.h2 = h2;
+		precompute();
+	}
+	@Override
+	public double eval(double x) {
+		final double ret;
+		if (x <= 0.0)
+			ret = Double.NaN;
+		else
+			ret = 2.0 * z0 * (1.0 - 0.347 * Math.exp(-2.9 * x * bInv)) - desired;
+		return ret;
+	}
+	/**
+	 * The edge coupled approximation only models the odd mode, so the even mode impedance is
+	 * estimated from the weak coupling relation Z0e * Z0o = Z0^2.
+	 */
+	@Override
+	public void evalModes(double x, double[] modes) {
+		final double zOdd = 0.5 * (eval(x) + desired);
+		modes[MODE_Z_EVEN] = z0 * z0 / zOdd;
+		modes[MODE_Z_ODD] = zOdd;
+		// Homogeneous dielectric, both modes travel at the same speed
+		modes[MODE_ER_EVEN] = Double.isNaN(zOdd) ? Double.NaN : er;
+		modes[MODE_ER_ODD] = modes[MODE_ER_EVEN];
+	}
+	/**
+	 * Gets the distance from the traces to the farther plane.
+	 *
+	 * @return the farther plane distance
+	 */
+	public double getFarHeight() {
+		return h2;
+	}
+	@Override
+	protected void precompute() {
+		bInv = 1.0 / (h + h2 + t);
+		z0 = new AsymStriplineEquation(h, h2, t, er, 0.0).eval(w);
+	}
+}
@@ -0,0 +1,170 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+import java.util.Arrays;
+
+/**
+ * A class for EquationSolver to handle reverse solving of microstrip differential
+ * impedance.
+ *
+ * Trace spacing is the IV (x). All units in mm.
+ */
+public class DiffMicrostripEquation extends DiffTraceEquation {
+	/**
+	 * Coefficients for impedance calculation.
+	 */
+	private transient double a0;
+	private transient double b0;
+	private transient double be;
+	private transient double c0;
+	private transient double d0;
+	private transient double er_eff;
+	private transient double erOddAdd;
+	private transient double hInv;
+	private transient double lnU;
+	private transient double q1;
+	private transient double u;
+	private transient double zNum;
+	private transient double zo_surf;
+	private transient double zom;
+
+	/**
+	 * Creates a new microstrip equation context for calculating differential impedance.
+	 *
+	 * @param h the PCB thickness
+	 * @param w the trace width
+	 * @param t the trace thickness
+	 * @param er the relative dielectric permittivity
+	 * @param desired the desired impedance (set to 0.0 for forward calculation)
+	 */
+	public DiffMicrostripEquation(final double h, final double w, final double t,
+								  final double er, final double desired) {
+		super(h, w, t, er, desired);
+		precompute();
+	}
+	/**
+	 * Calculates the differential impedance, and optionally the even and odd mode values,
+	 * using the Kirschning-Jansen coupled microstrip model.
+	 *
+	 * @param x the trace spacing
+	 * @param modes the array where the mode values are stored, or null if not needed
+	 * @return the differential impedance
+	 */
+	private double diffImpedance(final double x, final double[] modes) {
+		final double ret;
+		if (x <= 0.0) {
+			ret = Double.NaN;
+			if (modes != null)
+				Arrays.fill(modes, 0, MODE_COUNT, Double.NaN);
+		} else {
+			final double g = x * hInv, emg = Math.exp(-g), lg = Math.log(g);
+			// Powers of g and u through exp and log, since log(u) does not depend on x
+			final double er_eff_o = erOddAdd * Math.exp(-c0 * Math.exp(d0 * lg)) + er_eff;
+			// Calculate q2 through q10 (why so hard?)
+			// Formula page has 1.89 instead of 0.189
+			final double q2 = 1.0 + 0.7519 * g + 0.189 * Math.pow(g, 2.31);
+			final double uq3 = Math.exp(lnU * (Math.pow(16.6 + Math.pow(8.4 / g, 6.0),
+				-0.387) + 0.004149377593360996 * (10.0 * lg - Math.log1p(Math.pow(g *
+				0.294117647058823529, 10))) + 0.1975));
+			final double q4 = 2.0 * q1 / (q2 * (emg * uq3 + (2.0 - emg) / uq3));
+			// Hooray for log1p and log rules
+			final double q5 = 1.794 + 1.14 * Math.log1p(0.638 / (g + 0.517 *
+				Math.pow(g, 2.43)));
+			final double q6 = 0.2305 + (10.0 * lg - Math.log1p(Math.pow(g *
+				0.172413793103448276, 10.0))) * 0.003554923569143263 + Math.log1p(0.598 *
+				Math.pow(g, 1.154)) * 0.19607843137254902;
+			final double q7 = (10.0 + 190.0 * g * g) / (1.0 + 82.3 * g * g * g);
+			// Consolidated q8 into q9
+			final double q9 = Math.log(q7) * (Math.exp(-6.5 - 0.95 * lg - Math.pow(g *
+				6.666666666666666667, 5.0)) + 0.060606060606060606);
+			final double q10 = q4 - q5 * Math.exp(lnU * q6 * Math.exp(-lnU * q9)) / q2;
+			// Calculate the final impedance... hope this works...
+			ret = zNum / (Math.sqrt(er_eff_o) * (1.0 - zom * q10));
+			if (modes != null) {
+				// Even mode reuses q4 from the odd mode calculation
+				final double g2 = g * g, v = u * (20.0 + g2) / (10.0 + g2) + g * emg;
+				final double v2 = v * v, v4 = v2 * v2, v18 = v * 0.055248618784530387;
+				final double ae = 1.0 + Math.log((v4 + v2 * 3.6982248520710059E-4) /
+					(v4 + 0.432)) * 0.020408163265306122 + Math.log1p(v18 * v18 * v18) *
+					0.053475935828877005;
+				final double er_eff_e = 0.5 * (er + 1.0) + 0.5 * (er - 1.0) *
+					Math.pow(1.0 + 10.0 / v, -ae * be);
+				modes[MODE_Z_EVEN] = zo_surf * Math.sqrt(er_eff / er_eff_e) / (1.0 -
+					zom * q4);
+				modes[MODE_Z_ODD] = 0.5 * ret;
+				modes[MODE_ER_EVEN] = er_eff_e;
+				modes[MODE_ER_ODD] = er_eff_o;
+			}
+		}
+		return ret;
+	}
+	@Override
+	public double eval(double x) {
+		// XXX Rectify difference between altium and the web site (-10 ohms)
+		return diffImpedance(x, null) - desired;
+	}
+	@Override
+	public void evalModes(double x, double[] modes) {
+		diffImpedance(x, modes);
+	}
+	@Override
+	protected void precompute() {
+		// effective er
+		double er_base = Math.sqrt(w / (w + 12.0 * h));
+		if (w < h) {
+			final double p = 1.0 - w / h;
+			er_base += 0.04 * p * p;
+		}
+		er_eff = (er + 1.0) * 0.5 + (er - 1.0) * 0.5 * er_base;
+		// a0 - d0
+		hInv = 1.0 / h;
+		u = w / h;
+		lnU = Math.log(u);
+		// Formula page adds sqrt around the last term
+		a0 = 0.7287 * (er_eff - 0.5 * (er + 1.0)) * (1.0 - Math.exp(-0.179 * u));
+		b0 = (0.747 * er) / (0.15 + er);
+		c0 = b0 - (b0 - .207) * Math.exp(-0.414 * u);
+		d0 = 0.593 + 0.694 * Math.exp(-0.562 * u);
+		// Even mode dielectric exponent only depends on er
+		be = 0.564 * Math.pow((er - 0.9) / (er + 3.0), 0.053);
+		// effective w
+		final double p = t / (Math.PI * (w + 1.1 * t));
+		final double er2 = (er_eff + 1.0) / (2.0 * er_eff);
+		final double w_eff = w + (t / Math.PI) * (4.0 - 0.5 * Math.log(t * t / (h * h) +
+			p * p)) * er2;
+		// z0
+		final double hw = 4.0 * h / w_eff, erMul = (14.0 * er_eff + 8.0) / (11.0 * er_eff);
+		final double he = h * erMul / w_eff;
+		zo_surf = Units.Z_0 * Math.log1p(hw * hw * erMul + Math.sqrt(16.0 * he * he + er2 *
+			Math.PI * Math.PI) * hw) / (2.8284271247461902 * Math.sqrt(er_eff + 1.0));
+		// q2-q10 are based on spacing
+		q1 = 0.8695 * Math.pow(u, .194);
+		zom = zo_surf * Math.sqrt(er_eff) / (Units.Z_0 * Math.PI);
+		// Terms of the odd mode er and impedance which only depend on the width
+		erOddAdd = 0.5 * er + 0.5 + a0 - er_eff;
+		zNum = zo_surf * 2.0 * Math.sqrt(er_eff);
+	}
+}
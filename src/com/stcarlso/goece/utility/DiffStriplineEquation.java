@@ -0,0 +1,144 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+import java.util.Arrays;
+
+/**
+ * A class for EquationSolver to handle reverse solving of stripline differential impedance.
+ *
+ * Uses Cohn's coupled stripline model corrected for trace thickness. Cohn gives one formula
+ * for S >= 5T and another for closely spaced traces, which can differ by several percent
+ * where they meet. Below 5T, the spacing dependent terms of the closely spaced formula are
+ * kept, and its constant thickness correction is chosen to meet the other formula at S = 5T,
+ * so the impedance is continuous in spacing.
+ *
+ * Trace spacing is the IV (x). All units in mm.
+ */
+public class DiffStriplineEquation extends DiffTraceEquation {
+	/**
+	 * Used in impedance calculations.
+	 */
+	private static final double CF0 = 2.0 * Math.log(2.0);
+
+	/**
+	 * Coefficients for impedance calculation.
+	 */
+	private transient double cfTB;
+	private transient double closeOffset;
+	private transient double etaInv;
+	private transient double kmul;
+	private transient double z0i;
+	private transient double z0mul;
+	private transient double z0ss;
+
+	/**
+	 * Creates a new stripline equation context for calculating differential impedance.
+	 *
+	 * @param h the PCB thickness from the embedded traces to the nearest plane
+	 * @param w the trace width
+	 * @param t the trace thickness
+	 * @param er the relative dielectric permittivity
+	 * @param desired the desired impedance (set to 0.0 for forward calculation)
+	 */
+	public DiffStriplineEquation(final double h, final double w, final double t,
+								 final double er, final double desired) {
+		super(h, w, t, er, desired);
+		precompute();
+	}
+	/**
+	 * Calculates the differential impedance, and optionally the even and odd mode values.
+	 *
+	 * @param x the trace spacing
+	 * @param modes the array where the mode values are stored, or null if not needed
+	 * @return the differential impedance
+	 */
+	private double diffImpedance(final double x, final double[] modes) {
+		final double ret;
+		if (x <= 0.0) {
+			ret = Double.NaN;
+			if (modes != null)
+				Arrays.fill(modes, 0, MODE_COUNT, Double.NaN);
+		} else {
+			// Zero thickness odd mode impedance
+			final double z0o = zeroOdd(x);
+			// Differential impedance is twice the odd mode impedance
+			if (x / t >= 5.0)
+				ret = 2.0 / (1.0 / z0ss + cfTB * (1.0 / z0o - 1.0 / z0i) / CF0);
+			else
+				// Closely spaced traces add parallel plate capacitance between the edges
+				ret = 2.0 / (1.0 / z0o + etaInv * t / x + closeOffset);
+			if (modes != null) {
+				// Even mode uses the same thickness correction at all spacings
+				final double tc = Math.tanh(0.5 * Math.PI * (w + x) / (2.0 * h + t));
+				final double z0e = z0mul / ECECalc.ellipticRatio(kmul * tc);
+				modes[MODE_Z_EVEN] = 1.0 / (1.0 / z0ss - cfTB * (1.0 / z0i - 1.0 / z0e) /
+					CF0);
+				modes[MODE_Z_ODD] = 0.5 * ret;
+				// Homogeneous dielectric, both modes travel at the same speed
+				modes[MODE_ER_EVEN] = er;
+				modes[MODE_ER_ODD] = er;
+			}
+		}
+		return ret;
+	}
+	@Override
+	public double eval(double x) {
+		return diffImpedance(x, null) - desired;
+	}
+	@Override
+	public void evalModes(double x, double[] modes) {
+		diffImpedance(x, modes);
+	}
+	@Override
+	protected void precompute() {
+		final double b = 2.0 * h + t, ht = b - t;
+		kmul = Math.tanh(0.5 * Math.PI * w / b);
+		// eta / 4, where eta is the wave impedance in the dielectric
+		z0mul = 0.25 * Units.Z_0 * Math.PI / Math.sqrt(er);
+		// 2 / eta
+		etaInv = 0.5 / z0mul;
+		z0ss = new StriplineEquation(h, t, er, 0.0).eval(w);
+		// K(k') / K(k) for the ideal k, sech is the complement of tanh
+		final double kir = 1.0 / ECECalc.ellipticRatio(kmul);
+		z0i = z0mul * kir;
+		// Capacitance
+		final double bht = b / ht;
+		cfTB = 2.0 * bht * Math.log1p(bht) - t * Math.log(bht * bht - 1.0) / ht;
+		// Both formulas give the same odd mode admittance at S = 5T
+		final double y5 = 1.0 / zeroOdd(5.0 * t);
+		closeOffset = 1.0 / z0ss + cfTB * (y5 - 1.0 / z0i) / CF0 - y5 - 0.2 * etaInv;
+	}
+	/**
+	 * Calculates the odd mode impedance of zero thickness coupled striplines.
+	 *
+	 * @param x the trace spacing
+	 * @return the odd mode impedance, z0mul * K(k') / K(k)
+	 */
+	private double zeroOdd(final double x) {
+		return z0mul / ECECalc.ellipticRatio(kmul / Math.tanh(0.5 * Math.PI * (w + x) /
+			(2.0 * h + t)));
+	}
+}
@@ -0,0 +1,107 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+/**
+ * A base class for the differential pair impedance equations, which add the trace width as a
+ * parameter. The trace spacing is the independent variable.
+ *
+ * All units in mm.
+ */
+public abstract class DiffTraceEquation extends TraceEquation {
+	/**
+	 * The number of values written by evalModes().
+	 */
+	public static final int MODE_COUNT = 4;
+	/**
+	 * Index of the even mode effective dielectric constant in the evalModes() output.
+	 */
+	public static final int MODE_ER_EVEN = 2;
+	/**
+	 * Index of the odd mode effective dielectric constant in the evalModes() output.
+	 */
+	public static final int MODE_ER_ODD = 3;
+	/**
+	 * Index of the even mode impedance in the evalModes() output.
+	 */
+	public static final int MODE_Z_EVEN = 0;
+	/**
+	 * Index of the odd mode impedance in the evalModes() output.
+	 */
+	public static final int MODE_Z_ODD = 1;
+
+	/**
+	 * The trace width.
+	 */
+	protected double w;
+
+	/**
+	 * Initializes the parameters shared by all differential trace equations. Subclasses must
+	 * call precompute() once their own parameters are set.
+	 *
+	 * @param h the PCB thickness
+	 * @param w the trace width
+	 * @param t the trace thickness
+	 * @param er the relative dielectric permittivity
+	 * @param desired the desired impedance (set to 0.0 for forward calculation)
+	 */
+	protected DiffTraceEquation(final double h, final double w, final double t,
+								final double er, final double desired) {
+		super(h, t, er, desired);
+		if (w <= 0.0)
+			throw new IllegalArgumentException("width <= 0");
+		this.w = w;
+	}
+	/**
+	 * Calculates the even and odd mode impedances and effective dielectric constants of the
+	 * coupled pair. The odd mode impedance is half of the differential impedance calculated
+	 * by eval(), and all values come from one evaluation of the model.
+	 *
+	 * @param x the trace spacing
+	 * @param modes the array where the values are stored at the MODE_* indices, which must
+	 * have at least MODE_COUNT elements; all are NaN if the spacing is out of range
+	 */
+	public abstract void evalModes(double x, double[] modes);
+	@Override
+	public double get(final TraceParameter param) {
+		final double value;
+		if (param == TraceParameter.WIDTH)
+			value = w;
+		else
+			value = super.get(param);
+		return value;
+	}
+	@Override
+	public TraceParameter getVariable() {
+		return TraceParameter.SPACING;
+	}
+	@Override
+	protected boolean setOther(final TraceParameter param, final double value) {
+		final boolean changed = param == TraceParameter.WIDTH;
+		if (changed)
+			w = value;
+		return changed;
+	}
+}
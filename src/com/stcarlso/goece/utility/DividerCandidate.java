@@ -0,0 +1,204 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+/**
+ * Represents a pair of resistors that are a candidate for the best ratio match. This class
+ * was split from ResCandidate as inheritance was work for no gain...
+ */
+public class DividerCandidate implements Comparable<DividerCandidate> {
+	/**
+	 * The ideal current for a resistor divider, to break ties between the many equivalent
+	 * ratios in a given decade. This will target 100 uA by default.
+	 */
+	public static final double IDEAL_CURRENT = 1E-4;
+	/**
+	 * The absolute maximum current that will be guessed flowing through a resistor divider.
+	 * With load resistances marring an otherwise perfect match, we can get "closer and
+	 * closer" by running the impedances down to the milliohm range. <b>No longer!</b> This
+	 * limit is about 10 mA which is a lot for a voltage divider!
+	 */
+	public static final double MAX_CURRENT = 1E-2;
+
+	/**
+	 * The first resistor value.
+	 */
+	private final double r1;
+	/**
+	 * The second resistor value.
+	 */
+	private final double r2;
+	/**
+	 * The target resistor value.
+	 */
+	private final double target;
+	/**
+	 * The load resistance. Use infinity for none present.
+	 */
+	private final double rl;
+	/**
+	 * The input voltage. Used to calculate the target current!
+	 */
+	private double voltage;
+
+	/**
+	 * Creates a new candidate resistor divider pair.
+	 *
+	 * @param r1 the first resistor value
+	 * @param r2 the second resistor value
+	 * @param target the target division ratio to be achieved
+	 * @param rl the load resistance to this divider, or Double.POSITIVE_INFINITY if none is
+	 * present
+	 */
+	public DividerCandidate(double r1, double r2, double target, final double rl) {
+		this.r1 = r1;
+		this.r2 = r2;
+		this.rl = rl;
+		this.target = target;
+	}
+	@Override
+	public int compareTo(DividerCandidate other) {
+		int test;
+		if (getCurrent() > MAX_CURRENT)
+			// Do not use this value
+			test = 1;
+		else if (other.getCurrent() > MAX_CURRENT)
+			// Do not use that value
+			test = -1;
+		else {
+			// By error
+			test = Double.compare(Math.abs(getError()), Math.abs(other.getError()));
+			if (test == 0)
+				// Target current in the 100 uA range
+				test = Double.compare(distanceFromIdeal(), other.distanceFromIdeal());
+		}
+		return test;
+	}
+	/**
+	 * Creates a copy of this value with the same target, but a different pair of source
+	 * values. Intended for better abstraction.
+	 *
+	 * @param r1n the first resistor value
+	 * @param r2n the second resistor value
+	 * @return a value of the same class as this one, but with the new r1 and r2 value
+	 */
+	public DividerCandidate create(double r1n, double r2n) {
+		final DividerCandidate ret = new DividerCandidate(r1n, r2n, getTarget(), getLoad());
+		ret.setVoltage(getVoltage());
+		return ret;
+	}
+	/**
+	 * Returns a number that is larger the farther away the resistor pair's current flow is
+	 * away from the "ideal" current flow. Since 0.1 / 0.1 or 8.2 M / 8.2 M dividers are
+	 * rarely useful, give something saner like 10K / 10K an edge when equal.
+	 *
+	 * @return the distance of this value from the ideal total
+	 */
+	private double distanceFromIdeal() {
+		// We do not want to absolutely murder far-off totals, but since log is 1-1...
+		return Math.abs(getCurrent() - IDEAL_CURRENT);
+	}
+	/**
+	 * Gets the current that will be passed through this divider. Excludes the current
+	 * flowing through the load resistance if present.
+	 *
+	 * @return the current flow through this divider
+	 */
+	public double getCurrent() {
+		return getVoltage() / (getR1() + getR2());
+	}
+	/**
+	 * Gets the relative error.
+	 *
+	 * @return the relative error, not as a percentage (0-1)
+	 */
+	public double getError() {
+		// Calculate new ratio
+		final double t = getTarget(), num = getValue() - t, error;
+		// This regenerates the error with the loaded value
+		if (t == 0.0)
+			error = ECECalc.ieeeRound(num);
+		else
+			error = ECECalc.ieeeRound(num / t);
+		return error;
+	}
+	/**
+	 * Gets the load resistance.
+	 *
+	 * @return the load resistance, or Double.POSITIVE_INFINITY if none is present
+	 */
+	public double getLoad() {
+		return rl;
+	}
+	/**
+	 * Gets the first resistor value.
+	 *
+	 * @return the first resistor value
+	 */
+	public double getR1() {
+		return r1;
+	}
+	/**
+	 * Gets the second resistor value.
+	 *
+	 * @return the second resistor value
+	 */
+	public double getR2() {
+		return r2;
+	}
+	/**
+	 * Gets the target resistor value.
+	 *
+	 * @return the target resistor value
+	 */
+	public double getTarget() {
+		return target;
+	}
+	/**
+	 * Gets the ratio of this divider, including the load resistance.
+	 *
+	 * @return the divider ratio
+	 */
+	public double getValue() {
+		final double rint = ECECalc.parallelResistance(getLoad(), getR2());
+		return ECECalc.voltageDivide(getR1(), rint);
+	}
+	/**
+	 * Gets the voltage that will be split across this divider.
+	 *
+	 * @return the voltage input
+	 */
+	public double getVoltage() {
+		return voltage;
+	}
+	/**
+	 * Changes the voltage dropped by this divider.
+	 *
+	 * @param voltage the input voltage
+	 */
+	public void setVoltage(final double voltage) {
+		this.voltage = voltage;
+	}
+}
@@ -29,16 +29,56 @@ package com.stcarlso.goece.utility;
  */
 public final class ECECalc {
 	/**
-	 * Calculates the complete elliptic integral of the first kind for the parameter x.
+	 * Maximum number of iterations of the arithmetic-geometric mean. Convergence is quadratic,
+	 * so full double precision takes about 5 iterations for all but the most extreme inputs.
+	 */
+	private static final int AGM_ITERATIONS = 32;
+
+	/**
+	 * Calculates the arithmetic-geometric mean of two non-negative numbers.
 	 *
-	 * @param x the parameter of the integral
-	 * @return the elliptic integral
+	 * @param a the first number
+	 * @param b the second number
+	 * @return the arithmetic-geometric mean of a and b
+	 */
+	private static double agm(final double a, final double b) {
+		double an = a, bn = b;
+		// The geometric mean is stuck at 0 if either input is 0
+		if (an == 0.0 || bn == 0.0)
+			an = bn = 0.0;
+		for (int i = 0; i < AGM_ITERATIONS && an != bn && Math.abs(an - bn) > 1E-15 * an;
+				i++) {
+			final double mean = 0.5 * (an + bn);
+			bn = Math.sqrt(an * bn);
+			an = mean;
+		}
+		return 0.5 * (an + bn);
+	}
+	/**
+	 * Calculates the complementary modulus k' = sqrt(1 - k^2), without losing precision when
+	 * k is close to 1.
+	 *
+	 * @param k the modulus
+	 * @return the complementary modulus, or NaN if |k| > 1
+	 */
+	private static double complement(final double k) {
+		final double ka = Math.abs(k);
+		return Math.sqrt((1.0 - ka) * (1.0 + ka));
+	}
+	/**
+	 * Calculates the complete elliptic integral of the first kind K(k) for the modulus x,
+	 * using the arithmetic-geometric mean.
+	 *
+	 * @param x the modulus of the integral
+	 * @return the elliptic integral, which is infinite if |x| = 1 and NaN if |x| > 1
 	 */
 	public static double elliptic(final double x) {
-		return elliptic(x, 24);
+		return Math.PI * 0.5 / agm(1.0, complement(x));
 	}
 	/**
-	 * Calculates the complete elliptic integral of the first kind for the parameter x.
+	 * Calculates the complete elliptic integral of the first kind for the parameter x, using a
+	 * truncated power series. The series converges slowly as |x| approaches 1, where
+	 * elliptic(double) should be used instead.
 	 *
 	 * @param x the parameter of the integral
 	 * @param terms the number of terms to compute in the series approximation
@@ -60,6 +100,28 @@ public final class ECECalc {
 		}
 		return sum * Math.PI * 0.5;
 	}
+	/**
+	 * Calculates the complementary complete elliptic integral of the first kind K'(k), which
+	 * is K(sqrt(1 - k^2)), for the modulus x.
+	 *
+	 * @param x the modulus of the integral
+	 * @return the complementary elliptic integral, which is infinite if x = 0
+	 */
+	public static double ellipticComplement(final double x) {
+		return Math.PI * 0.5 / agm(1.0, Math.abs(x));
+	}
+	/**
+	 * Calculates the ratio K(k) / K'(k) of the complete elliptic integral of the first kind to
+	 * its complement for the modulus x. This ratio appears in the conformal mapping solutions
+	 * for coplanar and stripline impedance, and is more accurate than dividing the results of
+	 * elliptic() when x is close to 0 or 1.
+	 *
+	 * @param x the modulus of the integrals
+	 * @return K(x) / K(sqrt(1 - x^2))
+	 */
+	public static double ellipticRatio(final double x) {
+		return agm(1.0, Math.abs(x)) / agm(1.0, complement(x));
+	}
 	/**
 	 * Rounds the double-precision value to 40 bits. Essential for equalizing small calculation
 	 * errors from base-two rounding through calculation chains. This is about the 1E-9 decimal
@@ -112,6 +174,23 @@ public final class ECECalc {
 			ret = (r1 * r2) / denom;
 		return ret;
 	}
+	/**
+	 * Calculates the range of equivalent resistance of two toleranced resistors in parallel.
+	 * The result increases with both resistances, so the bounds are exact.
+	 *
+	 * @param r1 the first resistor value
+	 * @param r2 the second resistor value
+	 * @return the range of the equivalent parallel resistance
+	 */
+	public static Interval parallelResistance(final Interval r1, final Interval r2) {
+		final double n1 = r1.getNominal(), n2 = r2.getNominal();
+		// d(r1 || r2) / dr1 = (r2 / (r1 + r2))^2, and the same for r2
+		final double a = voltageDivide(n1, n2), b = 1.0 - a;
+		final double d1 = a * a * r1.getDeviation(), d2 = b * b * r2.getDeviation();
+		return new Interval().set(parallelResistance(n1, n2), parallelResistance(r1.getLower(),
+			r2.getLower()), parallelResistance(r1.getUpper(), r2.getUpper()), Math.sqrt(d1 *
+			d1 + d2 * d2));
+	}
 	/**
 	 * Calculates the voltage division ratio between two series-connected resistors.
 	 *
@@ -130,4 +209,23 @@ public final class ECECalc {
 			ratio = r2 / (r1 + r2);
 		return ratio;
 	}
+	/**
+	 * Calculates the range of the voltage division ratio between two toleranced
+	 * series-connected resistors. The ratio decreases with the top resistor and increases with
+	 * the bottom resistor, so the bounds are exact.
+	 *
+	 * @param r1 the top resistor value
+	 * @param r2 the bottom resistor value
+	 * @return the range of the ratio of the voltage in between the resistors to the voltage
+	 * supplied up top
+	 */
+	public static Interval voltageDivide(final Interval r1, final Interval r2) {
+		final double n1 = r1.getNominal(), n2 = r2.getNominal(), sum = n1 + n2;
+		final double ratio = voltageDivide(n1, n2), scale = (sum > 0.0) ? 1.0 / sum : 0.0;
+		// d(ratio) / dr1 = -ratio / (r1 + r2), d(ratio) / dr2 = (1 - ratio) / (r1 + r2)
+		final double d1 = ratio * scale * r1.getDeviation();
+		final double d2 = (1.0 - ratio) * scale * r2.getDeviation();
+		return new Interval().set(ratio, voltageDivide(r1.getUpper(), r2.getLower()),
+			voltageDivide(r1.getLower(), r2.getUpper()), Math.sqrt(d1 * d1 + d2 * d2));
+	}
 }
@@ -0,0 +1,350 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Formats numbers for display in engineering notation, appending the digits directly to a
+ * StringBuilder which may be reused between calls.
+ *
+ * The output matches String.format() with the "%.nf" and "%.ng" conversions in the default
+ * locale, but without parsing a format string. Values which round to exactly halfway between
+ * two outputs are passed to String.format(), since the rounding direction depends on the
+ * shortest decimal representation of the value and not on its binary value.
+ */
+public final class EngineeringFormat {
+	/**
+	 * The largest number of decimal places that can be formatted without String.format().
+	 */
+	private static final int MAX_DECIMALS = 15;
+	/**
+	 * Scaled values at or above this size are passed to String.format().
+	 */
+	private static final double MAX_SCALED = 1E15;
+	/**
+	 * Powers of 10 from 10^0 to 10^22, all of which are exact doubles.
+	 */
+	static final double[] POW10 = {
+		1E0, 1E1, 1E2, 1E3, 1E4, 1E5, 1E6, 1E7, 1E8, 1E9, 1E10, 1E11, 1E12, 1E13, 1E14,
+		1E15, 1E16, 1E17, 1E18, 1E19, 1E20, 1E21, 1E22
+	};
+	/**
+	 * Powers of 10 from 10^0 to 10^18 as integers.
+	 */
+	private static final long[] POW10_LONG = {
+		1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L,
+		10000000000L, 100000000000L, 1000000000000L, 10000000000000L, 100000000000000L,
+		1000000000000000L, 10000000000000000L, 100000000000000000L, 1000000000000000000L
+	};
+
+	/**
+	 * The decimal symbols of the most recently used locale.
+	 */
+	private static volatile Symbols symbols = null;
+
+	/**
+	 * Appends the digits of a non-negative integer, padded with leading zeroes.
+	 *
+	 * @param out the location where the digits are appended
+	 * @param value the value to append
+	 * @param minDigits the minimum number of digits to append
+	 * @param zero the zero digit of the locale
+	 */
+	private static void appendDigits(final StringBuilder out, final long value,
+									 final int minDigits, final char zero) {
+		final int start = out.length();
+		long n = value;
+		int count = 0;
+		// Digits come out backwards
+		do {
+			out.append((char)(zero + (int)(n % 10L)));
+			n /= 10L;
+			count++;
+		} while (n > 0L || count < minDigits);
+		for (int i = start, j = out.length() - 1; i < j; i++, j--) {
+			final char temp = out.charAt(i);
+			out.setCharAt(i, out.charAt(j));
+			out.setCharAt(j, temp);
+		}
+	}
+	/**
+	 * Appends a value with a fixed number of decimal places. Equivalent to appending
+	 * String.format("%.nf", value) where n is the number of decimal places.
+	 *
+	 * @param out the location where the value is appended
+	 * @param value the value to format
+	 * @param decimals the number of digits to show after the radix point
+	 * @return out, for chaining
+	 */
+	public static StringBuilder appendFixed(final StringBuilder out, final double value,
+											final int decimals) {
+		if (decimals < 0)
+			throw new IllegalArgumentException("decimals");
+		if (!appendSpecial(out, value)) {
+			final Symbols sym = getSymbols();
+			final long n = (decimals <= MAX_DECIMALS) ? roundScaled(Math.abs(value),
+				decimals) : -1L;
+			if (n < 0L)
+				out.append(String.format(sym.locale, "%." + decimals + "f", value));
+			else {
+				if (isNegative(value))
+					out.append('-');
+				appendScaled(out, n, decimals, sym);
+			}
+		}
+		return out;
+	}
+	/**
+	 * Appends a value with a fixed number of significant figures, in scientific notation if
+	 * it is very large or very small. Equivalent to appending String.format("%.ng", value)
+	 * where n is the number of significant figures.
+	 *
+	 * @param out the location where the value is appended
+	 * @param value the value to format
+	 * @param sigfigs the number of significant figures
+	 * @return out, for chaining
+	 */
+	public static StringBuilder appendGeneral(final StringBuilder out, final double value,
+											  final int sigfigs) {
+		if (sigfigs < 1)
+			throw new IllegalArgumentException("sigfigs");
+		final double abs = Math.abs(value);
+		if (abs == 0.0)
+			appendFixed(out, value, sigfigs - 1);
+		else if (sigfigs > MAX_DECIMALS)
+			out.append(String.format(getSymbols().locale, "%." + sigfigs + "g", value));
+		else if (!appendSpecial(out, value)) {
+			final Symbols sym = getSymbols();
+			int exp = (int)Math.floor(Math.log10(abs));
+			long n = roundSignificand(abs, sigfigs, exp);
+			if (n >= POW10_LONG[sigfigs]) {
+				// Rounded up into the next decade
+				exp++;
+				n = roundSignificand(abs, sigfigs, exp);
+			} else if (n >= 0L && n < POW10_LONG[sigfigs - 1]) {
+				// log10 was slightly too high
+				exp--;
+				n = roundSignificand(abs, sigfigs, exp);
+			}
+			if (n < POW10_LONG[sigfigs - 1] || n >= POW10_LONG[sigfigs])
+				out.append(String.format(sym.locale, "%." + sigfigs + "g", value));
+			else {
+				if (value < 0.0)
+					out.append('-');
+				if (exp >= -4 && exp < sigfigs)
+					appendScaled(out, n, sigfigs - 1 - exp, sym);
+				else {
+					appendScaled(out, n, sigfigs - 1, sym);
+					out.append('e');
+					out.append((exp < 0) ? '-' : '+');
+					appendDigits(out, Math.abs(exp), 2, sym.zero);
+				}
+			}
+		}
+		return out;
+	}
+	/**
+	 * Appends an integer which has been scaled by a power of 10.
+	 *
+	 * @param out the location where the value is appended
+	 * @param n the value multiplied by 10^decimals
+	 * @param decimals the number of digits to show after the radix point
+	 * @param sym the decimal symbols to use
+	 */
+	private static void appendScaled(final StringBuilder out, final long n, final int decimals,
+									 final Symbols sym) {
+		final long scale = POW10_LONG[decimals];
+		appendDigits(out, n / scale, 1, sym.zero);
+		if (decimals > 0) {
+			out.append(sym.decimal);
+			appendDigits(out, n % scale, decimals, sym.zero);
+		}
+	}
+	/**
+	 * Appends a significand from 0 (inclusive) to 1000 (exclusive!) in engineering notation.
+	 * Fewer decimal places are shown as the significand grows, so that the number of
+	 * significant figures stays the same.
+	 *
+	 * @param out the location where the significand is appended
+	 * @param value the value to format
+	 * @param sigfigs the number of significant figures to use
+	 * @return out, for chaining
+	 */
+	public static StringBuilder appendSignificand(final StringBuilder out, final double value,
+												  final int sigfigs) {
+		final double absSig = Math.abs(value);
+		if (Double.isInfinite(value))
+			// If infinite, display it that way
+			out.append((value > 0.0) ? "\u221E" : "-\u221E");
+		else {
+			final int decimals;
+			// Calculate number of decimal places to show
+			if (absSig >= 99.95)
+				decimals = Math.max(sigfigs - 3, 0);
+			else if (absSig >= 9.995)
+				decimals = Math.max(sigfigs - 2, 0);
+			else if (absSig >= 0.9995 || absSig == 0.0)
+				decimals = sigfigs - 1;
+			else
+				decimals = sigfigs;
+			appendFixed(out, value, decimals);
+		}
+		return out;
+	}
+	/**
+	 * Appends infinite and NaN values the same way as String.format().
+	 *
+	 * @param out the location where the value is appended
+	 * @param value the value to format
+	 * @return true if the value was infinite or NaN and has been appended, or false otherwise
+	 */
+	private static boolean appendSpecial(final StringBuilder out, final double value) {
+		final boolean special = Double.isNaN(value) || Double.isInfinite(value);
+		if (Double.isNaN(value))
+			out.append("NaN");
+		else if (Double.isInfinite(value))
+			out.append((value > 0.0) ? "Infinity" : "-Infinity");
+		return special;
+	}
+	/**
+	 * Appends a tolerance as a percentage, with a reasonable number of decimal places and no
+	 * extra significant figures. The percent sign is not appended.
+	 *
+	 * @param out the location where the tolerance is appended
+	 * @param tolIn the tolerance value to display (0.01 = 1%)
+	 * @return out, for chaining
+	 */
+	public static StringBuilder appendTolerance(final StringBuilder out, final double tolIn) {
+		// Do what we can to fix the broken mess that is floating point
+		final double tol = tolIn * 100.0;
+		final int tolInt = (int)Math.round(100.0 * tol), dp;
+		if (tolInt % 100 == 0)
+			dp = 0;
+		else if (tolInt % 10 == 0)
+			dp = 1;
+		else
+			dp = 2;
+		return appendFixed(out, tol, dp);
+	}
+	/**
+	 * Gets the radix point of the default locale.
+	 *
+	 * @return the decimal separator, such as '.' or ','
+	 */
+	static char getDecimalSeparator() {
+		return getSymbols().decimal;
+	}
+	/**
+	 * Gets the decimal symbols of the default locale. They are cached until the default
+	 * locale changes.
+	 *
+	 * @return the decimal symbols to use
+	 */
+	private static Symbols getSymbols() {
+		final Locale locale = Locale.getDefault();
+		Symbols sym = symbols;
+		if (sym == null || !sym.locale.equals(locale)) {
+			sym = new Symbols(locale);
+			symbols = sym;
+		}
+		return sym;
+	}
+	/**
+	 * Checks to see if a value is negative, including negative zero.
+	 *
+	 * @param value the value to check
+	 * @return whether the value has its sign bit set
+	 */
+	private static boolean isNegative(final double value) {
+		return value < 0.0 || (value == 0.0 && 1.0 / value < 0.0);
+	}
+	/**
+	 * Rounds a non-negative value multiplied by a power of 10 to the nearest integer, with
+	 * ties rounded up.
+	 *
+	 * @param abs the value to round
+	 * @param pow the power of 10 to scale the value
+	 * @return the rounded value, or -1 if it is too large or too close to a tie to be rounded
+	 * correctly with double arithmetic
+	 */
+	private static long roundScaled(final double abs, final int pow) {
+		long ret = -1L;
+		if (pow >= -22 && pow <= 22) {
+			final double scaled = (pow >= 0) ? abs * POW10[pow] : abs / POW10[-pow];
+			if (scaled < MAX_SCALED) {
+				final double floor = Math.floor(scaled), frac = scaled - floor;
+				// The scaling may be off by a few ulps, so do not trust near ties
+				if (Math.abs(frac - 0.5) > 4.0 * Math.ulp(scaled))
+					ret = (long)floor + ((frac > 0.5) ? 1L : 0L);
+			}
+		}
+		return ret;
+	}
+	/**
+	 * Rounds a non-negative value to an integer with the specified number of significant
+	 * figures.
+	 *
+	 * @param abs the value to round
+	 * @param sigfigs the number of significant figures
+	 * @param exp the power of 10 of the leading digit
+	 * @return the significant digits as an integer, or -1 if the value cannot be rounded
+	 * correctly with double arithmetic
+	 */
+	private static long roundSignificand(final double abs, final int sigfigs, final int exp) {
+		return roundScaled(abs, sigfigs - 1 - exp);
+	}
+
+	/**
+	 * Stores the symbols needed to format decimal numbers in one locale.
+	 */
+	private static final class Symbols {
+		/**
+		 * The radix point.
+		 */
+		public final char decimal;
+		/**
+		 * The locale of these symbols.
+		 */
+		public final Locale locale;
+		/**
+		 * The zero digit. The other digits follow it.
+		 */
+		public final char zero;
+
+		/**
+		 * Looks up the decimal symbols of a locale.
+		 *
+		 * @param locale the locale to use
+		 */
+		public Symbols(final Locale locale) {
+			final DecimalFormatSymbols dfs = DecimalFormatSymbols.getInstance(locale);
+			decimal = dfs.getDecimalSeparator();
+			this.locale = locale;
+			zero = dfs.getZeroDigit();
+		}
+	}
+}
@@ -0,0 +1,715 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+/**
+ * Parses values written in engineering notation, such as "4.7k", "4k7", "2.2uF",
+ * "10 MOhm +/- 1%", "50 @ 30", or "3 + 4j". SI prefixes (u and both mu characters are
+ * accepted for micro), RKM codes which use the prefix as the radix point, unit suffixes, a
+ * percent tolerance, and complex values in polar or rectangular form are understood.
+ *
+ * The text is scanned once and the results are stored in this object as primitives, so a
+ * parser can be reused for many values without creating any objects. Numbers which cannot be
+ * converted exactly with double arithmetic, such as those with more than 15 digits, are passed
+ * to Double.parseDouble(). Parsers are not thread safe.
+ */
+public final class EngineeringParser {
+	/**
+	 * Prefix code used when no SI prefix was given.
+	 */
+	public static final int NO_PREFIX = -1;
+	/**
+	 * Prefix code for unity, used by "R" in RKM codes.
+	 */
+	private static final int UNITY = 5;
+
+	/**
+	 * Checks to see if a character is an ASCII digit.
+	 *
+	 * @param c the character to check
+	 * @return whether the character is 0-9
+	 */
+	private static boolean isDigit(final char c) {
+		return c >= '0' && c <= '9';
+	}
+	/**
+	 * Checks to see if a character ends a prefix and unit token.
+	 *
+	 * @param c the character to check
+	 * @return whether the character is whitespace or starts a tolerance or angle
+	 */
+	private static boolean isTokenEnd(final char c) {
+		return c <= ' ' || c == '\u00B1' || c == '@' || c == '\u2220' || c == '+' ||
+			c == ')' || c == '%';
+	}
+	/**
+	 * Checks to see if a region of text looks like units, so that text such as ",000" is not
+	 * mistaken for units when any units are accepted. Units start with a letter or degree sign,
+	 * followed by letters, digits, degree signs, or "/".
+	 *
+	 * @param text the text to check
+	 * @param start the index of the first character of the units
+	 * @param end the index after the last character of the units
+	 * @return whether the region is empty or could be units
+	 */
+	private static boolean isUnitText(final CharSequence text, final int start,
+									  final int end) {
+		boolean ok = true;
+		for (int i = start; i < end && ok; i++) {
+			final char c = text.charAt(i);
+			ok = Character.isLetter(c) || c == '\u00B0' || (i > start && (isDigit(c) ||
+				c == '/'));
+		}
+		return ok;
+	}
+	/**
+	 * Parses a real number with an optional SI prefix, for entry fields where the prefix is
+	 * normally selected separately. A prefix in the text overrides the selected prefix.
+	 *
+	 * @param text the text to parse
+	 * @param prefixCode the SI prefix code to use if the text has no prefix
+	 * @return the raw value
+	 * @throws NumberFormatException if the text is not a valid real number
+	 */
+	public static double parseSignificand(final CharSequence text, final int prefixCode) {
+		final EngineeringParser parser = new EngineeringParser();
+		if (!parser.parse(text, "") || parser.isComplex())
+			throw new NumberFormatException(text.toString());
+		final double ret;
+		if (parser.getPrefixCode() == NO_PREFIX)
+			ret = EngineeringValue.valueFromSigExp(parser.getReal(), prefixCode);
+		else
+			ret = parser.getReal();
+		return ret;
+	}
+	/**
+	 * Parses a number which cannot be converted exactly with double arithmetic.
+	 *
+	 * @param text the text to parse
+	 * @param start the index of the first digit
+	 * @param end the index after the end of the number
+	 * @return the number, correctly rounded
+	 */
+	private static double parseSlow(final CharSequence text, final int start, final int end) {
+		final StringBuilder number = new StringBuilder(end - start);
+		for (int i = start; i < end; i++) {
+			final char c = text.charAt(i);
+			// Convert locale radix points and RKM codes to "."
+			if (isDigit(c) || c == 'e' || c == 'E' || c == '+' || c == '-')
+				number.append(c);
+			else
+				number.append('.');
+		}
+		return Double.parseDouble(number.toString());
+	}
+	/**
+	 * Looks up the SI prefix code of a character.
+	 *
+	 * @param c the character to look up
+	 * @return the prefix code (index into EngineeringValue.ENGR_NAMES), or NO_PREFIX if the
+	 * character is not an SI prefix
+	 */
+	private static int prefixCode(final char c) {
+		final int code;
+		switch (c) {
+		case 'f':
+			code = 0;
+			break;
+		case 'p':
+			code = 1;
+			break;
+		case 'n':
+			code = 2;
+			break;
+		case 'u':
+		case '\u00B5':
+		case '\u03BC':
+			code = 3;
+			break;
+		case 'm':
+			code = 4;
+			break;
+		case 'k':
+		case 'K':
+			code = 6;
+			break;
+		case 'M':
+			code = 7;
+			break;
+		case 'G':
+			code = 8;
+			break;
+		case 'T':
+			code = 9;
+			break;
+		case 'P':
+			code = 10;
+			break;
+		default:
+			code = NO_PREFIX;
+			break;
+		}
+		return code;
+	}
+	/**
+	 * Checks to see if a region of text is equal to a string.
+	 *
+	 * @param text the text to check
+	 * @param start the index of the first character to compare
+	 * @param end the index after the last character to compare
+	 * @param str the string to compare against
+	 * @param ignoreCase true to ignore the case of ASCII letters
+	 * @return whether the region and string are equal
+	 */
+	private static boolean regionMatches(final CharSequence text, final int start,
+										 final int end, final String str,
+										 final boolean ignoreCase) {
+		final int len = str.length();
+		boolean match = (end - start) == len;
+		for (int i = 0; i < len && match; i++) {
+			char a = text.charAt(start + i), b = str.charAt(i);
+			if (ignoreCase && a >= 'A' && a <= 'Z')
+				a += 'a' - 'A';
+			match = a == b;
+		}
+		return match;
+	}
+
+	/**
+	 * Checks to see if a region of text matches the expected units. Resistance may also be
+	 * written as "R" or "ohm".
+	 *
+	 * @param text the text to check
+	 * @param start the index of the first character of the units
+	 * @param end the index after the last character of the units
+	 * @param units the expected units
+	 * @return whether the region matches the units
+	 */
+	private static boolean unitsMatch(final CharSequence text, final int start, final int end,
+									  final String units) {
+		boolean match = regionMatches(text, start, end, units, false);
+		if (!match && units.equals(Units.RESISTANCE))
+			match = regionMatches(text, start, end, "R", false) || regionMatches(text, start,
+				end, "ohm", true) || regionMatches(text, start, end, "ohms", true);
+		return match;
+	}
+
+	/**
+	 * The phase angle of the last value in degrees.
+	 */
+	private double angle;
+	/**
+	 * True if the last value was complex.
+	 */
+	private boolean complex;
+	/**
+	 * The imaginary part of the last value.
+	 */
+	private double imaginary;
+	/**
+	 * The magnitude of the last value.
+	 */
+	private double magnitude;
+	/**
+	 * The number read by the last call to scanNumber().
+	 */
+	private double number;
+	/**
+	 * The scan position in the text.
+	 */
+	private int pos;
+	/**
+	 * The SI prefix code of the last value, or NO_PREFIX if it had none.
+	 */
+	private int prefix;
+	/**
+	 * The real part of the last value.
+	 */
+	private double real;
+	/**
+	 * The relative tolerance of the last value, or 0.0 if it had none.
+	 */
+	private double tolerance;
+	/**
+	 * The index after the last character of the units.
+	 */
+	private int unitEnd;
+	/**
+	 * The index of the first character of the units.
+	 */
+	private int unitStart;
+
+	/**
+	 * Creates a new parser.
+	 */
+	public EngineeringParser() {
+		reset();
+	}
+	/**
+	 * Gets the phase angle of the last value parsed.
+	 *
+	 * @return the phase angle in degrees, 0 for positive real values
+	 */
+	public double getAngle() {
+		return angle;
+	}
+	/**
+	 * Gets the imaginary part of the last value parsed.
+	 *
+	 * @return the imaginary part, 0 for real values
+	 */
+	public double getImaginary() {
+		return imaginary;
+	}
+	/**
+	 * Gets the magnitude of the last value parsed.
+	 *
+	 * @return the magnitude, which is never negative
+	 */
+	public double getMagnitude() {
+		return magnitude;
+	}
+	/**
+	 * Gets the SI prefix of the last value parsed.
+	 *
+	 * @return the prefix code (index into EngineeringValue.ENGR_NAMES), or NO_PREFIX if the
+	 * value had no prefix
+	 */
+	public int getPrefixCode() {
+		return prefix;
+	}
+	/**
+	 * Gets the real part of the last value parsed. This is the value for real numbers.
+	 *
+	 * @return the real part, with the SI prefix applied
+	 */
+	public double getReal() {
+		return real;
+	}
+	/**
+	 * Gets the tolerance of the last value parsed.
+	 *
+	 * @return the tolerance (0.01 = 1%), or 0.0 if none was given
+	 */
+	public double getTolerance() {
+		return tolerance;
+	}
+	/**
+	 * Gets the end of the units of the last value parsed. If no units were given, this is
+	 * equal to getUnitStart().
+	 *
+	 * @return the index after the last character of the units, without the SI prefix
+	 */
+	public int getUnitEnd() {
+		return unitEnd;
+	}
+	/**
+	 * Gets the start of the units of the last value parsed.
+	 *
+	 * @return the index of the first character of the units, without the SI prefix
+	 */
+	public int getUnitStart() {
+		return unitStart;
+	}
+	/**
+	 * Checks to see if the last value parsed was complex.
+	 *
+	 * @return true if an angle or imaginary part was given, or false otherwise
+	 */
+	public boolean isComplex() {
+		return complex;
+	}
+	/**
+	 * Parses a value.
+	 *
+	 * @param text the text to parse
+	 * @param units the expected units, or null to accept any units
+	 * @return true if the text was a valid value, or false otherwise
+	 */
+	public boolean parse(final CharSequence text, final String units) {
+		return parse(text, 0, text.length(), units);
+	}
+	/**
+	 * Parses a value from part of a string. If this method returns false, the results are
+	 * undefined.
+	 *
+	 * @param text the text to parse
+	 * @param start the index of the first character to parse
+	 * @param end the index after the last character to parse
+	 * @param units the expected units, or null to accept any text which looks like units. If
+	 * units are given, the text must either have these units or no units.
+	 * @return true if the text was a valid value, or false otherwise
+	 */
+	public boolean parse(final CharSequence text, final int start, final int end,
+						 final String units) {
+		if (text == null)
+			throw new NullPointerException("text");
+		if (start < 0 || end > text.length() || start > end)
+			throw new IndexOutOfBoundsException("start, end");
+		reset();
+		pos = start;
+		skipSpaces(text, end);
+		final boolean paren = pos < end && text.charAt(pos) == '(';
+		if (paren)
+			pos++;
+		boolean ok = scanReal(text, end, true);
+		if (ok) {
+			real = number;
+			skipSpaces(text, end);
+			// Imaginary part, but not the start of a "+/-" or "+-" tolerance
+			if (pos + 1 < end && (text.charAt(pos) == '+' || text.charAt(pos) == '-') &&
+					text.charAt(pos + 1) != '/' && text.charAt(pos + 1) != '-')
+				ok = scanImaginary(text, end);
+			if (ok && paren) {
+				skipSpaces(text, end);
+				ok = pos < end && text.charAt(pos) == ')';
+				pos++;
+			}
+		}
+		if (ok)
+			ok = scanUnits(text, end, units);
+		// Tolerance and angle may come in either order
+		boolean hasTolerance = false, hasAngle = false;
+		while (ok && pos < end) {
+			final char c = text.charAt(pos);
+			if (!hasTolerance && (c == '\u00B1' || c == '+')) {
+				ok = scanTolerance(text, end);
+				hasTolerance = true;
+			} else if (!hasAngle && !complex && (c == '@' || c == '\u2220')) {
+				ok = scanAngle(text, end);
+				hasAngle = true;
+			} else
+				ok = false;
+		}
+		if (ok) {
+			final double scale = (prefix == NO_PREFIX) ? 1.0 :
+				EngineeringValue.ENGR_THRESHOLD[prefix];
+			if (hasAngle) {
+				// Polar form
+				final double rad = Math.toRadians(angle);
+				magnitude = real * scale;
+				real = magnitude * Math.cos(rad);
+				imaginary = magnitude * Math.sin(rad);
+				if (magnitude < 0.0) {
+					magnitude = -magnitude;
+					angle += 180.0;
+				}
+				complex = true;
+			} else if (complex) {
+				// Rectangular form
+				real *= scale;
+				imaginary *= scale;
+				magnitude = Math.sqrt(real * real + imaginary * imaginary);
+				angle = Math.toDegrees(Math.atan2(imaginary, real));
+			} else {
+				real *= scale;
+				magnitude = Math.abs(real);
+				angle = (real < 0.0) ? 180.0 : 0.0;
+			}
+		}
+		return ok;
+	}
+	/**
+	 * Parses a column of values, separated by line breaks, tabs, or semicolons. Blank fields
+	 * are skipped. Parsing stops at the first invalid field or when the output is full.
+	 *
+	 * @param text the text to parse
+	 * @param units the expected units, or null to accept any units
+	 * @param out the array where the real part of each value is stored
+	 * @return the number of values stored in out
+	 */
+	public int parseColumn(final CharSequence text, final String units, final double[] out) {
+		final int len = text.length();
+		int count = 0, start = 0;
+		while (start < len && count < out.length) {
+			int end = start;
+			boolean blank = true;
+			for (char c; end < len && (c = text.charAt(end)) != '\n' && c != '\r' &&
+					c != '\t' && c != ';'; end++)
+				if (c > ' ') blank = false;
+			if (!blank) {
+				if (!parse(text, start, end, units))
+					break;
+				out[count++] = real;
+			}
+			start = end + 1;
+		}
+		return count;
+	}
+	/**
+	 * Clears the results of the last value parsed.
+	 */
+	private void reset() {
+		angle = 0.0;
+		complex = false;
+		imaginary = 0.0;
+		magnitude = 0.0;
+		number = 0.0;
+		pos = 0;
+		prefix = NO_PREFIX;
+		real = 0.0;
+		tolerance = 0.0;
+		unitEnd = 0;
+		unitStart = 0;
+	}
+	/**
+	 * Scans a phase angle, starting at the "@" or angle sign, into the angle field.
+	 *
+	 * @param text the text to parse
+	 * @param end the index after the last character to parse
+	 * @return whether a valid angle was found
+	 */
+	private boolean scanAngle(final CharSequence text, final int end) {
+		pos++;
+		skipSpaces(text, end);
+		final boolean ok = scanReal(text, end, false);
+		if (ok) {
+			angle = number;
+			if (pos < end && text.charAt(pos) == '\u00B0')
+				pos++;
+			else if (pos + 3 <= end && regionMatches(text, pos, pos + 3, "deg", true))
+				pos += 3;
+			skipSpaces(text, end);
+		}
+		return ok;
+	}
+	/**
+	 * Scans the imaginary part of a rectangular value, starting at the sign, into the
+	 * imaginary field. The "i" or "j" may come before or after the number.
+	 *
+	 * @param text the text to parse
+	 * @param end the index after the last character to parse
+	 * @return whether a valid imaginary part was found
+	 */
+	private boolean scanImaginary(final CharSequence text, final int end) {
+		final boolean negative = text.charAt(pos) == '-';
+		pos++;
+		skipSpaces(text, end);
+		boolean ok, unit = false;
+		if (pos < end && (text.charAt(pos) == 'i' || text.charAt(pos) == 'j')) {
+			unit = true;
+			pos++;
+		}
+		ok = scanNumber(text, end, false);
+		if (ok && !unit)
+			if (pos < end && (text.charAt(pos) == 'i' || text.charAt(pos) == 'j'))
+				pos++;
+			else
+				ok = false;
+		if (ok) {
+			imaginary = negative ? -number : number;
+			complex = true;
+		}
+		return ok;
+	}
+	/**
+	 * Scans an unsigned decimal number into the number field. The number may have a radix
+	 * point ("." or the decimal separator of the default locale, followed by a digit), an
+	 * exponent, or if allowed, an SI prefix or "R" in place of the radix point, which sets the
+	 * prefix field. Other separators such as the "," in "1,000" in English are not accepted.
+	 *
+	 * @param text the text to parse
+	 * @param end the index after the last character to parse
+	 * @param rkm whether RKM codes such as "4k7" are allowed
+	 * @return whether a valid number was found
+	 */
+	private boolean scanNumber(final CharSequence text, final int end, final boolean rkm) {
+		final char radix = EngineeringFormat.getDecimalSeparator();
+		long mantissa = 0L;
+		int digits = 0, exp = 0, p = pos, code = NO_PREFIX;
+		boolean any = false, point = false;
+		for (; p < end; p++) {
+			final char c = text.charAt(p);
+			if (isDigit(c)) {
+				any = true;
+				if (digits < 18) {
+					mantissa = mantissa * 10L + (c - '0');
+					// Leading zeroes do not count towards the precision
+					if (mantissa != 0L)
+						digits++;
+					if (point)
+						exp--;
+				} else if (!point)
+					// Too many digits to hold, so just keep the magnitude
+					exp++;
+			} else if (!point && (c == '.' || c == radix) && p + 1 < end &&
+					isDigit(text.charAt(p + 1)))
+				point = true;
+			else if (!point && rkm && any && p + 1 < end && isDigit(text.charAt(p + 1)) &&
+					(code = (c == 'R') ? UNITY : prefixCode(c)) != NO_PREFIX)
+				point = true;
+			else
+				break;
+		}
+		if (any && code == NO_PREFIX && p + 1 < end && (text.charAt(p) == 'e' ||
+				text.charAt(p) == 'E')) {
+			// Exponent, only used if there are digits after it
+			int q = p + 1, e = 0;
+			final boolean negExp = text.charAt(q) == '-';
+			if (negExp || text.charAt(q) == '+')
+				q++;
+			if (q < end && isDigit(text.charAt(q))) {
+				for (; q < end && isDigit(text.charAt(q)); q++)
+					if (e < 10000)
+						e = e * 10 + (text.charAt(q) - '0');
+				exp += negExp ? -e : e;
+				p = q;
+			}
+		}
+		if (any) {
+			final double[] pow10 = EngineeringFormat.POW10;
+			if (mantissa == 0L)
+				number = 0.0;
+			else if (mantissa < (1L << 53) && exp >= -22 && exp <= 22)
+				// Both are exact, so one operation is correctly rounded
+				number = (exp >= 0) ? mantissa * pow10[exp] : mantissa / pow10[-exp];
+			else
+				number = parseSlow(text, pos, p);
+			if (code != NO_PREFIX)
+				prefix = code;
+			pos = p;
+		}
+		return any;
+	}
+	/**
+	 * Scans a signed decimal number into the number field.
+	 *
+	 * @param text the text to parse
+	 * @param end the index after the last character to parse
+	 * @param rkm whether RKM codes such as "4k7" are allowed
+	 * @return whether a valid number was found
+	 */
+	private boolean scanReal(final CharSequence text, final int end, final boolean rkm) {
+		boolean negative = false;
+		if (pos < end) {
+			final char c = text.charAt(pos);
+			negative = c == '-' || c == '\u2212';
+			if (negative || c == '+')
+				pos++;
+		}
+		final boolean ok = scanNumber(text, end, rkm);
+		if (ok && negative)
+			number = -number;
+		return ok;
+	}
+	/**
+	 * Scans a percent tolerance, starting at the plus/minus sign, into the tolerance field.
+	 *
+	 * @param text the text to parse
+	 * @param end the index after the last character to parse
+	 * @return whether a valid tolerance was found
+	 */
+	private boolean scanTolerance(final CharSequence text, final int end) {
+		boolean ok = true;
+		if (text.charAt(pos) == '+') {
+			// "+/-" or "+-"
+			if (pos + 2 < end && text.charAt(pos + 1) == '/' && text.charAt(pos + 2) == '-')
+				pos += 3;
+			else if (pos + 1 < end && text.charAt(pos + 1) == '-')
+				pos += 2;
+			else
+				ok = false;
+		} else
+			pos++;
+		if (ok) {
+			skipSpaces(text, end);
+			ok = scanNumber(text, end, false);
+		}
+		if (ok) {
+			skipSpaces(text, end);
+			tolerance = number * 0.01;
+			ok = pos < end && text.charAt(pos) == '%' && tolerance < 1.0;
+			pos++;
+			skipSpaces(text, end);
+		}
+		return ok;
+	}
+	/**
+	 * Scans the SI prefix and units, if present, and checks them against the expected units.
+	 *
+	 * @param text the text to parse
+	 * @param end the index after the last character to parse
+	 * @param units the expected units, or null to accept any text that looks like units
+	 * @return whether the prefix and units are valid
+	 */
+	private boolean scanUnits(final CharSequence text, final int end, final String units) {
+		skipSpaces(text, end);
+		int start = pos;
+		while (pos < end && !isTokenEnd(text.charAt(pos)))
+			pos++;
+		boolean ok = true;
+		if (pos > start) {
+			final int code = prefixCode(text.charAt(start));
+			final boolean prefixed = prefix == NO_PREFIX && code != NO_PREFIX;
+			if (units == null) {
+				// A lone prefix or a prefix followed by anything that looks like units
+				if (prefixed) {
+					prefix = code;
+					start++;
+				}
+				ok = isUnitText(text, start, pos);
+			} else if (!unitsMatch(text, start, pos, units)) {
+				// Must be a prefix, with or without the units
+				ok = prefixed && (pos == start + 1 || unitsMatch(text, start + 1, pos, units));
+				if (ok) {
+					prefix = code;
+					start++;
+				}
+			}
+		}
+		unitStart = start;
+		unitEnd = pos;
+		skipSpaces(text, end);
+		return ok;
+	}
+	/**
+	 * Advances the scan position past any whitespace.
+	 *
+	 * @param text the text to parse
+	 * @param end the index after the last character to parse
+	 */
+	private void skipSpaces(final CharSequence text, final int end) {
+		while (pos < end && text.charAt(pos) <= ' ')
+			pos++;
+	}
+	/**
+	 * Creates a value from the last value parsed. The tolerance is taken from the text if it
+	 * was given, or from the template otherwise.
+	 *
+	 * @param template the value where units and significant figures are copied
+	 * @return a ComplexValue if the text or the template is complex, or an EngineeringValue
+	 * otherwise
+	 */
+	public EngineeringValue toValue(final EngineeringValue template) {
+		final double tol = (tolerance > 0.0) ? tolerance : template.getTolerance();
+		final EngineeringValue ret;
+		if (complex || template instanceof ComplexValue)
+			ret = new ComplexValue(magnitude, angle, tol, template.getSigfigs(),
+				template.getUnits());
+		else
+			ret = new EngineeringValue(real, tol, template.getSigfigs(), template.getUnits());
+		return ret;
+	}
+}
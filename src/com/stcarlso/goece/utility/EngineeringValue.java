@@ -46,6 +46,41 @@ public class EngineeringValue implements Serializable {
 			unitList[i] = ENGR_NAMES[i] + suffix;
 		return unitList;
 	}
+	/**
+	 * Builds the table of upper limits for each SI prefix. A value is displayed with the next
+	 * larger prefix once it would round up to 1000 with the current prefix.
+	 *
+	 * @return the smallest value which uses the next larger prefix, for each prefix code
+	 */
+	private static double[] buildPrefixLimits() {
+		final int n = ENGR_THRESHOLD.length;
+		final double[] limits = new double[n];
+		for (int i = 0; i < n - 1; i++)
+			limits[i] = ENGR_THRESHOLD[i + 1] * 0.9995;
+		// Largest prefix has no upper limit
+		limits[n - 1] = Double.POSITIVE_INFINITY;
+		return limits;
+	}
+	/**
+	 * Builds the table of SI prefix codes for each binary exponent. The limits between
+	 * prefixes are a factor of 1000 apart, so each power of 2 range crosses at most one of them.
+	 *
+	 * @return the prefix code of the smallest value with each binary exponent, starting at
+	 * MIN_EXPONENT
+	 */
+	private static byte[] buildPrefixTable() {
+		final int count = Math.getExponent(ENGR_THRESHOLD[ENGR_THRESHOLD.length - 1]) -
+			MIN_EXPONENT + 1;
+		final byte[] table = new byte[count];
+		int code = 0;
+		for (int i = 0; i < count; i++) {
+			final double low = Math.max(Math.scalb(1.0, i + MIN_EXPONENT), ENGR_THRESHOLD[0]);
+			while (low >= PREFIX_LIMIT[code])
+				code++;
+			table[i] = (byte)code;
+		}
+		return table;
+	}
 	/**
 	 * Formats a significand from 0 (inclusive) to 1000 (exclusive!) as a string in engineering
 	 * notation.
@@ -56,26 +91,8 @@ public class EngineeringValue implements Serializable {
 	 * point in the appropriate location
 	 */
 	public static String significandToString(final double value, final int sigfigs) {
-		final double absSig = Math.abs(value);
-		final String out;
-		if (Double.isInfinite(value))
-			// If infinite, display it that way
-			out = (value > 0.0) ? "\u221E" : "-\u221E";
-		else {
-			final int decimals;
-			// Calculate number of decimal places to show
-			if (absSig >= 99.95)
-				decimals = Math.max(sigfigs - 3, 0);
-			else if (absSig >= 9.995)
-				decimals = Math.max(sigfigs - 2, 0);
-			else if (absSig >= 0.9995 || absSig == 0.0)
-				decimals = sigfigs - 1;
-			else
-				decimals = sigfigs;
-			// Compose format string
-			out = String.format("%." + decimals + "f", value);
-		}
-		return out;
+		return EngineeringFormat.appendSignificand(new StringBuilder(16), value, sigfigs).
+			toString();
 	}
 	/**
 	 * Formats a tolerance value as a string.
@@ -84,16 +101,19 @@ public class EngineeringValue implements Serializable {
 	 * @return the value with a reasonable number of decimal places and no extra sigfigs!
 	 */
 	public static String toleranceToString(final double tolIn) {
-		// Do what we can to fix the broken mess that is floating point
-		final double tol = tolIn * 100.0;
-		final int tolInt = (int)Math.round(100.0 * tol), dp;
-		if (tolInt % 100 == 0)
-			dp = 0;
-		else if (tolInt % 10 == 0)
-			dp = 1;
-		else
-			dp = 2;
-		return String.format("%." + Integer.toString(dp) + "f", tol);
+		return EngineeringFormat.appendTolerance(new StringBuilder(8), tolIn).toString();
+	}
+	/**
+	 * Removes trailing whitespace from a string being built.
+	 *
+	 * @param out the string to trim
+	 * @param start the first index that may be removed
+	 */
+	private static void trimEnd(final StringBuilder out, final int start) {
+		int end = out.length();
+		while (end > start && out.charAt(end - 1) <= ' ')
+			end--;
+		out.setLength(end);
 	}
 	/**
 	 * Generates a raw value from a significand and prefix code. Mainly useful when constructing
@@ -125,6 +145,19 @@ public class EngineeringValue implements Serializable {
 	public static final double[] ENGR_THRESHOLD = {
 		1e-15, 1e-12, 1e-9, 1e-6, 1e-3, 1, 1e3, 1e6, 1e9, 1e12, 1e15
 	};
+	/**
+	 * The binary exponent of the smallest value which is given a prefix.
+	 */
+	private static final int MIN_EXPONENT = Math.getExponent(ENGR_THRESHOLD[0]);
+	/**
+	 * The smallest value which uses the next larger prefix, for each prefix code.
+	 */
+	private static final double[] PREFIX_LIMIT = buildPrefixLimits();
+	/**
+	 * The prefix code of the smallest value with each binary exponent. Values with that
+	 * exponent use either this prefix or the next larger one.
+	 */
+	private static final byte[] PREFIX_TABLE = buildPrefixTable();
 
 	/**
 	 * The number of significant digits.
@@ -226,15 +259,13 @@ public class EngineeringValue implements Serializable {
 			else if (absValue < ENGR_THRESHOLD[0])
 				// Flush to zero
 				engr = 0.0;
-			else
-				// Somewhere in between
-				for (int i = 0; i < ENGR_THRESHOLD.length && i < ENGR_NAMES.length; i++)
-					if (absValue < ENGR_THRESHOLD[i + 1] * 0.9995) {
-						// Found correct prefix
-						code = i;
-						engr = value / ENGR_THRESHOLD[code];
-						break;
-					}
+			else {
+				// Somewhere in between, look up by exponent and check the one limit it may cross
+				code = PREFIX_TABLE[Math.getExponent(absValue) - MIN_EXPONENT];
+				if (absValue >= PREFIX_LIMIT[code])
+					code++;
+				engr = value / ENGR_THRESHOLD[code];
+			}
 		}
 		// Assign significand and prefix code
 		prefix = code;
@@ -244,36 +275,73 @@ public class EngineeringValue implements Serializable {
 	 * Adds this EngineeringValue to another. This is really only useful in the ComplexValue
 	 * instance, but still works for the real valued case.
 	 *
-	 * The type (real vs complex), units, tolerance, and significant figures are inherited from
-	 * the left-hand side value.
+	 * The type (real vs complex), units, and significant figures are inherited from the
+	 * left-hand side value. The tolerance is the worst case tolerance of the result, limited
+	 * to Interval.MAX_TOLERANCE. A sum near zero can spread much further than that, so use
+	 * Interval where the real bounds are needed.
 	 *
 	 * @param other the addend
 	 * @return the sum
 	 */
 	public EngineeringValue add(final EngineeringValue other) {
-		return newValue(getValue() + other.getReal());
+		final double addend = other.getReal(), sum = getValue() + addend;
+		return newValueWithTolerance(sum, Interval.sumTolerance(getValue(), getTolerance(),
+			addend, other.getTolerance(), sum));
+	}
+	/**
+	 * Appends this value as a string, in the same format as toString(). Allows a buffer to be
+	 * reused when values are displayed repeatedly.
+	 *
+	 * @param out the location where the value is appended
+	 * @return out, for chaining
+	 */
+	public StringBuilder appendTo(final StringBuilder out) {
+		final int start = out.length();
+		EngineeringFormat.appendSignificand(out, getSignificand(), getSigfigs());
+		out.append(' ');
+		out.append(getSIPrefix());
+		out.append(getUnits());
+		appendTolerance(out);
+		trimEnd(out, start);
+		return out;
 	}
 	/**
 	 * Appends the tolerance specifier if necessary.
 	 *
-	 * @param format the location for the formatted tolerance to be placed
+	 * @param out the location for the formatted tolerance to be placed
 	 */
-	private void appendToleranceFormat(final StringBuilder format) {
+	protected void appendTolerance(final StringBuilder out) {
 		final double tol = getTolerance();
 		if (tol > 0.0) {
 			// value +/- #%
-			format.append(' ');
-			format.append(P_M_SYMBOL);
-			format.append(toleranceToString(tol));
-			format.append("%%");
+			out.append(' ');
+			out.append(P_M_SYMBOL);
+			EngineeringFormat.appendTolerance(out, tol);
+			out.append('%');
 		}
 	}
+	/**
+	 * Appends the raw value of this EngineeringValue with the correct number of significant
+	 * figures and the E+/E- specifier if needed, in the same format as valueToString().
+	 *
+	 * @param out the location where the value is appended
+	 * @param sf the number of significant figures to use
+	 * @return out, for chaining
+	 */
+	public StringBuilder appendValue(final StringBuilder out, final int sf) {
+		if (sf > 0)
+			EngineeringFormat.appendGeneral(out, getValue(), sf);
+		else
+			// Prevent crash with negative value
+			EngineeringFormat.appendFixed(out, getValue(), 0);
+		return out;
+	}
 	/**
 	 * Divides this EngineeringValue by another. This is really only useful in the
 	 * ComplexValue instance, but still works for the real valued case.
 	 *
-	 * The type (real vs complex), units, tolerance, and significant figures are inherited from
-	 * the left-hand side value.
+	 * The type (real vs complex), units, and significant figures are inherited from the
+	 * left-hand side value. The tolerance is the worst case tolerance of the result.
 	 *
 	 * @param other the divisor
 	 * @return the quotient
@@ -283,14 +351,15 @@ public class EngineeringValue implements Serializable {
 		final double divisor = other.getReal();
 		if (divisor == 0.0)
 			throw new ArithmeticException("Real-valued division by zero");
-		return newValue(getValue() / divisor);
+		final double tol = Interval.quotientTolerance(getTolerance(), other.getTolerance());
+		return newValueWithTolerance(getValue() / divisor, tol);
 	}
 	public boolean equals(Object o) {
 		if (this == o) return true;
 		if (o == null || getClass() != o.getClass()) return false;
 		final EngineeringValue value = (EngineeringValue)o;
-		return Double.compare(value.getValue(), getValue()) == 0 && getUnits().equals(
-			value.getUnits());
+		return Double.compare(value.getValue(), getValue()) == 0 && Double.compare(
+			value.getTolerance(), getTolerance()) == 0 && getUnits().equals(value.getUnits());
 	}
 	/**
 	 * Retrieves the phase angle of this value.
@@ -381,14 +450,15 @@ public class EngineeringValue implements Serializable {
 	 * Multiplies this EngineeringValue by another. This is really only useful in the
 	 * ComplexValue instance, but still works for the real valued case.
 	 *
-	 * The type (real vs complex), units, tolerance, and significant figures are inherited from
-	 * the left-hand side value.
+	 * The type (real vs complex), units, and significant figures are inherited from the
+	 * left-hand side value. The tolerance is the worst case tolerance of the result.
 	 *
 	 * @param other the multiplicand
 	 * @return the product
 	 */
 	public EngineeringValue multiply(final EngineeringValue other) {
-		return newValue(getValue() * other.getReal());
+		final double tol = Interval.productTolerance(getTolerance(), other.getTolerance());
+		return newValueWithTolerance(getValue() * other.getReal(), tol);
 	}
 	/**
 	 * Convenience method to copy the metadata of this value into a new object.
@@ -399,18 +469,32 @@ public class EngineeringValue implements Serializable {
 	public EngineeringValue newValue(final double newRaw) {
 		return new EngineeringValue(newRaw, this);
 	}
+	/**
+	 * Creates a new value with the units and significant figures of this value, but a new
+	 * raw value and tolerance.
+	 *
+	 * @param newRaw the new raw value
+	 * @param newTolerance the new tolerance, limited to Interval.MAX_TOLERANCE
+	 * @return a new instance with the specified value and tolerance
+	 */
+	private EngineeringValue newValueWithTolerance(final double newRaw,
+												   final double newTolerance) {
+		return new EngineeringValue(newRaw, Interval.limitTolerance(newTolerance), getSigfigs(),
+			getUnits());
+	}
 	/**
 	 * Raises this value to the power of the exponent. For real values, equivalent of
 	 * Math.pow(), but applies DeMoivre's Theorem for complex values.
 	 *
-	 * The type (real vs complex), units, tolerance, and significant figures are inherited from
-	 * this value.
+	 * The type (real vs complex), units, and significant figures are inherited from this
+	 * value. The tolerance is the worst case tolerance of the result.
 	 *
 	 * @param exponent the power to raise this value
 	 * @return this value raised to the specified power
 	 */
 	public EngineeringValue pow(final double exponent) {
-		return newValue(Math.pow(getValue(), exponent));
+		final double tol = Interval.powerTolerance(getTolerance(), exponent);
+		return newValueWithTolerance(Math.pow(getValue(), exponent), tol);
 	}
 	/**
 	 * Returns the significand of this value rounded to the significant figures places. Does
@@ -435,11 +519,18 @@ public class EngineeringValue implements Serializable {
 	 * Subtracts this EngineeringValue from another. This is really only useful in the
 	 * ComplexValue instance, but still works for the real valued case.
 	 *
+	 * The type (real vs complex), units, and significant figures are inherited from the
+	 * left-hand side value. The tolerance is the worst case tolerance of the result, limited
+	 * to Interval.MAX_TOLERANCE. A difference of nearly equal values can spread much further
+	 * than that, so use Interval where the real bounds are needed.
+	 *
 	 * @param other the subtrahend
 	 * @return the difference
 	 */
 	public EngineeringValue subtract(final EngineeringValue other) {
-		return newValue(getValue() - other.getReal());
+		final double subtrahend = other.getReal(), diff = getValue() - subtrahend;
+		return newValueWithTolerance(diff, Interval.sumTolerance(getValue(), getTolerance(),
+			subtrahend, other.getTolerance(), diff));
 	}
 	/**
 	 * A variation of toString() which uses valueToString() and omits the SI prefix, for units
@@ -449,16 +540,16 @@ public class EngineeringValue implements Serializable {
 	 * @return this value as a a string
 	 */
 	public String toExponentialString(final int sf) {
-		final StringBuilder format = new StringBuilder(valueToString(sf));
-		format.append(" %s");
-		appendToleranceFormat(format);
-		return String.format(format.toString(), getUnits()).trim();
+		final StringBuilder out = new StringBuilder(32);
+		appendValue(out, sf);
+		out.append(' ');
+		out.append(getUnits());
+		appendTolerance(out);
+		trimEnd(out, 0);
+		return out.toString();
 	}
 	public String toString() {
-		final StringBuilder format = new StringBuilder(significandToString());
-		format.append(" %s%s");
-		appendToleranceFormat(format);
-		return String.format(format.toString(), getSIPrefix(), getUnits()).trim();
+		return appendTo(new StringBuilder(32)).toString();
 	}
 	/**
 	 * Converts the raw value of this EngineeringValue to a string with the correct number of
@@ -469,12 +560,6 @@ public class EngineeringValue implements Serializable {
 	 * @return the raw value as a a string
 	 */
 	public String valueToString(final int sf) {
-		final String formatString;
-		if (sf > 0)
-			formatString = "%." + Integer.toString(sf) + "g";
-		else
-			// Prevent crash with negative value
-			formatString = "%.0f";
-		return String.format(formatString, getValue());
+		return appendValue(new StringBuilder(24), sf).toString();
 	}
 }
@@ -27,6 +27,9 @@ package com.stcarlso.goece.utility;
 /**
  * Represents an equation which can be solved with EquationSolver.solve(). The solve() method
  * tries to solve the equation to zero.
+ *
+ * Equations do not need to be thread safe. EquationSolver only evaluates an equation on
+ * other threads if it implements CopyableEquation, and then uses a separate copy on each.
  */
 public interface Equation {
 	/**
@@ -24,6 +24,11 @@
 
 package com.stcarlso.goece.utility;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+
 /**
  * A class which uses Brent's method to solve univariate equations.
  */
@@ -32,10 +37,35 @@ public class EquationSolver {
 	 * The default tolerance used if not specified.
 	 */
 	public static final double DEFAULT_TOLERANCE = 1e-13;
+	/**
+	 * The factor by which the search interval grows on each step of solveExpanding().
+	 */
+	public static final double EXPAND_FACTOR = 2.0;
+	/**
+	 * Intervals whose ends differ by at least this ratio are scanned logarithmically.
+	 */
+	public static final double LOG_SCAN_RATIO = 10.0;
+	/**
+	 * The maximum number of times that solveExpanding() will grow the search interval.
+	 */
+	public static final int MAX_EXPANSIONS = 64;
 	/**
 	 * The maximum number of iterations to perform before failing.
 	 */
 	public static final int MAX_ITERATIONS = 256;
+	/**
+	 * The number of brackets that must be found before they are solved in parallel.
+	 */
+	public static final int PARALLEL_THRESHOLD = 4;
+	/**
+	 * The default number of points sampled when scanning an interval for sign changes.
+	 */
+	public static final int SCAN_POINTS = 64;
+
+	/**
+	 * Collects convergence statistics from all solvers, or null if disabled.
+	 */
+	private static volatile SolverStats stats = null;
 
 	/**
 	 * The Equation to be solved.
@@ -78,7 +108,24 @@ public class EquationSolver {
 	 */
 	protected double brent(final double low, final double high, final double fLow,
 						   final double fHigh) {
+		return brent(low, high, fLow, fHigh, 0);
+	}
+	/**
+	 * Executes Brent's method to solve the equation.
+	 *
+	 * @param low the minimum X value
+	 * @param high the maximum X value
+	 * @param fLow the function value at low
+	 * @param fHigh the function value at high
+	 * @param prior the number of evaluations used to find the bracket, for SolverStats
+	 * @return the solution X value, or NaN if the maximum iteration count is exceeded
+	 */
+	protected double brent(final double low, final double high, final double fLow,
+						   final double fHigh, final int prior) {
+		final SolverStats stats = EquationSolver.stats;
 		boolean solved = false;
+		// Step counts for the statistics, cheap enough to always keep
+		int bisect = 0, secant = 0, iqi = 0, evals = prior;
 		// a = contra interval, b = current guess, c = last guess, d = amount to move
 		// f[abc] = value of function there
 		double a = low, fa = fLow, b = high, fb = fHigh, c = a, fc = fa, d = b - a, e = d;
@@ -96,15 +143,17 @@ public class EquationSolver {
 			if (Math.abs(m) <= tol || isValidSolution(b, fb))
 				// Done
 				solved = true;
-			else if (Math.abs(e) < tol || Math.abs(fa) <= Math.abs(fb))
+			else if (Math.abs(e) < tol || Math.abs(fa) <= Math.abs(fb)) {
 				// Force bisection.
 				e = d = m;
-			else {
+				bisect++;
+			} else {
 				double s = fb / fa, p, q;
 				// The equality test (a == c) is intentional,
 				// it is part of the original Brent's method and
 				// it should NOT be replaced by proximity test.
-				if (Double.compare(a, c) == 0) {
+				final boolean linear = Double.compare(a, c) == 0;
+				if (linear) {
 					// Linear interpolation.
 					p = 2 * m * s;
 					q = 1 - s;
@@ -121,33 +170,45 @@ public class EquationSolver {
 					p = -p;
 				s = e;
 				e = d;
-				if (p >= 1.5 * m * q - Math.abs(tol * q) || p >= Math.abs(0.5 * s * q))
+				if (p >= 1.5 * m * q - Math.abs(tol * q) || p >= Math.abs(0.5 * s * q)) {
 					// Inverse quadratic interpolation gives a value
 					// in the wrong direction, or progress is slow.
 					// Fall back to bisection.
 					e = d = m;
-				else
+					bisect++;
+				} else {
 					d = p / q;
+					if (linear)
+						secant++;
+					else
+						iqi++;
+				}
 			}
-			a = b;
-			fa = fb;
-			if (Math.abs(d) > tol)
-				b += d;
-			else if (m > 0)
-				b += tol;
-			else
-				b -= tol;
-			fb = eval(b);
-			if ((fb > 0 && fc > 0) || (fb <= 0 && fc <= 0)) {
-				c = a;
-				fc = fa;
-				d = b - a;
-				e = d;
+			if (!solved) {
+				// Take the step (do not move b once it is a solution)
+				a = b;
+				fa = fb;
+				if (Math.abs(d) > tol)
+					b += d;
+				else if (m > 0)
+					b += tol;
+				else
+					b -= tol;
+				fb = eval(b);
+				evals++;
+				if ((fb > 0 && fc > 0) || (fb <= 0 && fc <= 0)) {
+					c = a;
+					fc = fa;
+					d = b - a;
+					e = d;
+				}
 			}
 		}
 		if (!solved)
 			// Exceeded maximum iterations
 			b = Double.NaN;
+		if (stats != null)
+			stats.record(equation.toString(), b, fb, evals, bisect, secant, iqi, 0);
 		return b;
 	}
 	/**
@@ -159,6 +220,89 @@ public class EquationSolver {
 	public double eval(double x) {
 		return equation.eval(x);
 	}
+	/**
+	 * Evaluates an equation at many points, using the batch method if the equation provides
+	 * one, or one call per point otherwise.
+	 *
+	 * @param equation the equation to evaluate
+	 * @param xs the values of the independent variable
+	 * @param out the array where the results are stored, which may be the same as xs
+	 * @param off the index of the first value to evaluate
+	 * @param len the number of values to evaluate
+	 */
+	public static void evalMany(final Equation equation, final double[] xs, final double[] out,
+								final int off, final int len) {
+		if (equation instanceof BatchEquation)
+			((BatchEquation)equation).evalMany(xs, out, off, len);
+		else {
+			final int end = off + len;
+			for (int i = off; i < end; i++)
+				out[i] = equation.eval(xs[i]);
+		}
+	}
+	/**
+	 * Searches for every sign change of the equation inside the specified interval. If the
+	 * interval is positive and spans at least LOG_SCAN_RATIO, the sample points are spaced
+	 * logarithmically; otherwise, they are spaced evenly.
+	 *
+	 * @param min the minimum value to sample
+	 * @param max the maximum value to sample
+	 * @param points the number of points to sample, including both ends
+	 * @return the brackets found, packed four to a bracket as (low, high, f(low), f(high));
+	 * if a sample point is itself a valid solution, it is reported with low == high
+	 */
+	protected double[] findBrackets(final double min, final double max, final int points) {
+		final boolean log = min > 0.0 && max >= LOG_SCAN_RATIO * min;
+		final double step = (log ? Math.log(max / min) : (max - min)) / (points - 1);
+		final double[] brackets = new double[4 * points];
+		final double[] xs = new double[points], fs = new double[points];
+		double x0 = min, f0;
+		int count = 0;
+		xs[0] = min;
+		// Do not accumulate error in the step
+		for (int i = 1; i < points - 1; i++)
+			xs[i] = log ? min * Math.exp(step * i) : min + step * i;
+		xs[points - 1] = max;
+		evalMany(equation, xs, fs, 0, points);
+		if (stats != null)
+			stats.addEvaluations(points);
+		f0 = fs[0];
+		for (int i = 1; i <= points; i++) {
+			final double x1, f1;
+			if (i < points) {
+				x1 = xs[i];
+				f1 = fs[i];
+			} else {
+				// Past the end, only check the last point
+				x1 = Double.NaN;
+				f1 = Double.NaN;
+			}
+			if (isValidSolution(x0, f0)) {
+				// Landed right on it
+				brackets[count++] = x0;
+				brackets[count++] = x0;
+				brackets[count++] = f0;
+				brackets[count++] = f0;
+			} else if (f0 * f1 < 0.0) {
+				// Sign change (NaN never passes this test)
+				brackets[count++] = x0;
+				brackets[count++] = x1;
+				brackets[count++] = f0;
+				brackets[count++] = f1;
+			}
+			x0 = x1;
+			f0 = f1;
+		}
+		return Arrays.copyOf(brackets, count);
+	}
+	/**
+	 * Gets the statistics collector shared by all solvers.
+	 *
+	 * @return the convergence statistics, or null if they are not being collected
+	 */
+	public static SolverStats getStats() {
+		return stats;
+	}
 	/**
 	 * Retrieves the tolerance that this function will try to achieve from zero when solving
 	 * an equation. Alternatively, if the solution value changes by less than this fraction of
@@ -188,7 +332,7 @@ public class EquationSolver {
 	 * settings, or false otherwise
 	 */
 	protected boolean isValidSolution(final double x, final double fx) {
-		return isValidSolution(x, Double.NaN, eval(x));
+		return isValidSolution(x, Double.NaN, fx);
 	}
 	/**
 	 * Checks to see if the function value is a valid solution.
@@ -204,6 +348,33 @@ public class EquationSolver {
 		return Math.abs(fx) < getTolerance() || (!Double.isNaN(oldX) && Math.abs((x -
 			oldX) / x) < getTolerance());
 	}
+	/**
+	 * Picks the solution closest to the specified value.
+	 *
+	 * @param roots the solutions to search
+	 * @param guess the value to approach
+	 * @return the element of roots closest to guess, or Double.NaN if roots is empty
+	 */
+	private static double nearestRoot(final double[] roots, final double guess) {
+		double best = Double.NaN, bestDistance = Double.POSITIVE_INFINITY;
+		for (double root : roots) {
+			final double distance = Math.abs(root - guess);
+			if (distance < bestDistance) {
+				best = root;
+				bestDistance = distance;
+			}
+		}
+		return best;
+	}
+	/**
+	 * Enables or disables the collection of convergence statistics by all solvers. Each
+	 * root found with Brent's method is then recorded, which costs one small allocation.
+	 *
+	 * @param stats the statistics collector to use, or null to disable collection
+	 */
+	public static void setStats(final SolverStats stats) {
+		EquationSolver.stats = stats;
+	}
 	/**
 	 * Attempts to find a solution for the function inside the specified interval.
 	 *
@@ -246,16 +417,288 @@ public class EquationSolver {
 			answer = guess;
 		else if (fMin * fGuess < 0.0)
 			// Lower half
-			answer = brent(min, guess, fMin, fGuess);
+			answer = brent(min, guess, fMin, fGuess, 3);
 		else if (fMax * fGuess < 0.0)
 			// Upper half
-			answer = brent(guess, max, fGuess, fMax);
+			answer = brent(guess, max, fGuess, fMax, 3);
+		else
+			// No sign change at the guess, but there could be two roots in one half
+			answer = nearestRoot(solveAll(min, max), guess);
+		return answer;
+	}
+	/**
+	 * Finds every solution for the function inside the specified interval. The interval is
+	 * scanned with SCAN_POINTS samples for sign changes, and each one is solved with Brent's
+	 * method.
+	 *
+	 * @param min the minimum value for a solution
+	 * @param max the maximum value for a solution
+	 * @return all solutions found in ascending order, which may be empty if none are found
+	 */
+	public double[] solveAll(final double min, final double max) {
+		return solveAll(min, max, SCAN_POINTS);
+	}
+	/**
+	 * Finds every solution for the function inside the specified interval. The interval is
+	 * scanned for sign changes, and each one is solved with Brent's method. If there are at
+	 * least PARALLEL_THRESHOLD sign changes and the equation is a CopyableEquation, they are
+	 * solved in parallel, each with its own copy of the equation. Other equations are always
+	 * solved on the calling thread, as evaluating them may change their state.
+	 *
+	 * Roots closer together than the spacing of the sample points might not be found, as
+	 * they may not produce a sign change.
+	 *
+	 * @param min the minimum value for a solution
+	 * @param max the maximum value for a solution
+	 * @param points the number of points to sample when looking for sign changes
+	 * @return all solutions found in ascending order, which may be empty if none are found
+	 */
+	public double[] solveAll(final double min, final double max, final int points) {
+		if (Double.isInfinite(min) || Double.isNaN(min))
+			throw new IllegalArgumentException("min");
+		if (Double.isInfinite(max) || Double.isNaN(max))
+			throw new IllegalArgumentException("max");
+		if (min >= max)
+			throw new IllegalArgumentException("min >= max");
+		if (points < 2)
+			throw new IllegalArgumentException("points < 2");
+		final double[] brackets = findBrackets(min, max, points);
+		final int count = brackets.length >> 2;
+		final double[] roots = new double[count];
+		if (count >= PARALLEL_THRESHOLD && equation instanceof CopyableEquation) {
+			// Brackets are independent, so solve them in parallel on private copies
+			final CopyableEquation base = (CopyableEquation)equation;
+			final List<Callable<Double>> tasks = new ArrayList<Callable<Double>>(count);
+			for (int i = 0; i < count; i++) {
+				final int index = i << 2;
+				// Copy on this thread, as the tasks may start before the loop finishes
+				final EquationSolver solver = new EquationSolver(base.copy(), tolerance);
+				tasks.add(new Callable<Double>() {
+					@Override
+					public Double call() {
+						return solver.solveBracket(brackets, index);
+					}
+				});
+			}
+			final List<Double> results = ParallelCalc.invokeAll(tasks);
+			for (int i = 0; i < count; i++)
+				roots[i] = results.get(i);
+		} else
+			for (int i = 0; i < count; i++)
+				roots[i] = solveBracket(brackets, i << 2);
+		// Remove failures and duplicates (roots landing on a sample point can appear twice)
+		Arrays.sort(roots);
+		int unique = 0;
+		for (double root : roots)
+			if (!Double.isNaN(root) && (unique == 0 || Math.abs(root - roots[unique - 1]) >
+					2.0 * getTolerance() * Math.abs(root) + getTolerance()))
+				roots[unique++] = root;
+		return Arrays.copyOf(roots, unique);
+	}
+	/**
+	 * Solves the equation for each of the target values, such that eval(out[i]) = targets[i].
+	 * The equation only needs to be constructed once (with a desired value of zero) for the
+	 * whole batch, as only the target offset changes between solutions.
+	 *
+	 * @param targets the values which the equation should equal
+	 * @param out the location where the solutions will be stored, Double.NaN is stored for
+	 * each target which cannot be solved
+	 * @param guess a first stab at the answer for the first target
+	 */
+	public void solveBatch(final double[] targets, final double[] out, final double guess) {
+		if (targets.length > out.length)
+			throw new IllegalArgumentException("out is too short");
+		solveBatch(targets, 0, out, 0, targets.length, guess);
+	}
+	/**
+	 * Solves the equation for each of the target values, such that
+	 * eval(out[outOff + i]) = targets[off + i]. The equation only needs to be constructed once
+	 * (with a desired value of zero) for the whole batch, as only the target offset changes
+	 * between solutions.
+	 *
+	 * Each solution is warm-started from the previous ones: the next root is extrapolated from
+	 * the last two, and only a bracket one step wide on either side is searched. This works
+	 * best if the targets are sorted, such as an impedance sweep.
+	 *
+	 * @param targets the values which the equation should equal
+	 * @param off the index of the first target to solve
+	 * @param out the location where the solutions will be stored, Double.NaN is stored for
+	 * each target which cannot be solved
+	 * @param outOff the index in out where the first solution will be stored
+	 * @param len the number of targets to solve
+	 * @param guess a first stab at the answer for the first target
+	 */
+	public void solveBatch(final double[] targets, final int off, final double[] out,
+						   final int outOff, final int len, final double guess) {
+		if (off < 0 || len < 0 || off + len > targets.length)
+			throw new IndexOutOfBoundsException("targets");
+		if (outOff < 0 || outOff + len > out.length)
+			throw new IndexOutOfBoundsException("out");
+		if (Double.isInfinite(guess) || Double.isNaN(guess))
+			throw new IllegalArgumentException("guess");
+		// Only the offset changes between targets
+		final OffsetEquation offset = new OffsetEquation(equation);
+		final EquationSolver solver = new EquationSolver(offset, getTolerance());
+		double last = guess, step = Double.NaN;
+		for (int i = 0; i < len; i++) {
+			final double root;
+			offset.offset = targets[off + i];
+			if (Double.isNaN(step) || step == 0.0)
+				// No trend yet
+				root = solver.solveExpanding(last);
+			else
+				// Extrapolate and search one step around the prediction
+				root = solver.solveNear(last + step, Math.abs(step));
+			if (Double.isNaN(root))
+				step = Double.NaN;
+			else {
+				if (i > 0 && !Double.isNaN(out[outOff + i - 1]))
+					step = root - last;
+				last = root;
+			}
+			out[outOff + i] = root;
+		}
+	}
+	/**
+	 * Solves one bracket found by findBrackets().
+	 *
+	 * @param brackets the brackets from findBrackets()
+	 * @param index the index of the first element of the bracket to solve
+	 * @return the solution, or Double.NaN if the maximum iteration count is exceeded
+	 */
+	private double solveBracket(final double[] brackets, final int index) {
+		final double low = brackets[index], high = brackets[index + 1];
+		final double answer;
+		if (Double.compare(low, high) == 0)
+			// Sample point was a solution
+			answer = low;
 		else
-			// No sign change detected
-			answer = Double.NaN;
+			answer = brent(low, high, brackets[index + 2], brackets[index + 3]);
+		return answer;
+	}
+	/**
+	 * Attempts to find the solution closest to the initial guess, with no bounds on where the
+	 * solution may lie. The search interval is expanded outwards from the guess on both sides
+	 * until a sign change is found, which is then solved with Brent's method. Positive guesses
+	 * grow geometrically (by EXPAND_FACTOR) and never reach zero, others grow linearly by a
+	 * doubling step.
+	 *
+	 * @param guess a first stab at the answer
+	 * @return the solution, or Double.NaN if no sign change was found after MAX_EXPANSIONS
+	 */
+	public double solveExpanding(final double guess) {
+		if (Double.isInfinite(guess) || Double.isNaN(guess))
+			throw new IllegalArgumentException("guess");
+		final boolean geometric = guess > 0.0;
+		final double fGuess = eval(guess);
+		double answer = Double.NaN, low = guess, high = guess, fLow = fGuess, fHigh = fGuess;
+		double step = geometric ? EXPAND_FACTOR : Math.max(1.0, Math.abs(guess));
+		// Stop searching a side if it becomes undefined
+		boolean searchLow = true, searchHigh = true;
+		int evals = 1;
+		if (isValidSolution(guess, fGuess))
+			answer = guess;
+		for (int i = 0; Double.isNaN(answer) && (searchLow || searchHigh) &&
+				i < MAX_EXPANSIONS; i++) {
+			if (searchLow) {
+				final double x = geometric ? low / step : low - step, fx = eval(x);
+				evals++;
+				if (isValidSolution(x, fx))
+					answer = x;
+				else if (fx * fLow < 0.0)
+					answer = brent(x, low, fx, fLow, evals);
+				else if (Double.isNaN(fx))
+					searchLow = false;
+				low = x;
+				fLow = fx;
+			}
+			if (searchHigh && Double.isNaN(answer)) {
+				final double x = geometric ? high * step : high + step, fx = eval(x);
+				evals++;
+				if (isValidSolution(x, fx))
+					answer = x;
+				else if (fx * fHigh < 0.0)
+					answer = brent(high, x, fHigh, fx, evals);
+				else if (Double.isNaN(fx) || Double.isInfinite(x))
+					searchHigh = false;
+				high = x;
+				fHigh = fx;
+			}
+			if (!geometric)
+				step *= 2.0;
+		}
+		return answer;
+	}
+	/**
+	 * Attempts to find the solution within the specified distance of a predicted value. If
+	 * the function does not change sign within that distance, the search is expanded with
+	 * solveExpanding().
+	 *
+	 * @param center the predicted solution
+	 * @param halfWidth the distance on either side of center to search first
+	 * @return the solution, or Double.NaN if none can be found
+	 */
+	public double solveNear(final double center, final double halfWidth) {
+		if (Double.isInfinite(center) || Double.isNaN(center))
+			throw new IllegalArgumentException("center");
+		if (!(halfWidth > 0.0) || Double.isInfinite(halfWidth))
+			throw new IllegalArgumentException("halfWidth");
+		// Do not step past zero if the prediction is positive
+		final double low = (center > 0.0) ? Math.max(center - halfWidth, center /
+			EXPAND_FACTOR) : center - halfWidth, high = center + halfWidth;
+		final double fLow = eval(low), fHigh = eval(high);
+		final double answer;
+		if (isValidSolution(low, fLow))
+			answer = low;
+		else if (isValidSolution(high, fHigh))
+			answer = high;
+		else if (fLow * fHigh < 0.0)
+			answer = brent(low, high, fLow, fHigh, 2);
+		else
+			// Prediction was wrong, go the long way
+			answer = solveExpanding(center);
 		return answer;
 	}
 	public String toString() {
 		return equation.toString();
 	}
+
+	/**
+	 * Subtracts a changeable offset from an equation, allowing it to be solved for many
+	 * different targets without reconstructing it.
+	 */
+	private static class OffsetEquation implements BatchEquation {
+		/**
+		 * The equation to offset.
+		 */
+		private final Equation equation;
+		/**
+		 * The value subtracted from the equation.
+		 */
+		private double offset;
+
+		/**
+		 * Creates a new offset equation with an offset of zero.
+		 *
+		 * @param equation the equation to offset
+		 */
+		public OffsetEquation(final Equation equation) {
+			this.equation = equation;
+			offset = 0.0;
+		}
+		@Override
+		public double eval(double x) {
+			return equation.eval(x) - offset;
+		}
+		@Override
+		public void evalMany(double[] xs, double[] out, int off, int len) {
+			final int end = off + len;
+			EquationSolver.evalMany(equation, xs, out, off, len);
+			for (int i = off; i < end; i++)
+				out[i] -= offset;
+		}
+		public String toString() {
+			return equation.toString();
+		}
+	}
 }
\ No newline at end of file
@@ -0,0 +1,197 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+/**
+ * A class which uses a damped Newton's method with a trust region to solve a pair of
+ * equations in two unknowns. The Jacobian is estimated using finite differences, so the
+ * equations do not need to provide derivatives.
+ */
+public class EquationSolver2D {
+	/**
+	 * The default tolerance used if not specified.
+	 */
+	public static final double DEFAULT_TOLERANCE = 1e-10;
+	/**
+	 * The relative step used to estimate the derivatives (square root of machine epsilon).
+	 */
+	private static final double FD_STEP = 1.4901161193847656E-8;
+	/**
+	 * The maximum number of function evaluations to perform before failing.
+	 */
+	public static final int MAX_EVALUATIONS = 200;
+
+	/**
+	 * The equations to be solved.
+	 */
+	protected final Equation2D equation;
+	/**
+	 * The tolerance to be used when solving the functions.
+	 */
+	protected final double tolerance;
+
+	/**
+	 * Creates a new EquationSolver2D with the default tolerance.
+	 *
+	 * @param equation the equations to be solved
+	 */
+	public EquationSolver2D(final Equation2D equation) {
+		this(equation, DEFAULT_TOLERANCE);
+	}
+	/**
+	 * Creates a new EquationSolver2D with the specified tolerance.
+	 *
+	 * @param equation the equations to be solved
+	 * @param tolerance the tolerance of the solution
+	 */
+	public EquationSolver2D(final Equation2D equation, final double tolerance) {
+		if (equation == null)
+			throw new NullPointerException("equation");
+		if (tolerance <= 0.0)
+			throw new IllegalArgumentException("tolerance out of range");
+		this.equation = equation;
+		this.tolerance = tolerance;
+	}
+	/**
+	 * Convenience method to evaluate the equations.
+	 *
+	 * @param x the first coordinate to evaluate
+	 * @param y the second coordinate to evaluate
+	 * @param out the location where the function values will be stored
+	 * @return the Euclidean norm of the function values, or Double.NaN if either is undefined
+	 */
+	protected double eval(final double x, final double y, final double[] out) {
+		equation.eval(x, y, out);
+		return Math.hypot(out[0], out[1]);
+	}
+	/**
+	 * Retrieves the tolerance that this solver will try to achieve from zero when solving
+	 * the equations. Alternatively, if the solution values change by less than this fraction
+	 * of their current values, the solution will be considered valid.
+	 *
+	 * @return the tolerance used for solving
+	 */
+	public double getTolerance() {
+		return tolerance;
+	}
+	/**
+	 * Attempts to find a solution for both equations, starting from an initial guess.
+	 *
+	 * @param x the first stab at the first variable
+	 * @param y the first stab at the second variable
+	 * @param out the location where the solution (x in out[0], y in out[1]) will be stored;
+	 * if no solution is found, the best point found so far is stored instead
+	 * @return true if a solution was found, or false if the solver failed to converge
+	 */
+	public boolean solve(final double x, final double y, final double[] out) {
+		if (Double.isInfinite(x) || Double.isNaN(x))
+			throw new IllegalArgumentException("x");
+		if (Double.isInfinite(y) || Double.isNaN(y))
+			throw new IllegalArgumentException("y");
+		if (out.length < 2)
+			throw new IllegalArgumentException("out is too short");
+		final double tol = getTolerance();
+		final double[] f = new double[2], fx = new double[2], fy = new double[2],
+			trial = new double[2];
+		double cx = x, cy = y, norm = eval(x, y, f);
+		// Start with a trust region about the size of the guess
+		double radius = Math.max(0.5 * Math.max(Math.abs(x), Math.abs(y)), tol);
+		int evals = 1, steps = 0;
+		boolean solved = norm < tol, failed = Double.isNaN(norm);
+		while (!solved && !failed && evals < MAX_EVALUATIONS) {
+			// Finite difference Jacobian
+			final double hx = FD_STEP * Math.max(Math.abs(cx), radius);
+			final double hy = FD_STEP * Math.max(Math.abs(cy), radius);
+			eval(cx + hx, cy, fx);
+			eval(cx, cy + hy, fy);
+			evals += 2;
+			steps++;
+			final double j00 = (fx[0] - f[0]) / hx, j10 = (fx[1] - f[1]) / hx;
+			final double j01 = (fy[0] - f[0]) / hy, j11 = (fy[1] - f[1]) / hy;
+			final double det = j00 * j11 - j01 * j10;
+			double dx, dy;
+			if (det != 0.0 && !Double.isNaN(det) && !Double.isInfinite(det)) {
+				// Newton step
+				dx = (f[1] * j01 - f[0] * j11) / det;
+				dy = (f[0] * j10 - f[1] * j00) / det;
+			} else {
+				// Singular, go downhill instead
+				dx = -(j00 * f[0] + j10 * f[1]);
+				dy = -(j01 * f[0] + j11 * f[1]);
+			}
+			if (Double.isNaN(dx) || Double.isNaN(dy) || (dx == 0.0 && dy == 0.0)) {
+				failed = true;
+				break;
+			}
+			// Limit to the trust region
+			final double len = Math.hypot(dx, dy);
+			boolean whole = len <= radius;
+			if (!whole) {
+				dx *= radius / len;
+				dy *= radius / len;
+			}
+			// Shrink until the step improves the residual
+			boolean accepted = false;
+			while (!accepted && evals < MAX_EVALUATIONS) {
+				final double trialNorm = eval(cx + dx, cy + dy, trial);
+				final double step = Math.hypot(dx, dy);
+				evals++;
+				if (trialNorm < norm) {
+					// Good step, grow the region if the whole step was used
+					cx += dx;
+					cy += dy;
+					f[0] = trial[0];
+					f[1] = trial[1];
+					norm = trialNorm;
+					if (step >= radius * 0.999)
+						radius *= 2.0;
+					accepted = true;
+					solved = norm < tol || (whole && step <= tol * Math.hypot(cx, cy));
+				} else {
+					// Bad step (or undefined), damp it
+					radius = 0.25 * step;
+					whole = false;
+					dx *= 0.25;
+					dy *= 0.25;
+					if (radius <= tol * Math.hypot(cx, cy)) {
+						// Cannot make any more progress
+						failed = true;
+						break;
+					}
+				}
+			}
+		}
+		final SolverStats stats = EquationSolver.getStats();
+		if (stats != null)
+			stats.record(equation.toString(), solved ? cx : Double.NaN, norm, evals, 0, 0, 0,
+				steps);
+		out[0] = cx;
+		out[1] = cy;
+		return solved;
+	}
+	public String toString() {
+		return equation.toString();
+	}
+}
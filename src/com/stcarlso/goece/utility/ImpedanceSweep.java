@@ -0,0 +1,205 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+/**
+ * Calculates the impedance of a series or parallel combination of a resistor, an inductor,
+ * and a capacitor across a range of frequencies. Any of the elements may be left out, so RC,
+ * RL, LC, and RLC networks are all covered. Each frequency gives:
+ *
+ * - the magnitude of the impedance in ohms
+ * - the phase angle of the impedance in degrees, from -90 to 90
+ * - the quality factor Q, the ratio of reactance to resistance
+ * - the equivalent series resistance in ohms, the real part of the impedance
+ *
+ * Everything that does not depend on frequency is calculated once in the constructor, so
+ * that each frequency point costs a square root and an arctangent. Results are written into
+ * caller supplied column arrays, and long sweeps can be streamed to a listener in chunks so
+ * that the first points can be shown while the rest are calculated.
+ */
+public class ImpedanceSweep {
+	/**
+	 * The number of frequencies delivered to the listener at a time by run().
+	 */
+	public static final int CHUNK = 256;
+
+	/**
+	 * Set to true to stop the sweep early.
+	 */
+	private volatile boolean cancelled;
+	/**
+	 * True if the elements are in parallel, or false if they are in series.
+	 */
+	private final boolean parallel;
+	/**
+	 * The real part of the impedance (series) or admittance (parallel).
+	 */
+	private final double real;
+	/**
+	 * The square of real, computed once for the magnitude and ESR at every frequency.
+	 */
+	private final double realSq;
+	/**
+	 * The term of the reactance (series) or susceptance (parallel) that falls with frequency,
+	 * from the capacitor (series) or inductor (parallel). It is divided by f, so that
+	 * x = xMul * f - xDiv / f.
+	 */
+	private final double xDiv;
+	/**
+	 * The term of the reactance (series) or susceptance (parallel) that rises with frequency,
+	 * from the inductor (series) or capacitor (parallel). It is multiplied by f.
+	 */
+	private final double xMul;
+
+	/**
+	 * Creates a new impedance sweep. An element with a value of zero is left out of the
+	 * network, rather than shorted (series) or opened (parallel).
+	 *
+	 * @param parallel true if the elements are in parallel, or false if they are in series
+	 * @param r the resistance in ohms
+	 * @param l the inductance in H
+	 * @param c the capacitance in F
+	 */
+	public ImpedanceSweep(final boolean parallel, final double r, final double l,
+						  final double c) {
+		if (!(r >= 0.0))
+			throw new IllegalArgumentException("r < 0");
+		if (!(l >= 0.0))
+			throw new IllegalArgumentException("l < 0");
+		if (!(c >= 0.0))
+			throw new IllegalArgumentException("c < 0");
+		cancelled = false;
+		this.parallel = parallel;
+		if (parallel) {
+			// Y = 1/R + j(2 pi f C - 1 / (2 pi f L))
+			real = (r > 0.0) ? 1.0 / r : 0.0;
+			xMul = 2.0 * Math.PI * c;
+			xDiv = (l > 0.0) ? 1.0 / (2.0 * Math.PI * l) : 0.0;
+		} else {
+			// Z = R + j(2 pi f L - 1 / (2 pi f C))
+			real = r;
+			xMul = 2.0 * Math.PI * l;
+			xDiv = (c > 0.0) ? 1.0 / (2.0 * Math.PI * c) : 0.0;
+		}
+		realSq = real * real;
+	}
+	/**
+	 * Requests that the sweep stop as soon as possible. May be called from any thread.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+	/**
+	 * Calculates the impedance at a block of frequencies. Each output is a column with one
+	 * entry per frequency; any of them may be null if not needed.
+	 *
+	 * @param freq the frequencies in Hz
+	 * @param off the index of the first frequency to calculate
+	 * @param len the number of frequencies to calculate
+	 * @param mag the location where the impedance magnitude in ohms will be stored
+	 * @param phase the location where the impedance phase angle in degrees will be stored
+	 * @param q the location where the quality factor will be stored
+	 * @param esr the location where the equivalent series resistance in ohms will be stored
+	 * @param outOff the index in the outputs where the first result will be stored
+	 */
+	public void evaluate(final double[] freq, final int off, final int len, final double[] mag,
+						 final double[] phase, final double[] q, final double[] esr,
+						 final int outOff) {
+		if (off < 0 || len < 0 || off + len > freq.length)
+			throw new IndexOutOfBoundsException("freq");
+		for (int i = 0; i < len; i++) {
+			final double f = freq[off + i], x = xMul * f - xDiv / f;
+			final double sumSq = realSq + x * x;
+			if (mag != null)
+				mag[outOff + i] = parallel ? 1.0 / Math.sqrt(sumSq) : Math.sqrt(sumSq);
+			if (phase != null) {
+				// Z = 1 / Y flips the sign of the angle
+				final double angle = Math.toDegrees(Math.atan2(x, real));
+				phase[outOff + i] = parallel ? -angle : angle;
+			}
+			if (q != null)
+				// Same for Z and Y, since Im(1 / Y) / Re(1 / Y) = -Im(Y) / Re(Y)
+				q[outOff + i] = Math.abs(x) / real;
+			if (esr != null)
+				esr[outOff + i] = parallel ? real / sumSq : real;
+		}
+	}
+	/**
+	 * Checks to see if the sweep was cancelled.
+	 *
+	 * @return true if cancel() was called
+	 */
+	public boolean isCancelled() {
+		return cancelled;
+	}
+	/**
+	 * Checks to see if the elements are in parallel.
+	 *
+	 * @return true for a parallel network, or false for a series network
+	 */
+	public boolean isParallel() {
+		return parallel;
+	}
+	/**
+	 * Runs the sweep on the current thread, which should not be the UI thread. Results are
+	 * delivered CHUNK frequencies at a time in new arrays owned by the listener.
+	 *
+	 * @param freq the frequencies to calculate in Hz, usually from LossSweep.logFrequencies()
+	 * @param listener the listener to notify as each chunk is calculated
+	 */
+	public void run(final double[] freq, final Listener listener) {
+		if (listener == null)
+			throw new NullPointerException("listener");
+		final int count = freq.length;
+		for (int i = 0; i < count && !cancelled; i += CHUNK) {
+			final int n = Math.min(CHUNK, count - i);
+			final double[] f = new double[n], mag = new double[n], phase = new double[n],
+				q = new double[n], esr = new double[n];
+			System.arraycopy(freq, i, f, 0, n);
+			evaluate(freq, i, n, mag, phase, q, esr, 0);
+			listener.pointsAdded(f, mag, phase, q, esr, n);
+		}
+	}
+
+	/**
+	 * Receives the results of an ImpedanceSweep as they are calculated. Methods are called on
+	 * the thread running the sweep, so user interface code must forward them to the UI thread.
+	 */
+	public interface Listener {
+		/**
+		 * Called when more frequencies have been calculated. Chunks are always delivered in
+		 * order, and follow on from the chunk delivered by the previous call.
+		 *
+		 * @param freq the frequencies in Hz
+		 * @param mag the impedance magnitude in ohms
+		 * @param phase the impedance phase angle in degrees
+		 * @param q the quality factor
+		 * @param esr the equivalent series resistance in ohms
+		 * @param count the number of frequencies in this chunk
+		 */
+		void pointsAdded(double[] freq, double[] mag, double[] phase, double[] q, double[] esr,
+						 int count);
+	}
+}
@@ -0,0 +1,437 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A precomputed table of trace impedance against width (or spacing for differential pairs)
+ * for one stackup. Reverse lookups are answered by inverting a monotone cubic interpolant of
+ * the table, and then polished to full precision with Brent's method inside a single grid
+ * interval. Tables are cached with least recently used eviction, so repeated lookups on the
+ * same stackup do not need to search for the answer from scratch.
+ *
+ * Instances are immutable and may be shared between threads.
+ */
+public final class ImpedanceTable {
+	/**
+	 * Maximum number of tables kept in the cache.
+	 */
+	public static final int CACHE_SIZE = 16;
+	/**
+	 * Number of grid points in each table.
+	 */
+	public static final int GRID_POINTS = 256;
+	/**
+	 * Largest width or spacing in the table in mm.
+	 */
+	public static final double MAX_X = 100.0;
+	/**
+	 * Smallest width or spacing in the table in mm.
+	 */
+	public static final double MIN_X = 1E-3;
+	/**
+	 * Number of Newton steps used to invert the cubic interpolant in one grid interval.
+	 */
+	private static final int NEWTON_STEPS = 8;
+	/**
+	 * Maximum number of equation evaluations used to polish the interpolated answer before
+	 * falling back to Brent's method.
+	 */
+	private static final int POLISH_STEPS = 4;
+	/**
+	 * Grid spacing in log(x).
+	 */
+	private static final double STEP = Math.log(MAX_X / MIN_X) / (GRID_POINTS - 1);
+
+	/**
+	 * The cache of recently used tables. Access order is used to evict the table which has
+	 * gone unused for the longest time.
+	 */
+	private static final Map<Key, ImpedanceTable> CACHE = new LinkedHashMap<Key,
+			ImpedanceTable>(CACHE_SIZE, 0.75f, true) {
+		private static final long serialVersionUID = 0L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, ImpedanceTable> eldest) {
+			return size() > CACHE_SIZE;
+		}
+	};
+
+	/**
+	 * The stackup described by this table.
+	 */
+	private final Key key;
+	/**
+	 * true if the impedance is strictly monotonic across the whole table.
+	 */
+	private final boolean monotonic;
+	/**
+	 * Slopes of the impedance with respect to log(x) at each grid point.
+	 */
+	private final double[] slopes;
+	/**
+	 * The impedance at each grid point, NaN if it is not defined there.
+	 */
+	private final double[] values;
+
+	/**
+	 * Retrieves the table for the specified stackup, creating it if it is not in the cache.
+	 *
+	 * @param scenario the trace scenario
+	 * @param h the PCB thickness
+	 * @param w the trace width (ignored for single ended scenarios)
+	 * @param t the trace thickness
+	 * @param er the relative dielectric permittivity
+	 * @return the impedance table for that stackup
+	 * @throws IllegalArgumentException if any of the parameters are out of range
+	 */
+	public static ImpedanceTable get(final TraceScenario scenario, final double h,
+									 final double w, final double t, final double er) {
+		if (scenario == null)
+			throw new NullPointerException("scenario");
+		final Key key = new Key(scenario, h, scenario.isDifferential() ? w : 0.0, t, er);
+		ImpedanceTable table;
+		synchronized (CACHE) {
+			table = CACHE.get(key);
+		}
+		if (table == null) {
+			// Build outside of the lock, two threads racing only waste some time
+			table = new ImpedanceTable(key);
+			synchronized (CACHE) {
+				CACHE.put(key, table);
+			}
+		}
+		return table;
+	}
+	/**
+	 * Gets the width or spacing of a grid point.
+	 *
+	 * @param index the grid point index
+	 * @return the value of x at that point
+	 */
+	private static double gridX(final int index) {
+		return MIN_X * Math.exp(STEP * index);
+	}
+	/**
+	 * Creates a new impedance table, evaluating the equation at each grid point. Use get()
+	 * instead to share tables through the cache.
+	 *
+	 * @param key the stackup to tabulate
+	 */
+	private ImpedanceTable(final Key key) {
+		final TraceEquation equ = key.create(0.0);
+		final int n = GRID_POINTS;
+		final double[] delta = new double[n - 1];
+		boolean up = true, down = true;
+		this.key = key;
+		values = new double[n];
+		slopes = new double[n];
+		for (int i = 0; i < n; i++)
+			values[i] = gridX(i);
+		// Evaluated in place, the grid is not needed afterwards
+		equ.evalMany(values, values, 0, n);
+		for (int i = 0; i < n; i++)
+			if (Double.isInfinite(values[i]))
+				values[i] = Double.NaN;
+		// Secant slopes, then Fritsch-Carlson tangents which keep each interval monotonic
+		for (int i = 0; i < n - 1; i++) {
+			final double d = (values[i + 1] - values[i]) / STEP;
+			delta[i] = d;
+			up &= d > 0.0;
+			down &= d < 0.0;
+		}
+		monotonic = up || down;
+		slopes[0] = delta[0];
+		slopes[n - 1] = delta[n - 2];
+		for (int i = 1; i < n - 1; i++) {
+			final double d0 = delta[i - 1], d1 = delta[i];
+			if (d0 * d1 > 0.0)
+				// Weighted harmonic mean, which never overshoots (Fritsch-Butland form)
+				slopes[i] = 3.0 * d0 * d1 / (Math.max(d0, d1) + 2.0 * Math.min(d0, d1));
+			else
+				// Local extremum, sign change or undefined neighbor
+				slopes[i] = 0.0;
+		}
+		for (int i = 0; i < n - 1; i++) {
+			// Fritsch-Carlson limit on the endpoint tangents
+			final double d = delta[i];
+			if (d == 0.0) {
+				slopes[i] = 0.0;
+				slopes[i + 1] = 0.0;
+			} else if (!Double.isNaN(d)) {
+				final double a = slopes[i] / d, b = slopes[i + 1] / d;
+				if (a < 0.0)
+					slopes[i] = 0.0;
+				if (b < 0.0)
+					slopes[i + 1] = 0.0;
+				final double r = a * a + b * b;
+				if (r > 9.0) {
+					final double tau = 3.0 / Math.sqrt(r);
+					slopes[i] = tau * a * d;
+					slopes[i + 1] = tau * b * d;
+				}
+			}
+		}
+	}
+	/**
+	 * Checks to see if a grid interval contains the target impedance.
+	 *
+	 * @param index the index of the lower grid point of the interval
+	 * @param target the target impedance
+	 * @return true if the target lies between the values at both ends of the interval
+	 */
+	private boolean brackets(final int index, final double target) {
+		final double z0 = values[index], z1 = values[index + 1];
+		return (z0 - target) * (z1 - target) <= 0.0;
+	}
+	/**
+	 * Finds the grid interval containing the target impedance which is closest to the guess.
+	 *
+	 * @param target the target impedance
+	 * @param guess the preferred value of x
+	 * @return the index of the lower grid point of the interval, or -1 if the target is not in
+	 * the table
+	 */
+	private int findInterval(final double target, final double guess) {
+		final int n = GRID_POINTS;
+		int index = -1;
+		if (monotonic) {
+			// Binary search, only one interval can match
+			final boolean up = values[n - 1] > values[0];
+			int low = 0, high = n - 1;
+			if ((values[0] - target) * (values[n - 1] - target) <= 0.0) {
+				while (high - low > 1) {
+					final int mid = (low + high) >>> 1;
+					if ((values[mid] < target) == up)
+						low = mid;
+					else
+						high = mid;
+				}
+				index = low;
+			}
+		} else {
+			// Scan all intervals for the one closest to the guess
+			final double u = (guess > 0.0) ? Math.log(guess / MIN_X) / STEP : 0.0;
+			double best = Double.MAX_VALUE;
+			for (int i = 0; i < n - 1; i++)
+				if (brackets(i, target)) {
+					final double dist = Math.abs(i + 0.5 - u);
+					if (dist < best) {
+						best = dist;
+						index = i;
+					}
+				}
+		}
+		return index;
+	}
+	/**
+	 * Inverts the cubic interpolant in one grid interval.
+	 *
+	 * @param index the index of the lower grid point of the interval
+	 * @param target the target impedance, which must lie inside the interval
+	 * @param out the location where the estimated x and the slope of the interpolant with
+	 * respect to log(x) at that point will be stored
+	 */
+	private void invert(final int index, final double target, final double[] out) {
+		final double z0 = values[index], z1 = values[index + 1], dz = z1 - z0;
+		final double m0 = slopes[index] * STEP, m1 = slopes[index + 1] * STEP;
+		// Start from linear interpolation, then refine with safeguarded Newton steps
+		double lo = 0.0, hi = 1.0, s = (dz == 0.0) ? 0.5 : (target - z0) / dz, df = dz;
+		for (int i = 0; i < NEWTON_STEPS; i++) {
+			final double s2 = s * s, s3 = s2 * s;
+			// Hermite basis functions and their derivatives
+			final double f = (2.0 * s3 - 3.0 * s2 + 1.0) * z0 + (s3 - 2.0 * s2 + s) * m0 +
+				(3.0 * s2 - 2.0 * s3) * z1 + (s3 - s2) * m1 - target;
+			df = (6.0 * s2 - 6.0 * s) * (z0 - z1) + (3.0 * s2 - 4.0 * s + 1.0) * m0 +
+				(3.0 * s2 - 2.0 * s) * m1;
+			// Keep the root bracketed in [lo, hi]
+			if ((f > 0.0) == (dz > 0.0))
+				hi = s;
+			else
+				lo = s;
+			double next = (df == 0.0) ? Double.NaN : s - f / df;
+			if (!(next > lo && next < hi))
+				next = 0.5 * (lo + hi);
+			s = next;
+		}
+		out[0] = MIN_X * Math.exp(STEP * (index + s));
+		out[1] = df / STEP;
+	}
+	/**
+	 * Polishes the interpolated answer in one grid interval. Secant steps starting from the
+	 * interpolant slope converge in a few evaluations, and if they stray outside the interval,
+	 * Brent's method is used on whichever part of the interval still contains the answer.
+	 *
+	 * @param solver the solver for the equation with the target impedance
+	 * @param index the index of the lower grid point of the interval
+	 * @param target the target impedance, which must lie inside the interval
+	 * @return the width or spacing in mm, or NaN if no solution could be found
+	 */
+	private double polish(final EquationSolver solver, final int index, final double target) {
+		final double[] estimate = new double[2];
+		double low = gridX(index), high = gridX(index + 1), fLow = values[index] - target,
+			fHigh = values[index + 1] - target, answer = Double.NaN;
+		invert(index, target, estimate);
+		double x0 = estimate[0], f0 = Double.NaN, x1 = x0, f1, residual = Double.NaN;
+		// The first step uses dz/dx from the interpolant, later ones are secant steps
+		double slope = estimate[1] / x0;
+		int evals = 0;
+		for (int i = 0; i < POLISH_STEPS && Double.isNaN(answer) && x1 > low && x1 < high;
+				i++) {
+			f1 = solver.eval(x1);
+			evals++;
+			if (solver.isValidSolution(x1, (i > 0) ? x0 : Double.NaN, f1)) {
+				answer = x1;
+				residual = f1;
+			} else if (Double.isNaN(f1))
+				// Give up and let Brent handle it
+				x1 = Double.NaN;
+			else {
+				// Shrink the bracket for Brent in case this does not converge
+				if (fLow * f1 < 0.0) {
+					high = x1;
+					fHigh = f1;
+				} else {
+					low = x1;
+					fLow = f1;
+				}
+				if (i > 0)
+					slope = (f1 - f0) / (x1 - x0);
+				x0 = x1;
+				f0 = f1;
+				x1 = x0 - f0 / slope;
+			}
+		}
+		final SolverStats stats = EquationSolver.getStats();
+		if (Double.isNaN(answer))
+			answer = solver.brent(low, high, fLow, fHigh, evals);
+		else if (stats != null)
+			// Each evaluation after the first follows a secant step
+			stats.record(solver.equation.toString(), answer, residual, evals, 0, evals - 1, 0,
+				0);
+		return answer;
+	}
+	/**
+	 * Finds the width (or spacing for differential pairs) which gives the target impedance.
+	 *
+	 * @param target the desired impedance
+	 * @param guess the preferred answer if there is more than one, or NaN if there is no
+	 * preference
+	 * @return the width or spacing in mm, or NaN if no solution could be found
+	 */
+	public double solve(final double target, final double guess) {
+		double answer = Double.NaN;
+		if (target > 0.0 && !Double.isInfinite(target)) {
+			final EquationSolver solver = new EquationSolver(key.create(target));
+			final int index = findInterval(target, guess);
+			if (index >= 0)
+				answer = polish(solver, index, target);
+			else if (guess > 0.0 && !Double.isInfinite(guess))
+				// Not in the table, search the slow way
+				answer = solver.solveExpanding(guess);
+		}
+		return answer;
+	}
+	@Override
+	public String toString() {
+		return "ImpedanceTable[" + key + "]";
+	}
+
+	/**
+	 * The key used to identify a stackup in the table cache.
+	 */
+	private static final class Key {
+		/**
+		 * The relative dielectric permittivity.
+		 */
+		private final double er;
+		/**
+		 * The PCB thickness.
+		 */
+		private final double h;
+		/**
+		 * The trace scenario.
+		 */
+		private final TraceScenario scenario;
+		/**
+		 * The trace thickness.
+		 */
+		private final double t;
+		/**
+		 * The trace width, 0 for single ended scenarios.
+		 */
+		private final double w;
+
+		/**
+		 * Creates a new cache key.
+		 *
+		 * @param scenario the trace scenario
+		 * @param h the PCB thickness
+		 * @param w the trace width, 0 for single ended scenarios
+		 * @param t the trace thickness
+		 * @param er the relative dielectric permittivity
+		 */
+		public Key(final TraceScenario scenario, final double h, final double w,
+				   final double t, final double er) {
+			this.er = er;
+			this.h = h;
+			this.scenario = scenario;
+			this.t = t;
+			this.w = w;
+		}
+		/**
+		 * Creates the equation for this stackup.
+		 *
+		 * @param desired the desired impedance
+		 * @return the equation, with the width or spacing as the IV
+		 */
+		public TraceEquation create(final double desired) {
+			return scenario.create(h, w, t, er, desired);
+		}
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key))
+				return false;
+			final Key other = (Key)o;
+			return scenario == other.scenario && Double.compare(h, other.h) == 0 &&
+				Double.compare(w, other.w) == 0 && Double.compare(t, other.t) == 0 &&
+				Double.compare(er, other.er) == 0;
+		}
+		@Override
+		public int hashCode() {
+			long bits = Double.doubleToLongBits(h);
+			bits = 31L * bits + Double.doubleToLongBits(w);
+			bits = 31L * bits + Double.doubleToLongBits(t);
+			bits = 31L * bits + Double.doubleToLongBits(er);
+			return scenario.hashCode() * 31 + (int)(bits ^ (bits >>> 32));
+		}
+		@Override
+		public String toString() {
+			return scenario + " h=" + h + " w=" + w + " t=" + t + " er=" + er;
+		}
+	}
+}
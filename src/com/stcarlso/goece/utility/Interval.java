@@ -0,0 +1,421 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+/**
+ * A mutable interval for propagating component tolerances through calculations. Each interval
+ * carries three things, all updated together by every operation:
+ *
+ * - the nominal value, calculated exactly as if there were no tolerances
+ * - the worst case lower and upper bounds (interval arithmetic)
+ * - the first-order root-sum-square (RSS) deviation, which assumes independent errors and is
+ *   usually a more realistic spread than the worst case
+ *
+ * Operations change this interval and return it for chaining, so a formula can be evaluated
+ * with one or two objects. The static methods propagate symmetric relative tolerances
+ * directly on primitives, for callers that do not need the bounds.
+ *
+ * Like all interval arithmetic, the bounds are only tight if each input appears once in the
+ * formula; r2 / (r1 + r2) is wider than 1 / (1 + r1 / r2) even though they are equal.
+ */
+public final class Interval {
+	/**
+	 * The largest tolerance that an EngineeringValue can carry. Wider spreads, such as the
+	 * difference of two nearly equal values, are only kept by the interval bounds.
+	 */
+	public static final double MAX_TOLERANCE = 0.99;
+
+	/**
+	 * The first-order RSS deviation, as an absolute value.
+	 */
+	private double deviation;
+	/**
+	 * The worst case lower bound.
+	 */
+	private double lower;
+	/**
+	 * The nominal value.
+	 */
+	private double nominal;
+	/**
+	 * The worst case upper bound.
+	 */
+	private double upper;
+
+	/**
+	 * Creates a new interval containing only zero.
+	 */
+	public Interval() {
+		set(0.0, 0.0);
+	}
+	/**
+	 * Creates a copy of another interval.
+	 *
+	 * @param other the interval to copy
+	 */
+	public Interval(final Interval other) {
+		set(other);
+	}
+	/**
+	 * Creates a new interval from the magnitude and tolerance of a value.
+	 *
+	 * @param value the value to convert
+	 */
+	public Interval(final EngineeringValue value) {
+		set(value);
+	}
+	/**
+	 * Creates a new interval from a nominal value and tolerance.
+	 *
+	 * @param nominal the nominal value
+	 * @param tolerance the relative tolerance (0.1 = 10%, 0.01 = 1%)
+	 */
+	public Interval(final double nominal, final double tolerance) {
+		set(nominal, tolerance);
+	}
+	/**
+	 * Limits a tolerance to the range accepted by EngineeringValue. A limited tolerance
+	 * understates the spread, so the bounds of an interval are not recovered from it.
+	 *
+	 * @param tolerance the relative tolerance
+	 * @return the tolerance from 0 to MAX_TOLERANCE, or 0 if it is NaN
+	 */
+	public static double limitTolerance(final double tolerance) {
+		final double ret;
+		if (!(tolerance > 0.0))
+			ret = 0.0;
+		else
+			ret = Math.min(tolerance, MAX_TOLERANCE);
+		return ret;
+	}
+	/**
+	 * Calculates the worst case relative tolerance of a power of a value.
+	 *
+	 * @param tolerance the relative tolerance of the value
+	 * @param exponent the power to raise the value
+	 * @return the relative tolerance of value ^ exponent
+	 */
+	public static double powerTolerance(final double tolerance, final double exponent) {
+		return Math.max(Math.abs(Math.pow(1.0 + tolerance, exponent) - 1.0),
+			Math.abs(Math.pow(1.0 - tolerance, exponent) - 1.0));
+	}
+	/**
+	 * Calculates the worst case relative tolerance of a product of two values.
+	 *
+	 * @param tol1 the relative tolerance of the first value
+	 * @param tol2 the relative tolerance of the second value
+	 * @return the relative tolerance of the product
+	 */
+	public static double productTolerance(final double tol1, final double tol2) {
+		// (1 + t1) (1 + t2) - 1 is always further from 1 than (1 - t1) (1 - t2)
+		return tol1 + tol2 + tol1 * tol2;
+	}
+	/**
+	 * Calculates the worst case relative tolerance of a quotient of two values.
+	 *
+	 * @param tol1 the relative tolerance of the dividend
+	 * @param tol2 the relative tolerance of the divisor
+	 * @return the relative tolerance of the quotient
+	 */
+	public static double quotientTolerance(final double tol1, final double tol2) {
+		// (1 + t1) / (1 - t2) - 1 is always further from 1 than (1 - t1) / (1 + t2)
+		return (tol1 + tol2) / (1.0 - tol2);
+	}
+	/**
+	 * Converts an absolute deviation to a relative one.
+	 *
+	 * @param error the absolute deviation
+	 * @param value the value which has that deviation
+	 * @return the deviation relative to the value, 0 if there is no deviation even if the
+	 * value is zero
+	 */
+	static double relative(final double error, final double value) {
+		return (error == 0.0) ? 0.0 : error / Math.abs(value);
+	}
+	/**
+	 * Combines two independent deviations.
+	 *
+	 * @param dev1 the first deviation
+	 * @param dev2 the second deviation
+	 * @return the square root of the sum of squares
+	 */
+	private static double rss(final double dev1, final double dev2) {
+		return Math.sqrt(dev1 * dev1 + dev2 * dev2);
+	}
+	/**
+	 * Calculates the worst case relative tolerance of a sum of two values.
+	 *
+	 * @param value1 the first value (magnitude if complex)
+	 * @param tol1 the relative tolerance of the first value
+	 * @param value2 the second value (magnitude if complex)
+	 * @param tol2 the relative tolerance of the second value
+	 * @param sum the sum of the two values (magnitude if complex)
+	 * @return the relative tolerance of the sum, infinite if the sum is zero but the values
+	 * have nonzero tolerances
+	 */
+	public static double sumTolerance(final double value1, final double tol1,
+									  final double value2, final double tol2, final double sum) {
+		final double error = Math.abs(value1) * tol1 + Math.abs(value2) * tol2;
+		return (error == 0.0) ? 0.0 : error / Math.abs(sum);
+	}
+	/**
+	 * Adds a constant to this interval.
+	 *
+	 * @param value the constant to add
+	 * @return this object, for chaining
+	 */
+	public Interval add(final double value) {
+		lower += value;
+		nominal += value;
+		upper += value;
+		return this;
+	}
+	/**
+	 * Adds another interval to this one.
+	 *
+	 * @param other the addend
+	 * @return this object, for chaining
+	 */
+	public Interval add(final Interval other) {
+		deviation = rss(deviation, other.deviation);
+		lower += other.lower;
+		nominal += other.nominal;
+		upper += other.upper;
+		return this;
+	}
+	/**
+	 * Divides this interval by another.
+	 *
+	 * @param other the divisor
+	 * @return this object, for chaining
+	 * @throws ArithmeticException if the divisor contains zero
+	 */
+	public Interval divide(final Interval other) {
+		final double c = other.lower, d = other.upper, n = other.nominal;
+		if (c <= 0.0 && d >= 0.0)
+			throw new ArithmeticException("Interval division by zero");
+		final double q1 = lower / c, q2 = lower / d, q3 = upper / c, q4 = upper / d;
+		// d(a / b) = da / b - a db / b^2
+		deviation = rss(deviation / n, nominal * other.deviation / (n * n));
+		lower = Math.min(Math.min(q1, q2), Math.min(q3, q4));
+		nominal /= n;
+		upper = Math.max(Math.max(q1, q2), Math.max(q3, q4));
+		return this;
+	}
+	/**
+	 * Gets the first-order RSS deviation of this interval.
+	 *
+	 * @return the deviation from the nominal value, as an absolute value
+	 */
+	public double getDeviation() {
+		return deviation;
+	}
+	/**
+	 * Gets the worst case lower bound of this interval.
+	 *
+	 * @return the lower bound
+	 */
+	public double getLower() {
+		return lower;
+	}
+	/**
+	 * Gets the nominal value of this interval.
+	 *
+	 * @return the nominal value
+	 */
+	public double getNominal() {
+		return nominal;
+	}
+	/**
+	 * Gets the first-order RSS deviation of this interval relative to the nominal value.
+	 *
+	 * @return the relative RSS tolerance, infinite if the nominal value is zero but the
+	 * deviation is not
+	 */
+	public double getRssTolerance() {
+		return relative(deviation, nominal);
+	}
+	/**
+	 * Gets the worst case tolerance of this interval. Since the bounds need not be symmetric
+	 * about the nominal value, the larger side is used.
+	 *
+	 * @return the relative worst case tolerance, infinite if the nominal value is zero but the
+	 * bounds are not
+	 */
+	public double getTolerance() {
+		return relative(Math.max(upper - nominal, nominal - lower), nominal);
+	}
+	/**
+	 * Gets the worst case upper bound of this interval.
+	 *
+	 * @return the upper bound
+	 */
+	public double getUpper() {
+		return upper;
+	}
+	/**
+	 * Replaces this interval with its reciprocal.
+	 *
+	 * @return this object, for chaining
+	 * @throws ArithmeticException if this interval contains zero
+	 */
+	public Interval invert() {
+		if (lower <= 0.0 && upper >= 0.0)
+			throw new ArithmeticException("Interval division by zero");
+		final double newLower = 1.0 / upper;
+		deviation /= nominal * nominal;
+		nominal = 1.0 / nominal;
+		upper = 1.0 / lower;
+		lower = newLower;
+		return this;
+	}
+	/**
+	 * Multiplies this interval by a constant.
+	 *
+	 * @param value the constant multiplier
+	 * @return this object, for chaining
+	 */
+	public Interval multiply(final double value) {
+		final double newLower = lower * value, newUpper = upper * value;
+		deviation *= Math.abs(value);
+		lower = Math.min(newLower, newUpper);
+		nominal *= value;
+		upper = Math.max(newLower, newUpper);
+		return this;
+	}
+	/**
+	 * Multiplies this interval by another.
+	 *
+	 * @param other the multiplicand
+	 * @return this object, for chaining
+	 */
+	public Interval multiply(final Interval other) {
+		final double c = other.lower, d = other.upper;
+		final double p1 = lower * c, p2 = lower * d, p3 = upper * c, p4 = upper * d;
+		// d(a b) = b da + a db
+		deviation = rss(other.nominal * deviation, nominal * other.deviation);
+		lower = Math.min(Math.min(p1, p2), Math.min(p3, p4));
+		nominal *= other.nominal;
+		upper = Math.max(Math.max(p1, p2), Math.max(p3, p4));
+		return this;
+	}
+	/**
+	 * Raises this interval to a power. Like Math.pow(), the result is NaN if any part of this
+	 * interval is negative.
+	 *
+	 * @param exponent the power to raise this interval
+	 * @return this object, for chaining
+	 */
+	public Interval pow(final double exponent) {
+		if (lower < 0.0)
+			set(Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+		else {
+			final double lp = Math.pow(lower, exponent), up = Math.pow(upper, exponent);
+			// d(x ^ n) = n x ^ (n - 1) dx
+			deviation *= Math.abs(exponent * Math.pow(nominal, exponent - 1.0));
+			lower = Math.min(lp, up);
+			nominal = Math.pow(nominal, exponent);
+			upper = Math.max(lp, up);
+		}
+		return this;
+	}
+	/**
+	 * Changes this interval to a nominal value and symmetric tolerance.
+	 *
+	 * @param nominal the nominal value
+	 * @param tolerance the relative tolerance (0.1 = 10%, 0.01 = 1%)
+	 * @return this object, for chaining
+	 */
+	public Interval set(final double nominal, final double tolerance) {
+		if (!(tolerance >= 0.0))
+			throw new IllegalArgumentException("tolerance");
+		final double error = Math.abs(nominal) * tolerance;
+		return set(nominal, nominal - error, nominal + error, error);
+	}
+	/**
+	 * Changes every part of this interval. Used for functions which calculate their own
+	 * bounds, such as monotonic functions evaluated at the ends of the inputs.
+	 *
+	 * @param nominal the nominal value
+	 * @param lower the lower bound
+	 * @param upper the upper bound
+	 * @param deviation the first-order RSS deviation
+	 * @return this object, for chaining
+	 */
+	Interval set(final double nominal, final double lower, final double upper,
+				 final double deviation) {
+		this.deviation = deviation;
+		this.lower = lower;
+		this.nominal = nominal;
+		this.upper = upper;
+		return this;
+	}
+	/**
+	 * Changes this interval to match another.
+	 *
+	 * @param other the interval to copy
+	 * @return this object, for chaining
+	 */
+	public Interval set(final Interval other) {
+		return set(other.nominal, other.lower, other.upper, other.deviation);
+	}
+	/**
+	 * Changes this interval to the magnitude and tolerance of a value.
+	 *
+	 * @param value the value to convert
+	 * @return this object, for chaining
+	 */
+	public Interval set(final EngineeringValue value) {
+		return set(value.getValue(), value.getTolerance());
+	}
+	/**
+	 * Subtracts another interval from this one.
+	 *
+	 * @param other the subtrahend
+	 * @return this object, for chaining
+	 */
+	public Interval subtract(final Interval other) {
+		deviation = rss(deviation, other.deviation);
+		lower -= other.upper;
+		nominal -= other.nominal;
+		upper -= other.lower;
+		return this;
+	}
+	public String toString() {
+		return nominal + " [" + lower + ", " + upper + "] \u00B1" + deviation;
+	}
+	/**
+	 * Converts this interval to an engineering value.
+	 *
+	 * @param template the value where units and significant figures are copied
+	 * @param rss true to use the RSS tolerance, or false to use the worst case tolerance
+	 * @return the nominal value with the tolerance of this interval, limited to MAX_TOLERANCE
+	 */
+	public EngineeringValue toValue(final EngineeringValue template, final boolean rss) {
+		final double tolerance = limitTolerance(rss ? getRssTolerance() : getTolerance());
+		return new EngineeringValue(nominal, tolerance, template.getSigfigs(),
+			template.getUnits());
+	}
+}
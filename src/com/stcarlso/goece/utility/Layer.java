@@ -0,0 +1,142 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+/**
+ * Represents one layer of a PCB stackup, which is either copper (a signal layer or a plane)
+ * or dielectric. All units in mm.
+ */
+public class Layer {
+	/**
+	 * Lists the possible kinds of layers.
+	 */
+	public enum Kind {
+		/**
+		 * A dielectric layer (core or prepreg).
+		 */
+		DIELECTRIC,
+		/**
+		 * A copper plane, which is used as the reference for traces on other layers.
+		 */
+		PLANE,
+		/**
+		 * A copper layer with traces.
+		 */
+		SIGNAL
+	}
+
+	/**
+	 * The relative dielectric permittivity, only meaningful for dielectric layers.
+	 */
+	private final double er;
+	/**
+	 * The kind of this layer.
+	 */
+	private final Kind kind;
+	/**
+	 * The name of this layer.
+	 */
+	private final String name;
+	/**
+	 * The thickness of this layer.
+	 */
+	private final double thickness;
+
+	/**
+	 * Creates a new copper layer.
+	 *
+	 * @param name the layer name
+	 * @param kind the kind of layer, must be PLANE or SIGNAL
+	 * @param thickness the copper thickness
+	 */
+	public Layer(final String name, final Kind kind, final double thickness) {
+		this(name, kind, thickness, Double.NaN);
+	}
+	/**
+	 * Creates a new layer.
+	 *
+	 * @param name the layer name
+	 * @param kind the kind of layer
+	 * @param thickness the layer thickness
+	 * @param er the relative dielectric permittivity, ignored for copper layers
+	 */
+	public Layer(final String name, final Kind kind, final double thickness, final double er) {
+		if (name == null)
+			throw new NullPointerException("name");
+		if (kind == null)
+			throw new NullPointerException("kind");
+		if (!(thickness > 0.0) || Double.isInfinite(thickness))
+			throw new IllegalArgumentException("thickness <= 0");
+		if (kind == Kind.DIELECTRIC && !(er > 1.0))
+			throw new IllegalArgumentException("dielectric <= 1");
+		this.er = (kind == Kind.DIELECTRIC) ? er : Double.NaN;
+		this.kind = kind;
+		this.name = name;
+		this.thickness = thickness;
+	}
+	/**
+	 * Gets the relative dielectric permittivity of this layer.
+	 *
+	 * @return the relative permittivity, or NaN if this is a copper layer
+	 */
+	public double getDielectric() {
+		return er;
+	}
+	/**
+	 * Gets the kind of this layer.
+	 *
+	 * @return whether this layer is a dielectric, plane, or signal layer
+	 */
+	public Kind getKind() {
+		return kind;
+	}
+	/**
+	 * Gets the name of this layer.
+	 *
+	 * @return the layer name
+	 */
+	public String getName() {
+		return name;
+	}
+	/**
+	 * Gets the thickness of this layer.
+	 *
+	 * @return the layer thickness
+	 */
+	public double getThickness() {
+		return thickness;
+	}
+	/**
+	 * Reports whether this layer is copper.
+	 *
+	 * @return true for plane and signal layers, or false for dielectric layers
+	 */
+	public boolean isCopper() {
+		return kind != Kind.DIELECTRIC;
+	}
+	public String toString() {
+		return name + " (" + kind + ", " + thickness + " mm)";
+	}
+}
@@ -0,0 +1,268 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+/**
+ * Calculates the frequency dependent behavior of a microstrip or stripline trace: the
+ * characteristic impedance, attenuation, and propagation delay. The model includes:
+ *
+ * - conductor loss from the skin effect, limited to the DC resistance at low frequencies
+ * - surface roughness, using the Hammerstad-Bekkadal correction factor
+ * - dielectric loss from the loss tangent
+ * - dispersion of the microstrip effective permittivity (Kirschning-Jansen), with the
+ *   impedance scaled accordingly (stripline is TEM and does not disperse)
+ *
+ * Everything that does not depend on frequency is calculated once in the constructor, so
+ * that each frequency point only costs a few elementary functions. Results are written into
+ * caller supplied column arrays, so long sweeps can be processed in chunks.
+ *
+ * Geometry units are in mm, frequencies in Hz.
+ */
+public class LossSweep {
+	/**
+	 * Conductivity of annealed copper in S/m.
+	 */
+	public static final double COPPER_CONDUCTIVITY = 5.8E7;
+	/**
+	 * Converts attenuation in Np/m to dB/inch.
+	 */
+	private static final double NP_M_TO_DB_IN = 20.0 / Math.log(10.0) * 0.0254;
+	/**
+	 * Converts delay in s/m to ps/inch.
+	 */
+	private static final double S_M_TO_PS_IN = 1E12 * 0.0254;
+
+	/**
+	 * Conductor loss coefficients: alpha_c = Rs * acMul / Z0, with Rs = acSqrt * sqrt(f).
+	 */
+	private final double acMul;
+	private final double acSqrt;
+	/**
+	 * Dielectric loss coefficient: alpha_d = adMul * f * (eeff - 1) / sqrt(eeff) for microstrip.
+	 */
+	private final double adMul;
+	/**
+	 * DC resistance of the trace in ohms/m.
+	 */
+	private final double dcResistance;
+	/**
+	 * The effective relative permittivity at DC.
+	 */
+	private final double eeff0;
+	/**
+	 * The relative permittivity of the dielectric.
+	 */
+	private final double er;
+	/**
+	 * Frequency-normalization for dispersion: fn (GHz mm) = f * fnMul.
+	 */
+	private final double fnMul;
+	/**
+	 * true for microstrip, false for stripline.
+	 */
+	private final boolean microstrip;
+	/**
+	 * Kirschning-Jansen coefficients which depend only on geometry and permittivity.
+	 */
+	private final double p1Base;
+	private final double p1u;
+	private final double p2;
+	private final double p3u;
+	private final double p4;
+	/**
+	 * Roughness coefficient: (rms / skin depth)^2 = roughMul * f.
+	 */
+	private final double roughMul;
+	/**
+	 * The characteristic impedance at DC.
+	 */
+	private final double z00;
+	/**
+	 * Impedance dispersion coefficient: Z0(f) = zMul * (eeff - 1) / sqrt(eeff).
+	 */
+	private final double zMul;
+
+	/**
+	 * Creates a new loss model for a trace.
+	 *
+	 * @param microstrip true for a microstrip, or false for a symmetric stripline
+	 * @param w the trace width
+	 * @param h the distance from the trace to the (nearest) plane
+	 * @param t the trace thickness
+	 * @param er the relative dielectric permittivity
+	 * @param tanD the dielectric loss tangent
+	 * @param sigma the conductivity of the trace in S/m
+	 * @param roughness the RMS surface roughness of the copper, 0 for smooth copper
+	 */
+	public LossSweep(final boolean microstrip, final double w, final double h, final double t,
+					 final double er, final double tanD, final double sigma,
+					 final double roughness) {
+		if (w <= 0.0)
+			throw new IllegalArgumentException("width <= 0");
+		if (tanD < 0.0)
+			throw new IllegalArgumentException("tanD < 0");
+		if (sigma <= 0.0)
+			throw new IllegalArgumentException("sigma <= 0");
+		if (roughness < 0.0)
+			throw new IllegalArgumentException("roughness < 0");
+		final TraceEquation equ;
+		// Validates h, t and er
+		if (microstrip)
+			equ = new MicrostripEquation(h, t, er, 0.0);
+		else
+			equ = new StriplineEquation(h, t, er, 0.0);
+		final double u = w / h, wm = w * 1E-3;
+		this.er = er;
+		this.microstrip = microstrip;
+		z00 = equ.eval(w);
+		dcResistance = 1.0 / (sigma * wm * t * 1E-3);
+		acSqrt = Math.sqrt(Math.PI * Units.MU_0 / sigma);
+		roughMul = Math.PI * Units.MU_0 * sigma * roughness * roughness * 1E-6;
+		if (microstrip) {
+			// Hammerstad-Jensen static effective permittivity
+			final double u4 = u * u * u * u, u52 = u / 52.0, u181 = u / 18.1;
+			final double a = 1.0 + Math.log((u4 + u52 * u52) / (u4 + 0.432)) / 49.0 +
+				Math.log1p(u181 * u181 * u181) / 18.7;
+			final double b = 0.564 * Math.pow((er - 0.9) / (er + 3.0), 0.053);
+			eeff0 = 0.5 * (er + 1.0) + 0.5 * (er - 1.0) * Math.pow(1.0 + 10.0 / u, -a * b);
+			// Strip and ground return each carry the current over about one width
+			acMul = 2.0 / wm;
+			adMul = Math.PI * er * tanD / (Units.C_0 * (er - 1.0));
+			// Kirschning-Jansen, f in GHz and h in mm
+			fnMul = h * 1E-9;
+			p1Base = 0.27488 - 0.065683 * Math.exp(-8.7513 * u);
+			p1u = u;
+			p2 = 0.33622 * (1.0 - Math.exp(-0.03442 * er));
+			p3u = 0.0363 * Math.exp(-4.6 * u);
+			final double e = er / 15.916, e2 = e * e, e4 = e2 * e2;
+			p4 = 1.0 + 2.751 * (1.0 - Math.exp(-e4 * e4));
+			zMul = z00 * Math.sqrt(eeff0) / (eeff0 - 1.0);
+		} else {
+			eeff0 = er;
+			// Current splits between both faces of the strip, and returns through both planes
+			acMul = 1.0 / wm;
+			adMul = Math.PI * Math.sqrt(er) * tanD / Units.C_0;
+			fnMul = 0.0;
+			p1Base = 0.0;
+			p1u = 0.0;
+			p2 = 0.0;
+			p3u = 0.0;
+			p4 = 0.0;
+			zMul = z00;
+		}
+	}
+	/**
+	 * Calculates the response at a block of frequencies. Each output is a column with one entry
+	 * per frequency; any of them may be null if not needed.
+	 *
+	 * @param freq the frequencies in Hz
+	 * @param off the index of the first frequency to calculate
+	 * @param len the number of frequencies to calculate
+	 * @param z0 the location where the characteristic impedance in ohms will be stored
+	 * @param atten the location where the attenuation in dB/inch will be stored
+	 * @param delay the location where the propagation delay in ps/inch will be stored
+	 * @param outOff the index in the outputs where the first result will be stored
+	 */
+	public void evaluate(final double[] freq, final int off, final int len, final double[] z0,
+						 final double[] atten, final double[] delay, final int outOff) {
+		if (off < 0 || len < 0 || off + len > freq.length)
+			throw new IndexOutOfBoundsException("freq");
+		for (int i = 0; i < len; i++) {
+			final double f = freq[off + i];
+			final double eeff = microstrip ? effectiveDielectric(f) : er;
+			final double sqrtE = Math.sqrt(eeff);
+			// Power-current definition, follows the dispersion of eeff
+			final double z = microstrip ? zMul * (eeff - 1.0) / sqrtE : z00;
+			if (z0 != null)
+				z0[outOff + i] = z;
+			if (atten != null) {
+				// Skin effect resistance, but never below DC
+				final double rough = roughMul * f;
+				final double rs = acSqrt * Math.sqrt(f) * (1.0 + 2.0 * Units.PI_INV *
+					Math.atan(1.4 * rough));
+				final double r = Math.max(rs * acMul, dcResistance);
+				final double ad = microstrip ? adMul * f * (eeff - 1.0) / sqrtE : adMul * f;
+				atten[outOff + i] = (0.5 * r / z + ad) * NP_M_TO_DB_IN;
+			}
+			if (delay != null)
+				delay[outOff + i] = sqrtE / Units.C_0 * S_M_TO_PS_IN;
+		}
+	}
+	/**
+	 * Calculates the dispersed effective permittivity of the microstrip with the
+	 * Kirschning-Jansen model.
+	 *
+	 * @param f the frequency in Hz
+	 * @return the effective relative permittivity at that frequency
+	 */
+	private double effectiveDielectric(final double f) {
+		final double fn = f * fnMul;
+		// (1 + 0.0157 fn)^20 by repeated squaring
+		final double q = 1.0 + 0.0157 * fn, q2 = q * q, q4 = q2 * q2, q16 = q4 * q4 * q4 * q4;
+		final double p1 = p1Base + (0.6315 + 0.525 / (q16 * q4)) * p1u;
+		final double p3 = p3u * (1.0 - Math.exp(-Math.pow(fn / 38.7, 4.97)));
+		final double p = p1 * p2 * Math.pow((0.1844 + p3 * p4) * fn, 1.5763);
+		return er - (er - eeff0) / (1.0 + p);
+	}
+	/**
+	 * Gets the effective relative permittivity at DC.
+	 *
+	 * @return the static effective permittivity
+	 */
+	public double getStaticDielectric() {
+		return eeff0;
+	}
+	/**
+	 * Gets the characteristic impedance at DC.
+	 *
+	 * @return the static impedance in ohms
+	 */
+	public double getStaticImpedance() {
+		return z00;
+	}
+	/**
+	 * Creates a list of logarithmically spaced frequencies.
+	 *
+	 * @param min the lowest frequency in Hz
+	 * @param max the highest frequency in Hz
+	 * @param count the number of frequencies, at least 2
+	 * @return the frequencies from min to max
+	 */
+	public static double[] logFrequencies(final double min, final double max, final int count) {
+		if (!(min > 0.0) || !(max > min) || Double.isInfinite(max))
+			throw new IllegalArgumentException("range");
+		if (count < 2)
+			throw new IllegalArgumentException("count < 2");
+		final double[] out = new double[count];
+		final double ratio = Math.pow(max / min, 1.0 / (count - 1));
+		double f = min;
+		for (int i = 0; i < count; i++) {
+			out[i] = f;
+			f *= ratio;
+		}
+		out[count - 1] = max;
+		return out;
+	}
+}
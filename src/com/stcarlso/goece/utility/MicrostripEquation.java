@@ -0,0 +1,91 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+/**
+ * A class for EquationSolver to handle reverse solving of microstrip impedance.
+ *
+ * Trace width is the IV (x). All units in mm.
+ */
+public class MicrostripEquation extends TraceEquation {
+	/**
+	 * Coefficients for effective width calculation.
+	 */
+	private transient double h4;
+	private transient double tInv;
+	private transient double tOverH2;
+	private transient double weAdd;
+	private transient double weMul;
+	/**
+	 * Coefficients for impedance calculation.
+	 */
+	private transient double x1Mul;
+	private transient double zMul;
+	private transient double zX2Add;
+
+	/**
+	 * Creates a new microstrip equation context for calculating single ended impedance.
+	 *
+	 * @param h the PCB thickness
+	 * @param t the trace thickness
+	 * @param er the relative dielectric permittivity
+	 * @param desired the desired impedance (set to 0.0 for forward calculation)
+	 */
+	public MicrostripEquation(final double h, final double t, final double er,
+							  final double desired) {
+		super(h, t, er, desired);
+		precompute();
+	}
+	@Override
+	public double eval(double x) {
+		final double ret;
+		if (x <= 0.0)
+			ret = Double.NaN;
+		else {
+			// Calculate w_eff
+			final double w_coeff = Units.PI_INV / (1.1 + x * tInv);
+			final double w_eff_4h = h4 / (x + weAdd - weMul * 0.5 * Math.log(tOverH2 +
+				w_coeff * w_coeff));
+			final double x1 = x1Mul * w_eff_4h;
+			ret = zMul * Math.log1p(w_eff_4h * (x1 + Math.sqrt(x1 * x1 + zX2Add))) - desired;
+		}
+		return ret;
+	}
+	@Override
+	public TraceParameter getVariable() {
+		return TraceParameter.WIDTH;
+	}
+	@Override
+	protected void precompute() {
+		h4 = 4.0 * h;
+		tInv = 1.0 / t;
+		tOverH2 = (t * t) / (h * h);
+		weMul = t * (1.0 + 1.0 / er) * 0.5 * Units.PI_INV;
+		weAdd = weMul * 1.6020599913279624;
+		x1Mul = (14.0 + 8.0 / er) / 11.0;
+		zMul = Units.Z_0 / (Math.sqrt(1.0 + er) * 2.8284271247461902);
+		zX2Add = (1.0 + 1.0 / er) * 0.5 * Math.PI * Math.PI;
+	}
+}
@@ -0,0 +1,748 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+import java.util.Arrays;
+
+/**
+ * Solves the node voltages and element currents of a Circuit at one frequency at a time,
+ * using modified nodal analysis: one equation for each node other than ground, and one for
+ * the branch current of each inductor and voltage source (so that inductors and ideal sources
+ * also work at DC).
+ *
+ * The equations are solved by sparse LU factorization. The pivot order is chosen once with
+ * the Markowitz criterion, which keeps the fill-in small, and the fill pattern found from it
+ * is reused for every following frequency. Only the values are factored again, unless a pivot
+ * becomes too small, in which case a new order is chosen. Choosing the order takes time
+ * proportional to the cube of the number of equations, so networks of up to a few hundred
+ * nodes are practical.
+ *
+ * Every node must have a path to ground; at DC, this path cannot pass only through
+ * capacitors.
+ */
+public class NodalSolver {
+	/**
+	 * Entry value is the sign times the element admittance.
+	 */
+	private static final int KIND_ADMITTANCE = 0;
+	/**
+	 * Entry value is the sign.
+	 */
+	private static final int KIND_CONSTANT = 1;
+	/**
+	 * Entry value is the sign times the element impedance.
+	 */
+	private static final int KIND_IMPEDANCE = 2;
+	/**
+	 * A pivot must be at least this fraction of the largest entry in its column when the
+	 * order is chosen.
+	 */
+	private static final double PIVOT_THRESHOLD = 1E-3;
+	/**
+	 * When the values are factored again, a pivot smaller than this fraction of the largest
+	 * entry in its row forces a new order.
+	 */
+	private static final double PIVOT_TOLERANCE = 1E-10;
+	/**
+	 * When the values are factored again, a multiplier larger than this (the pivot threshold
+	 * with room for the approximate magnitudes) forces a new order, since it means the old
+	 * pivot is no longer large enough for its column.
+	 */
+	private static final double MAX_MULTIPLIER = 2.0 / PIVOT_THRESHOLD;
+
+	/**
+	 * Cheap magnitude of a complex number, used for pivot selection.
+	 *
+	 * @param re the real part
+	 * @param im the imaginary part
+	 * @return |re| + |im|
+	 */
+	private static double abs1(final double re, final double im) {
+		return Math.abs(re) + Math.abs(im);
+	}
+	/**
+	 * Finds the inverse of a permutation.
+	 *
+	 * @param perm the permutation
+	 * @return the inverse permutation
+	 */
+	private static int[] invert(final int[] perm) {
+		final int[] inv = new int[perm.length];
+		for (int i = 0; i < perm.length; i++)
+			inv[perm[i]] = i;
+		return inv;
+	}
+
+	/**
+	 * The equation of the branch current of each element, or -1 if it has none.
+	 */
+	private final int[] branch;
+	/**
+	 * The column of each value in the factors.
+	 */
+	private int[] cols;
+	/**
+	 * The original column of each column of the factors.
+	 */
+	private int[] colPerm;
+	/**
+	 * The index of the diagonal value in each row of the factors.
+	 */
+	private int[] diag;
+	/**
+	 * The elements of the circuit.
+	 */
+	private final Circuit.Element[] elements;
+	/**
+	 * The column of each matrix entry.
+	 */
+	private final int[] entryCol;
+	/**
+	 * The element of each matrix entry.
+	 */
+	private final int[] entryElement;
+	/**
+	 * How the value of each matrix entry is found.
+	 */
+	private final int[] entryKind;
+	/**
+	 * The imaginary part of each matrix entry at the current frequency.
+	 */
+	private final double[] entryIm;
+	/**
+	 * The index in the factors of each matrix entry.
+	 */
+	private int[] entryPos;
+	/**
+	 * The real part of each matrix entry at the current frequency.
+	 */
+	private final double[] entryRe;
+	/**
+	 * The row of each matrix entry.
+	 */
+	private final int[] entryRow;
+	/**
+	 * The sign of each matrix entry.
+	 */
+	private final double[] entrySign;
+	/**
+	 * The frequency of the last solution in Hz.
+	 */
+	private double frequency;
+	/**
+	 * The imaginary parts of the LU factors.
+	 */
+	private double[] luIm;
+	/**
+	 * The real parts of the LU factors.
+	 */
+	private double[] luRe;
+	/**
+	 * The number of nodes, including ground.
+	 */
+	private final int nodes;
+	/**
+	 * The number of times the pivot order was chosen.
+	 */
+	private int orderCount;
+	/**
+	 * The imaginary parts of the inverse pivots.
+	 */
+	private final double[] pivIm;
+	/**
+	 * The real parts of the inverse pivots.
+	 */
+	private final double[] pivRe;
+	/**
+	 * The imaginary parts of the right hand side (source values).
+	 */
+	private final double[] rhsIm;
+	/**
+	 * The real parts of the right hand side (source values).
+	 */
+	private final double[] rhsRe;
+	/**
+	 * The largest entry in each original row, for checking pivots.
+	 */
+	private final double[] rowMax;
+	/**
+	 * The original row of each row of the factors.
+	 */
+	private int[] rowPerm;
+	/**
+	 * The start of each row of the factors.
+	 */
+	private int[] rowStart;
+	/**
+	 * The number of equations.
+	 */
+	private final int size;
+	/**
+	 * The imaginary parts of the solution: node voltages, then branch currents.
+	 */
+	private final double[] solutionIm;
+	/**
+	 * The real parts of the solution: node voltages, then branch currents.
+	 */
+	private final double[] solutionRe;
+	/**
+	 * True if the solution is valid for the current frequency.
+	 */
+	private boolean solved;
+	/**
+	 * Dense work row, imaginary parts. Always zero between uses.
+	 */
+	private final double[] workIm;
+	/**
+	 * Dense work row, real parts. Always zero between uses.
+	 */
+	private final double[] workRe;
+
+	/**
+	 * Creates a solver for a circuit. Later changes to the circuit do not affect the solver.
+	 *
+	 * @param circuit the circuit to solve
+	 */
+	public NodalSolver(final Circuit circuit) {
+		if (circuit == null)
+			throw new NullPointerException("circuit");
+		final int count = circuit.getElementCount();
+		if (count < 1)
+			throw new IllegalArgumentException("circuit is empty");
+		elements = new Circuit.Element[count];
+		branch = new int[count];
+		nodes = circuit.getNodeCount();
+		int n = nodes - 1;
+		for (int i = 0; i < count; i++) {
+			final Circuit.Element element = circuit.getElement(i);
+			elements[i] = element;
+			branch[i] = element.hasBranch() ? n++ : -1;
+		}
+		size = n;
+		// At most 5 entries per element
+		entryCol = new int[5 * count];
+		entryElement = new int[5 * count];
+		entryKind = new int[5 * count];
+		entryRow = new int[5 * count];
+		entrySign = new double[5 * count];
+		rhsIm = new double[n];
+		rhsRe = new double[n];
+		final int entries = buildEntries();
+		entryIm = new double[entries];
+		entryRe = new double[entries];
+		pivIm = new double[n];
+		pivRe = new double[n];
+		rowMax = new double[n];
+		solutionIm = new double[n];
+		solutionRe = new double[n];
+		workIm = new double[n];
+		workRe = new double[n];
+		cols = null;
+		frequency = 0.0;
+		orderCount = 0;
+		solved = false;
+	}
+	/**
+	 * Adds a matrix entry, unless it is in the row or column of ground.
+	 *
+	 * @param index the index of the new entry
+	 * @param row the equation
+	 * @param col the unknown
+	 * @param element the element which the entry belongs to
+	 * @param kind how the value of the entry is found
+	 * @param sign the sign of the entry
+	 * @return the index of the next entry
+	 */
+	private int addEntry(final int index, final int row, final int col, final int element,
+						 final int kind, final double sign) {
+		int ret = index;
+		if (row >= 0 && col >= 0) {
+			entryCol[index] = col;
+			entryElement[index] = element;
+			entryKind[index] = kind;
+			entryRow[index] = row;
+			entrySign[index] = sign;
+			ret++;
+		}
+		return ret;
+	}
+	/**
+	 * Builds the list of matrix entries and the right hand side.
+	 *
+	 * @return the number of matrix entries
+	 */
+	private int buildEntries() {
+		final Complex source = new Complex();
+		int n = 0;
+		for (int i = 0; i < elements.length; i++) {
+			final Circuit.Element element = elements[i];
+			// Ground is not an unknown, so node n is unknown n - 1
+			final int a = element.nodeA - 1, b = element.nodeB - 1, m = branch[i];
+			switch (element.type) {
+			case Circuit.CAPACITOR:
+			case Circuit.RESISTOR:
+				n = addEntry(n, a, a, i, KIND_ADMITTANCE, 1.0);
+				n = addEntry(n, b, b, i, KIND_ADMITTANCE, 1.0);
+				n = addEntry(n, a, b, i, KIND_ADMITTANCE, -1.0);
+				n = addEntry(n, b, a, i, KIND_ADMITTANCE, -1.0);
+				break;
+			case Circuit.CURRENT_SOURCE:
+				source.setPolar(element.value, element.phase);
+				if (a >= 0) {
+					rhsIm[a] -= source.getImaginary();
+					rhsRe[a] -= source.getReal();
+				}
+				if (b >= 0) {
+					rhsIm[b] += source.getImaginary();
+					rhsRe[b] += source.getReal();
+				}
+				break;
+			default:
+				// Branch current leaves node a and enters node b, Va - Vb = V or jwL * I
+				n = addEntry(n, a, m, i, KIND_CONSTANT, 1.0);
+				n = addEntry(n, b, m, i, KIND_CONSTANT, -1.0);
+				n = addEntry(n, m, a, i, KIND_CONSTANT, 1.0);
+				n = addEntry(n, m, b, i, KIND_CONSTANT, -1.0);
+				if (element.type == Circuit.INDUCTOR)
+					n = addEntry(n, m, m, i, KIND_IMPEDANCE, -1.0);
+				else {
+					source.setPolar(element.value, element.phase);
+					rhsIm[m] = source.getImaginary();
+					rhsRe[m] = source.getReal();
+				}
+				break;
+			}
+		}
+		return n;
+	}
+	/**
+	 * Checks that a solution is available.
+	 */
+	private void checkSolved() {
+		if (!solved)
+			throw new IllegalStateException("not solved");
+	}
+	/**
+	 * Factors the matrix values with the current pivot order and fill pattern.
+	 *
+	 * @return true if successful, or false if a pivot was too small
+	 */
+	private boolean factor() {
+		final double[] luRe = this.luRe, luIm = this.luIm, workRe = this.workRe,
+			workIm = this.workIm;
+		final int[] cols = this.cols, diag = this.diag, rowStart = this.rowStart;
+		Arrays.fill(luIm, 0.0);
+		Arrays.fill(luRe, 0.0);
+		Arrays.fill(rowMax, 0.0);
+		for (int e = 0; e < entryPos.length; e++) {
+			final int p = entryPos[e];
+			luIm[p] += entryIm[e];
+			luRe[p] += entryRe[e];
+			final int row = entryRow[e];
+			rowMax[row] = Math.max(rowMax[row], abs1(entryRe[e], entryIm[e]));
+		}
+		boolean ok = true;
+		for (int i = 0; i < size && ok; i++) {
+			final int start = rowStart[i], end = rowStart[i + 1];
+			for (int p = start; p < end; p++) {
+				workIm[cols[p]] = luIm[p];
+				workRe[cols[p]] = luRe[p];
+			}
+			// Eliminate with each earlier row, in column order
+			for (int p = start; p < diag[i]; p++) {
+				final int k = cols[p];
+				final double wr = workRe[k], wi = workIm[k];
+				final double lr = wr * pivRe[k] - wi * pivIm[k], li = wr * pivIm[k] + wi *
+					pivRe[k];
+				if (abs1(lr, li) > MAX_MULTIPLIER)
+					ok = false;
+				workIm[k] = li;
+				workRe[k] = lr;
+				for (int q = diag[k] + 1; q < rowStart[k + 1]; q++) {
+					final int j = cols[q];
+					workIm[j] -= lr * luIm[q] + li * luRe[q];
+					workRe[j] -= lr * luRe[q] - li * luIm[q];
+				}
+			}
+			final double dr = workRe[i], di = workIm[i];
+			if (abs1(dr, di) > PIVOT_TOLERANCE * rowMax[rowPerm[i]]) {
+				final double den = dr * dr + di * di;
+				pivIm[i] = -di / den;
+				pivRe[i] = dr / den;
+			} else
+				ok = false;
+			for (int p = start; p < end; p++) {
+				final int j = cols[p];
+				luIm[p] = workIm[j];
+				luRe[p] = workRe[j];
+				workIm[j] = 0.0;
+				workRe[j] = 0.0;
+			}
+		}
+		return ok;
+	}
+	/**
+	 * Calculates the current through an element at the last frequency solved. The current is
+	 * positive when it flows through the element from its first node to its second.
+	 *
+	 * @param element the element number returned when it was added to the circuit
+	 * @return the element current in A
+	 */
+	public ComplexValue getBranchCurrent(final int element) {
+		checkSolved();
+		if (element < 0 || element >= elements.length)
+			throw new IllegalArgumentException("element");
+		final Circuit.Element e = elements[element];
+		final Complex current;
+		switch (e.type) {
+		case Circuit.CAPACITOR:
+			current = voltageAcross(e).multiply(new Complex(0.0, 2.0 * Math.PI * frequency *
+				e.value));
+			break;
+		case Circuit.CURRENT_SOURCE:
+			current = new Complex().setPolar(e.value, e.phase);
+			break;
+		case Circuit.RESISTOR:
+			current = voltageAcross(e).divide(new Complex(e.value, 0.0));
+			break;
+		default:
+			final int m = branch[element];
+			current = new Complex(solutionRe[m], solutionIm[m]);
+			break;
+		}
+		return new ComplexValue(current.getMagnitude(), current.getAngle(), Units.CURRENT);
+	}
+	/**
+	 * Gets the number of nonzero values in the LU factors, including fill-in.
+	 *
+	 * @return the size of the factors, or 0 if no frequency has been solved
+	 */
+	public int getFactorSize() {
+		return (cols == null) ? 0 : cols.length;
+	}
+	/**
+	 * Gets the frequency of the last solution.
+	 *
+	 * @return the frequency in Hz
+	 */
+	public double getFrequency() {
+		return frequency;
+	}
+	/**
+	 * Gets the voltage of a node at the last frequency solved.
+	 *
+	 * @param node the node number
+	 * @return the node voltage in V, relative to ground
+	 */
+	public ComplexValue getNodeVoltage(final int node) {
+		checkSolved();
+		if (node < 0 || node >= nodes)
+			throw new IllegalArgumentException("node");
+		final Complex voltage = nodeVoltage(node);
+		return new ComplexValue(voltage.getMagnitude(), voltage.getAngle(), Units.VOLTAGE);
+	}
+	/**
+	 * Gets the number of times a pivot order has been chosen. Ideally this is 1 no matter how
+	 * many frequencies are solved.
+	 *
+	 * @return the number of pivot orderings
+	 */
+	public int getOrderCount() {
+		return orderCount;
+	}
+	/**
+	 * Gets the voltage of a node from the solution.
+	 *
+	 * @param node the node number
+	 * @return the node voltage
+	 */
+	private Complex nodeVoltage(final int node) {
+		final Complex ret = new Complex();
+		if (node > 0)
+			ret.set(solutionRe[node - 1], solutionIm[node - 1]);
+		return ret;
+	}
+	/**
+	 * Chooses a new pivot order for the current matrix values with the Markowitz criterion,
+	 * and finds the fill pattern of the factors. If no order can be found, the old order and
+	 * fill pattern are kept.
+	 *
+	 * @throws ArithmeticException if the matrix is singular
+	 */
+	private void order() {
+		final int n = size;
+		final double[][] re = new double[n][n], im = new double[n][n];
+		for (int e = 0; e < entryRe.length; e++) {
+			im[entryRow[e]][entryCol[e]] += entryIm[e];
+			re[entryRow[e]][entryCol[e]] += entryRe[e];
+		}
+		final boolean[] colDone = new boolean[n], rowDone = new boolean[n];
+		final int[] colCount = new int[n], rowCount = new int[n];
+		final double[] colLargest = new double[n];
+		// The fields still hold the order of the current fill pattern until this one is done
+		final int[] newRowPerm = new int[n], newColPerm = new int[n];
+		for (int step = 0; step < n; step++) {
+			// Count the nonzeros of the remaining submatrix
+			Arrays.fill(colCount, 0);
+			Arrays.fill(colLargest, 0.0);
+			Arrays.fill(rowCount, 0);
+			for (int i = 0; i < n; i++)
+				if (!rowDone[i])
+					for (int j = 0; j < n; j++) {
+						final double a = abs1(re[i][j], im[i][j]);
+						if (!colDone[j] && a > 0.0) {
+							colCount[j]++;
+							colLargest[j] = Math.max(colLargest[j], a);
+							rowCount[i]++;
+						}
+					}
+			// Sparsest pivot which is not too small for its column, largest breaks ties
+			int pr = -1, pc = -1;
+			long best = Long.MAX_VALUE;
+			double bestSize = 0.0;
+			for (int i = 0; i < n; i++)
+				if (!rowDone[i])
+					for (int j = 0; j < n; j++) {
+						final double a = abs1(re[i][j], im[i][j]);
+						if (!colDone[j] && a > 0.0 && a >= PIVOT_THRESHOLD * colLargest[j]) {
+							final long cost = (long)(rowCount[i] - 1) * (colCount[j] - 1);
+							if (cost < best || (cost == best && a > bestSize)) {
+								best = cost;
+								bestSize = a;
+								pr = i;
+								pc = j;
+							}
+						}
+					}
+			if (pr < 0)
+				throw new ArithmeticException("Singular circuit at " + frequency + " Hz");
+			newRowPerm[step] = pr;
+			newColPerm[step] = pc;
+			rowDone[pr] = true;
+			colDone[pc] = true;
+			// Eliminate the pivot column from the remaining rows
+			final double[] pivotRe = re[pr], pivotIm = im[pr];
+			final double den = pivotRe[pc] * pivotRe[pc] + pivotIm[pc] * pivotIm[pc];
+			final double ir = pivotRe[pc] / den, ii = -pivotIm[pc] / den;
+			for (int i = 0; i < n; i++) {
+				final double[] rowRe = re[i], rowIm = im[i];
+				if (!rowDone[i] && (rowRe[pc] != 0.0 || rowIm[pc] != 0.0)) {
+					final double lr = rowRe[pc] * ir - rowIm[pc] * ii, li = rowRe[pc] * ii +
+						rowIm[pc] * ir;
+					for (int j = 0; j < n; j++)
+						if (!colDone[j]) {
+							rowIm[j] -= lr * pivotIm[j] + li * pivotRe[j];
+							rowRe[j] -= lr * pivotRe[j] - li * pivotIm[j];
+						}
+					rowIm[pc] = 0.0;
+					rowRe[pc] = 0.0;
+				}
+			}
+		}
+		colPerm = newColPerm;
+		rowPerm = newRowPerm;
+		orderCount++;
+		symbolic();
+	}
+	/**
+	 * Solves the circuit at one frequency. Solving at the same frequency again does nothing.
+	 *
+	 * @param frequency the frequency in Hz, or 0 for DC
+	 * @throws ArithmeticException if the circuit has no unique solution at this frequency
+	 */
+	public void solve(final double frequency) {
+		if (!(frequency >= 0.0) || Double.isInfinite(frequency))
+			throw new IllegalArgumentException("frequency");
+		if (!solved || frequency != this.frequency) {
+			solved = false;
+			this.frequency = frequency;
+			stamp(2.0 * Math.PI * frequency);
+			if (cols == null || !factor()) {
+				// First solution, or the old pivot order is no longer stable
+				order();
+				if (!factor())
+					throw new ArithmeticException("Singular circuit at " + frequency + " Hz");
+			}
+			substitute();
+			solved = true;
+		}
+	}
+	/**
+	 * Calculates the matrix entries at a frequency.
+	 *
+	 * @param omega the angular frequency in rad/s
+	 */
+	private void stamp(final double omega) {
+		for (int e = 0; e < entryRe.length; e++) {
+			final Circuit.Element element = elements[entryElement[e]];
+			final double sign = entrySign[e];
+			double re = 0.0, im = 0.0;
+			switch (entryKind[e]) {
+			case KIND_ADMITTANCE:
+				if (element.type == Circuit.RESISTOR)
+					re = sign / element.value;
+				else
+					im = sign * omega * element.value;
+				break;
+			case KIND_IMPEDANCE:
+				im = sign * omega * element.value;
+				break;
+			default:
+				re = sign;
+				break;
+			}
+			entryIm[e] = im;
+			entryRe[e] = re;
+		}
+	}
+	/**
+	 * Solves the factored equations for the source values by forward and back substitution.
+	 */
+	private void substitute() {
+		final double[] luRe = this.luRe, luIm = this.luIm, yRe = workRe, yIm = workIm;
+		final int[] cols = this.cols, diag = this.diag, rowStart = this.rowStart;
+		for (int i = 0; i < size; i++) {
+			double sr = rhsRe[rowPerm[i]], si = rhsIm[rowPerm[i]];
+			for (int p = rowStart[i]; p < diag[i]; p++) {
+				final int j = cols[p];
+				si -= luRe[p] * yIm[j] + luIm[p] * yRe[j];
+				sr -= luRe[p] * yRe[j] - luIm[p] * yIm[j];
+			}
+			yIm[i] = si;
+			yRe[i] = sr;
+		}
+		for (int i = size - 1; i >= 0; i--) {
+			double sr = yRe[i], si = yIm[i];
+			for (int p = diag[i] + 1; p < rowStart[i + 1]; p++) {
+				final int j = cols[p];
+				si -= luRe[p] * yIm[j] + luIm[p] * yRe[j];
+				sr -= luRe[p] * yRe[j] - luIm[p] * yIm[j];
+			}
+			final int col = colPerm[i];
+			solutionIm[col] = sr * pivIm[i] + si * pivRe[i];
+			solutionRe[col] = sr * pivRe[i] - si * pivIm[i];
+			yIm[i] = solutionIm[col];
+			yRe[i] = solutionRe[col];
+		}
+		Arrays.fill(yIm, 0.0);
+		Arrays.fill(yRe, 0.0);
+	}
+	/**
+	 * Calculates the voltage of one node at several frequencies. Each output is a column with
+	 * one entry per frequency.
+	 *
+	 * @param freq the frequencies in Hz
+	 * @param off the index of the first frequency to calculate
+	 * @param len the number of frequencies to calculate
+	 * @param node the node number
+	 * @param mag the location where the voltage magnitude in V will be stored
+	 * @param phase the location where the voltage phase angle in degrees (-180 to 180) will be
+	 * stored
+	 * @param outOff the index in the outputs where the first result will be stored
+	 * @throws ArithmeticException if the circuit has no unique solution at a frequency
+	 */
+	public void sweep(final double[] freq, final int off, final int len, final int node,
+					  final double[] mag, final double[] phase, final int outOff) {
+		if (off < 0 || len < 0 || off + len > freq.length)
+			throw new IndexOutOfBoundsException("freq");
+		if (node < 0 || node >= nodes)
+			throw new IllegalArgumentException("node");
+		for (int i = 0; i < len; i++) {
+			solve(freq[off + i]);
+			double re = 0.0, im = 0.0;
+			if (node > 0) {
+				im = solutionIm[node - 1];
+				re = solutionRe[node - 1];
+			}
+			mag[outOff + i] = Math.hypot(re, im);
+			phase[outOff + i] = Math.toDegrees(Math.atan2(im, re));
+		}
+	}
+	/**
+	 * Finds the fill pattern of the factors with the current pivot order.
+	 */
+	private void symbolic() {
+		final int n = size, entries = entryRe.length;
+		final int[] rowInv = invert(rowPerm), colInv = invert(colPerm);
+		// Group the entries by row of the factors
+		final int[] entryStart = new int[n + 1], byRow = new int[entries];
+		for (int e = 0; e < entries; e++)
+			entryStart[rowInv[entryRow[e]] + 1]++;
+		for (int i = 0; i < n; i++)
+			entryStart[i + 1] += entryStart[i];
+		final int[] next = Arrays.copyOf(entryStart, n);
+		for (int e = 0; e < entries; e++)
+			byRow[next[rowInv[entryRow[e]]]++] = e;
+		// Each row gets the columns of its entries, plus fill from the earlier rows it uses
+		final boolean[] mark = new boolean[n];
+		final int[] start = new int[n + 1], dg = new int[n];
+		int[] pattern = new int[Math.max(2 * entries, n)];
+		int len = 0;
+		for (int i = 0; i < n; i++) {
+			for (int p = entryStart[i]; p < entryStart[i + 1]; p++)
+				mark[colInv[entryCol[byRow[p]]]] = true;
+			mark[i] = true;
+			for (int k = 0; k < i; k++)
+				if (mark[k])
+					for (int q = dg[k] + 1; q < start[k + 1]; q++)
+						mark[pattern[q]] = true;
+			start[i] = len;
+			for (int j = 0; j < n; j++)
+				if (mark[j]) {
+					if (len >= pattern.length)
+						pattern = Arrays.copyOf(pattern, 2 * pattern.length);
+					if (j == i)
+						dg[i] = len;
+					pattern[len++] = j;
+					mark[j] = false;
+				}
+			start[i + 1] = len;
+		}
+		cols = Arrays.copyOf(pattern, len);
+		diag = dg;
+		rowStart = start;
+		luIm = new double[len];
+		luRe = new double[len];
+		// Locate each entry in the factors
+		entryPos = new int[entries];
+		for (int e = 0; e < entries; e++) {
+			final int row = rowInv[entryRow[e]];
+			entryPos[e] = Arrays.binarySearch(cols, start[row], start[row + 1],
+				colInv[entryCol[e]]);
+		}
+	}
+	public String toString() {
+		return "NodalSolver[equations=" + size + ",factorSize=" + getFactorSize() + "]";
+	}
+	/**
+	 * Gets the voltage across an element from the solution.
+	 *
+	 * @param element the element
+	 * @return the voltage of its first node minus its second node
+	 */
+	private Complex voltageAcross(final Circuit.Element element) {
+		return nodeVoltage(element.nodeA).subtract(nodeVoltage(element.nodeB));
+	}
+}
@@ -0,0 +1,111 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * A class containing methods for running independent calculations on multiple threads.
+ */
+public final class ParallelCalc {
+	/**
+	 * The shared pool of worker threads, created when first needed.
+	 */
+	private static ExecutorService executor = null;
+
+	/**
+	 * Retrieves the shared executor used for parallel calculations. The threads are daemon
+	 * threads and will not keep the application alive.
+	 *
+	 * @return the executor which runs calculation tasks
+	 */
+	public static synchronized ExecutorService getExecutor() {
+		if (executor == null)
+			executor = Executors.newFixedThreadPool(getThreadCount(), new ThreadFactory() {
+				/**
+				 * Used to give the worker threads unique names.
+				 */
+				private int count = 0;
+
+				@Override
+				public Thread newThread(Runnable r) {
+					final Thread thread = new WorkerThread(r, "ECECalc-" + (++count));
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		return executor;
+	}
+	/**
+	 * Retrieves the number of threads which will be used for parallel calculations.
+	 *
+	 * @return the number of worker threads in the pool
+	 */
+	public static int getThreadCount() {
+		return Math.max(1, Runtime.getRuntime().availableProcessors());
+	}
+	/**
+	 * Runs all of the tasks and waits for them to complete. If there is only one task, or if
+	 * this method is called from a worker thread (which could otherwise deadlock the pool), the
+	 * tasks are run on the current thread instead.
+	 *
+	 * @param tasks the tasks to run
+	 * @return the results of the tasks, in the same order as the tasks were specified
+	 * @throws RuntimeException if any task fails, or if the calling thread is interrupted
+	 */
+	public static <T> List<T> invokeAll(final List<? extends Callable<T>> tasks) {
+		final List<T> results = new ArrayList<T>(tasks.size());
+		try {
+			if (tasks.size() < 2 || Thread.currentThread() instanceof WorkerThread)
+				// Not worth the overhead
+				for (Callable<T> task : tasks)
+					results.add(task.call());
+			else
+				for (Future<T> future : getExecutor().invokeAll(tasks))
+					results.add(future.get());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted while calculating", e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException("Calculation failed", e.getCause());
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new RuntimeException("Calculation failed", e);
+		}
+		return results;
+	}
+
+	/**
+	 * Marks threads that belong to the shared pool.
+	 */
+	private static class WorkerThread extends Thread {
+		public WorkerThread(final Runnable target, final String name) {
+			super(target, name);
+		}
+	}
+}
@@ -0,0 +1,103 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+/**
+ * Adapts a trace equation so that any one of its parameters can be solved for. The trace
+ * width or spacing is held at a fixed value, and the chosen parameter becomes the IV (x).
+ *
+ * Each evaluation with a new value of x recalculates only the coefficients of a private copy
+ * of the trace equation, so instances of this class must not be shared between threads. Use
+ * copy() to get another instance for each thread.
+ */
+public class ParameterEquation implements CopyableEquation {
+	/**
+	 * The private copy of the trace equation which is reconfigured on each evaluation.
+	 */
+	private final TraceEquation equ;
+	/**
+	 * The value of x last passed to equ, to skip recalculating the coefficients.
+	 */
+	private double lastX;
+	/**
+	 * The parameter being solved for.
+	 */
+	private final TraceParameter unknown;
+	/**
+	 * The fixed value of the independent variable of equ.
+	 */
+	private final double value;
+
+	/**
+	 * Creates a new parameter equation context.
+	 *
+	 * @param base the trace equation to adapt, which is copied and not modified
+	 * @param unknown the parameter to use as the IV
+	 * @param value the fixed value of the trace width (single ended) or spacing (differential)
+	 */
+	public ParameterEquation(final TraceEquation base, final TraceParameter unknown,
+							 final double value) {
+		if (base == null)
+			throw new NullPointerException("base");
+		if (unknown == null)
+			throw new NullPointerException("unknown");
+		if (unknown != base.getVariable() && Double.isNaN(base.get(unknown)))
+			throw new IllegalArgumentException("unknown");
+		equ = base.copy();
+		lastX = base.get(unknown);
+		this.unknown = unknown;
+		this.value = value;
+	}
+	@Override
+	public ParameterEquation copy() {
+		return new ParameterEquation(equ, unknown, value);
+	}
+	@Override
+	public double eval(double x) {
+		final double ret;
+		if (unknown == equ.getVariable())
+			ret = equ.eval(x);
+		else if (x != lastX && !equ.set(unknown, x))
+			// Out of range for this parameter
+			ret = Double.NaN;
+		else {
+			lastX = x;
+			ret = equ.eval(value);
+		}
+		return ret;
+	}
+	/**
+	 * Retrieves the parameter being solved for.
+	 *
+	 * @return the parameter used as the IV
+	 */
+	public TraceParameter getUnknown() {
+		return unknown;
+	}
+	@Override
+	public String toString() {
+		return "ParameterEquation[" + unknown + " of " + equ + "]";
+	}
+}
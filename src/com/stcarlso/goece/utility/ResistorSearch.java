@@ -0,0 +1,104 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+/**
+ * Searches a standard resistor series for the pair of values which best matches a target
+ * resistance or divider ratio.
+ */
+public final class ResistorSearch {
+	/**
+	 * Searches for the best resistor divider matching the template. The load resistance and
+	 * input voltage of the template are used for every candidate.
+	 *
+	 * @param template the template specifying the target ratio, load, and voltage
+	 * @param series the EIA resistor series to use
+	 * @return the best matching candidate divider
+	 */
+	public static DividerCandidate findDivider(final DividerCandidate template,
+											   final EIATable.EIASeries series) {
+		if (template == null)
+			throw new NullPointerException("template");
+		final int[] values = EIATable.seriesValues(series);
+		final int maxIndex = 8 * values.length + 1;
+		// All values are valid, who knows how lopsided the ratio could be
+		final double[] candidate = new double[maxIndex];
+		for (int i = 0; i < maxIndex; i++)
+			candidate[i] = ECECalc.ordinalResistor(i, values);
+		// "One-direction" search only uses N time!
+		int start = 1;
+		DividerCandidate best = template.create(0.0, Double.POSITIVE_INFINITY), hi;
+		for (final double value : candidate) {
+			hi = null;
+			// Iterate through resistors until we pass the desired ratio
+			while (start < maxIndex && (hi = template.create(candidate[start],
+					value)).getValue() >= template.getTarget())
+				start++;
+			// Try that value
+			if (hi != null) {
+				if (hi.compareTo(best) < 0) best = hi;
+				// And the one just below it
+				final DividerCandidate low = template.create(candidate[start - 1], value);
+				if (low.compareTo(best) < 0) best = low;
+			}
+		}
+		return best;
+	}
+	/**
+	 * Searches for the best resistor pair matching the template.
+	 *
+	 * @param template the template specifying series or parallel and the target value
+	 * @param series the EIA resistor series to use
+	 * @return the best matching candidate pair
+	 */
+	public static ResCandidate findPair(final ResCandidate template,
+										final EIATable.EIASeries series) {
+		if (template == null)
+			throw new NullPointerException("template");
+		double value;
+		final double[] candidate = template.generateValues(series);
+		// "One-direction" search only uses N time!
+		int end = candidate.length - 1;
+		final double first = candidate[0];
+		ResCandidate best = template.create(first, first), low;
+		for (int i = 0; i <= end; i++) {
+			low = null;
+			value = candidate[i];
+			// Iterate down to just below it
+			while (end >= i && !(low = template.create(value, candidate[end])).possible())
+				end--;
+			// Try that value
+			if (low != null) {
+				if (low.compareTo(best) < 0) best = low;
+				if (end < candidate.length - 1) {
+					// And the one just above it
+					final ResCandidate hi = template.create(value, candidate[end + 1]);
+					if (hi.compareTo(best) < 0) best = hi;
+				}
+			}
+		}
+		return best;
+	}
+}
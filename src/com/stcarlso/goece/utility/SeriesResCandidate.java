@@ -0,0 +1,62 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+import java.util.List;
+
+/**
+ * Represents a pair of resistors that are a candidate for the best series match.
+ */
+public class SeriesResCandidate extends ResCandidate {
+	/**
+	 * Creates a new candidate resistor pair.
+	 *
+	 * @param r1 the first resistor value
+	 * @param r2 the second resistor value
+	 * @param target the target value to be achieved
+	 */
+	public SeriesResCandidate(final double r1, final double r2, final double target) {
+		super(r1, r2, r1 + r2, target);
+	}
+	@Override
+	public ResCandidate create(double r1, double r2) {
+		return new SeriesResCandidate(r1, r2, getTarget());
+	}
+	@Override
+	protected void populateValues(int[] values, List<Double> candidates) {
+		final int maxIndex = 8 * values.length + 1;
+		for (int i = 0; i < maxIndex; i++) {
+			final double cv = ECECalc.ordinalResistor(i, values);
+			// Include the value that fails
+			candidates.add(cv);
+			if (!possible(cv)) break;
+		}
+	}
+	@Override
+	public boolean possible(double candidate) {
+		// If value > candidate, impossible to make a series since series increases R...
+		return candidate <= getTarget();
+	}
+}
@@ -0,0 +1,192 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+/**
+ * Describes how one root was found for SolverStats, by EquationSolver with Brent's method,
+ * by ImpedanceTable with secant steps, or by EquationSolver2D with Newton's method.
+ */
+public final class SolveRecord {
+	/**
+	 * The number of bisection steps taken.
+	 */
+	private final int bisections;
+	/**
+	 * The description of the equation which was solved.
+	 */
+	private final String equation;
+	/**
+	 * The number of times the equation was evaluated, including bracketing.
+	 */
+	private final int evaluations;
+	/**
+	 * The number of inverse quadratic interpolation steps taken.
+	 */
+	private final int inverseQuadratics;
+	/**
+	 * The number of two-variable Newton steps taken.
+	 */
+	private final int newtons;
+	/**
+	 * The value of the equation at the root.
+	 */
+	private final double residual;
+	/**
+	 * The root found (the first variable of a two-variable solve), or NaN if the solver did
+	 * not converge.
+	 */
+	private final double root;
+	/**
+	 * The number of linear interpolation (secant) steps taken.
+	 */
+	private final int secants;
+	/**
+	 * The order in which this record was added to the statistics.
+	 */
+	private final long sequence;
+
+	/**
+	 * Creates a new solve record.
+	 *
+	 * @param sequence the order in which this record was added
+	 * @param equation the description of the equation which was solved
+	 * @param root the root found, or NaN if the solver did not converge
+	 * @param residual the value of the equation at the root
+	 * @param evaluations the number of equation evaluations
+	 * @param bisections the number of bisection steps
+	 * @param secants the number of secant steps
+	 * @param inverseQuadratics the number of inverse quadratic interpolation steps
+	 * @param newtons the number of two-variable Newton steps
+	 */
+	public SolveRecord(final long sequence, final String equation, final double root,
+					   final double residual, final int evaluations, final int bisections,
+					   final int secants, final int inverseQuadratics, final int newtons) {
+		this.bisections = bisections;
+		this.equation = equation;
+		this.evaluations = evaluations;
+		this.inverseQuadratics = inverseQuadratics;
+		this.newtons = newtons;
+		this.residual = residual;
+		this.root = root;
+		this.secants = secants;
+		this.sequence = sequence;
+	}
+	/**
+	 * Gets the number of bisection steps taken. A high fraction of bisection steps means
+	 * that interpolation was making poor progress on the equation.
+	 *
+	 * @return the bisection step count
+	 */
+	public int getBisections() {
+		return bisections;
+	}
+	/**
+	 * Gets the description of the equation which was solved.
+	 *
+	 * @return the equation's toString() value
+	 */
+	public String getEquation() {
+		return equation;
+	}
+	/**
+	 * Gets the number of times the equation was evaluated, including the evaluations used to
+	 * bracket the root.
+	 *
+	 * @return the evaluation count
+	 */
+	public int getEvaluations() {
+		return evaluations;
+	}
+	/**
+	 * Gets the number of inverse quadratic interpolation steps taken.
+	 *
+	 * @return the inverse quadratic step count
+	 */
+	public int getInverseQuadratics() {
+		return inverseQuadratics;
+	}
+	/**
+	 * Gets the total number of iterations of the solver.
+	 *
+	 * @return the sum of the step counts
+	 */
+	public int getIterations() {
+		return bisections + secants + inverseQuadratics + newtons;
+	}
+	/**
+	 * Gets the number of Newton steps taken by a two-variable solve.
+	 *
+	 * @return the Newton step count
+	 */
+	public int getNewtons() {
+		return newtons;
+	}
+	/**
+	 * Gets the value of the equation at the root.
+	 *
+	 * @return the final residual
+	 */
+	public double getResidual() {
+		return residual;
+	}
+	/**
+	 * Gets the root which was found.
+	 *
+	 * @return the root, or NaN if the solver did not converge
+	 */
+	public double getRoot() {
+		return root;
+	}
+	/**
+	 * Gets the number of linear interpolation (secant) steps taken.
+	 *
+	 * @return the secant step count
+	 */
+	public int getSecants() {
+		return secants;
+	}
+	/**
+	 * Gets the order in which this record was added to the statistics.
+	 *
+	 * @return the sequence number, starting from zero
+	 */
+	public long getSequence() {
+		return sequence;
+	}
+	/**
+	 * Checks to see if the solver converged.
+	 *
+	 * @return true if a root was found, or false if the iteration limit was reached
+	 */
+	public boolean isConverged() {
+		return !Double.isNaN(root);
+	}
+	@Override
+	public String toString() {
+		return String.format("#%d %s: x = %g, f = %g in %d evaluations (%d bisection, " +
+			"%d secant, %d IQI, %d Newton)", sequence, equation, root, residual, evaluations,
+			bisections, secants, inverseQuadratics, newtons);
+	}
+}
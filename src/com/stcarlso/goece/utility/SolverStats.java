@@ -0,0 +1,259 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Collects convergence statistics from EquationSolver, EquationSolver2D, and ImpedanceTable,
+ * enabled with EquationSolver.setStats(). The most recent solves are kept in a fixed size
+ * ring buffer, and running totals are kept for all solves. Recording never blocks, so solvers
+ * on any number of threads can share one instance.
+ */
+public class SolverStats {
+	/**
+	 * The default number of solve records kept.
+	 */
+	public static final int DEFAULT_CAPACITY = 64;
+
+	/**
+	 * Total bisection steps.
+	 */
+	private final AtomicLong bisections;
+	/**
+	 * Total equation evaluations, including scans for sign changes.
+	 */
+	private final AtomicLong evaluations;
+	/**
+	 * Total solves which did not converge.
+	 */
+	private final AtomicLong failures;
+	/**
+	 * Total inverse quadratic interpolation steps.
+	 */
+	private final AtomicLong inverseQuadratics;
+	/**
+	 * Total Newton steps of two-variable solves.
+	 */
+	private final AtomicLong newtons;
+	/**
+	 * The sequence number of the next record, which is also the total number of solves.
+	 */
+	private final AtomicLong next;
+	/**
+	 * The most recent solve records, indexed by sequence number modulo the capacity.
+	 */
+	private final AtomicReferenceArray<SolveRecord> recent;
+	/**
+	 * Total linear interpolation (secant) steps.
+	 */
+	private final AtomicLong secants;
+
+	/**
+	 * Creates a new statistics collector which keeps the default number of records.
+	 */
+	public SolverStats() {
+		this(DEFAULT_CAPACITY);
+	}
+	/**
+	 * Creates a new statistics collector.
+	 *
+	 * @param capacity the number of recent solve records to keep
+	 */
+	public SolverStats(final int capacity) {
+		if (capacity < 1)
+			throw new IllegalArgumentException("capacity");
+		bisections = new AtomicLong(0L);
+		evaluations = new AtomicLong(0L);
+		failures = new AtomicLong(0L);
+		inverseQuadratics = new AtomicLong(0L);
+		newtons = new AtomicLong(0L);
+		next = new AtomicLong(0L);
+		recent = new AtomicReferenceArray<SolveRecord>(capacity);
+		secants = new AtomicLong(0L);
+	}
+	/**
+	 * Adds equation evaluations which were not part of a solve, such as scans for sign
+	 * changes.
+	 *
+	 * @param count the number of evaluations
+	 */
+	void addEvaluations(final int count) {
+		evaluations.addAndGet(count);
+	}
+	/**
+	 * Gets the fraction of all Brent steps which fell back to bisection.
+	 *
+	 * @return the bisection fraction from 0 to 1, or NaN if no steps were taken
+	 */
+	public double getBisectionFraction() {
+		final long b = bisections.get(), total = b + secants.get() + inverseQuadratics.get();
+		return (total > 0L) ? (double)b / total : Double.NaN;
+	}
+	/**
+	 * Gets the total number of bisection steps.
+	 *
+	 * @return the bisection step count
+	 */
+	public long getBisections() {
+		return bisections.get();
+	}
+	/**
+	 * Gets the total number of equation evaluations.
+	 *
+	 * @return the evaluation count, including scans for sign changes
+	 */
+	public long getEvaluations() {
+		return evaluations.get();
+	}
+	/**
+	 * Gets the number of solves which did not converge.
+	 *
+	 * @return the failure count
+	 */
+	public long getFailures() {
+		return failures.get();
+	}
+	/**
+	 * Gets the total number of inverse quadratic interpolation steps.
+	 *
+	 * @return the inverse quadratic step count
+	 */
+	public long getInverseQuadratics() {
+		return inverseQuadratics.get();
+	}
+	/**
+	 * Gets the total number of Newton steps taken by two-variable solves.
+	 *
+	 * @return the Newton step count
+	 */
+	public long getNewtons() {
+		return newtons.get();
+	}
+	/**
+	 * Gets the recent solve records, oldest first. Records which were overwritten while
+	 * this method was running are skipped.
+	 *
+	 * @return the records still in the ring buffer
+	 */
+	public List<SolveRecord> getRecent() {
+		return getSince(0L);
+	}
+	/**
+	 * Gets the total number of linear interpolation (secant) steps.
+	 *
+	 * @return the secant step count
+	 */
+	public long getSecants() {
+		return secants.get();
+	}
+	/**
+	 * Gets the sequence number which will be given to the next solve. Pass this value to
+	 * getSince() later to find the solves which happened in between.
+	 *
+	 * @return the next sequence number
+	 */
+	public long getSequence() {
+		return next.get();
+	}
+	/**
+	 * Gets the solve records added since a sequence number, oldest first. Only records
+	 * which are still in the ring buffer are returned.
+	 *
+	 * @param sequence the first sequence number to return
+	 * @return the matching records
+	 */
+	public List<SolveRecord> getSince(final long sequence) {
+		final int capacity = recent.length();
+		final long end = next.get(), start = Math.max(sequence, end - capacity);
+		final List<SolveRecord> records = new ArrayList<SolveRecord>((int)Math.max(0L,
+			end - start));
+		for (long i = start; i < end; i++) {
+			final SolveRecord record = recent.get((int)(i % capacity));
+			// The slot may not be written yet, or may already be reused
+			if (record != null && record.getSequence() == i)
+				records.add(record);
+		}
+		return records;
+	}
+	/**
+	 * Gets the total number of solves.
+	 *
+	 * @return the solve count
+	 */
+	public long getSolves() {
+		return next.get();
+	}
+	/**
+	 * Records a solve. Called by EquationSolver, EquationSolver2D, and ImpedanceTable.
+	 *
+	 * @param equation the description of the equation which was solved
+	 * @param root the root found (the first variable of a two-variable solve), or NaN if the
+	 * solver did not converge
+	 * @param residual the value (or the norm of the values) of the equation at the root
+	 * @param evals the number of equation evaluations
+	 * @param bisect the number of bisection steps
+	 * @param secant the number of secant steps
+	 * @param iqi the number of inverse quadratic interpolation steps
+	 * @param newton the number of two-variable Newton steps
+	 */
+	void record(final String equation, final double root, final double residual,
+				final int evals, final int bisect, final int secant, final int iqi,
+				final int newton) {
+		final long sequence = next.getAndIncrement();
+		final int capacity = recent.length();
+		bisections.addAndGet(bisect);
+		evaluations.addAndGet(evals);
+		inverseQuadratics.addAndGet(iqi);
+		newtons.addAndGet(newton);
+		secants.addAndGet(secant);
+		if (Double.isNaN(root))
+			failures.incrementAndGet();
+		recent.set((int)(sequence % capacity), new SolveRecord(sequence, equation, root,
+			residual, evals, bisect, secant, iqi, newton));
+	}
+	/**
+	 * Clears the running totals and the recent solve records.
+	 */
+	public void reset() {
+		for (int i = 0; i < recent.length(); i++)
+			recent.set(i, null);
+		bisections.set(0L);
+		evaluations.set(0L);
+		failures.set(0L);
+		inverseQuadratics.set(0L);
+		newtons.set(0L);
+		next.set(0L);
+		secants.set(0L);
+	}
+	@Override
+	public String toString() {
+		return String.format("%d solves (%d failed), %d evaluations, %.1f%% bisection",
+			getSolves(), getFailures(), getEvaluations(), 100.0 * getBisectionFraction());
+	}
+}
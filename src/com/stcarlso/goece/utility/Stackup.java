@@ -0,0 +1,229 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * An ordered list of the copper and dielectric layers of a PCB, from top to bottom. The trace
+ * impedance model for each signal layer is chosen from its reference planes: microstrip if
+ * there is a plane on only one side and no dielectric on the other, or IPC-2141 asymmetric
+ * stripline if there are planes on both sides (which reduces to the IPC-2141 symmetric
+ * stripline when the layer is centered). The distance to a plane includes every layer in
+ * between, and the permittivity is the thickness weighted average of the dielectrics in
+ * between. A buried layer with a plane on only one side is embedded microstrip, which is not
+ * modeled.
+ *
+ * The single layer stripline on the PCB trace screen uses StriplineEquation instead, so a
+ * centered layer here differs from that screen by about 0.2-1.2% for typical geometries. The
+ * asymmetric model is kept here so that the impedance does not jump as a layer moves off
+ * center.
+ *
+ * All units in mm.
+ */
+public class Stackup {
+	/**
+	 * The layers, from top to bottom.
+	 */
+	private final List<Layer> layers;
+
+	/**
+	 * Creates a new empty stackup.
+	 */
+	public Stackup() {
+		layers = new ArrayList<Layer>(16);
+	}
+	/**
+	 * Adds a layer to the bottom of the stackup.
+	 *
+	 * @param layer the layer to add
+	 */
+	public void add(final Layer layer) {
+		if (layer == null)
+			throw new NullPointerException("layer");
+		layers.add(layer);
+	}
+	/**
+	 * Creates the impedance equation for a signal layer. The equation is created with a
+	 * desired impedance of zero, so it can be solved for many targets with
+	 * EquationSolver.solveBatch().
+	 *
+	 * @param index the index of the layer
+	 * @param differential true to create the differential equation (spacing is the IV), or
+	 * false to create the single ended equation (width is the IV)
+	 * @param w the trace width, only used if differential is true
+	 * @return the impedance equation, or null if the layer is not a signal layer, has no
+	 * reference plane, or is embedded microstrip (a plane on one side only, but dielectric on
+	 * both)
+	 */
+	public TraceEquation createEquation(final int index, final boolean differential,
+										final double w) {
+		final double[] geometry = new double[3];
+		final double t = layers.get(index).getThickness();
+		TraceEquation equ = null;
+		if (layers.get(index).getKind() == Layer.Kind.SIGNAL) {
+			// Distance and permittivity on each side
+			final double h1 = findPlane(index, -1, geometry) ? geometry[0] : Double.NaN;
+			final double d1 = geometry[1], e1 = geometry[2];
+			final double h2 = findPlane(index, 1, geometry) ? geometry[0] : Double.NaN;
+			final double d2 = geometry[1], e2 = geometry[2];
+			if (!Double.isNaN(h1) && !Double.isNaN(h2)) {
+				// Stripline
+				final double er = (e1 + e2) / (d1 + d2), h = Math.min(h1, h2),
+					far = Math.max(h1, h2);
+				// The asymmetric model is also used when centered, so that the impedance is
+				// continuous as a layer thickness changes
+				equ = differential ? new DiffAsymStriplineEquation(h, far, w, t, er, 0.0) :
+					new AsymStriplineEquation(h, far, t, er, 0.0);
+			} else if ((!Double.isNaN(h1) && d2 <= 0.0) || (!Double.isNaN(h2) && d1 <= 0.0)) {
+				// Microstrip, only if nothing covers the trace on the other side
+				final double h, er;
+				if (Double.isNaN(h1)) {
+					h = h2;
+					er = e2 / d2;
+				} else {
+					h = h1;
+					er = e1 / d1;
+				}
+				equ = differential ? new DiffMicrostripEquation(h, w, t, er, 0.0) :
+					new MicrostripEquation(h, t, er, 0.0);
+			}
+		}
+		return equ;
+	}
+	/**
+	 * Searches for the nearest plane in one direction from a layer.
+	 *
+	 * @param index the index of the starting layer
+	 * @param dir -1 to search upwards, or 1 to search downwards
+	 * @param out the location where the total thickness of the layers in between, the total
+	 * thickness of the dielectric layers in between, and the sum of the thickness times the
+	 * permittivity of those dielectric layers will be stored
+	 * @return whether a plane was found with dielectric in between
+	 */
+	private boolean findPlane(final int index, final int dir, final double[] out) {
+		double distance = 0.0, dielectric = 0.0, weighted = 0.0;
+		boolean found = false;
+		for (int i = index + dir; i >= 0 && i < layers.size() && !found; i += dir) {
+			final Layer layer = layers.get(i);
+			if (layer.getKind() == Layer.Kind.PLANE)
+				found = true;
+			else {
+				final double thickness = layer.getThickness();
+				distance += thickness;
+				if (!layer.isCopper()) {
+					dielectric += thickness;
+					weighted += thickness * layer.getDielectric();
+				}
+			}
+		}
+		out[0] = distance;
+		out[1] = dielectric;
+		out[2] = weighted;
+		return found && dielectric > 0.0;
+	}
+	/**
+	 * Gets a layer of the stackup.
+	 *
+	 * @param index the index of the layer, 0 is the top
+	 * @return the layer at that index
+	 */
+	public Layer get(final int index) {
+		return layers.get(index);
+	}
+	/**
+	 * Gets all of the layers of the stackup.
+	 *
+	 * @return an unmodifiable list of the layers, from top to bottom
+	 */
+	public List<Layer> getLayers() {
+		return Collections.unmodifiableList(layers);
+	}
+	/**
+	 * Gets the number of layers in the stackup.
+	 *
+	 * @return the number of layers
+	 */
+	public int size() {
+		return layers.size();
+	}
+	/**
+	 * Solves for the trace width which gives each of the target impedances, on every signal
+	 * layer at once. The equation for each layer is created only once and reused for all of
+	 * its targets, and the layers are solved in parallel.
+	 *
+	 * @param targets the target impedances, which are solved fastest if sorted
+	 * @param differential true to solve for differential impedance at the specified spacing,
+	 * or false to solve for single ended impedance
+	 * @param spacing the trace spacing, only used if differential is true
+	 * @return for each layer, the widths for each target (NaN where no solution exists), or
+	 * null if createEquation() has no model for the layer
+	 */
+	public double[][] solveWidths(final double[] targets, final boolean differential,
+								  final double spacing) {
+		final int n = layers.size();
+		final double[][] widths = new double[n][];
+		final List<Callable<double[]>> tasks = new ArrayList<Callable<double[]>>(n);
+		final List<Integer> indices = new ArrayList<Integer>(n);
+		if (targets == null)
+			throw new NullPointerException("targets");
+		if (differential && (!(spacing > 0.0) || Double.isInfinite(spacing)))
+			throw new IllegalArgumentException("spacing");
+		for (int i = 0; i < n; i++) {
+			// Width is solved for, so any valid value is fine to start
+			final TraceEquation base = createEquation(i, differential, spacing);
+			if (base != null) {
+				tasks.add(new Callable<double[]>() {
+					@Override
+					public double[] call() {
+						final Equation equ;
+						final double[] out = new double[targets.length];
+						if (differential)
+							equ = new ParameterEquation(base, TraceParameter.WIDTH,
+								spacing);
+						else
+							equ = base;
+						// 50 ohm traces are on the order of the dielectric height
+						new EquationSolver(equ).solveBatch(targets, out, base.get(
+							TraceParameter.HEIGHT));
+						return out;
+					}
+				});
+				indices.add(i);
+			}
+		}
+		final List<double[]> results = ParallelCalc.invokeAll(tasks);
+		for (int i = 0; i < results.size(); i++)
+			widths[indices.get(i)] = results.get(i);
+		return widths;
+	}
+	@Override
+	public String toString() {
+		return "Stackup" + layers;
+	}
+}
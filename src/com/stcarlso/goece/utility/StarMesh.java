@@ -0,0 +1,387 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+/**
+ * Reduces a network of complex impedances between N nodes by star-mesh transforms. Removing
+ * a node replaces the star of impedances connected to it with a mesh directly connecting all
+ * of its neighbors, so a network can be reduced to any set of terminals (Kron reduction) and
+ * the equivalent impedance between any pair of them found, without chaining delta-wye steps
+ * by hand.
+ *
+ * The network is stored as a dense admittance matrix in primitive arrays, and removing a node
+ * updates only the entries between its neighbors. Nodes are numbered from 0 and there is no
+ * ground; every node may be a terminal. Impedances are in ohms.
+ */
+public class StarMesh {
+	/**
+	 * The number of other nodes directly connected to each node.
+	 */
+	private final int[] degree;
+	/**
+	 * Whether each node has been removed.
+	 */
+	private final boolean[] eliminated;
+	/**
+	 * The number of nodes that have not been removed.
+	 */
+	private int liveCount;
+	/**
+	 * The number of nodes, including removed nodes.
+	 */
+	private final int nodeCount;
+	/**
+	 * The imaginary parts of the admittance matrix in row major order. Off-diagonal entries
+	 * are the negated admittance directly between two nodes, and diagonal entries are the
+	 * total admittance connected to each node.
+	 */
+	private final double[] yi;
+	/**
+	 * The real parts of the admittance matrix, laid out the same way as yi.
+	 */
+	private final double[] yr;
+
+	/**
+	 * Creates a new network with no impedances.
+	 *
+	 * @param nodeCount the number of nodes, at least 2
+	 */
+	public StarMesh(final int nodeCount) {
+		if (nodeCount < 2)
+			throw new IllegalArgumentException("nodeCount");
+		final int size = nodeCount * nodeCount;
+		degree = new int[nodeCount];
+		eliminated = new boolean[nodeCount];
+		liveCount = nodeCount;
+		this.nodeCount = nodeCount;
+		yi = new double[size];
+		yr = new double[size];
+	}
+	/**
+	 * Creates a copy of a network, which may then be reduced without changing the original.
+	 *
+	 * @param other the network to copy
+	 */
+	public StarMesh(final StarMesh other) {
+		degree = other.degree.clone();
+		eliminated = other.eliminated.clone();
+		liveCount = other.liveCount;
+		nodeCount = other.nodeCount;
+		yi = other.yi.clone();
+		yr = other.yr.clone();
+	}
+	/**
+	 * Calculates the mesh equivalent of a star network. The mesh impedance between arms i and
+	 * j is z[i] * z[j] * sum(1 / z[k]), calculated as a ratio of products so that arms of zero
+	 * impedance do not need to be inverted. With three arms, this is the wye to delta
+	 * transform.
+	 *
+	 * @param star the impedance of each arm of the star, at least 2
+	 * @return the mesh impedances for each pair of arms, in the order (0, 1), (0, 2), ...,
+	 * (0, n - 1), (1, 2), ..., (n - 2, n - 1)
+	 * @throws ArithmeticException if more than one arm has zero impedance
+	 */
+	public static Complex[] starToMesh(final Complex... star) {
+		final int n = star.length;
+		if (n < 2)
+			throw new IllegalArgumentException("star");
+		final Complex[] ret = new Complex[n * (n - 1) / 2];
+		final Complex prefix = new Complex(1.0, 0.0), sum = new Complex();
+		final Complex[] suffix = new Complex[n + 1];
+		// Sum of the products of all arms except one = prod(z) * sum(1 / z)
+		suffix[n] = new Complex(1.0, 0.0);
+		for (int i = n - 1; i >= 0; i--)
+			suffix[i] = new Complex(suffix[i + 1]).multiply(star[i]);
+		for (int i = 0; i < n; i++) {
+			sum.add(new Complex(prefix).multiply(suffix[i + 1]));
+			prefix.multiply(star[i]);
+		}
+		int index = 0;
+		for (int i = 0; i < n - 1; i++)
+			for (int j = i + 1; j < n; j++) {
+				// Divide by the product of the other arms
+				final Complex others = new Complex(1.0, 0.0);
+				for (int k = 0; k < n; k++)
+					if (k != i && k != j)
+						others.multiply(star[k]);
+				ret[index++] = new Complex(sum).divide(others);
+			}
+		return ret;
+	}
+	/**
+	 * Connects an impedance between two nodes, in parallel with any impedance already there.
+	 *
+	 * @param a the first node
+	 * @param b the second node
+	 * @param z the impedance
+	 */
+	public void addImpedance(final int a, final int b, final Complex z) {
+		addImpedance(a, b, z.getReal(), z.getImaginary());
+	}
+	/**
+	 * Connects an impedance between two nodes, in parallel with any impedance already there.
+	 *
+	 * @param a the first node
+	 * @param b the second node
+	 * @param real the resistance
+	 * @param imag the reactance
+	 */
+	public void addImpedance(final int a, final int b, final double real, final double imag) {
+		checkNode(a);
+		checkNode(b);
+		if (a == b)
+			throw new IllegalArgumentException("a == b");
+		if (real == 0.0 && imag == 0.0)
+			// Shorted nodes should be merged instead
+			throw new IllegalArgumentException("impedance");
+		// y = 1 / z
+		final Complex y = new Complex(1.0, 0.0).divide(new Complex(real, imag));
+		final double gr = y.getReal(), gi = y.getImaginary();
+		final int aa = a * nodeCount + a, bb = b * nodeCount + b;
+		yr[aa] += gr;
+		yi[aa] += gi;
+		yr[bb] += gr;
+		yi[bb] += gi;
+		subtract(a, b, gr, gi);
+		subtract(b, a, gr, gi);
+	}
+	/**
+	 * Checks to see if a node exists and has not been removed.
+	 *
+	 * @param node the node to check
+	 */
+	private void checkNode(final int node) {
+		if (node < 0 || node >= nodeCount || eliminated[node])
+			throw new IllegalArgumentException("node");
+	}
+	/**
+	 * Removes a node from the network with a star-mesh transform. The impedances connected
+	 * to it are replaced by impedances between each pair of its neighbors, so that the
+	 * network looks the same from every other node.
+	 *
+	 * @param node the node to remove
+	 * @throws ArithmeticException if the admittances connected to the node add up to zero,
+	 * such as an inductor and capacitor at resonance
+	 */
+	public void eliminate(final int node) {
+		checkNode(node);
+		final int n = nodeCount, rowK = node * n, count = degree[node];
+		final double pr = yr[rowK + node], pi = yi[rowK + node];
+		final int[] neighbors = new int[count];
+		int found = 0;
+		for (int j = 0; j < n && found < count; j++)
+			if (j != node && (yr[rowK + j] != 0.0 || yi[rowK + j] != 0.0))
+				neighbors[found++] = j;
+		if (pr == 0.0 && pi == 0.0) {
+			// Nothing connected is fine, anything else has no mesh equivalent
+			if (count > 0)
+				throw new ArithmeticException("Star-mesh transform of node " + node +
+					" with zero total admittance");
+		} else {
+			// 1 / pivot
+			final Complex inv = new Complex(1.0, 0.0).divide(new Complex(pr, pi));
+			final double ir = inv.getReal(), ii = inv.getImaginary();
+			for (int a = 0; a < count; a++) {
+				final int j = neighbors[a], jk = j * n + node;
+				final double ajr = yr[jk], aji = yi[jk];
+				// t = Y[j][k] / Y[k][k]
+				final double tr = ajr * ir - aji * ii, ti = ajr * ii + aji * ir;
+				for (int b = 0; b < count; b++) {
+					final int m = neighbors[b];
+					final double akr = yr[rowK + m], aki = yi[rowK + m];
+					final double dr = tr * akr - ti * aki, di = tr * aki + ti * akr;
+					// Y[j][m] -= t * Y[k][m]
+					if (j == m) {
+						yr[j * n + j] -= dr;
+						yi[j * n + j] -= di;
+					} else
+						subtract(j, m, dr, di);
+				}
+			}
+		}
+		// Disconnect the node completely
+		for (int a = 0; a < count; a++) {
+			final int j = neighbors[a];
+			yr[rowK + j] = 0.0;
+			yi[rowK + j] = 0.0;
+			yr[j * n + node] = 0.0;
+			yi[j * n + node] = 0.0;
+			degree[j]--;
+		}
+		yr[rowK + node] = 0.0;
+		yi[rowK + node] = 0.0;
+		degree[node] = 0;
+		eliminated[node] = true;
+		liveCount--;
+	}
+	/**
+	 * Calculates the equivalent impedance between two nodes, as measured by an impedance
+	 * meter connected to them. This network is not changed.
+	 *
+	 * @param a the first node
+	 * @param b the second node
+	 * @return the equivalent impedance, with an infinite real part if the nodes are not
+	 * connected
+	 */
+	public Complex getEquivalent(final int a, final int b) {
+		final StarMesh reduced = new StarMesh(this);
+		reduced.reduceTo(a, b);
+		return reduced.getMeshImpedance(a, b);
+	}
+	/**
+	 * Calculates the equivalent impedance between every pair of terminals. The network is
+	 * reduced to the terminals only once, so this is much faster than calling getEquivalent()
+	 * for each pair. This network is not changed.
+	 *
+	 * @param terminals the terminals, at least 2
+	 * @return the equivalent impedances for each pair of terminals, in the order (0, 1),
+	 * (0, 2), ..., (0, n - 1), (1, 2), ..., (n - 2, n - 1) where the numbers are indexes into
+	 * the terminals array; real parts are infinite where terminals are not connected
+	 */
+	public Complex[] getEquivalents(final int... terminals) {
+		final int n = terminals.length;
+		if (n < 2)
+			throw new IllegalArgumentException("terminals");
+		final StarMesh reduced = new StarMesh(this);
+		reduced.reduceTo(terminals);
+		// Renumber the terminals from 0, so each pair only needs a small copy
+		final StarMesh small = new StarMesh(n);
+		for (int i = 0; i < n; i++)
+			for (int j = 0; j < n; j++) {
+				final int from = terminals[i] * nodeCount + terminals[j];
+				if (i == j) {
+					small.yr[i * n + j] = reduced.yr[from];
+					small.yi[i * n + j] = reduced.yi[from];
+				} else
+					small.subtract(i, j, -reduced.yr[from], -reduced.yi[from]);
+			}
+		final Complex[] ret = new Complex[n * (n - 1) / 2];
+		int index = 0;
+		for (int i = 0; i < n - 1; i++)
+			for (int j = i + 1; j < n; j++) {
+				final StarMesh pair = new StarMesh(small);
+				pair.reduceTo(i, j);
+				ret[index++] = pair.getMeshImpedance(i, j);
+			}
+		return ret;
+	}
+	/**
+	 * Gets the number of nodes that have not been removed.
+	 *
+	 * @return the number of remaining nodes
+	 */
+	public int getLiveCount() {
+		return liveCount;
+	}
+	/**
+	 * Gets the impedance directly connecting two nodes. Once the network has been reduced to
+	 * a set of terminals, these are the impedances of the equivalent mesh.
+	 *
+	 * @param a the first node
+	 * @param b the second node
+	 * @return the impedance between the nodes, with an infinite real part if there is none
+	 */
+	public Complex getMeshImpedance(final int a, final int b) {
+		checkNode(a);
+		checkNode(b);
+		if (a == b)
+			throw new IllegalArgumentException("a == b");
+		final int ab = a * nodeCount + b;
+		final Complex ret;
+		if (yr[ab] == 0.0 && yi[ab] == 0.0)
+			ret = new Complex(Double.POSITIVE_INFINITY, 0.0);
+		else
+			ret = new Complex(-1.0, 0.0).divide(new Complex(yr[ab], yi[ab]));
+		return ret;
+	}
+	/**
+	 * Gets the total number of nodes.
+	 *
+	 * @return the number of nodes, including removed nodes
+	 */
+	public int getNodeCount() {
+		return nodeCount;
+	}
+	/**
+	 * Checks to see if a node has been removed.
+	 *
+	 * @param node the node to check
+	 * @return true if the node was eliminated
+	 */
+	public boolean isEliminated(final int node) {
+		if (node < 0 || node >= nodeCount)
+			throw new IllegalArgumentException("node");
+		return eliminated[node];
+	}
+	/**
+	 * Removes every node except the specified terminals, leaving the mesh of impedances
+	 * between the terminals which is equivalent to the original network. The node with the
+	 * fewest connections is removed first each time, which keeps the number of new
+	 * connections low in sparse networks such as grids and ladders.
+	 *
+	 * @param terminals the nodes to keep
+	 * @throws ArithmeticException if a node cannot be removed
+	 */
+	public void reduceTo(final int... terminals) {
+		final int n = nodeCount;
+		final boolean[] keep = new boolean[n];
+		for (final int terminal : terminals) {
+			checkNode(terminal);
+			if (keep[terminal])
+				throw new IllegalArgumentException("terminals");
+			keep[terminal] = true;
+		}
+		for (int remaining = liveCount - terminals.length; remaining > 0; remaining--) {
+			int best = -1, bestDegree = Integer.MAX_VALUE;
+			for (int k = 0; k < n && bestDegree > 1; k++)
+				if (!eliminated[k] && !keep[k] && degree[k] < bestDegree) {
+					best = k;
+					bestDegree = degree[k];
+				}
+			eliminate(best);
+		}
+	}
+	/**
+	 * Subtracts a value from one off-diagonal entry of the admittance matrix, keeping track
+	 * of which nodes are connected.
+	 *
+	 * @param row the row of the entry
+	 * @param col the column of the entry, which must not equal the row
+	 * @param real the real part to subtract
+	 * @param imag the imaginary part to subtract
+	 */
+	private void subtract(final int row, final int col, final double real,
+						  final double imag) {
+		final int index = row * nodeCount + col;
+		final boolean wasConnected = yr[index] != 0.0 || yi[index] != 0.0;
+		yr[index] -= real;
+		yi[index] -= imag;
+		final boolean connected = yr[index] != 0.0 || yi[index] != 0.0;
+		if (connected && !wasConnected)
+			degree[row]++;
+		else if (wasConnected && !connected)
+			degree[row]--;
+	}
+}
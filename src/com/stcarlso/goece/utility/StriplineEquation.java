@@ -0,0 +1,72 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+/**
+ * A class for EquationSolver to handle reverse solving of symmetric stripline impedance.
+ *
+ * Trace width is the IV (x). All units in mm.
+ */
+public class StriplineEquation extends TraceEquation {
+	/**
+	 * Coefficients for impedance calculation.
+	 */
+	private transient double zNum;
+
+	/**
+	 * Creates a new stripline equation context for calculating single ended impedance.
+	 *
+	 * @param h the PCB thickness from the embedded trace to the nearest plane
+	 * @param t the trace thickness
+	 * @param er the relative dielectric permittivity
+	 * @param desired the desired impedance (set to 0.0 for forward calculation)
+	 */
+	public StriplineEquation(final double h, final double t, final double er,
+							 final double desired) {
+		super(h, t, er, desired);
+		precompute();
+	}
+	@Override
+	public double eval(double x) {
+		final double ret;
+		if (x <= 0.0)
+			ret = Double.NaN;
+		else {
+			// Calculate w_eff
+			final double d = Math.PI * 0.5 * x * (1.0 + t * Units.PI_INV * (1.0 +
+				Math.log(4.0 * Math.PI * x / t)) / x + 0.551 * t * t / (x * x));
+			ret = Math.max(0.0, zNum * Math.log((8.0 * h + 4.0 * t) / d)) - desired;
+		}
+		return ret;
+	}
+	@Override
+	public TraceParameter getVariable() {
+		return TraceParameter.WIDTH;
+	}
+	@Override
+	protected void precompute() {
+		zNum = 60.0 / Math.sqrt(er);
+	}
+}
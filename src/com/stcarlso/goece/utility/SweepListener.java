@@ -0,0 +1,47 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+/**
+ * Receives the points of a TraceSweep as they are calculated. Methods are called on the
+ * thread running the sweep, so user interface code must forward them to the UI thread.
+ */
+public interface SweepListener {
+	/**
+	 * Called when more points of the curve are ready. Points are always delivered in order of
+	 * increasing x, and follow on from the points delivered by the previous call.
+	 *
+	 * @param x the independent variable of the new points, owned by the listener
+	 * @param z the impedance at each new point, NaN where it is not defined
+	 * @param count the number of new points (the arrays may be longer)
+	 */
+	void pointsAdded(double[] x, double[] z, int count);
+	/**
+	 * Called once when the sweep finishes. Not called if the sweep was cancelled.
+	 *
+	 * @param sweep the sweep which finished
+	 */
+	void sweepDone(TraceSweep sweep);
+}
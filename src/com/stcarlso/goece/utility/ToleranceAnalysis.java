@@ -0,0 +1,319 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Monte Carlo analysis of how fabrication tolerances on the trace width, dielectric height
+ * and dielectric constant spread the impedance of a PCB trace. Each tolerance is treated as a
+ * 3 sigma bound on a normal distribution truncated at that bound, as fabs quote them.
+ *
+ * The samples are split into fixed size chunks which run in parallel, each with its own
+ * random number generator. The chunk generators are seeded in order from a stream seeded by
+ * the analysis seed, so the result for a given seed does not depend on the number of threads.
+ * Each chunk reuses one private copy of the equation, so no objects are allocated per sample.
+ */
+public class ToleranceAnalysis {
+	/**
+	 * The number of samples evaluated by each task.
+	 */
+	private static final int CHUNK_SIZE = 65536;
+	/**
+	 * The default seed of the random number generator.
+	 */
+	private static final long DEFAULT_SEED = 0x5DEECE66DL;
+	/**
+	 * The number of standard deviations represented by a tolerance.
+	 */
+	private static final double SIGMAS = 3.0;
+
+	/**
+	 * Absolute tolerance of the dielectric constant.
+	 */
+	private double dielectricTol;
+	/**
+	 * The equation to analyze, with the nominal parameters.
+	 */
+	private final TraceEquation equ;
+	/**
+	 * Relative tolerance of the dielectric height.
+	 */
+	private double heightTol;
+	/**
+	 * The random number generator seed.
+	 */
+	private long seed;
+	/**
+	 * Relative tolerance of the trace width.
+	 */
+	private double widthTol;
+	/**
+	 * The nominal value of the independent variable of equ.
+	 */
+	private final double x;
+
+	/**
+	 * Creates a new tolerance analysis with all tolerances set to zero.
+	 *
+	 * @param equ the trace equation with the nominal parameters, which is copied and not
+	 * modified
+	 * @param x the nominal trace width (single ended) or spacing (differential)
+	 */
+	public ToleranceAnalysis(final TraceEquation equ, final double x) {
+		if (equ == null)
+			throw new NullPointerException("equ");
+		if (!(x > 0.0) || Double.isInfinite(x))
+			throw new IllegalArgumentException("x");
+		this.equ = equ.copy();
+		this.x = x;
+		dielectricTol = 0.0;
+		heightTol = 0.0;
+		seed = DEFAULT_SEED;
+		widthTol = 0.0;
+	}
+	/**
+	 * Draws a sample from a standard normal distribution truncated to +/- SIGMAS.
+	 *
+	 * @param rng the random number generator to use
+	 * @return the sample, divided by SIGMAS so that it lies in [-1, 1]
+	 */
+	private static double draw(final SplitMix64 rng) {
+		double z;
+		do {
+			z = rng.nextGaussian();
+		} while (z > SIGMAS || z < -SIGMAS);
+		return z * (1.0 / SIGMAS);
+	}
+	/**
+	 * Gets the absolute tolerance of the dielectric constant.
+	 *
+	 * @return the largest deviation of er from nominal
+	 */
+	public double getDielectricTolerance() {
+		return dielectricTol;
+	}
+	/**
+	 * Gets the relative tolerance of the dielectric height.
+	 *
+	 * @return the largest relative deviation of the height from nominal
+	 */
+	public double getHeightTolerance() {
+		return heightTol;
+	}
+	/**
+	 * Gets the seed used for the random number generator.
+	 *
+	 * @return the random seed
+	 */
+	public long getSeed() {
+		return seed;
+	}
+	/**
+	 * Gets the relative tolerance of the trace width.
+	 *
+	 * @return the largest relative deviation of the width from nominal
+	 */
+	public double getWidthTolerance() {
+		return widthTol;
+	}
+	/**
+	 * Runs the Monte Carlo analysis.
+	 *
+	 * @param count the number of samples to take
+	 * @return the distribution of the impedance
+	 */
+	public ToleranceResult run(final int count) {
+		final boolean differential = equ.getVariable() == TraceParameter.SPACING;
+		if (count < 1)
+			throw new IllegalArgumentException("count");
+		// Constant pitch: spacing shrinks as much as the width grows, so it must stay positive
+		if (differential && equ.get(TraceParameter.WIDTH) * widthTol >= x)
+			throw new IllegalArgumentException("width tolerance >= spacing");
+		final double[] samples = new double[count];
+		final int chunks = (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+		final List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(chunks);
+		// Chunk seeds are mixed outputs, not raw states which would only offset one stream
+		final SplitMix64 seeds = new SplitMix64(seed);
+		for (int i = 0; i < chunks; i++) {
+			final int start = i * CHUNK_SIZE, end = Math.min(count, start + CHUNK_SIZE);
+			final long chunkSeed = seeds.nextLong();
+			tasks.add(new Callable<Void>() {
+				@Override
+				public Void call() {
+					runChunk(samples, start, end, new SplitMix64(chunkSeed));
+					return null;
+				}
+			});
+		}
+		ParallelCalc.invokeAll(tasks);
+		return new ToleranceResult(equ.eval(x) + equ.getDesired(), samples);
+	}
+	/**
+	 * Evaluates one chunk of samples on the current thread.
+	 *
+	 * @param samples the array where the impedance samples are stored
+	 * @param start the index of the first sample to evaluate
+	 * @param end the index after the last sample to evaluate
+	 * @param rng the random number generator for this chunk
+	 */
+	private void runChunk(final double[] samples, final int start, final int end,
+						  final SplitMix64 rng) {
+		final TraceEquation scratch = equ.copy();
+		final boolean differential = scratch.getVariable() == TraceParameter.SPACING;
+		final double h = equ.get(TraceParameter.HEIGHT), er = equ.get(TraceParameter.DIELECTRIC);
+		final double desired = equ.getDesired();
+		// Width is the IV for single ended traces, but a parameter for differential pairs
+		final double w = differential ? equ.get(TraceParameter.WIDTH) : x;
+		for (int i = start; i < end; i++) {
+			final double dw = w * widthTol * draw(rng), iv;
+			scratch.put(TraceParameter.HEIGHT, h * (1.0 + heightTol * draw(rng)));
+			scratch.put(TraceParameter.DIELECTRIC, er + dielectricTol * draw(rng));
+			if (differential) {
+				scratch.put(TraceParameter.WIDTH, w + dw);
+				iv = x - dw;
+			} else
+				iv = x + dw;
+			// Only recalculate the coefficients once for all parameters
+			scratch.precompute();
+			samples[i] = scratch.eval(iv) + desired;
+		}
+	}
+	/**
+	 * Changes the absolute tolerance of the dielectric constant.
+	 *
+	 * @param tolerance the largest deviation of er from nominal, such as 0.2
+	 */
+	public void setDielectricTolerance(final double tolerance) {
+		if (!(tolerance >= 0.0) || equ.get(TraceParameter.DIELECTRIC) - tolerance <= 1.0)
+			throw new IllegalArgumentException("tolerance");
+		dielectricTol = tolerance;
+	}
+	/**
+	 * Changes the relative tolerance of the dielectric height.
+	 *
+	 * @param tolerance the largest relative deviation of the height, such as 0.1 for +/- 10%
+	 */
+	public void setHeightTolerance(final double tolerance) {
+		if (!(tolerance >= 0.0 && tolerance < 1.0))
+			throw new IllegalArgumentException("tolerance");
+		heightTol = tolerance;
+	}
+	/**
+	 * Changes the seed used for the random number generator. Runs with the same seed and
+	 * parameters produce the same result.
+	 *
+	 * @param seed the random seed
+	 */
+	public void setSeed(final long seed) {
+		this.seed = seed;
+	}
+	/**
+	 * Changes the relative tolerance of the trace width. For differential pairs, the pitch is
+	 * held constant, so the spacing shrinks as the width grows.
+	 *
+	 * @param tolerance the largest relative deviation of the width, such as 0.1 for +/- 10%
+	 */
+	public void setWidthTolerance(final double tolerance) {
+		if (!(tolerance >= 0.0 && tolerance < 1.0))
+			throw new IllegalArgumentException("tolerance");
+		widthTol = tolerance;
+	}
+
+	/**
+	 * A small and fast random number generator (SplitMix64) with independent state, so each
+	 * task can have its own without synchronization.
+	 */
+	private static final class SplitMix64 {
+		/**
+		 * The golden ratio increment of the generator state.
+		 */
+		private static final long GAMMA = 0x9E3779B97F4A7C15L;
+
+		/**
+		 * Whether spare holds an unused deviate.
+		 */
+		private boolean hasSpare;
+		/**
+		 * The second normal deviate from the last polar method draw.
+		 */
+		private double spare;
+		/**
+		 * The generator state.
+		 */
+		private long state;
+
+		public SplitMix64(final long seed) {
+			hasSpare = false;
+			spare = 0.0;
+			state = seed;
+		}
+		/**
+		 * Generates a uniformly distributed double.
+		 *
+		 * @return a random value in [0, 1)
+		 */
+		public double nextDouble() {
+			return (nextLong() >>> 11) * 0x1.0p-53;
+		}
+		/**
+		 * Generates a normally distributed double with the Marsaglia polar method.
+		 *
+		 * @return a random value with mean 0 and standard deviation 1
+		 */
+		public double nextGaussian() {
+			final double ret;
+			if (hasSpare) {
+				hasSpare = false;
+				ret = spare;
+			} else {
+				double u, v, s;
+				do {
+					u = 2.0 * nextDouble() - 1.0;
+					v = 2.0 * nextDouble() - 1.0;
+					s = u * u + v * v;
+				} while (s >= 1.0 || s == 0.0);
+				final double mul = Math.sqrt(-2.0 * Math.log(s) / s);
+				spare = v * mul;
+				hasSpare = true;
+				ret = u * mul;
+			}
+			return ret;
+		}
+		/**
+		 * Generates a uniformly distributed long.
+		 *
+		 * @return a random 64-bit value
+		 */
+		public long nextLong() {
+			long z = (state += GAMMA);
+			z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+			z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+			return z ^ (z >>> 31);
+		}
+	}
+}
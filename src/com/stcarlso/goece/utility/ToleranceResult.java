@@ -0,0 +1,193 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+import java.util.Arrays;
+
+/**
+ * The distribution of impedance values produced by a ToleranceAnalysis run. The samples are
+ * sorted once when the result is created, so percentiles and yields can be looked up quickly.
+ */
+public class ToleranceResult {
+	/**
+	 * The mean of the samples.
+	 */
+	private final double mean;
+	/**
+	 * The impedance with all parameters at their nominal values.
+	 */
+	private final double nominal;
+	/**
+	 * The impedance samples, in ascending order.
+	 */
+	private final double[] samples;
+	/**
+	 * The standard deviation of the samples.
+	 */
+	private final double stdDev;
+
+	/**
+	 * Creates a new tolerance analysis result.
+	 *
+	 * @param nominal the impedance at the nominal parameter values
+	 * @param samples the impedance samples, which will be sorted in place and not copied
+	 */
+	protected ToleranceResult(final double nominal, final double[] samples) {
+		final int n = samples.length;
+		double sum = 0.0, sumSq = 0.0;
+		if (n < 1)
+			throw new IllegalArgumentException("samples");
+		Arrays.sort(samples);
+		for (double z : samples)
+			sum += z;
+		mean = sum / n;
+		// Two pass variance to avoid cancellation
+		for (double z : samples) {
+			final double d = z - mean;
+			sumSq += d * d;
+		}
+		this.nominal = nominal;
+		this.samples = samples;
+		stdDev = (n > 1) ? Math.sqrt(sumSq / (n - 1)) : 0.0;
+	}
+	/**
+	 * Counts the samples which are less than a value.
+	 *
+	 * @param value the value to compare
+	 * @return the number of samples strictly less than value
+	 */
+	private int countBelow(final double value) {
+		int low = 0, high = samples.length;
+		while (low < high) {
+			final int mid = (low + high) >>> 1;
+			if (samples[mid] < value)
+				low = mid + 1;
+			else
+				high = mid;
+		}
+		return low;
+	}
+	/**
+	 * Gets the number of samples in this result.
+	 *
+	 * @return the sample count
+	 */
+	public int getCount() {
+		return samples.length;
+	}
+	/**
+	 * Builds a histogram of the samples between the minimum and maximum.
+	 *
+	 * @param bins the array to fill with the number of samples in each bin
+	 */
+	public void getHistogram(final int[] bins) {
+		final int nb = bins.length;
+		final double min = getMin(), range = getMax() - min;
+		Arrays.fill(bins, 0);
+		if (nb > 0) {
+			final double scale = (range > 0.0) ? nb / range : 0.0;
+			for (double z : samples)
+				bins[Math.min(nb - 1, (int)((z - min) * scale))]++;
+		}
+	}
+	/**
+	 * Gets the largest sample.
+	 *
+	 * @return the maximum impedance
+	 */
+	public double getMax() {
+		return samples[samples.length - 1];
+	}
+	/**
+	 * Gets the mean of the samples.
+	 *
+	 * @return the mean impedance
+	 */
+	public double getMean() {
+		return mean;
+	}
+	/**
+	 * Gets the smallest sample.
+	 *
+	 * @return the minimum impedance
+	 */
+	public double getMin() {
+		return samples[0];
+	}
+	/**
+	 * Gets the impedance with all parameters at their nominal values.
+	 *
+	 * @return the nominal impedance
+	 */
+	public double getNominal() {
+		return nominal;
+	}
+	/**
+	 * Gets a percentile of the samples, interpolating linearly between adjacent samples.
+	 *
+	 * @param percent the percentile from 0 to 100
+	 * @return the impedance below which that percentage of the samples fall
+	 */
+	public double getPercentile(final double percent) {
+		if (!(percent >= 0.0 && percent <= 100.0))
+			throw new IllegalArgumentException("percent");
+		final double pos = percent * 0.01 * (samples.length - 1);
+		final int index = Math.min((int)pos, samples.length - 1);
+		final double ret;
+		if (index >= samples.length - 1)
+			ret = samples[index];
+		else
+			ret = samples[index] + (pos - index) * (samples[index + 1] - samples[index]);
+		return ret;
+	}
+	/**
+	 * Gets the standard deviation of the samples.
+	 *
+	 * @return the sample standard deviation of the impedance
+	 */
+	public double getStdDev() {
+		return stdDev;
+	}
+	/**
+	 * Gets the fraction of samples inside a specification window.
+	 *
+	 * @param low the lowest acceptable impedance
+	 * @param high the highest acceptable impedance
+	 * @return the probability from 0 to 1 that the impedance is within [low, high]
+	 */
+	public double getYield(final double low, final double high) {
+		final double ret;
+		if (low > high)
+			ret = 0.0;
+		else
+			ret = (double)(countBelow(Math.nextUp(high)) - countBelow(low)) / samples.length;
+		return ret;
+	}
+	@Override
+	public String toString() {
+		return String.format("Z0 = %.2f (nominal %.2f), sigma = %.3f, n = %d", mean, nominal,
+			stdDev, samples.length);
+	}
+}
@@ -0,0 +1,243 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+import java.util.Locale;
+
+/**
+ * A base class for the PCB trace impedance equations. The stackup parameters are given when
+ * the equation is created, and any coefficients that depend on them are precomputed then, so
+ * that eval() only has to handle the independent variable (the trace width for single ended
+ * equations, or the trace spacing for differential equations).
+ *
+ * All units in mm.
+ */
+public abstract class TraceEquation implements BatchEquation, Cloneable, CopyableEquation {
+	/**
+	 * The desired impedance value for solving.
+	 */
+	protected final double desired;
+	/**
+	 * The dielectric constant of the material.
+	 */
+	protected double er;
+	/**
+	 * The height of the trace above the nearest plane.
+	 */
+	protected double h;
+	/**
+	 * The trace thickness.
+	 */
+	protected double t;
+
+	/**
+	 * Initializes the parameters shared by all trace equations. Subclasses must call
+	 * precompute() once their own parameters are set.
+	 *
+	 * @param h the PCB thickness
+	 * @param t the trace thickness
+	 * @param er the relative dielectric permittivity
+	 * @param desired the desired impedance (set to 0.0 for forward calculation)
+	 */
+	protected TraceEquation(final double h, final double t, final double er,
+							final double desired) {
+		if (er <= 1.0)
+			throw new IllegalArgumentException("dielectric <= 1");
+		if (t <= 0.0)
+			throw new IllegalArgumentException("thickness <= 0");
+		if (h <= 0.0)
+			throw new IllegalArgumentException("height <= 0");
+		if (desired < 0.0)
+			throw new IllegalArgumentException("desired < 0");
+		this.desired = desired;
+		this.er = er;
+		this.h = h;
+		this.t = t;
+	}
+	/**
+	 * Creates an independent copy of this equation, which can have its parameters changed
+	 * without affecting this one.
+	 *
+	 * @return a copy of this equation
+	 */
+	@Override
+	public TraceEquation copy() {
+		try {
+			return (TraceEquation)clone();
+		} catch (CloneNotSupportedException e) {
+			// Cannot happen, this class is Cloneable
+			throw new AssertionError(e);
+		}
+	}
+	/**
+	 * Evaluates the equation at each point in turn. Subclasses with costly set up for each
+	 * point should override this method with a loop that hoists it out.
+	 */
+	@Override
+	public void evalMany(double[] xs, double[] out, int off, int len) {
+		final int end = off + len;
+		for (int i = off; i < end; i++)
+			out[i] = eval(xs[i]);
+	}
+	/**
+	 * Retrieves the value of a parameter of this equation.
+	 *
+	 * @param param the parameter to look up
+	 * @return the value of that parameter, or Double.NaN if this equation does not have that
+	 * parameter (or if it is the independent variable)
+	 */
+	public double get(final TraceParameter param) {
+		final double value;
+		switch (param) {
+		case HEIGHT:
+			value = h;
+			break;
+		case THICKNESS:
+			value = t;
+			break;
+		case DIELECTRIC:
+			value = er;
+			break;
+		default:
+			value = Double.NaN;
+			break;
+		}
+		return value;
+	}
+	/**
+	 * Retrieves the desired impedance of this equation.
+	 *
+	 * @return the impedance subtracted from the result of eval()
+	 */
+	public double getDesired() {
+		return desired;
+	}
+	/**
+	 * Retrieves the parameter which is the independent variable (x) of eval().
+	 *
+	 * @return the independent variable of this equation
+	 */
+	public abstract TraceParameter getVariable();
+	/**
+	 * Checks to see if a value is in range for a parameter.
+	 *
+	 * @param param the parameter to check
+	 * @param value the proposed value
+	 * @return true if the value is valid for that parameter, or false otherwise
+	 */
+	protected static boolean isValid(final TraceParameter param, final double value) {
+		final boolean valid;
+		if (Double.isNaN(value) || Double.isInfinite(value))
+			valid = false;
+		else if (param == TraceParameter.DIELECTRIC)
+			valid = value > 1.0;
+		else
+			valid = value > 0.0;
+		return valid;
+	}
+	/**
+	 * Recalculates all coefficients which depend on the parameters of this equation. Called
+	 * by the constructor of subclasses, and whenever a parameter is changed.
+	 */
+	protected abstract void precompute();
+	/**
+	 * Changes a parameter of this equation without recalculating the coefficients. Used to
+	 * change several parameters at once, precompute() must be called afterwards before the
+	 * equation is evaluated again.
+	 *
+	 * @param param the parameter to change (must not be the independent variable)
+	 * @param value the new value of that parameter
+	 * @return true if the parameter was changed, or false if the value was out of range or
+	 * this equation does not have that parameter
+	 */
+	boolean put(final TraceParameter param, final double value) {
+		boolean changed = isValid(param, value);
+		if (changed)
+			switch (param) {
+			case HEIGHT:
+				h = value;
+				break;
+			case THICKNESS:
+				t = value;
+				break;
+			case DIELECTRIC:
+				er = value;
+				break;
+			default:
+				changed = setOther(param, value);
+				break;
+			}
+		return changed;
+	}
+	/**
+	 * Changes a parameter of this equation and recalculates the coefficients. This equation
+	 * must not be shared with other threads or solvers while it is being changed, use copy()
+	 * to obtain a private copy if needed.
+	 *
+	 * @param param the parameter to change (must not be the independent variable)
+	 * @param value the new value of that parameter
+	 * @return true if the parameter was changed, or false if the value was out of range or
+	 * this equation does not have that parameter
+	 */
+	boolean set(final TraceParameter param, final double value) {
+		final boolean changed = put(param, value);
+		if (changed)
+			precompute();
+		return changed;
+	}
+	/**
+	 * Changes a parameter which is specific to a subclass. Called by put(), which validates
+	 * the value first.
+	 *
+	 * @param param the parameter to change
+	 * @param value the new value of that parameter
+	 * @return true if the parameter was changed, or false if this equation does not have
+	 * that parameter
+	 */
+	protected boolean setOther(final TraceParameter param, final double value) {
+		return false;
+	}
+	@Override
+	public String toString() {
+		final StringBuilder out = new StringBuilder(64);
+		out.append(getClass().getSimpleName());
+		out.append('[');
+		for (TraceParameter param : TraceParameter.values()) {
+			final double value = get(param);
+			// Skip the IV and parameters which this equation does not have
+			if (!Double.isNaN(value)) {
+				if (out.charAt(out.length() - 1) != '[')
+					out.append(", ");
+				out.append(param.name().toLowerCase(Locale.US));
+				out.append('=');
+				out.append(value);
+			}
+		}
+		out.append(", z=");
+		out.append(desired);
+		out.append(']');
+		return out.toString();
+	}
+}
@@ -0,0 +1,52 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+/**
+ * Lists the inputs of the PCB trace impedance equations, any of which can be chosen as the
+ * unknown when solving with ParameterEquation. All lengths are in mm.
+ */
+public enum TraceParameter {
+	/**
+	 * The trace width (W).
+	 */
+	WIDTH,
+	/**
+	 * The spacing between the traces of a differential pair (S).
+	 */
+	SPACING,
+	/**
+	 * The height of the dielectric between the trace and the nearest plane (H).
+	 */
+	HEIGHT,
+	/**
+	 * The trace (copper) thickness (T).
+	 */
+	THICKNESS,
+	/**
+	 * The relative dielectric permittivity (&epsilon;r).
+	 */
+	DIELECTRIC
+}
@@ -0,0 +1,105 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+/**
+ * Lists the available PCB trace impedance scenarios, in the same order as the scenario
+ * selector in the user interface.
+ */
+public enum TraceScenario {
+	/**
+	 * A single trace on an outer layer over a plane.
+	 */
+	MICROSTRIP,
+	/**
+	 * A single trace on an inner layer centered between two planes.
+	 */
+	STRIPLINE,
+	/**
+	 * A differential pair on an outer layer over a plane.
+	 */
+	DIFF_MICROSTRIP,
+	/**
+	 * A differential pair on an inner layer centered between two planes.
+	 */
+	DIFF_STRIPLINE;
+
+	/**
+	 * Creates the equation for this scenario. The independent variable of the equation is
+	 * the trace width for single ended scenarios, or the trace spacing for differential ones.
+	 *
+	 * @param h the PCB thickness
+	 * @param w the trace width (ignored for single ended scenarios)
+	 * @param t the trace thickness
+	 * @param er the relative dielectric permittivity
+	 * @param desired the desired impedance (set to 0.0 for forward calculation)
+	 * @return the equation for this scenario
+	 * @throws IllegalArgumentException if any of the parameters are out of range
+	 */
+	public TraceEquation create(final double h, final double w, final double t,
+								final double er, final double desired) {
+		final TraceEquation equ;
+		switch (this) {
+		case STRIPLINE:
+			equ = new StriplineEquation(h, t, er, desired);
+			break;
+		case DIFF_MICROSTRIP:
+			equ = new DiffMicrostripEquation(h, w, t, er, desired);
+			break;
+		case DIFF_STRIPLINE:
+			equ = new DiffStriplineEquation(h, w, t, er, desired);
+			break;
+		case MICROSTRIP:
+		default:
+			equ = new MicrostripEquation(h, t, er, desired);
+			break;
+		}
+		return equ;
+	}
+	/**
+	 * Gets the single ended scenario on the same layer as this scenario.
+	 *
+	 * @return MICROSTRIP for microstrip scenarios, or STRIPLINE for stripline scenarios
+	 */
+	public TraceScenario getSingleEnded() {
+		return isMicrostrip() ? MICROSTRIP : STRIPLINE;
+	}
+	/**
+	 * Reports whether this scenario is a differential pair.
+	 *
+	 * @return true if this scenario has two traces, or false if it has only one
+	 */
+	public boolean isDifferential() {
+		return this == DIFF_MICROSTRIP || this == DIFF_STRIPLINE;
+	}
+	/**
+	 * Reports whether this scenario is on an outer layer.
+	 *
+	 * @return true for microstrip scenarios, or false for stripline scenarios
+	 */
+	public boolean isMicrostrip() {
+		return this == MICROSTRIP || this == DIFF_MICROSTRIP;
+	}
+}
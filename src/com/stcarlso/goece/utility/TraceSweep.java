@@ -0,0 +1,283 @@
+/***********************************************************************************************
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Stephen Carlson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **********************************************************************************************/
+
+package com.stcarlso.goece.utility;
+
+/**
+ * Calculates the impedance of a trace equation across a range of its independent variable,
+ * giving Z0 against width for single ended scenarios or Zdiff against spacing for
+ * differential pairs. The range is sampled evenly on a log scale, and then each interval is
+ * bisected only where the curve bends more than the tolerance allows, so straight parts of
+ * the curve use few evaluations.
+ *
+ * Points are produced in order of increasing x and are streamed to a SweepListener as each
+ * coarse interval is finished. A sweep may be cancelled from another thread.
+ */
+public class TraceSweep {
+	/**
+	 * Number of evenly spaced intervals sampled before any refinement.
+	 */
+	public static final int COARSE_INTERVALS = 16;
+	/**
+	 * Default tolerance, relative to the impedance, for deviation from a straight line.
+	 */
+	public static final double DEFAULT_TOLERANCE = 1E-3;
+	/**
+	 * Maximum number of times a coarse interval will be bisected.
+	 */
+	public static final int MAX_DEPTH = 8;
+
+	/**
+	 * Set to true to stop the sweep early.
+	 */
+	private volatile boolean cancelled;
+	/**
+	 * The number of points calculated so far.
+	 */
+	private int count;
+	/**
+	 * The equation being swept.
+	 */
+	private final TraceEquation equation;
+	/**
+	 * The log of the largest x value to sweep.
+	 */
+	private final double logMax;
+	/**
+	 * The log of the smallest x value to sweep.
+	 */
+	private final double logMin;
+	/**
+	 * The maximum allowed deviation from a straight line, relative to the impedance.
+	 */
+	private final double tolerance;
+	/**
+	 * The x values calculated so far.
+	 */
+	private double[] xs;
+	/**
+	 * The impedance values calculated so far.
+	 */
+	private double[] zs;
+
+	/**
+	 * Creates a new sweep with the default tolerance.
+	 *
+	 * @param equation the trace equation to sweep
+	 * @param min the smallest width or spacing to sweep in mm
+	 * @param max the largest width or spacing to sweep in mm
+	 */
+	public TraceSweep(final TraceEquation equation, final double min, final double max) {
+		this(equation, min, max, DEFAULT_TOLERANCE);
+	}
+	/**
+	 * Creates a new sweep.
+	 *
+	 * @param equation the trace equation to sweep, which must not be modified during the sweep
+	 * @param min the smallest width or spacing to sweep in mm
+	 * @param max the largest width or spacing to sweep in mm
+	 * @param tolerance the maximum deviation from a straight line between points, relative to
+	 * the impedance
+	 */
+	public TraceSweep(final TraceEquation equation, final double min, final double max,
+					  final double tolerance) {
+		if (equation == null)
+			throw new NullPointerException("equation");
+		if (!(min > 0.0) || Double.isInfinite(min))
+			throw new IllegalArgumentException("min");
+		if (!(max > min) || Double.isInfinite(max))
+			throw new IllegalArgumentException("max");
+		if (!(tolerance > 0.0))
+			throw new IllegalArgumentException("tolerance");
+		cancelled = false;
+		count = 0;
+		this.equation = equation;
+		logMax = Math.log(max);
+		logMin = Math.log(min);
+		this.tolerance = tolerance;
+		xs = new double[4 * COARSE_INTERVALS];
+		zs = new double[4 * COARSE_INTERVALS];
+	}
+	/**
+	 * Adds a point to the end of the curve.
+	 *
+	 * @param u the log of the x value
+	 * @param z the impedance at that point
+	 */
+	private void add(final double u, final double z) {
+		if (count >= xs.length) {
+			final int size = xs.length << 1;
+			final double[] newX = new double[size], newZ = new double[size];
+			System.arraycopy(xs, 0, newX, 0, count);
+			System.arraycopy(zs, 0, newZ, 0, count);
+			xs = newX;
+			zs = newZ;
+		}
+		xs[count] = Math.exp(u);
+		zs[count] = z;
+		count++;
+	}
+	/**
+	 * Requests that the sweep stop as soon as possible. May be called from any thread.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+	/**
+	 * Evaluates the impedance at a point.
+	 *
+	 * @param u the log of the x value
+	 * @return the impedance, or NaN if it is not defined there
+	 */
+	private double eval(final double u) {
+		return filter(equation.eval(Math.exp(u)) + equation.getDesired());
+	}
+	/**
+	 * Replaces impedance values which cannot be plotted with NaN.
+	 *
+	 * @param z the impedance
+	 * @return the impedance, or NaN if it is not positive and finite
+	 */
+	private static double filter(final double z) {
+		return (Double.isInfinite(z) || z <= 0.0) ? Double.NaN : z;
+	}
+	/**
+	 * Gets the number of points calculated so far.
+	 *
+	 * @return the number of points on the curve
+	 */
+	public int getCount() {
+		return count;
+	}
+	/**
+	 * Gets the x values calculated so far.
+	 *
+	 * @return a copy of the width or spacing of each point, in increasing order
+	 */
+	public double[] getX() {
+		final double[] out = new double[count];
+		System.arraycopy(xs, 0, out, 0, count);
+		return out;
+	}
+	/**
+	 * Gets the impedance values calculated so far.
+	 *
+	 * @return a copy of the impedance of each point, NaN where it is not defined
+	 */
+	public double[] getZ() {
+		final double[] out = new double[count];
+		System.arraycopy(zs, 0, out, 0, count);
+		return out;
+	}
+	/**
+	 * Checks to see if the sweep was cancelled.
+	 *
+	 * @return true if cancel() was called
+	 */
+	public boolean isCancelled() {
+		return cancelled;
+	}
+	/**
+	 * Sends the points calculated since the last call to the listener.
+	 *
+	 * @param listener the listener to notify
+	 * @param start the index of the first new point
+	 */
+	private void publish(final SweepListener listener, final int start) {
+		final int n = count - start;
+		final double[] x = new double[n], z = new double[n];
+		System.arraycopy(xs, start, x, 0, n);
+		System.arraycopy(zs, start, z, 0, n);
+		listener.pointsAdded(x, z, n);
+	}
+	/**
+	 * Recursively bisects an interval until the curve is straight enough, and adds the points
+	 * inside it and at its right end to the curve in order.
+	 *
+	 * @param u0 the log of x at the left end
+	 * @param z0 the impedance at the left end
+	 * @param u1 the log of x at the right end
+	 * @param z1 the impedance at the right end
+	 * @param depth the number of bisections so far
+	 */
+	private void refine(final double u0, final double z0, final double u1, final double z1,
+						final int depth) {
+		if (depth < MAX_DEPTH && !cancelled) {
+			final double um = 0.5 * (u0 + u1), zm = eval(um);
+			final boolean nan0 = Double.isNaN(z0), nan1 = Double.isNaN(z1);
+			final boolean split;
+			if (nan0 && nan1)
+				// Nothing to draw
+				split = false;
+			else if (nan0 || nan1 || Double.isNaN(zm))
+				// Find where the curve starts or ends
+				split = true;
+			else
+				split = Math.abs(zm - 0.5 * (z0 + z1)) > tolerance * Math.max(z0, z1);
+			if (split) {
+				refine(u0, z0, um, zm, depth + 1);
+				refine(um, zm, u1, z1, depth + 1);
+			} else {
+				add(um, zm);
+				add(u1, z1);
+			}
+		} else
+			add(u1, z1);
+	}
+	/**
+	 * Runs the sweep on the current thread, which should not be the UI thread.
+	 *
+	 * @param listener the listener to notify as points are calculated, or null if only the
+	 * final result is needed
+	 */
+	public void run(final SweepListener listener) {
+		final double step = (logMax - logMin) / COARSE_INTERVALS;
+		final double desired = equation.getDesired();
+		final double[] coarse = new double[COARSE_INTERVALS + 1];
+		// The coarse grid is evaluated in one batch, only refinement needs single points
+		for (int i = 0; i < COARSE_INTERVALS; i++)
+			coarse[i] = Math.exp(logMin + step * i);
+		coarse[COARSE_INTERVALS] = Math.exp(logMax);
+		equation.evalMany(coarse, coarse, 0, COARSE_INTERVALS + 1);
+		double u0 = logMin, z0 = filter(coarse[0] + desired);
+		count = 0;
+		add(u0, z0);
+		for (int i = 1; i <= COARSE_INTERVALS && !cancelled; i++) {
+			final int start = count;
+			final double u1 = (i == COARSE_INTERVALS) ? logMax : logMin + step * i;
+			final double z1 = filter(coarse[i] + desired);
+			refine(u0, z0, u1, z1, 0);
+			if (listener != null && !cancelled)
+				publish(listener, (i == 1) ? 0 : start);
+			u0 = u1;
+			z0 = z1;
+		}
+		if (listener != null && !cancelled)
+			listener.sweepDone(this);
+	}
+	@Override
+	public String toString() {
+		return "TraceSweep[" + equation + ", " + count + " points]";
+	}
+}
@@ -78,6 +78,14 @@ public interface Units {
 	 */
 	double TOL_P1 = 0.001;
 
+	/**
+	 * The speed of light in vacuum in m/s
+	 */
+	double C_0 = 299792458.0;
+	/**
+	 * The permeability of free space in H/m
+	 */
+	double MU_0 = 4E-7 * Math.PI;
 	/**
 	 * 1 / pi
 	 */